@@ -0,0 +1,231 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * AccumulatorBenchmark.java
+ *
+ */
+
+package txthistogram.bench;
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A benchmark of counting many tiny files into one shared histogram.
+ *
+ * Every thread tokenizes its part of a set of generated files under 1 KB
+ * and adds the word counts to a shared sink. The sink is either a
+ * ConcurrentHistogramAccumulator or the synchronized HashMap the program
+ * could have used instead. The files are held in memory so the benchmark
+ * measures counting and aggregation, not the disk.
+ *
+ * Usage: java -cp bench/target/benchmarks.jar
+ *        txthistogram.bench.AccumulatorBenchmark [files] [rounds]
+ *
+ */
+public class AccumulatorBenchmark {
+
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The largest generated file, in bytes
+	 */
+	private final static int MAX_FILE_SIZE = 1023;
+
+	/**
+	 * The seed of the generated files, so every run counts the same data
+	 */
+	private final static long SEED = 42;
+
+//*********************************************************____________________
+//*****************STATIC METHODS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Run the benchmark with 1, 2, 4, ... threads up to the number of
+	 * available processors and print the files counted per second.
+	 *
+	 * @param args The number of files and the number of timed rounds
+	 * @throws InterruptedException If the benchmark is interrupted
+	 */
+	public static void main(String[] args) throws InterruptedException{
+		int files = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		byte[][] corpus = generate(files);
+
+		int cores = Runtime.getRuntime().availableProcessors();
+		System.out.println(files + " files under " + (MAX_FILE_SIZE + 1)
+				+ " bytes, " + cores + " processors");
+		System.out.println("threads  accumulator files/s"
+				+ "  synchronized map files/s");
+		//Double the threads each step, ending on the number of processors
+		for(int threads = 1; threads <= cores; threads = threads == cores ?
+				cores + 1 : Math.min(cores, threads * 2)){
+			double accumulator = 0;
+			double map = 0;
+			//The first round of each only warms up the JIT
+			for(int round = 0; round <= rounds; round++){
+				double a = run(corpus, threads, true);
+				double m = run(corpus, threads, false);
+				if(round > 0){
+					accumulator = Math.max(accumulator, a);
+					map = Math.max(map, m);
+				}
+			}
+			System.out.println(String.format("%7d  %21.0f  %24.0f",
+					threads, accumulator, map));
+		}
+	}
+
+	/**
+	 * Generate files of random words, each under 1 KB.
+	 *
+	 * @param files The number of files
+	 * @return The contents of the files
+	 */
+	private static byte[][] generate(int files){
+		Random random = new Random(SEED);
+		byte[][] corpus = new byte[files][];
+		StringBuilder text = new StringBuilder();
+		for(int i = 0; i < files; i++){
+			text.setLength(0);
+			int size = random.nextInt(MAX_FILE_SIZE);
+			while(text.length() < size){
+				int length = 1 + random.nextInt(10);
+				for(int c = 0; c < length; c++){
+					text.append((char) ('a' + random.nextInt(26)));
+				}
+				text.append(random.nextInt(8) == 0 ? '\n' : ' ');
+			}
+			text.setLength(size);
+			corpus[i] = text.toString().getBytes(StandardCharsets.UTF_8);
+		}
+		return corpus;
+	}
+
+	/**
+	 * Count every file once on a number of threads.
+	 *
+	 * @param corpus The contents of the files
+	 * @param threads The number of counting threads
+	 * @param accumulator True to add to a ConcurrentHistogramAccumulator,
+	 * false to add to a synchronized HashMap
+	 * @return The number of files counted per second
+	 * @throws InterruptedException If the benchmark is interrupted
+	 */
+	private static double run(final byte[][] corpus, int threads,
+			boolean accumulator) throws InterruptedException{
+		final Sink sink = accumulator ? new AccumulatorSink() : new MapSink();
+		final CountDownLatch start = new CountDownLatch(1);
+		ArrayList<Thread> workers = new ArrayList<Thread>();
+		for(int t = 0; t < threads; t++){
+			final int first = (int) ((long) corpus.length * t / threads);
+			final int last = (int) ((long) corpus.length * (t + 1) / threads);
+			Thread worker = new Thread(new Runnable(){
+				@Override
+				public void run(){
+					Object counter = Stages.newWordCounter();
+					try{
+						start.await();
+					}catch(InterruptedException e){
+						return;
+					}
+					for(int i = first; i < last; i++){
+						sink.add(Stages.countWords(counter, corpus[i]));
+					}
+				}
+			});
+			worker.start();
+			workers.add(worker);
+		}
+		long begin = System.nanoTime();
+		start.countDown();
+		for(Thread worker : workers){
+			worker.join();
+		}
+		long elapsed = System.nanoTime() - begin;
+		if(accumulator){
+			//Include the final merge in the measured time
+			((AccumulatorSink) sink).snapshot();
+			elapsed = System.nanoTime() - begin;
+		}
+		return corpus.length * 1e9 / elapsed;
+	}
+
+//*********************************************************____________________
+//*******************INNER CLASSES*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * A receiver of the word counts shared by the counting threads.
+	 */
+	private interface Sink {
+
+		/**
+		 * Add the word count of one file.
+		 *
+		 * @param wordCount The word count
+		 */
+		void add(int wordCount);
+
+	}
+
+	/**
+	 * A sink that adds to a ConcurrentHistogramAccumulator.
+	 */
+	private static class AccumulatorSink implements Sink {
+
+		/**
+		 * The accumulator, a ConcurrentHistogramAccumulator
+		 */
+		private final Object mAccumulator = Stages.newAccumulator();
+
+		@Override
+		public void add(int wordCount){
+			Stages.addWordCount(mAccumulator, wordCount);
+		}
+
+		/**
+		 * Merge the shards of the accumulator into a histogram.
+		 */
+		void snapshot(){
+			Stages.snapshot(mAccumulator);
+		}
+
+	}
+
+	/**
+	 * A sink that adds to a HashMap under one lock, the baseline.
+	 */
+	private static class MapSink implements Sink {
+
+		/**
+		 * The frequency of every word count
+		 */
+		private final HashMap<Integer, Integer> mCounts =
+				new HashMap<Integer, Integer>();
+
+		@Override
+		public synchronized void add(int wordCount){
+			Integer frequency = mCounts.get(wordCount);
+			mCounts.put(wordCount, frequency == null ? 1 : frequency + 1);
+		}
+
+	}
+
+}
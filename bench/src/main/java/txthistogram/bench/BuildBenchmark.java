@@ -0,0 +1,84 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * BuildBenchmark.java
+ *
+ */
+
+package txthistogram.bench;
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A benchmark of a whole scan with HistogramDataBuilder.build, from walking
+ * the directory to the finished histogram data.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BuildBenchmark {
+
+	/**
+	 * The profile of the generated corpus
+	 */
+	@Param({"tiny", "huge", "nested", "mixed"})
+	public String profile;
+
+	/**
+	 * The number of counting threads
+	 */
+	@Param({"1", "4"})
+	public int threads;
+
+	private File mDirectory;
+	private String mCorpus;
+
+	@Setup
+	public void setup() throws IOException{
+		mDirectory = Files.createTempDirectory("txthistogram-bench").toFile();
+		mCorpus = CorpusGenerator.generate(mDirectory, profile,
+				CorpusGenerator.DEFAULT_SEED, 1).getPath();
+	}
+
+	@TearDown
+	public void tearDown(){
+		CorpusGenerator.delete(mDirectory);
+	}
+
+	@Benchmark
+	public Map<Integer, Integer> build(){
+		return Stages.build(mCorpus, threads, 1);
+	}
+
+}
@@ -0,0 +1,389 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * CorpusGenerator.java
+ *
+ */
+
+package txthistogram.bench;
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A generator of reproducible test corpora.
+ *
+ * The same profile, seed and scale always produce the same files, byte for
+ * byte, including the zip archives and the modification times, so results
+ * can be compared between machines without sharing the corpus.
+ *
+ * The profiles are:
+ *   tiny    many files under 1 KB spread over a tree of directories
+ *   huge    a few files of many megabytes
+ *   nested  zip archives nested inside each other, and one with many entries
+ *   mixed   text in UTF-8, UTF-8 with a BOM, UTF-16, ISO-8859-1 and
+ *           windows-1252, with CRLF line endings and tabs
+ *   all     every profile above, each in its own directory
+ *
+ * Usage: java -cp benchmarks.jar txthistogram.bench.CorpusGenerator
+ *        directory [profile] [seed] [scale]
+ *
+ */
+public final class CorpusGenerator {
+
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The seed used when none is given
+	 */
+	public final static long DEFAULT_SEED = 20170204L;
+
+	/**
+	 * The modification time of every generated file and zip entry
+	 */
+	private final static long FIXED_TIME = 1486166400000L;
+
+	/**
+	 * Words that aren't ASCII, for the mixed encoding profile
+	 */
+	private final static String[] UNICODE_WORDS = {
+		"café", "naïve", "Straße", "façade", "über", "mañana", "smörgåsbord",
+		"привет", "мир", "λόγος", "日本語", "中文", "한국어", "שלום",
+	};
+
+	/**
+	 * Words that windows-1252 and ISO-8859-1 can both encode
+	 */
+	private final static String[] LATIN1_WORDS = {
+		"café", "naïve", "Straße", "façade", "über", "mañana", "smörgåsbord",
+		"crème", "brûlée", "déjà",
+	};
+
+	/**
+	 * Words with windows-1252 punctuation that ISO-8859-1 can't encode
+	 */
+	private final static String[] CP1252_WORDS = {
+		"“quoted”", "it’s", "‘single’", "em—dash",
+		"€100",
+	};
+
+//*********************************************************____________________
+//*****************STATIC METHODS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Generate a corpus from the command line.
+	 *
+	 * @param args The directory, then optionally the profile, seed and scale
+	 * @throws IOException If the corpus could not be written
+	 */
+	public static void main(String[] args) throws IOException{
+		if(args.length == 0){
+			System.out.println("Usage: CorpusGenerator directory"
+					+ " [tiny|huge|nested|mixed|all] [seed] [scale]");
+			return;
+		}
+		String profile = args.length > 1 ? args[1] : "all";
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_SEED;
+		int scale = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+		File dir = generate(new File(args[0]), profile, seed, scale);
+		System.out.println("Generated " + profile + " corpus in " + dir);
+	}
+
+	/**
+	 * Generate a corpus.
+	 *
+	 * @param root The directory to generate the corpus in
+	 * @param profile The profile of the corpus
+	 * @param seed The seed of the random contents
+	 * @param scale A multiplier of the number and size of the files, 1 or
+	 * more
+	 * @return The directory of the corpus, root/profile
+	 * @throws IOException If the corpus could not be written
+	 */
+	public static File generate(File root, String profile, long seed,
+			int scale) throws IOException{
+		if(scale < 1) throw new IllegalArgumentException("Bad scale: " + scale);
+		File dir = new File(root, profile);
+		if(profile.equals("all")){
+			for(String p : new String[]{"tiny", "huge", "nested", "mixed"}){
+				generate(dir, p, seed, scale);
+			}
+		}else if(profile.equals("tiny")){
+			tiny(dir, new Random(seed), scale);
+		}else if(profile.equals("huge")){
+			huge(dir, new Random(seed + 1), scale);
+		}else if(profile.equals("nested")){
+			nested(dir, new Random(seed + 2), scale);
+		}else if(profile.equals("mixed")){
+			mixed(dir, new Random(seed + 3), scale);
+		}else{
+			throw new IllegalArgumentException("Unknown profile: " + profile);
+		}
+		setTimes(dir);
+		return dir;
+	}
+
+	/**
+	 * Delete a generated corpus.
+	 *
+	 * @param file The file or directory to delete with everything in it
+	 */
+	public static void delete(File file){
+		File[] children = file.listFiles();
+		if(children != null){
+			for(File child : children) delete(child);
+		}
+		file.delete();
+	}
+
+	/**
+	 * Generate random text of ASCII words separated by spaces and newlines.
+	 *
+	 * Word lengths are skewed toward short words, like English text.
+	 *
+	 * @param random The source of randomness
+	 * @param size The number of characters to generate
+	 * @return The text
+	 */
+	public static String text(Random random, int size){
+		StringBuilder text = new StringBuilder(size + 16);
+		while(text.length() < size){
+			int length = 1 + (int)(-Math.log(1 - random.nextDouble()) * 4);
+			for(int i = 0; i < length && i < 20; i++){
+				text.append((char)('a' + random.nextInt(26)));
+			}
+			text.append(random.nextInt(12) == 0 ? '\n' : ' ');
+		}
+		text.setLength(size);
+		return text.toString();
+	}
+
+	/**
+	 * Generate many files under 1 KB in a tree of directories.
+	 *
+	 * @param dir The directory to generate in
+	 * @param random The source of randomness
+	 * @param scale The multiplier of the number of files
+	 * @throws IOException If a file could not be written
+	 */
+	private static void tiny(File dir, Random random, int scale)
+			throws IOException{
+		int files = 10000 * scale;
+		for(int i = 0; i < files; i++){
+			//Three levels of up to 16 directories each
+			File parent = new File(dir, "d" + (i % 16) + "/d" + (i / 16 % 16)
+					+ "/d" + (i / 256 % 16));
+			write(new File(parent, "f" + i + ".txt"),
+					text(random, random.nextInt(1024))
+					.getBytes(StandardCharsets.US_ASCII));
+		}
+	}
+
+	/**
+	 * Generate a few large files.
+	 *
+	 * @param dir The directory to generate in
+	 * @param random The source of randomness
+	 * @param scale The multiplier of the file sizes
+	 * @throws IOException If a file could not be written
+	 */
+	private static void huge(File dir, Random random, int scale)
+			throws IOException{
+		dir.mkdirs();
+		for(int i = 0; i < 3; i++){
+			//Write in pieces so a large scale doesn't need the memory
+			OutputStream out = new BufferedOutputStream(new FileOutputStream(
+					new File(dir, "huge" + i + ".txt")));
+			try{
+				long size = (16L << 20) * scale;
+				for(long written = 0; written < size; written += 1 << 20){
+					out.write(text(random, 1 << 20)
+							.getBytes(StandardCharsets.US_ASCII));
+				}
+			}finally{
+				out.close();
+			}
+		}
+	}
+
+	/**
+	 * Generate zip archives nested inside each other.
+	 *
+	 * deep.zip nests 8 archives, each with a few text files, and wide.zip
+	 * holds many small text files and a few nested archives.
+	 *
+	 * @param dir The directory to generate in
+	 * @param random The source of randomness
+	 * @param scale The multiplier of the number of entries
+	 * @throws IOException If an archive could not be written
+	 */
+	private static void nested(File dir, Random random, int scale)
+			throws IOException{
+		//Build the deep archive from the innermost out
+		byte[] inner = null;
+		for(int level = 8; level > 0; level--){
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			ZipOutputStream zip = new ZipOutputStream(bytes);
+			for(int i = 0; i < 4 * scale; i++){
+				entry(zip, "level" + level + "/f" + i + ".txt",
+						text(random, 512 + random.nextInt(8192))
+						.getBytes(StandardCharsets.US_ASCII));
+			}
+			if(inner != null) entry(zip, "level" + (level + 1) + ".zip", inner);
+			zip.close();
+			inner = bytes.toByteArray();
+		}
+		write(new File(dir, "deep.zip"), inner);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ZipOutputStream zip = new ZipOutputStream(bytes);
+		for(int i = 0; i < 2000 * scale; i++){
+			entry(zip, "f" + i + ".txt", text(random, random.nextInt(2048))
+					.getBytes(StandardCharsets.US_ASCII));
+		}
+		for(int i = 0; i < 4; i++){
+			entry(zip, "inner" + i + ".zip", inner);
+		}
+		zip.close();
+		write(new File(dir, "wide.zip"), bytes.toByteArray());
+	}
+
+	/**
+	 * Generate text files in several encodings.
+	 *
+	 * @param dir The directory to generate in
+	 * @param random The source of randomness
+	 * @param scale The multiplier of the number of files
+	 * @throws IOException If a file could not be written
+	 */
+	private static void mixed(File dir, Random random, int scale)
+			throws IOException{
+		byte[] utf8Bom = {(byte)0xEF, (byte)0xBB, (byte)0xBF};
+		for(int i = 0; i < 50 * scale; i++){
+			int size = 256 + random.nextInt(16384);
+			String unicode = mix(random, size, UNICODE_WORDS);
+			String latin1 = mix(random, size, LATIN1_WORDS);
+			String cp1252 = mix(random, size, CP1252_WORDS);
+			write(new File(dir, "utf8/f" + i + ".txt"),
+					unicode.getBytes(StandardCharsets.UTF_8));
+			write(new File(dir, "utf8-bom/f" + i + ".txt"),
+					concat(utf8Bom, unicode.getBytes(StandardCharsets.UTF_8)));
+			//Java writes a big endian byte order mark with UTF-16
+			write(new File(dir, "utf16/f" + i + ".txt"),
+					unicode.getBytes(StandardCharsets.UTF_16));
+			write(new File(dir, "latin1/f" + i + ".txt"),
+					latin1.getBytes(StandardCharsets.ISO_8859_1));
+			write(new File(dir, "cp1252/f" + i + ".txt"),
+					cp1252.getBytes(Charset.forName("windows-1252")));
+			write(new File(dir, "crlf/f" + i + ".txt"), latin1
+					.replace("\n", "\r\n").replace(' ', i % 2 == 0 ? ' ' : '\t')
+					.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	/**
+	 * Generate ASCII text with some words from a list mixed in.
+	 *
+	 * @param random The source of randomness
+	 * @param size The number of characters of ASCII text
+	 * @param words The words to mix in
+	 * @return The text
+	 */
+	private static String mix(Random random, int size, String[] words){
+		String ascii = text(random, size);
+		StringBuilder text = new StringBuilder(size * 2);
+		for(String line : ascii.split("\n", -1)){
+			if(text.length() > 0) text.append('\n');
+			text.append(line);
+			text.append(' ').append(words[random.nextInt(words.length)]);
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Add an entry to a zip archive.
+	 *
+	 * @param zip The archive
+	 * @param name The name of the entry
+	 * @param contents The contents of the entry
+	 * @throws IOException If the entry could not be written
+	 */
+	private static void entry(ZipOutputStream zip, String name,
+			byte[] contents) throws IOException{
+		ZipEntry entry = new ZipEntry(name);
+		entry.setTime(FIXED_TIME);
+		zip.putNextEntry(entry);
+		zip.write(contents);
+		zip.closeEntry();
+	}
+
+	/**
+	 * Write a file, creating its directory if needed.
+	 *
+	 * @param file The file to write
+	 * @param contents The contents of the file
+	 * @throws IOException If the file could not be written
+	 */
+	private static void write(File file, byte[] contents) throws IOException{
+		file.getParentFile().mkdirs();
+		OutputStream out = new FileOutputStream(file);
+		try{
+			out.write(contents);
+		}finally{
+			out.close();
+		}
+	}
+
+	/**
+	 * Join two byte arrays.
+	 *
+	 * @param a The first array
+	 * @param b The second array
+	 * @return The bytes of a followed by the bytes of b
+	 */
+	private static byte[] concat(byte[] a, byte[] b){
+		byte[] joined = new byte[a.length + b.length];
+		System.arraycopy(a, 0, joined, 0, a.length);
+		System.arraycopy(b, 0, joined, a.length, b.length);
+		return joined;
+	}
+
+	/**
+	 * Set the modification time of every file under a directory.
+	 *
+	 * @param file The file or directory
+	 */
+	private static void setTimes(File file){
+		File[] children = file.listFiles();
+		if(children != null){
+			for(File child : children) setTimes(child);
+		}
+		file.setLastModified(FIXED_TIME);
+	}
+
+	private CorpusGenerator(){
+	}
+
+}
@@ -0,0 +1,72 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * FindFilesBenchmark.java
+ *
+ */
+
+package txthistogram.bench;
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A benchmark of listing a tree of many tiny files with
+ * RecursiveFileReader.findAllFilesRecursive.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FindFilesBenchmark {
+
+	private File mDirectory;
+	private File mCorpus;
+
+	@Setup
+	public void setup() throws IOException{
+		mDirectory = Files.createTempDirectory("txthistogram-bench").toFile();
+		mCorpus = CorpusGenerator.generate(mDirectory, "tiny",
+				CorpusGenerator.DEFAULT_SEED, 1);
+	}
+
+	@TearDown
+	public void tearDown(){
+		CorpusGenerator.delete(mDirectory);
+	}
+
+	@Benchmark
+	public List<String> findAllFilesRecursive(){
+		return Stages.findAllFilesRecursive(mCorpus, Stages.TXT_EXTENSION,
+				Stages.ZIP_EXTENSION);
+	}
+
+}
@@ -0,0 +1,90 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * PngBenchmark.java
+ *
+ */
+
+package txthistogram.bench;
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A benchmark of rendering and encoding a chart with
+ * PNGHistogramBuilder.build.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PngBenchmark {
+
+	/**
+	 * The number of buckets in the histogram
+	 */
+	@Param({"10", "1000", "100000"})
+	public int buckets;
+
+	/**
+	 * The width and height of the chart in pixels
+	 */
+	@Param({"500", "2000"})
+	public int size;
+
+	private File mDirectory;
+	private String mFile;
+	private HashMap<Integer, Integer> mHistogram;
+
+	@Setup
+	public void setup() throws IOException{
+		mDirectory = Files.createTempDirectory("txthistogram-bench").toFile();
+		mFile = new File(mDirectory, "output.png").getPath();
+		Random random = new Random(CorpusGenerator.DEFAULT_SEED);
+		mHistogram = new HashMap<Integer, Integer>();
+		for(int i = 0; i < buckets; i++){
+			mHistogram.put(i, 1 + random.nextInt(1000));
+		}
+	}
+
+	@TearDown
+	public void tearDown(){
+		CorpusGenerator.delete(mDirectory);
+	}
+
+	@Benchmark
+	public boolean build(){
+		return Stages.buildPng(mFile, size, size, mHistogram, 1);
+	}
+
+}
@@ -0,0 +1,111 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * ReadFileBenchmark.java
+ *
+ */
+
+package txthistogram.bench;
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * Benchmarks of reading one file, with FileUtil.readFile into a String,
+ * with the streaming counter over a FileInputStream and with the adaptive
+ * reader the scan uses, which picks one read call, a direct buffer or a
+ * mapping by the size of the file.
+ *
+ * The file stays in the page cache between invocations, so this measures
+ * decoding and copying rather than the disk.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ReadFileBenchmark {
+
+	/**
+	 * The size of the file in bytes
+	 */
+	@Param({"1024", "1048576", "16777216"})
+	public int size;
+
+	private File mDirectory;
+	private String mFile;
+
+	@Setup
+	public void setup() throws IOException{
+		mDirectory = Files.createTempDirectory("txthistogram-bench").toFile();
+		File file = new File(mDirectory, "file.txt");
+		OutputStream out = new FileOutputStream(file);
+		try{
+			out.write(CorpusGenerator.text(
+					new Random(CorpusGenerator.DEFAULT_SEED), size)
+					.getBytes(StandardCharsets.US_ASCII));
+		}finally{
+			out.close();
+		}
+		mFile = file.getPath();
+	}
+
+	@TearDown
+	public void tearDown(){
+		CorpusGenerator.delete(mDirectory);
+	}
+
+	@Benchmark
+	public String readFile(){
+		return Stages.readFile(mFile);
+	}
+
+	@Benchmark
+	public int countWordsInFile() throws IOException{
+		InputStream in = new FileInputStream(mFile);
+		try{
+			return Stages.countWordsInStream(in);
+		}finally{
+			in.close();
+		}
+	}
+
+	@Benchmark
+	public int countWordsAdaptive(){
+		return Stages.countWordsInFile(mFile);
+	}
+
+}
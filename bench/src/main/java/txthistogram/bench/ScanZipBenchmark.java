@@ -0,0 +1,82 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * ScanZipBenchmark.java
+ *
+ */
+
+package txthistogram.bench;
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A benchmark of reading the text files of nested zip archives with
+ * RecursiveFileReader.scanZipRecursive.
+ *
+ * The archives are held in memory so this measures inflating and decoding.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ScanZipBenchmark {
+
+	/**
+	 * The archive of the nested profile, deep.zip nests 8 archives and
+	 * wide.zip has thousands of small entries
+	 */
+	@Param({"deep.zip", "wide.zip"})
+	public String archive;
+
+	private byte[] mBytes;
+
+	@Setup
+	public void setup() throws IOException{
+		File directory = Files.createTempDirectory("txthistogram-bench")
+				.toFile();
+		try{
+			File corpus = CorpusGenerator.generate(directory, "nested",
+					CorpusGenerator.DEFAULT_SEED, 1);
+			mBytes = Files.readAllBytes(new File(corpus, archive).toPath());
+		}finally{
+			CorpusGenerator.delete(directory);
+		}
+	}
+
+	@Benchmark
+	public List<String> scanZipRecursive(){
+		return Stages.scanZipRecursive(new ByteArrayInputStream(mBytes),
+				Stages.TXT_EXTENSION);
+	}
+
+}
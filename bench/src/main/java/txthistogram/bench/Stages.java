@@ -0,0 +1,525 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * Stages.java
+ *
+ */
+
+package txthistogram.bench;
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.io.File;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * Typed calls into the stages of the program being benchmarked.
+ *
+ * The program's classes are in the default package, which code in a named
+ * package can't name, and JMH only generates benchmarks for classes in a
+ * named package. The stages are looked up once as method handles, so a call
+ * costs about the same as calling the method directly.
+ *
+ */
+public final class Stages {
+
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The extension of text files
+	 */
+	public final static String TXT_EXTENSION = ".txt";
+
+	/**
+	 * The extension of zip archives
+	 */
+	public final static String ZIP_EXTENSION = ".zip";
+
+	private final static MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	private final static MethodHandle WORD_COUNT_STRING = method("WordCounter",
+			"wordCountString", String.class);
+	private final static MethodHandle COUNT_WORDS_IN_STREAM = method("FileUtil",
+			"countWordsInStream", InputStream.class);
+	private final static MethodHandle COUNT_WORDS_IN_FILE = method("FileUtil",
+			"countWordsInFile", String.class);
+	private final static MethodHandle READ_FILE = method("FileUtil",
+			"readFile", String.class);
+	private final static MethodHandle FIND_ALL_FILES = method(
+			"RecursiveFileReader", "findAllFilesRecursive", File.class,
+			String[].class);
+	private final static MethodHandle SCAN_ZIP = method("RecursiveFileReader",
+			"scanZipRecursive", InputStream.class, String.class);
+	private final static MethodHandle NEW_OPTIONS = constructor("ScanOptions");
+	private final static MethodHandle SET_THREADS = method("ScanOptions",
+			"setThreads", int.class);
+	private final static MethodHandle NEW_BUILDER = constructor(
+			"HistogramDataBuilder", String.class, type("ScanOptions"));
+	private final static MethodHandle BUILD = method("HistogramDataBuilder",
+			"build", int.class);
+	private final static MethodHandle NEW_PNG_BUILDER = constructor(
+			"PNGHistogramBuilder");
+	private final static MethodHandle BUILD_PNG = method("VisualHistogramBuilder",
+			"build", String.class, int.class, int.class, HashMap.class,
+			int.class);
+	private final static MethodHandle NEW_WORD_COUNTER = constructor(
+			"StreamingWordCounter");
+	private final static MethodHandle NEW_CHARSET_COUNTER =
+			declaredConstructor("StreamingWordCounter", Charset.class,
+					boolean.class);
+	private final static MethodHandle UPDATE = method("StreamingWordCounter",
+			"update", byte[].class, int.class, int.class);
+	private final static MethodHandle FINISH = method("StreamingWordCounter",
+			"finish");
+	private final static MethodHandle RESET = method("StreamingWordCounter",
+			"reset");
+	private final static MethodHandle NEW_ACCUMULATOR = constructor(
+			"ConcurrentHistogramAccumulator");
+	private final static MethodHandle ADD = method("WordCountSink", "add",
+			int.class);
+	private final static MethodHandle SNAPSHOT = method(
+			"ConcurrentHistogramAccumulator", "snapshot");
+	private final static MethodHandle OPEN_HISTOGRAM = method(
+			"HistogramFile", "open", File.class);
+	private final static MethodHandle NEW_COMPARISON = constructor(
+			"HistogramComparison", type("HistogramFile$View"),
+			type("HistogramFile$View"), int.class);
+	private final static MethodHandle GET_KS = method("HistogramComparison",
+			"getKs");
+	private final static MethodHandle GET_EMD = method("HistogramComparison",
+			"getEmd");
+	private final static MethodHandle SUMMARY = method("HistogramComparison",
+			"summary");
+
+//*********************************************************____________________
+//******************CONSTRUCTORS***************************____________________
+//*********************************************************____________________
+
+	private Stages(){
+	}
+
+//*********************************************************____________________
+//*****************STATIC METHODS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * WordCounter.wordCountString, counting the words of a String.
+	 *
+	 * @param text The text
+	 * @return The word count
+	 */
+	public static int wordCountString(String text){
+		try{
+			return (int)WORD_COUNT_STRING.invoke(text);
+		}catch(Throwable t){
+			throw rethrow(t);
+		}
+	}
+
+	/**
+	 * FileUtil.countWordsInStream, counting the words of UTF-8 bytes with
+	 * the streaming counter.
+	 *
+	 * @param in The stream to count
+	 * @return The word count
+	 */
+	public static int countWordsInStream(InputStream in){
+		try{
+			return (int)COUNT_WORDS_IN_STREAM.invoke(in);
+		}catch(Throwable t){
+			throw rethrow(t);
+		}
+	}
+
+	/**
+	 * FileUtil.countWordsInFile, counting the words of a file read the way
+	 * the AdaptiveFileReader picks for its size.
+	 *
+	 * @param file The file to count
+	 * @return The word count
+	 */
+	public static int countWordsInFile(String file){
+		try{
+			return (int)COUNT_WORDS_IN_FILE.invoke(file);
+		}catch(Throwable t){
+			throw rethrow(t);
+		}
+	}
+
+	/**
+	 * FileUtil.readFile, reading a file into a String.
+	 *
+	 * @param file The file to read
+	 * @return The contents of the file
+	 */
+	public static String readFile(String file){
+		try{
+			return (String)READ_FILE.invoke(file);
+		}catch(Throwable t){
+			throw rethrow(t);
+		}
+	}
+
+	/**
+	 * RecursiveFileReader.findAllFilesRecursive, listing the matching files
+	 * of a tree.
+	 *
+	 * @param root The root directory
+	 * @param extensions The file extensions to match
+	 * @return The absolute paths of the matching files
+	 */
+	@SuppressWarnings("unchecked")
+	public static ArrayList<String> findAllFilesRecursive(File root,
+			String... extensions){
+		try{
+			return (ArrayList<String>)FIND_ALL_FILES.invoke(root, extensions);
+		}catch(Throwable t){
+			throw rethrow(t);
+		}
+	}
+
+	/**
+	 * RecursiveFileReader.scanZipRecursive, reading the text files of a zip
+	 * archive and the archives nested in it.
+	 *
+	 * @param in The zip archive
+	 * @param extension The extension of the files to read
+	 * @return The contents of the files
+	 */
+	@SuppressWarnings("unchecked")
+	public static ArrayList<String> scanZipRecursive(InputStream in,
+			String extension){
+		try{
+			return (ArrayList<String>)SCAN_ZIP.invoke(in, extension);
+		}catch(Throwable t){
+			throw rethrow(t);
+		}
+	}
+
+	/**
+	 * HistogramDataBuilder.build, scanning a directory into histogram data.
+	 *
+	 * @param path The directory to scan
+	 * @param threads The number of counting threads
+	 * @param interval The interval of the histogram
+	 * @return The histogram data
+	 */
+	@SuppressWarnings("unchecked")
+	public static HashMap<Integer, Integer> build(String path, int threads,
+			int interval){
+		try{
+			Object options = NEW_OPTIONS.invoke();
+			SET_THREADS.invoke(options, threads);
+			Object builder = NEW_BUILDER.invoke(path, options);
+			return (HashMap<Integer, Integer>)BUILD.invoke(builder, interval);
+		}catch(Throwable t){
+			throw rethrow(t);
+		}
+	}
+
+	/**
+	 * PNGHistogramBuilder.build, rendering histogram data to a PNG.
+	 *
+	 * @param file The PNG file to write
+	 * @param width The width in pixels
+	 * @param height The height in pixels
+	 * @param histogram The histogram data
+	 * @param interval The interval of the histogram data
+	 * @return True if the PNG was written
+	 */
+	public static boolean buildPng(String file, int width, int height,
+			HashMap<Integer, Integer> histogram, int interval){
+		try{
+			Object builder = NEW_PNG_BUILDER.invoke();
+			return (boolean)BUILD_PNG.invoke(builder, file, width, height,
+					histogram, interval);
+		}catch(Throwable t){
+			throw rethrow(t);
+		}
+	}
+
+	/**
+	 * new StreamingWordCounter(), a UTF-8 word counter to reuse.
+	 *
+	 * @return The counter
+	 */
+	public static Object newWordCounter(){
+		try{
+			return NEW_WORD_COUNTER.invoke();
+		}catch(Throwable t){
+			throw rethrow(t);
+		}
+	}
+
+	/**
+	 * new StreamingWordCounter(charset, swar), a word counter of bytes in
+	 * an encoding with the tokenizer picked by the caller.
+	 *
+	 * @param charset The encoding of the bytes
+	 * @param swar Whether to count runs of ASCII eight bytes at a time
+	 * @return The counter
+	 */
+	public static Object newWordCounter(Charset charset, boolean swar){
+		try{
+			return NEW_CHARSET_COUNTER.invoke(charset, swar);
+		}catch(Throwable t){
+			throw rethrow(t);
+		}
+	}
+
+	/**
+	 * StreamingWordCounter.update, counting the words of a chunk of bytes
+	 * carrying on from the chunks before it.
+	 *
+	 * @param counter A counter from newWordCounter
+	 * @param bytes The array holding the chunk
+	 * @param offset The index of the first byte of the chunk
+	 * @param length The number of bytes in the chunk
+	 */
+	public static void update(Object counter, byte[] bytes, int offset,
+			int length){
+		try{
+			UPDATE.invoke(counter, bytes, offset, length);
+		}catch(Throwable t){
+			throw rethrow(t);
+		}
+	}
+
+	/**
+	 * StreamingWordCounter.finish, ending the bytes of a counter.
+	 *
+	 * @param counter A counter from newWordCounter
+	 * @return The word count of all the chunks
+	 */
+	public static int finish(Object counter){
+		try{
+			return (int)FINISH.invoke(counter);
+		}catch(Throwable t){
+			throw rethrow(t);
+		}
+	}
+
+	/**
+	 * StreamingWordCounter.update, finish and reset, counting the words of
+	 * bytes and leaving the counter ready for the next bytes.
+	 *
+	 * @param counter A counter from newWordCounter()
+	 * @param bytes The bytes to count
+	 * @return The word count
+	 */
+	public static int countWords(Object counter, byte[] bytes){
+		try{
+			UPDATE.invoke(counter, bytes, 0, bytes.length);
+			int count = (int)FINISH.invoke(counter);
+			RESET.invoke(counter);
+			return count;
+		}catch(Throwable t){
+			throw rethrow(t);
+		}
+	}
+
+	/**
+	 * new ConcurrentHistogramAccumulator(), a histogram shared by threads.
+	 *
+	 * @return The accumulator
+	 */
+	public static Object newAccumulator(){
+		try{
+			return NEW_ACCUMULATOR.invoke();
+		}catch(Throwable t){
+			throw rethrow(t);
+		}
+	}
+
+	/**
+	 * WordCountSink.add, adding the word count of one file to a sink.
+	 *
+	 * @param sink A WordCountSink, such as an accumulator
+	 * @param wordCount The word count
+	 */
+	public static void addWordCount(Object sink, int wordCount){
+		try{
+			ADD.invoke(sink, wordCount);
+		}catch(Throwable t){
+			throw rethrow(t);
+		}
+	}
+
+	/**
+	 * ConcurrentHistogramAccumulator.snapshot, merging the shards of an
+	 * accumulator into a histogram.
+	 *
+	 * @param accumulator An accumulator from newAccumulator()
+	 * @return The Histogram
+	 */
+	public static Object snapshot(Object accumulator){
+		try{
+			return SNAPSHOT.invoke(accumulator);
+		}catch(Throwable t){
+			throw rethrow(t);
+		}
+	}
+
+	/**
+	 * new HistogramComparison of two histogram files opened with
+	 * HistogramFile.open.
+	 *
+	 * @param before The file of the earlier run
+	 * @param after The file of the later run
+	 * @param interval The interval to compare at
+	 * @return The HistogramComparison
+	 */
+	public static Object compare(File before, File after, int interval){
+		try{
+			return NEW_COMPARISON.invoke(OPEN_HISTOGRAM.invoke(before),
+					OPEN_HISTOGRAM.invoke(after), interval);
+		}catch(Throwable t){
+			throw rethrow(t);
+		}
+	}
+
+	/**
+	 * HistogramComparison.getKs, the Kolmogorov-Smirnov statistic.
+	 *
+	 * @param comparison A comparison from compare
+	 * @return The statistic, from 0 to 1
+	 */
+	public static double getKs(Object comparison){
+		try{
+			return (double)GET_KS.invoke(comparison);
+		}catch(Throwable t){
+			throw rethrow(t);
+		}
+	}
+
+	/**
+	 * HistogramComparison.getEmd, the earth mover's distance.
+	 *
+	 * @param comparison A comparison from compare
+	 * @return The distance in words
+	 */
+	public static double getEmd(Object comparison){
+		try{
+			return (double)GET_EMD.invoke(comparison);
+		}catch(Throwable t){
+			throw rethrow(t);
+		}
+	}
+
+	/**
+	 * HistogramComparison.summary, a line for the files, the distances and
+	 * every percentile.
+	 *
+	 * @param comparison A comparison from compare
+	 * @return The summary
+	 */
+	public static String summary(Object comparison){
+		try{
+			return (String)SUMMARY.invoke(comparison);
+		}catch(Throwable t){
+			throw rethrow(t);
+		}
+	}
+
+	/**
+	 * Look up a class of the program.
+	 *
+	 * @param name The name of the class in the default package
+	 * @return The class
+	 */
+	static Class<?> type(String name){
+		try{
+			return Class.forName(name);
+		}catch(ClassNotFoundException e){
+			throw new IllegalStateException("Missing program class " + name, e);
+		}
+	}
+
+	/**
+	 * Look up a method of the program, public or package private.
+	 *
+	 * @param owner The name of the class declaring the method
+	 * @param name The name of the method
+	 * @param parameters The parameter types of the method
+	 * @return A handle to the method
+	 */
+	static MethodHandle method(String owner, String name,
+			Class<?>... parameters){
+		try{
+			Method method = type(owner).getDeclaredMethod(name, parameters);
+			method.setAccessible(true);
+			return LOOKUP.unreflect(method);
+		}catch(ReflectiveOperationException e){
+			throw new IllegalStateException("Missing stage " + owner + "."
+					+ name, e);
+		}
+	}
+
+	/**
+	 * Look up a public constructor of the program.
+	 *
+	 * @param owner The name of the class
+	 * @param parameters The parameter types of the constructor
+	 * @return A handle to the constructor
+	 */
+	static MethodHandle constructor(String owner, Class<?>... parameters){
+		try{
+			return LOOKUP.findConstructor(type(owner),
+					MethodType.methodType(void.class, parameters));
+		}catch(ReflectiveOperationException e){
+			throw new IllegalStateException("Missing constructor of " + owner,
+					e);
+		}
+	}
+
+	/**
+	 * Look up a constructor of the program, public or package private.
+	 *
+	 * @param owner The name of the class
+	 * @param parameters The parameter types of the constructor
+	 * @return A handle to the constructor
+	 */
+	static MethodHandle declaredConstructor(String owner,
+			Class<?>... parameters){
+		try{
+			Constructor<?> constructor =
+					type(owner).getDeclaredConstructor(parameters);
+			constructor.setAccessible(true);
+			return LOOKUP.unreflectConstructor(constructor);
+		}catch(ReflectiveOperationException e){
+			throw new IllegalStateException("Missing constructor of " + owner,
+					e);
+		}
+	}
+
+	/**
+	 * Rethrow the failure of a stage.
+	 *
+	 * @param t The failure
+	 * @return Never returns, declared so callers can throw the result
+	 */
+	private static RuntimeException rethrow(Throwable t){
+		if(t instanceof RuntimeException) throw (RuntimeException)t;
+		if(t instanceof Error) throw (Error)t;
+		throw new IllegalStateException(t);
+	}
+
+}
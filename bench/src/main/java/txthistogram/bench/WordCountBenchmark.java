@@ -0,0 +1,91 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * WordCountBenchmark.java
+ *
+ */
+
+package txthistogram.bench;
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * Benchmarks of tokenizing text in memory, with the String based
+ * WordCounter.wordCountString and the byte based streaming counter.
+ *
+ * The streaming counter picks its tokenizer when it is loaded, so the
+ * scalar variant runs in a fork with -Dtxthistogram.tokenizer=scalar. The
+ * setup checks that both give the same count as wordCountString.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class WordCountBenchmark {
+
+	/**
+	 * The number of characters of text to count
+	 */
+	@Param({"64", "1024", "1048576"})
+	public int size;
+
+	private String mText;
+	private byte[] mBytes;
+
+	@Setup
+	public void setup(){
+		mText = CorpusGenerator.text(new Random(CorpusGenerator.DEFAULT_SEED),
+				size);
+		mBytes = mText.getBytes(StandardCharsets.UTF_8);
+		int expected = Stages.wordCountString(mText);
+		int counted = streamingCounter();
+		if(counted != expected)
+			throw new IllegalStateException("Streaming counter counted "
+					+ counted + " words, wordCountString " + expected);
+	}
+
+	@Benchmark
+	public int wordCountString(){
+		return Stages.wordCountString(mText);
+	}
+
+	@Benchmark
+	public int streamingCounter(){
+		return Stages.countWordsInStream(new ByteArrayInputStream(mBytes));
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = "-Dtxthistogram.tokenizer=scalar")
+	public int streamingCounterScalar(){
+		return streamingCounter();
+	}
+
+}
@@ -0,0 +1,157 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * HistogramComparisonTest.java
+ *
+ */
+
+package txthistogram.bench;
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * Tests of HistogramComparison on histogram files written in the format
+ * HistogramFile documents.
+ *
+ */
+public class HistogramComparisonTest {
+
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The first four bytes of a histogram file, "TXHP"
+	 */
+	private final static int MAGIC = 0x54584850;
+
+	/**
+	 * The version of the file format
+	 */
+	private final static int VERSION = 1;
+
+	/**
+	 * Word counts and their frequencies, saved with an interval of 1
+	 */
+	private final static int[] KEYS = {3, 7, 12, 36, 38};
+	private final static long[] FREQUENCIES = {2, 1, 4, 1, 2};
+
+	/**
+	 * The same files saved with an interval of 10
+	 */
+	private final static int[] KEYS_10 = {0, 10, 30};
+	private final static long[] FREQUENCIES_10 = {3, 4, 3};
+
+//*********************************************************____________________
+//******************CLASS FIELDS***************************____________________
+//*********************************************************____________________
+
+	@Rule
+	public TemporaryFolder mFolder = new TemporaryFolder();
+
+//*********************************************************____________________
+//*******************TESTS*********************************____________________
+//*********************************************************____________________
+
+	/**
+	 * A run saved at interval 1 and the same run saved at interval 10 are
+	 * compared at interval 10, so nothing changes.
+	 */
+	@Test
+	public void mixedIntervalsCompareAtTheInterval() throws IOException{
+		File fine = write("fine.hist", 1, KEYS, FREQUENCIES);
+		File coarse = write("coarse.hist", 10, KEYS_10, FREQUENCIES_10);
+		assertUnchanged(Stages.compare(fine, coarse, 10));
+		assertUnchanged(Stages.compare(coarse, fine, 10));
+	}
+
+	/**
+	 * Two runs saved at interval 1 are compared on their word counts, even
+	 * when the changes are printed at a larger interval.
+	 */
+	@Test
+	public void fineFilesCompareTheirWordCounts() throws IOException{
+		File before = write("before.hist", 1, KEYS, FREQUENCIES);
+		File after = write("after.hist", 1, new int[]{4, 7, 12, 36, 38},
+				FREQUENCIES);
+		Object comparison = Stages.compare(before, after, 10);
+		//Two of ten files moved from 3 to 4 words
+		assertEquals(0.2, Stages.getKs(comparison), 1e-9);
+		assertEquals(0.2, Stages.getEmd(comparison), 1e-9);
+		String summary = Stages.summary(comparison);
+		assertTrue(summary, summary.contains("max: 38 -> 38 (0)"));
+	}
+
+//*********************************************************____________________
+//******************PRIVATE METHODS************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Check that a comparison found no change at all.
+	 *
+	 * @param comparison The HistogramComparison
+	 */
+	private static void assertUnchanged(Object comparison){
+		assertEquals(0, Stages.getKs(comparison), 0);
+		assertEquals(0, Stages.getEmd(comparison), 0);
+		for(String line : Stages.summary(comparison).split("\n")){
+			if(line.contains("->")) assertTrue(line, line.endsWith("(0)"));
+		}
+	}
+
+	/**
+	 * Write a histogram file.
+	 *
+	 * @param name The name of the file in the temporary folder
+	 * @param interval The interval of the histogram
+	 * @param keys The ascending keys of the buckets
+	 * @param frequencies The frequencies of the buckets
+	 * @return The file
+	 * @throws IOException An exception occurs if the file could not be
+	 * written
+	 */
+	private File write(String name, int interval, int[] keys,
+			long[] frequencies) throws IOException{
+		File file = mFolder.newFile(name);
+		DataOutputStream out = new DataOutputStream(
+				new FileOutputStream(file));
+		try{
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(interval);
+			out.writeInt(keys.length);
+			out.writeLong(0);
+			for(int key : keys){
+				out.writeInt(key);
+			}
+			if(keys.length % 2 != 0) out.writeInt(0);
+			for(long frequency : frequencies){
+				out.writeLong(frequency);
+			}
+		}finally{
+			out.close();
+		}
+		return file;
+	}
+
+}
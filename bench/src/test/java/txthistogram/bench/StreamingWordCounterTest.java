@@ -0,0 +1,229 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * StreamingWordCounterTest.java
+ *
+ */
+
+package txthistogram.bench;
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * Differential tests of the streaming word counter against
+ * WordCounter.wordCountString.
+ *
+ * Random bytes, mixing runs of ASCII, encoded characters of many scripts
+ * and bytes that may not decode at all, are cut into chunks at random
+ * boundaries and counted with and without the SwarTokenizer. Every count
+ * has to match wordCountString of the same bytes decoded into a String.
+ * The seed of a failing sample is in the message, so it can be replayed.
+ *
+ */
+public class StreamingWordCounterTest {
+
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The seed of the first sample
+	 */
+	private final static long SEED = 20261017L;
+
+	/**
+	 * The samples counted for each encoding
+	 */
+	private final static int SAMPLES = 300;
+
+	/**
+	 * The samples counted for each encoding when every installed encoding
+	 * is tried
+	 */
+	private final static int SAMPLES_PER_CHARSET = 40;
+
+	/**
+	 * The most pieces of text in a sample
+	 */
+	private final static int MAX_PIECES = 60;
+
+	/**
+	 * Characters picked from for runs of ASCII, weighted towards letters
+	 */
+	private final static String ASCII =
+			"abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789"
+			+ "etaoin     \t\n\r.,;:'\"!?-_()[]{}<>/\\@#$%^&*+=~`|\u0000\u007f";
+
+	/**
+	 * Characters outside ASCII: Latin, Greek, Cyrillic, CJK and Arabic
+	 * letters, digits of other scripts, punctuation and symbols, a
+	 * character outside the Basic Multilingual Plane and the replacement
+	 * character
+	 */
+	private final static String OTHER = "éßÆ ¿"
+			+ "µαΩЖя中文日ا١"
+			+ "०—’€　アＡ�𝐀";
+
+//*********************************************************____________________
+//*******************TESTS*********************************____________________
+//*********************************************************____________________
+
+	@Test
+	public void utf8MatchesWordCountString(){
+		check(StandardCharsets.UTF_8, SAMPLES);
+	}
+
+	@Test
+	public void singleByteMatchesWordCountString(){
+		check(StandardCharsets.ISO_8859_1, SAMPLES);
+		check(StandardCharsets.US_ASCII, SAMPLES);
+		check(Charset.forName("windows-1252"), SAMPLES);
+	}
+
+	@Test
+	public void utf16MatchesWordCountString(){
+		check(StandardCharsets.UTF_16LE, SAMPLES);
+		check(StandardCharsets.UTF_16BE, SAMPLES);
+		check(StandardCharsets.UTF_16, SAMPLES);
+	}
+
+	@Test
+	public void everyCharsetMatchesWordCountString(){
+		for(Charset charset : Charset.availableCharsets().values()){
+			check(charset, SAMPLES_PER_CHARSET);
+		}
+	}
+
+//*********************************************************____________________
+//******************PRIVATE METHODS************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Count random samples in an encoding, with and without the
+	 * SwarTokenizer, and compare them with wordCountString.
+	 *
+	 * @param charset The encoding
+	 * @param samples The number of samples
+	 */
+	private static void check(Charset charset, int samples){
+		for(int sample = 0; sample < samples; sample++){
+			long seed = SEED + sample;
+			Random random = new Random(seed);
+			byte[] bytes = sample(random, charset);
+			int expected = Stages.wordCountString(new String(bytes, charset));
+			for(boolean swar : new boolean[]{false, true}){
+				String message = charset + " seed " + seed + " swar " + swar;
+				assertEquals(message, expected,
+						count(random, bytes, charset, swar));
+			}
+		}
+	}
+
+	/**
+	 * Make random bytes in an encoding.
+	 *
+	 * @param random The source of the pieces
+	 * @param charset The encoding
+	 * @return The bytes
+	 */
+	private static byte[] sample(Random random, Charset charset){
+		CharsetEncoder encoder = charset.canEncode() ?
+				charset.newEncoder() : null;
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		int pieces = random.nextInt(MAX_PIECES + 1);
+		for(int piece = 0; piece < pieces; piece++){
+			int kind = random.nextInt(8);
+			if(kind < 5 || encoder == null && kind < 7){
+				//Long runs of ASCII let the tokenizer take eight at a time
+				int length = random.nextInt(4) == 0 ?
+						random.nextInt(200) : random.nextInt(12);
+				out.write(ascii(random, length), 0, length);
+			}else if(kind < 7){
+				StringBuilder text = new StringBuilder();
+				for(int i = random.nextInt(6); i >= 0; i--){
+					int c = random.nextInt(OTHER.length());
+					//Keep the surrogate pair together
+					if(Character.isLowSurrogate(OTHER.charAt(c))) c--;
+					text.append(OTHER.charAt(c));
+					if(Character.isHighSurrogate(OTHER.charAt(c))){
+						text.append(OTHER.charAt(c + 1));
+					}
+				}
+				if(encoder.canEncode(text)){
+					byte[] encoded = text.toString().getBytes(charset);
+					out.write(encoded, 0, encoded.length);
+				}
+			}else{
+				//Bytes that may be broken or stray parts of characters
+				for(int i = random.nextInt(5); i >= 0; i--){
+					out.write(random.nextInt(256));
+				}
+			}
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Get random ASCII bytes.
+	 *
+	 * @param random The source of the characters
+	 * @param length The number of bytes
+	 * @return The bytes
+	 */
+	private static byte[] ascii(Random random, int length){
+		byte[] bytes = new byte[length];
+		for(int i = 0; i < length; i++){
+			bytes[i] = (byte)ASCII.charAt(random.nextInt(ASCII.length()));
+		}
+		return bytes;
+	}
+
+	/**
+	 * Count bytes with the streaming counter, in chunks cut at random from
+	 * an array that holds them at a random offset.
+	 *
+	 * @param random The source of the chunk boundaries
+	 * @param bytes The bytes to count
+	 * @param charset The encoding of the bytes
+	 * @param swar Whether to use the SwarTokenizer
+	 * @return The word count
+	 */
+	private static int count(Random random, byte[] bytes, Charset charset,
+			boolean swar){
+		int offset = random.nextInt(16);
+		byte[] array = new byte[offset + bytes.length + random.nextInt(16)];
+		//Letters around the bytes catch reads past the ends of a chunk
+		Arrays.fill(array, (byte)'x');
+		System.arraycopy(bytes, 0, array, offset, bytes.length);
+
+		Object counter = Stages.newWordCounter(charset, swar);
+		int end = offset + bytes.length;
+		for(int start = offset; start < end;){
+			int length = Math.min(end - start, random.nextInt(3) == 0 ?
+					1 + random.nextInt(64) : 1 + random.nextInt(4096));
+			Stages.update(counter, array, start, length);
+			start += length;
+		}
+		return Stages.finish(counter);
+	}
+
+}
@@ -0,0 +1,317 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * AdaptiveFileReader.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A class for counting the words of a file, reading it the cheapest way for
+ * its size.
+ *
+ * Small files are read with one read call into a heap buffer kept by each
+ * thread. Medium files are read in chunks into a direct buffer kept by each
+ * thread, which the channel can fill without copying through a temporary
+ * buffer. Large files are mapped into memory a window at a time, so no
+ * read calls are made at all and the window size bounds the address space
+ * used at once.
+ *
+ * The buffers and the word counters are kept by each thread and reused, so
+ * once a thread has counted a file of each kind, counting another only
+ * allocates the stream the file is opened with.
+ *
+ * The size limits of the strategies are set with setThresholds and apply
+ * to every thread.
+ *
+ */
+public class AdaptiveFileReader {
+
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The default size, in bytes, up to which a file is read in one call
+	 */
+	final static int DEFAULT_SMALL_THRESHOLD = 64 * 1024;
+
+	/**
+	 * The default size, in bytes, from which a file is mapped into memory
+	 */
+	final static long DEFAULT_MAP_THRESHOLD = 16L * 1024 * 1024;
+
+	/**
+	 * The size of the windows large files are mapped in
+	 */
+	final static long MAP_WINDOW = 64L * 1024 * 1024;
+
+	/**
+	 * The size of the direct buffer medium files are read into
+	 */
+	final static int DIRECT_BUFFER_SIZE = 256 * 1024;
+
+//*********************************************************____________________
+//*****************STATIC FIELDS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The size up to which a file is read in one call
+	 */
+	private static volatile int sSmallThreshold = DEFAULT_SMALL_THRESHOLD;
+	/**
+	 * The size from which a file is mapped into memory
+	 */
+	private static volatile long sMapThreshold = DEFAULT_MAP_THRESHOLD;
+
+	/**
+	 * The buffers and counters of each thread
+	 */
+	private final static ThreadLocal<Worker> WORKER =
+			new ThreadLocal<Worker>(){
+		@Override
+		protected Worker initialValue(){
+			return new Worker();
+		}
+	};
+
+//*********************************************************____________________
+//*****************STATIC METHODS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Set the sizes at which the strategy of reading a file changes.
+	 *
+	 * @param smallThreshold The size in bytes up to which a file is read
+	 * into a heap buffer in one call
+	 * @param mapThreshold The size in bytes from which a file is mapped into
+	 * memory, files in between are read into a direct buffer
+	 */
+	public static void setThresholds(int smallThreshold, long mapThreshold){
+		if(smallThreshold < 0 || mapThreshold < smallThreshold)
+			throw new IllegalArgumentException("Bad thresholds: "
+					+ smallThreshold + ", " + mapThreshold);
+		sSmallThreshold = smallThreshold;
+		sMapThreshold = mapThreshold;
+	}
+
+	/**
+	 * Count the words in a file.
+	 *
+	 * @param fileName The file to count
+	 * @param charset The encoding of the file if it has no byte order mark,
+	 * or null to detect it
+	 * @return The word count of the file
+	 * @throws IOException An exception occurs if the file could not be read
+	 */
+	public static int countWords(String fileName, Charset charset)
+			throws IOException{
+		Worker worker = WORKER.get();
+		FileInputStream inStream = new FileInputStream(fileName);
+		try{
+			FileChannel channel = inStream.getChannel();
+			long size = channel.size();
+			if(size <= sSmallThreshold){
+				return countSmall(channel, worker, charset);
+			}else if(size < sMapThreshold){
+				return countBuffered(channel, worker, charset);
+			}else{
+				return countMapped(channel, size, worker, charset);
+			}
+		}finally{
+			inStream.close();
+		}
+	}
+
+	/**
+	 * Count a small file, reading all of it at once into the heap buffer.
+	 *
+	 * A file that has grown past the buffer since its size was checked is
+	 * read on in chunks.
+	 *
+	 * @param channel The open file
+	 * @param worker The buffers of this thread
+	 * @param charset The encoding, or null to detect it
+	 * @return The word count of the file
+	 * @throws IOException An exception occurs if the file could not be read
+	 */
+	private static int countSmall(FileChannel channel, Worker worker,
+			Charset charset) throws IOException{
+		ByteBuffer heap = worker.heap(sSmallThreshold);
+		heap.clear();
+		boolean end = fill(channel, heap, heap.capacity());
+		heap.flip();
+		StreamingWordCounter counter = worker.counter(heap, charset);
+		counter.update(heap);
+		while(!end){
+			heap.clear();
+			end = channel.read(heap) == -1;
+			heap.flip();
+			counter.update(heap);
+		}
+		return counter.finish();
+	}
+
+	/**
+	 * Count a medium file, reading it in chunks into the direct buffer.
+	 *
+	 * @param channel The open file
+	 * @param worker The buffers of this thread
+	 * @param charset The encoding, or null to detect it
+	 * @return The word count of the file
+	 * @throws IOException An exception occurs if the file could not be read
+	 */
+	private static int countBuffered(FileChannel channel, Worker worker,
+			Charset charset) throws IOException{
+		ByteBuffer direct = worker.mDirect;
+		direct.clear();
+		boolean end = fill(channel, direct, EncodingDetector.SAMPLE_SIZE);
+		direct.flip();
+		StreamingWordCounter counter = worker.counter(direct, charset);
+		counter.update(direct);
+		while(!end){
+			direct.clear();
+			end = channel.read(direct) == -1;
+			direct.flip();
+			counter.update(direct);
+		}
+		return counter.finish();
+	}
+
+	/**
+	 * Count a large file, mapping it into memory a window at a time.
+	 *
+	 * @param channel The open file
+	 * @param size The size of the file
+	 * @param worker The buffers of this thread
+	 * @param charset The encoding, or null to detect it
+	 * @return The word count of the file
+	 * @throws IOException An exception occurs if the file could not be
+	 * mapped
+	 */
+	private static int countMapped(FileChannel channel, long size,
+			Worker worker, Charset charset) throws IOException{
+		StreamingWordCounter counter = null;
+		for(long position = 0; position < size; position += MAP_WINDOW){
+			MappedByteBuffer window = channel.map(
+					FileChannel.MapMode.READ_ONLY, position,
+					Math.min(MAP_WINDOW, size - position));
+			if(counter == null) counter = worker.counter(window, charset);
+			counter.update(window);
+		}
+		return counter == null ? 0 : counter.finish();
+	}
+
+	/**
+	 * Read from a channel until a buffer holds a number of bytes, the
+	 * buffer is full or the channel ends.
+	 *
+	 * @param channel The channel to read
+	 * @param buffer The buffer to read into
+	 * @param minimum The number of bytes wanted in the buffer
+	 * @return True if the channel ended
+	 * @throws IOException An exception occurs if the channel could not be
+	 * read
+	 */
+	private static boolean fill(FileChannel channel, ByteBuffer buffer,
+			int minimum) throws IOException{
+		while(buffer.position() < minimum && buffer.hasRemaining()){
+			if(channel.read(buffer) == -1) return true;
+		}
+		return false;
+	}
+
+//*********************************************************____________________
+//*******************INNER CLASSES*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The buffers and word counters of one thread.
+	 */
+	private static class Worker {
+
+		/**
+		 * The direct buffer medium files are read into
+		 */
+		private final ByteBuffer mDirect =
+				ByteBuffer.allocateDirect(DIRECT_BUFFER_SIZE);
+		/**
+		 * The first bytes of a file, for detecting its encoding
+		 */
+		private final byte[] mSample = new byte[EncodingDetector.SAMPLE_SIZE];
+		/**
+		 * A word counter for every encoding counted so far
+		 */
+		private final HashMap<Charset, StreamingWordCounter> mCounters =
+				new HashMap<Charset, StreamingWordCounter>();
+		/**
+		 * The heap buffer small files are read into, allocated when first
+		 * needed and again if the threshold grows
+		 */
+		private ByteBuffer mHeap = null;
+
+		/**
+		 * Get the heap buffer for small files.
+		 *
+		 * @param threshold The size up to which a file is small
+		 * @return A heap buffer of at least threshold bytes, and at least
+		 * enough for a sample
+		 */
+		ByteBuffer heap(int threshold){
+			int capacity = Math.max(threshold, EncodingDetector.SAMPLE_SIZE);
+			if(mHeap == null || mHeap.capacity() < capacity){
+				mHeap = ByteBuffer.allocate(capacity);
+			}
+			return mHeap;
+		}
+
+		/**
+		 * Get a reset word counter for the encoding of a file, and skip the
+		 * byte order mark of the file if it has one.
+		 *
+		 * @param first The first bytes of the file, with the position at
+		 * the start of the file
+		 * @param charset The encoding of the file if it has no byte order
+		 * mark, or null to detect it
+		 * @return The word counter
+		 */
+		StreamingWordCounter counter(ByteBuffer first, Charset charset){
+			int length = Math.min(first.remaining(), mSample.length);
+			first.mark();
+			first.get(mSample, 0, length);
+			first.reset();
+			Charset detected = EncodingDetector.detect(mSample, length,
+					charset);
+			first.position(first.position()
+					+ EncodingDetector.bomLength(mSample, length));
+
+			StreamingWordCounter counter = mCounters.get(detected);
+			if(counter == null){
+				counter = new StreamingWordCounter(detected);
+				mCounters.put(detected, counter);
+			}else{
+				counter.reset();
+			}
+			return counter;
+		}
+
+	}
+
+}
@@ -0,0 +1,58 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * ArchiveFormat.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.io.IOException;
+import java.io.InputStream;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A kind of archive whose text files can be counted from a stream.
+ *
+ * A format reads its entries one after another from the stream of the
+ * archive, and hands every entry to ArchiveFormats.countEntry, which counts
+ * the text files and passes nested archives on to their own format. Nothing
+ * is written to disk and no entry is held in memory, so archives of any
+ * format can be nested in each other to any depth.
+ *
+ * Formats are added with ArchiveFormats.register.
+ *
+ */
+public interface ArchiveFormat {
+
+	/**
+	 * Get the file extensions of the format, such as ".zip".
+	 *
+	 * @return The extensions, with their dots
+	 */
+	String[] getExtensions();
+
+	/**
+	 * Count the words in every text file in an archive, including the ones
+	 * in nested archives.
+	 *
+	 * The stream is read to the end of the archive but not closed.
+	 *
+	 * @param inStream The stream of the archive
+	 * @param name The name of the archive, which a compressed file uses to
+	 * name the file inside of it
+	 * @param counts The sink to add the word count of every text file to
+	 * @throws IOException An exception occurs if the archive could not be
+	 * read
+	 */
+	void countEntries(InputStream inStream, String name, WordCountSink counts)
+			throws IOException;
+
+}
@@ -0,0 +1,238 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * ArchiveFormats.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPInputStream;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * The archive formats that are counted, found by the extensions of file
+ * names.
+ *
+ * Zip, tar, and gzip (.gz, with .tgz as .tar.gz) are built in. A gzip file
+ * holds one file named like the gzip file without the .gz, so foo.tar.gz
+ * holds a tar archive and foo.txt.gz a text file.
+ *
+ */
+public class ArchiveFormats {
+
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * A constant for the tar file extension
+	 */
+	final static String TAR_EXTENSION = ".tar";
+	/**
+	 * A constant for the gzip file extension
+	 */
+	final static String GZIP_EXTENSION = ".gz";
+	/**
+	 * A constant for the short gzipped tar file extension
+	 */
+	final static String TGZ_EXTENSION = ".tgz";
+
+	/**
+	 * The size of the buffer gzip streams are inflated through
+	 */
+	private final static int GZIP_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * The zip format, counting entries as they are inflated
+	 */
+	final static ArchiveFormat ZIP = new ArchiveFormat(){
+		@Override
+		public String[] getExtensions(){
+			return new String[]{FileUtil.ZIP_EXTENSION};
+		}
+
+		@Override
+		public void countEntries(InputStream inStream, String name,
+				WordCountSink counts) throws IOException{
+			RecursiveFileReader.countZipRecursive(inStream,
+					FileUtil.TXT_EXTENSION, counts);
+		}
+	};
+
+	/**
+	 * The tar format
+	 */
+	final static ArchiveFormat TAR = new ArchiveFormat(){
+		@Override
+		public String[] getExtensions(){
+			return new String[]{TAR_EXTENSION};
+		}
+
+		@Override
+		public void countEntries(InputStream inStream, String name,
+				WordCountSink counts) throws IOException{
+			TarInputStream input = new TarInputStream(inStream);
+			TarInputStream.Entry entry;
+			while((entry = input.getNextEntry()) != null){
+				if(entry.isFile()){
+					countEntry(input, entry.getName(), entry.getSize(),
+							counts);
+				}
+			}
+		}
+	};
+
+	/**
+	 * The gzip format, holding one file
+	 */
+	final static ArchiveFormat GZIP = new ArchiveFormat(){
+		@Override
+		public String[] getExtensions(){
+			return new String[]{GZIP_EXTENSION, TGZ_EXTENSION};
+		}
+
+		@Override
+		public void countEntries(InputStream inStream, String name,
+				WordCountSink counts) throws IOException{
+			//Closing the gzip stream releases its inflater but must not
+			//close the stream of the parent archive
+			GZIPInputStream input = new GZIPInputStream(
+					new RecursiveFileReader.NonClosingInputStream(inStream),
+					GZIP_BUFFER_SIZE);
+			try{
+				countEntry(input, innerName(name), -1, counts);
+			}finally{
+				input.close();
+			}
+		}
+	};
+
+//*********************************************************____________________
+//*****************STATIC FIELDS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The registered formats, the first one to match a name is used
+	 */
+	private final static CopyOnWriteArrayList<ArchiveFormat> sFormats =
+			new CopyOnWriteArrayList<ArchiveFormat>(
+					new ArchiveFormat[]{ZIP, TAR, GZIP});
+
+//*********************************************************____________________
+//*****************STATIC METHODS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Add an archive format. It is matched before the formats already
+	 * registered, so it can replace one of them.
+	 *
+	 * @param format The format to add
+	 */
+	public static void register(ArchiveFormat format){
+		if(format == null) throw new NullPointerException("format");
+		sFormats.add(0, format);
+	}
+
+	/**
+	 * Get the format of an archive from its name.
+	 *
+	 * @param name The name of the file or entry
+	 * @return The format, or null if the name isn't an archive
+	 */
+	public static ArchiveFormat forName(String name){
+		for(ArchiveFormat format : sFormats){
+			for(String extension : format.getExtensions()){
+				if(name.endsWith(extension)) return format;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Check if a name is an archive of a registered format.
+	 *
+	 * @param name The name of the file or entry
+	 * @return True if the name is an archive
+	 */
+	public static boolean isArchive(String name){
+		return forName(name) != null;
+	}
+
+	/**
+	 * Get the extensions of the files a scan matches, text files and the
+	 * archives of every registered format.
+	 *
+	 * @return The extensions
+	 */
+	public static String[] scanExtensions(){
+		ArrayList<String> extensions = new ArrayList<String>();
+		extensions.add(FileUtil.TXT_EXTENSION);
+		for(ArchiveFormat format : sFormats){
+			for(String extension : format.getExtensions()){
+				if(!extensions.contains(extension)) extensions.add(extension);
+			}
+		}
+		return extensions.toArray(new String[extensions.size()]);
+	}
+
+	/**
+	 * Count one entry read from an archive: the words of a text file, the
+	 * entries of a nested archive, or nothing for any other file.
+	 *
+	 * This is the recursion every format shares. The stream is left open.
+	 *
+	 * @param inStream The stream of the entry, which ends with the entry
+	 * @param name The name of the entry
+	 * @param size The uncompressed size of the entry, -1 if unknown
+	 * @param counts The sink to add the word counts to
+	 * @throws IOException An exception occurs if the entry could not be
+	 * read
+	 */
+	static void countEntry(InputStream inStream, String name, long size,
+			WordCountSink counts) throws IOException{
+		ArchiveFormat format = forName(name);
+		if(format != null){
+			//Recursive loop on nested archives
+			format.countEntries(inStream, name, counts);
+		}else if(name.endsWith(FileUtil.TXT_EXTENSION)){
+			//Count the entry, the stream ends with the entry
+			ScanStats stats = ScanStats.current();
+			long start = ScanStats.start(stats);
+			counts.add(FileUtil.countWordsInStream(inStream));
+			if(stats != null){
+				stats.addZipEntry(size);
+				stats.record(ScanStats.Stage.ZIP_ENTRY, start);
+			}
+		}
+	}
+
+	/**
+	 * Get the name of the file inside a gzip file.
+	 *
+	 * @param name The name of the gzip file
+	 * @return The name without .gz, or with .tgz as .tar
+	 */
+	static String innerName(String name){
+		if(name.endsWith(TGZ_EXTENSION)){
+			return name.substring(0, name.length() - TGZ_EXTENSION.length())
+					+ TAR_EXTENSION;
+		}else if(name.endsWith(GZIP_EXTENSION)){
+			return name.substring(0,
+					name.length() - GZIP_EXTENSION.length());
+		}
+		return name;
+	}
+
+}
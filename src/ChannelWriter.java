@@ -0,0 +1,186 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * ChannelWriter.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A buffer in front of a channel for writing numbers and ASCII text.
+ *
+ * Numbers are written as digits straight into the buffer, so writing a
+ * line of numbers allocates nothing. The buffer is written to the channel
+ * whenever it fills and by flush, which must be called at the end.
+ *
+ */
+public class ChannelWriter {
+
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The size of the buffer
+	 */
+	final static int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * The most digits of a long, with its sign
+	 */
+	private final static int MAX_DIGITS = 20;
+
+//*********************************************************____________________
+//******************CLASS FIELDS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The channel being written
+	 */
+	private final WritableByteChannel mChannel;
+	/**
+	 * The bytes not yet written to the channel
+	 */
+	private final ByteBuffer mBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+	/**
+	 * The digits of a number, filled from the end
+	 */
+	private final byte[] mDigits = new byte[MAX_DIGITS];
+
+//*********************************************************____________________
+//*******************CONSTRUCTORS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Create a writer for a channel. The channel isn't closed by the writer.
+	 *
+	 * @param channel The channel to write to
+	 */
+	public ChannelWriter(WritableByteChannel channel){
+		this.mChannel = channel;
+	}
+
+//*********************************************************____________________
+//*******************PUBLIC METHODS************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Write a byte.
+	 *
+	 * @param b The byte
+	 * @return This writer
+	 * @throws IOException An exception occurs if the channel could not be
+	 * written
+	 */
+	public ChannelWriter write(int b) throws IOException{
+		if(!mBuffer.hasRemaining()) drain();
+		mBuffer.put((byte)b);
+		return this;
+	}
+
+	/**
+	 * Write text whose characters are all ASCII, one byte for each.
+	 *
+	 * @param text The text
+	 * @return This writer
+	 * @throws IOException An exception occurs if the channel could not be
+	 * written
+	 */
+	public ChannelWriter writeAscii(String text) throws IOException{
+		for(int i = 0; i < text.length(); i++){
+			if(!mBuffer.hasRemaining()) drain();
+			mBuffer.put((byte)text.charAt(i));
+		}
+		return this;
+	}
+
+	/**
+	 * Write a number in decimal digits.
+	 *
+	 * @param value The number
+	 * @return This writer
+	 * @throws IOException An exception occurs if the channel could not be
+	 * written
+	 */
+	public ChannelWriter writeDecimal(long value) throws IOException{
+		if(mBuffer.remaining() < MAX_DIGITS) drain();
+		int start = MAX_DIGITS;
+		//Work with the negative value, which can hold Long.MIN_VALUE
+		long rest = value < 0 ? value : -value;
+		do{
+			mDigits[--start] = (byte)('0' - rest % 10);
+			rest /= 10;
+		}while(rest != 0);
+		if(value < 0) mDigits[--start] = '-';
+		mBuffer.put(mDigits, start, MAX_DIGITS - start);
+		return this;
+	}
+
+	/**
+	 * Write a big endian int.
+	 *
+	 * @param value The int
+	 * @return This writer
+	 * @throws IOException An exception occurs if the channel could not be
+	 * written
+	 */
+	public ChannelWriter writeInt(int value) throws IOException{
+		if(mBuffer.remaining() < 4) drain();
+		mBuffer.putInt(value);
+		return this;
+	}
+
+	/**
+	 * Write a big endian long.
+	 *
+	 * @param value The long
+	 * @return This writer
+	 * @throws IOException An exception occurs if the channel could not be
+	 * written
+	 */
+	public ChannelWriter writeLong(long value) throws IOException{
+		if(mBuffer.remaining() < 8) drain();
+		mBuffer.putLong(value);
+		return this;
+	}
+
+	/**
+	 * Write everything in the buffer to the channel.
+	 *
+	 * @throws IOException An exception occurs if the channel could not be
+	 * written
+	 */
+	public void flush() throws IOException{
+		drain();
+	}
+
+//*********************************************************____________________
+//******************PRIVATE METHODS************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Write the buffer to the channel and empty it.
+	 *
+	 * @throws IOException An exception occurs if the channel could not be
+	 * written
+	 */
+	private void drain() throws IOException{
+		mBuffer.flip();
+		while(mBuffer.hasRemaining()) mChannel.write(mBuffer);
+		mBuffer.clear();
+	}
+
+}
@@ -0,0 +1,346 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * ChartStyle.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.awt.Color;
+import java.util.Locale;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * The look of a histogram chart and how it is encoded: its colors, its
+ * font, how buckets are combined into columns, and the deflate level and
+ * row filter of a PNG.
+ *
+ * A style is parsed from a list of key=value settings such as
+ * "bar=#3366cc,outline=none,font=Serif,deflate=1", see parse. Settings that
+ * aren't given keep the look the charts have always had.
+ *
+ */
+public class ChartStyle {
+
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The default deflate level of a PNG, for the smallest files
+	 */
+	final static int DEFAULT_DEFLATE_LEVEL = 9;
+
+//*********************************************************____________________
+//*****************STATIC METHODS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Parse a style from settings separated by commas, each key=value.
+	 *
+	 * The keys are background, text, bar, outline and band for colors
+	 * (#rrggbb or a name such as orange, outline can be none), font for
+	 * the font family, reduce for the ColumnReducer mode (max, sum or
+	 * envelope), deflate for the PNG deflate level (0 to 9) and filter for
+	 * the PNG row filter (none, sub, up, average, paeth or adaptive).
+	 *
+	 * @param settings The settings
+	 * @return The style
+	 * @throws IllegalArgumentException An exception occurs if a setting is
+	 * unknown or has a bad value
+	 */
+	public static ChartStyle parse(String settings){
+		ChartStyle style = new ChartStyle();
+		for(String setting : settings.split(",")){
+			int equals = setting.indexOf('=');
+			if(equals <= 0)
+				throw new IllegalArgumentException("Bad style: " + setting);
+			String key = setting.substring(0, equals).trim()
+					.toLowerCase(Locale.ROOT);
+			String value = setting.substring(equals + 1).trim();
+			if(key.equals("background")){
+				style.setBackground(parseColor(value));
+			}else if(key.equals("text")){
+				style.setText(parseColor(value));
+			}else if(key.equals("bar")){
+				style.setBar(parseColor(value));
+			}else if(key.equals("outline")){
+				style.setOutline(value.equalsIgnoreCase("none") ? null :
+					parseColor(value));
+			}else if(key.equals("band")){
+				style.setBand(parseColor(value));
+			}else if(key.equals("font")){
+				style.setFontName(value);
+			}else if(key.equals("reduce")){
+				style.setReduceMode(ColumnReducer.Mode.parse(value));
+			}else if(key.equals("deflate")){
+				style.setDeflateLevel(Integer.parseInt(value));
+			}else if(key.equals("filter")){
+				style.setFilter(PngStreamWriter.Filter.parse(value));
+			}else{
+				throw new IllegalArgumentException("Unknown style: " + key);
+			}
+		}
+		return style;
+	}
+
+	/**
+	 * Parse a color from #rrggbb or the name of a java.awt.Color constant.
+	 *
+	 * @param value The color
+	 * @return The color
+	 * @throws IllegalArgumentException An exception occurs if the color
+	 * isn't known
+	 */
+	static Color parseColor(String value){
+		if(value.startsWith("#") && value.length() == 7){
+			return new Color(Integer.parseInt(value.substring(1), 16));
+		}
+		try{
+			Object color = Color.class.getField(
+					value.toLowerCase(Locale.ROOT)).get(null);
+			if(color instanceof Color) return (Color)color;
+		}catch(ReflectiveOperationException e){
+			//Not a named color
+		}
+		throw new IllegalArgumentException("Bad color: " + value);
+	}
+
+//*********************************************************____________________
+//******************CLASS FIELDS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The color behind the chart
+	 */
+	private Color mBackground = Color.WHITE;
+	/**
+	 * The color of the text and axes
+	 */
+	private Color mText = Color.BLACK;
+	/**
+	 * The color of the bars
+	 */
+	private Color mBar = Color.ORANGE;
+	/**
+	 * The color of the outline of wide bars, or null for none
+	 */
+	private Color mOutline = Color.CYAN;
+	/**
+	 * The color of the band between the lowest and highest bucket of a
+	 * column with ENVELOPE
+	 */
+	private Color mBand = new Color(255, 222, 160);
+	/**
+	 * The family of the fonts
+	 */
+	private String mFontName = "Sans-Serif";
+	/**
+	 * How the buckets sharing a column are combined
+	 */
+	private ColumnReducer.Mode mReduceMode = ColumnReducer.Mode.MAX;
+	/**
+	 * The deflate level of a PNG
+	 */
+	private int mDeflateLevel = DEFAULT_DEFLATE_LEVEL;
+	/**
+	 * The row filter of a PNG
+	 */
+	private PngStreamWriter.Filter mFilter = PngStreamWriter.Filter.NONE;
+
+//*********************************************************____________________
+//*******************PUBLIC METHODS************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Get the color behind the chart.
+	 *
+	 * @return The color
+	 */
+	public Color getBackground(){
+		return mBackground;
+	}
+
+	/**
+	 * Set the color behind the chart.
+	 *
+	 * @param background The color
+	 */
+	public void setBackground(Color background){
+		this.mBackground = nonNull(background);
+	}
+
+	/**
+	 * Get the color of the text and axes.
+	 *
+	 * @return The color
+	 */
+	public Color getText(){
+		return mText;
+	}
+
+	/**
+	 * Set the color of the text and axes.
+	 *
+	 * @param text The color
+	 */
+	public void setText(Color text){
+		this.mText = nonNull(text);
+	}
+
+	/**
+	 * Get the color of the bars.
+	 *
+	 * @return The color
+	 */
+	public Color getBar(){
+		return mBar;
+	}
+
+	/**
+	 * Set the color of the bars.
+	 *
+	 * @param bar The color
+	 */
+	public void setBar(Color bar){
+		this.mBar = nonNull(bar);
+	}
+
+	/**
+	 * Get the color of the outline of bars wide enough to have one.
+	 *
+	 * @return The color, or null for no outline
+	 */
+	public Color getOutline(){
+		return mOutline;
+	}
+
+	/**
+	 * Set the color of the outline of bars wide enough to have one.
+	 *
+	 * @param outline The color, or null for no outline
+	 */
+	public void setOutline(Color outline){
+		this.mOutline = outline;
+	}
+
+	/**
+	 * Get the color of the band of an ENVELOPE column.
+	 *
+	 * @return The color
+	 */
+	public Color getBand(){
+		return mBand;
+	}
+
+	/**
+	 * Set the color of the band of an ENVELOPE column.
+	 *
+	 * @param band The color
+	 */
+	public void setBand(Color band){
+		this.mBand = nonNull(band);
+	}
+
+	/**
+	 * Get the family of the fonts.
+	 *
+	 * @return The family, such as Sans-Serif
+	 */
+	public String getFontName(){
+		return mFontName;
+	}
+
+	/**
+	 * Set the family of the fonts.
+	 *
+	 * @param fontName The family, such as Serif
+	 */
+	public void setFontName(String fontName){
+		if(fontName == null || fontName.isEmpty())
+			throw new IllegalArgumentException("Bad font: " + fontName);
+		this.mFontName = fontName;
+	}
+
+	/**
+	 * Get how the buckets sharing a column are combined.
+	 *
+	 * @return The mode
+	 */
+	public ColumnReducer.Mode getReduceMode(){
+		return mReduceMode;
+	}
+
+	/**
+	 * Set how the buckets sharing a column are combined.
+	 *
+	 * @param reduceMode The mode
+	 */
+	public void setReduceMode(ColumnReducer.Mode reduceMode){
+		this.mReduceMode = nonNull(reduceMode);
+	}
+
+	/**
+	 * Get the deflate level of a PNG.
+	 *
+	 * @return The level, from 0 for none to 9 for the smallest file
+	 */
+	public int getDeflateLevel(){
+		return mDeflateLevel;
+	}
+
+	/**
+	 * Set the deflate level of a PNG.
+	 *
+	 * @param deflateLevel The level, from 0 for none to 9 for the smallest
+	 * file
+	 */
+	public void setDeflateLevel(int deflateLevel){
+		if(deflateLevel < 0 || deflateLevel > 9)
+			throw new IllegalArgumentException("Bad deflate level: "
+					+ deflateLevel);
+		this.mDeflateLevel = deflateLevel;
+	}
+
+	/**
+	 * Get the row filter of a PNG.
+	 *
+	 * @return The filter
+	 */
+	public PngStreamWriter.Filter getFilter(){
+		return mFilter;
+	}
+
+	/**
+	 * Set the row filter of a PNG.
+	 *
+	 * @param filter The filter
+	 */
+	public void setFilter(PngStreamWriter.Filter filter){
+		this.mFilter = nonNull(filter);
+	}
+
+//*********************************************************____________________
+//******************PRIVATE METHODS************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Check that a setting isn't null.
+	 *
+	 * @param value The setting
+	 * @return The setting
+	 */
+	private static <T> T nonNull(T value){
+		if(value == null) throw new NullPointerException();
+		return value;
+	}
+
+}
@@ -0,0 +1,299 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * ColumnReducer.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.util.Locale;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * The buckets of a histogram reduced to at most one column for every pixel
+ * of a chart.
+ *
+ * A histogram can have millions of buckets and a chart only a few thousand
+ * pixels across, so drawing a bar per bucket is slow and unreadable. The
+ * buckets are spread evenly over the columns in order, and the frequencies
+ * of the buckets that share a column are combined by a Mode in one pass, so
+ * drawing takes time in the size of the chart and not of the histogram.
+ *
+ * With no more buckets than columns every bucket has a column of its own.
+ *
+ */
+public class ColumnReducer {
+
+//*********************************************************____________________
+//*******************INTERFACES****************************____________________
+//*********************************************************____________________
+
+	/**
+	 * How the frequencies of the buckets sharing a column are combined.
+	 */
+	public enum Mode {
+		/** The highest frequency, so single tall buckets still show */
+		MAX,
+		/** The total frequency, so the area of the chart is the file count */
+		SUM,
+		/** The lowest and highest frequency, drawn as a band */
+		ENVELOPE;
+
+		/**
+		 * Get a mode by its name in any case.
+		 *
+		 * @param name The name, max, sum or envelope
+		 * @return The mode
+		 * @throws IllegalArgumentException An exception occurs if there is
+		 * no mode of that name
+		 */
+		public static Mode parse(String name){
+			return valueOf(name.toUpperCase(Locale.ROOT));
+		}
+	}
+
+//*********************************************************____________________
+//*****************STATIC METHODS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Reduce the buckets of a histogram to columns.
+	 *
+	 * @param histogram The histogram to reduce
+	 * @param maxColumns The most columns, such as the width of the chart in
+	 * pixels
+	 * @param mode How the buckets sharing a column are combined
+	 * @return The columns, one for every bucket if there are no more than
+	 * maxColumns
+	 */
+	public static ColumnReducer reduce(Histogram histogram, int maxColumns,
+			Mode mode){
+		if(maxColumns < 1)
+			throw new IllegalArgumentException("Bad column count: "
+					+ maxColumns);
+		final ColumnReducer columns = new ColumnReducer(
+				histogram.bucketCount(), maxColumns, mode,
+				histogram.getInterval());
+		histogram.forEachBucket(new Histogram.BucketVisitor(){
+			@Override
+			public void visit(int key, long frequency){
+				columns.add(key, frequency);
+			}
+		});
+		return columns;
+	}
+
+	/**
+	 * Reduce the buckets of a histogram to the columns of a chart shared
+	 * with another histogram of the same interval, so that the columns of
+	 * the two line up. The buckets are those of both histograms together,
+	 * with the empty buckets in between when the interval is greater than
+	 * 1, and a bucket only the other histogram has is 0.
+	 *
+	 * @param histogram The histogram to reduce
+	 * @param other The histogram the columns are shared with
+	 * @param maxColumns The most columns
+	 * @param mode How the buckets sharing a column are combined
+	 * @return The columns of the histogram
+	 */
+	public static ColumnReducer reduce(Histogram histogram, Histogram other,
+			int maxColumns, Mode mode){
+		if(maxColumns < 1)
+			throw new IllegalArgumentException("Bad column count: "
+					+ maxColumns);
+		int interval = histogram.getInterval();
+		if(other.getInterval() != interval)
+			throw new IllegalArgumentException("Interval " + interval
+					+ " doesn't match " + other.getInterval());
+		int[] keys = Histogram.sortedKeys(histogram, other);
+		if(interval == 1 || keys.length < 2){
+			ColumnReducer columns = new ColumnReducer(keys.length,
+					maxColumns, mode, interval);
+			for(int key : keys) columns.add(key, histogram.get(key));
+			return columns;
+		}
+		long last = keys[keys.length - 1];
+		ColumnReducer columns = new ColumnReducer(
+				(last - keys[0]) / interval + 1, maxColumns, mode, interval);
+		for(long key = keys[0]; key <= last; key += interval){
+			columns.add((int)key, histogram.get((int)key));
+		}
+		return columns;
+	}
+
+//*********************************************************____________________
+//******************CLASS FIELDS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * How the buckets sharing a column are combined
+	 */
+	private final Mode mMode;
+	/**
+	 * The number of buckets
+	 */
+	private final long mBuckets;
+	/**
+	 * The interval of the histogram
+	 */
+	private final int mInterval;
+	/**
+	 * The highest frequency, or the total with SUM, of every column
+	 */
+	private final long[] mHigh;
+	/**
+	 * The lowest frequency of every column
+	 */
+	private final long[] mLow;
+	/**
+	 * The key of the first bucket in every column
+	 */
+	private final int[] mFirstKey;
+	/**
+	 * The key of the last bucket
+	 */
+	private int mLastKey = 0;
+	/**
+	 * The highest value of any column
+	 */
+	private long mMaxValue = 0;
+	/**
+	 * The number of buckets added so far
+	 */
+	private long mAdded = 0;
+
+//*********************************************************____________________
+//*******************CONSTRUCTORS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Create empty columns for a number of buckets.
+	 *
+	 * @param buckets The number of buckets that will be added
+	 * @param maxColumns The most columns
+	 * @param mode How the buckets sharing a column are combined
+	 * @param interval The interval of the histogram
+	 */
+	private ColumnReducer(long buckets, int maxColumns, Mode mode,
+			int interval){
+		int columns = (int)Math.min(buckets, maxColumns);
+		this.mMode = mode;
+		this.mBuckets = buckets;
+		this.mInterval = interval;
+		this.mHigh = new long[columns];
+		this.mLow = new long[columns];
+		this.mFirstKey = new int[columns];
+	}
+
+//*********************************************************____________________
+//*******************PUBLIC METHODS************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Get the number of columns.
+	 *
+	 * @return The number of columns, 0 for an empty histogram
+	 */
+	public int getColumns(){
+		return mHigh.length;
+	}
+
+	/**
+	 * Get the height of a column: its highest frequency, or the total of
+	 * its buckets with SUM.
+	 *
+	 * @param column The column
+	 * @return The height
+	 */
+	public long getHigh(int column){
+		return mHigh[column];
+	}
+
+	/**
+	 * Get the lowest frequency of a column, the bottom of its band with
+	 * ENVELOPE.
+	 *
+	 * @param column The column
+	 * @return The lowest frequency
+	 */
+	public long getLow(int column){
+		return mLow[column];
+	}
+
+	/**
+	 * Get the lowest word count in a column.
+	 *
+	 * @param column The column
+	 * @return The key of the first bucket of the column
+	 */
+	public int getFirstKey(int column){
+		return mFirstKey[column];
+	}
+
+	/**
+	 * Get the word count just past the last column, the end of the axis.
+	 *
+	 * @return The key of the last bucket plus the interval
+	 */
+	public long getEndKey(){
+		return (long)mLastKey + mInterval;
+	}
+
+	/**
+	 * Get the height of the highest column, for scaling the chart.
+	 *
+	 * @return The highest column
+	 */
+	public long getMaxValue(){
+		return mMaxValue;
+	}
+
+	/**
+	 * Get how the buckets sharing a column were combined.
+	 *
+	 * @return The mode
+	 */
+	public Mode getMode(){
+		return mMode;
+	}
+
+//*********************************************************____________________
+//******************PRIVATE METHODS************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Add the next bucket to its column.
+	 *
+	 * @param key The key of the bucket
+	 * @param frequency The number of files in the bucket
+	 */
+	private void add(int key, long frequency){
+		int column = (int)(mAdded * mHigh.length / mBuckets);
+		boolean first = column == 0 ? mAdded == 0 :
+			column != (int)((mAdded - 1) * mHigh.length / mBuckets);
+		mAdded++;
+		mLastKey = key;
+		if(first){
+			mFirstKey[column] = key;
+			mHigh[column] = frequency;
+			mLow[column] = frequency;
+		}else{
+			if(mMode == Mode.SUM){
+				mHigh[column] += frequency;
+			}else{
+				mHigh[column] = Math.max(mHigh[column], frequency);
+			}
+			mLow[column] = Math.min(mLow[column], frequency);
+		}
+		mMaxValue = Math.max(mMaxValue, mHigh[column]);
+	}
+
+}
@@ -0,0 +1,169 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * ConcurrentHistogramAccumulator.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A histogram that many counting threads can add word counts to at once.
+ *
+ * Every thread that adds to the accumulator gets its own shard, so threads
+ * never write to the same memory. The hot low word counts of a shard are
+ * cells of an AtomicLongArray written only by the owning thread, so adding
+ * one is a plain read and an ordered write with no lock and no
+ * compare-and-set. The array is padded at both ends so the cells of two
+ * shards never share a cache line. Word counts at or above HOT_LIMIT go to
+ * a Histogram of the shard guarded by the shard itself, which only a
+ * snapshot ever contends for.
+ *
+ * The shards are merged into a Histogram whenever a snapshot is taken. A
+ * snapshot taken while threads are adding holds every word count added
+ * before it started and may hold some added while it runs.
+ *
+ */
+public class ConcurrentHistogramAccumulator implements WordCountSink {
+
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The word counts below this are counted in the lock free cells
+	 */
+	final static int HOT_LIMIT = 4096;
+
+	/**
+	 * The number of unused cells at each end of a shard's cells, two cache
+	 * lines of longs
+	 */
+	private final static int PADDING = 16;
+
+	/**
+	 * The cell counting the files that could not be read
+	 */
+	private final static int UNREADABLE_CELL = PADDING;
+
+	/**
+	 * The cell counting word count 0, the cells of the hot word counts follow
+	 */
+	private final static int FIRST_CELL = PADDING + 1;
+
+//*********************************************************____________________
+//******************CLASS FIELDS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Every shard created for a thread, read when a snapshot is taken
+	 */
+	private final CopyOnWriteArrayList<Shard> mShards =
+			new CopyOnWriteArrayList<Shard>();
+	/**
+	 * The shard of the current thread
+	 */
+	private final ThreadLocal<Shard> mShard = new ThreadLocal<Shard>(){
+		@Override
+		protected Shard initialValue(){
+			Shard shard = new Shard();
+			mShards.add(shard);
+			return shard;
+		}
+	};
+
+//*********************************************************____________________
+//******************CLASS METHODS**************************____________________
+//*********************************************************____________________
+
+	@Override
+	public void add(int wordCount){
+		mShard.get().add(wordCount);
+	}
+
+	/**
+	 * Merge every shard into a new Histogram.
+	 *
+	 * This can be called at any time, including while other threads are
+	 * adding word counts.
+	 *
+	 * @return A Histogram of the word counts added so far
+	 */
+	public Histogram snapshot(){
+		Histogram histogram = new Histogram();
+		for(Shard shard : mShards){
+			shard.addTo(histogram);
+		}
+		return histogram;
+	}
+
+//*********************************************************____________________
+//*******************INNER CLASSES*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The word counts added by one thread.
+	 */
+	private static class Shard {
+
+		/**
+		 * The padded cells of the unreadable files and the hot word counts
+		 */
+		private final AtomicLongArray mCells =
+				new AtomicLongArray(FIRST_CELL + HOT_LIMIT + PADDING);
+		/**
+		 * The word counts at or above HOT_LIMIT, guarded by the shard
+		 */
+		private final Histogram mTail = new Histogram();
+
+		/**
+		 * Add a word count. Only the owning thread calls this.
+		 *
+		 * @param wordCount The word count, -1 for an unreadable file
+		 */
+		void add(int wordCount){
+			if(wordCount >= HOT_LIMIT || wordCount < Histogram.UNREADABLE){
+				//The tail histogram also rejects bad word counts
+				synchronized(this){
+					mTail.add(wordCount);
+				}
+				return;
+			}
+			int cell = wordCount == Histogram.UNREADABLE ?
+					UNREADABLE_CELL : FIRST_CELL + wordCount;
+			//The owner is the only writer, so an ordered write of the
+			//incremented value is enough for readers to see it
+			mCells.lazySet(cell, mCells.get(cell) + 1);
+		}
+
+		/**
+		 * Add the word counts of the shard to a histogram.
+		 *
+		 * @param histogram The histogram to add to
+		 */
+		void addTo(Histogram histogram){
+			long unreadable = mCells.get(UNREADABLE_CELL);
+			if(unreadable != 0) histogram.add(Histogram.UNREADABLE, unreadable);
+			for(int i = 0; i < HOT_LIMIT; i++){
+				long frequency = mCells.get(FIRST_CELL + i);
+				if(frequency != 0) histogram.add(i, frequency);
+			}
+			synchronized(this){
+				histogram.addAll(mTail);
+			}
+		}
+
+	}
+
+}
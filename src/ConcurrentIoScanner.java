@@ -0,0 +1,1007 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * ConcurrentIoScanner.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.io.File;
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A scanner for storage where every file system call is slow, such as NFS.
+ *
+ * On such storage a scan spends its time waiting for directory listings,
+ * opens and reads, not counting. This scanner keeps up to a limit of those
+ * calls in flight at once on I/O threads, and hands the bytes that are read
+ * to a separate pool of counting threads sized for the processors, so the
+ * storage is kept busy without running more counting threads than there
+ * are processors.
+ *
+ * The I/O threads are virtual threads when the JVM has them (Java 21 and
+ * later). There are then as many directory listers and as many file
+ * readers as the limit, and a semaphore keeps the calls in flight between
+ * all of them to the limit. Without virtual threads there are at most
+ * PLATFORM_IO_THREADS of each, so a high limit doesn't start hundreds of
+ * platform threads.
+ *
+ * Every file is opened and read by the readers; the counting threads only
+ * see bytes. Text files up to MAX_BUFFERED_FILE bytes are read whole and
+ * counted from memory, with at most BUFFERED_BYTES waiting to be counted.
+ * Larger files and archives other than zip are read in chunks of
+ * CHUNK_SIZE and streamed to a counting thread through a Pipe of a few
+ * chunks. Zip archives are copied in chunks to a local temporary file, so
+ * they are still opened as a ZipFile and a bad entry doesn't stop the
+ * count of the rest. There is at most one streamed or copied file for
+ * every counting thread.
+ *
+ */
+public class ConcurrentIoScanner {
+
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The default number of file system calls in flight at once
+	 */
+	final static int DEFAULT_IO_LIMIT = 256;
+
+	/**
+	 * The largest text file read into memory by the readers
+	 */
+	final static int MAX_BUFFERED_FILE = 1024 * 1024;
+
+	/**
+	 * The most bytes read into memory and waiting to be counted
+	 */
+	final static int BUFFERED_BYTES = 64 * 1024 * 1024;
+
+	/**
+	 * The size of the chunks large files and archives are streamed in
+	 */
+	final static int CHUNK_SIZE = 256 * 1024;
+
+	/**
+	 * The most chunks read ahead of the counting thread of a stream
+	 */
+	final static int PIPE_CHUNKS = 4;
+
+	/**
+	 * The most directory listers and the most file readers when the I/O
+	 * threads are platform threads
+	 */
+	final static int PLATFORM_IO_THREADS = 16;
+
+	/**
+	 * A marker put on the queue of directories once for every lister when
+	 * the walk is done. It is compared by reference.
+	 */
+	private final static Directory END_OF_DIRECTORIES = new Directory(null,
+			null);
+
+	/**
+	 * The factory of the I/O threads
+	 */
+	private final static ThreadFactory IO_THREADS = ioThreadFactory();
+
+//*********************************************************____________________
+//*****************STATIC METHODS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Scan one shard of several directories, counting the words of the
+	 * matching files into a sink.
+	 *
+	 * Returns when every file has been counted. END_OF_FILES is put on the
+	 * queue once for every reader when the walk is done.
+	 *
+	 * @param roots The root directories to search
+	 * @param shard The shard of the files to count, from 0 to shards - 1
+	 * @param shards The number of shards the files are split into
+	 * @param queue The queue between the listers and the readers
+	 * @param ioLimit The most file system calls in flight at once
+	 * @param threads The number of counting threads
+	 * @param cache The cache of word counts from earlier runs, or null
+	 * @param counts The thread safe sink to add the word counts to
+	 * @param fileExtensions The file extensions to match against
+	 */
+	public static void scan(File[] roots, int shard, int shards,
+			BlockingQueue<String> queue, int ioLimit, int threads,
+			ScanCache cache, WordCountSink counts, String... fileExtensions){
+		if(shards < 1 || shard < 0 || shard >= shards)
+			throw new IllegalArgumentException("Bad shard: " + shard + "/"
+					+ shards);
+		if(ioLimit < 1)
+			throw new IllegalArgumentException("Bad I/O limit: " + ioLimit);
+		new ConcurrentIoScanner(queue, ioLimit, threads, cache, counts,
+				fileExtensions).run(roots, shard, shards);
+	}
+
+	/**
+	 * Check if the I/O threads are virtual threads.
+	 *
+	 * @return True if the JVM has virtual threads
+	 */
+	public static boolean hasVirtualThreads(){
+		return virtualThreadFactory() != null;
+	}
+
+	/**
+	 * Get a factory of virtual threads, through reflection so the program
+	 * still runs on JVMs without them.
+	 *
+	 * @return The factory, or null if the JVM has no virtual threads
+	 */
+	private static ThreadFactory virtualThreadFactory(){
+		try{
+			Class<?> builder = Class.forName("java.lang.Thread$Builder");
+			Object virtual = Thread.class.getMethod("ofVirtual").invoke(null);
+			virtual = builder.getMethod("name", String.class, long.class)
+					.invoke(virtual, "txthistogram-io-", 0L);
+			return (ThreadFactory)builder.getMethod("factory").invoke(virtual);
+		}catch(ReflectiveOperationException e){
+			return null;
+		}
+	}
+
+	/**
+	 * Get the factory of the I/O threads, virtual threads if the JVM has
+	 * them and daemon platform threads otherwise.
+	 *
+	 * @return The factory
+	 */
+	private static ThreadFactory ioThreadFactory(){
+		ThreadFactory virtual = virtualThreadFactory();
+		if(virtual != null) return virtual;
+		final AtomicInteger created = new AtomicInteger();
+		return new ThreadFactory(){
+			@Override
+			public Thread newThread(Runnable task){
+				Thread thread = new Thread(task, "txthistogram-io-"
+						+ created.getAndIncrement());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
+
+//*********************************************************____________________
+//******************CLASS FIELDS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The queue of files between the listers and the readers
+	 */
+	private final BlockingQueue<String> mFiles;
+	/**
+	 * The queue of directories still to list
+	 */
+	private final LinkedBlockingQueue<Directory> mDirectories =
+			new LinkedBlockingQueue<Directory>();
+	/**
+	 * The number of directories queued and not yet listed
+	 */
+	private final AtomicLong mPendingDirectories = new AtomicLong();
+	/**
+	 * The file system calls that may be in flight
+	 */
+	private final Semaphore mCalls;
+	/**
+	 * The bytes that may be read into memory and waiting to be counted
+	 */
+	private final Semaphore mBufferedBytes = new Semaphore(BUFFERED_BYTES);
+	/**
+	 * The streamed files that may be in flight, one for every counting
+	 * thread
+	 */
+	private final Semaphore mStreams;
+	/**
+	 * The number of listers and of readers
+	 */
+	private final int mWorkers;
+	/**
+	 * The pool of counting threads
+	 */
+	private final ForkJoinPool mCounters;
+	/**
+	 * The cache of word counts from earlier runs, or null
+	 */
+	private final ScanCache mCache;
+	/**
+	 * The thread safe sink to add the word counts to
+	 */
+	private final WordCountSink mCounts;
+	/**
+	 * The file extensions to match against
+	 */
+	private final String[] mExtensions;
+
+//*********************************************************____________________
+//******************CONSTRUCTORS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Create a scanner.
+	 *
+	 * @param queue The queue between the listers and the readers
+	 * @param ioLimit The most file system calls in flight at once
+	 * @param threads The number of counting threads
+	 * @param cache The cache of word counts from earlier runs, or null
+	 * @param counts The thread safe sink to add the word counts to
+	 * @param extensions The file extensions to match against
+	 */
+	private ConcurrentIoScanner(BlockingQueue<String> queue, int ioLimit,
+			int threads, ScanCache cache, WordCountSink counts,
+			String[] extensions){
+		this.mFiles = queue;
+		this.mWorkers = hasVirtualThreads() ? ioLimit :
+				Math.min(ioLimit, PLATFORM_IO_THREADS);
+		this.mCalls = new Semaphore(ioLimit);
+		this.mCounters = new ForkJoinPool(Math.max(1, threads));
+		this.mStreams = new Semaphore(mCounters.getParallelism());
+		this.mCache = cache;
+		this.mCounts = counts;
+		this.mExtensions = extensions;
+	}
+
+//*********************************************************____________________
+//******************CLASS METHODS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Walk the roots, read and count every file and wait for all of it to
+	 * finish.
+	 *
+	 * @param roots The root directories to search
+	 * @param shard The shard of the files to count
+	 * @param shards The number of shards
+	 */
+	private void run(File[] roots, int shard, int shards){
+		ArrayList<Thread> threads = new ArrayList<Thread>();
+		try{
+			mPendingDirectories.set(roots.length);
+			for(File root : roots){
+				Path absolute = root.toPath().toAbsolutePath();
+				mDirectories.put(new Directory(absolute,
+						new ParallelFileWalker.Shard(absolute, shard, shards)));
+			}
+			if(roots.length == 0) endWalk();
+
+			for(int i = 0; i < mWorkers; i++){
+				threads.add(IO_THREADS.newThread(new Runnable(){
+					@Override
+					public void run(){
+						list();
+					}
+				}));
+				threads.add(IO_THREADS.newThread(new Runnable(){
+					@Override
+					public void run(){
+						read();
+					}
+				}));
+			}
+			for(Thread thread : threads){
+				thread.start();
+			}
+			for(Thread thread : threads){
+				thread.join();
+			}
+
+			//Let the counting threads finish what the readers handed them
+			mCounters.shutdown();
+			mCounters.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+		}catch(InterruptedException e){
+			for(Thread thread : threads){
+				thread.interrupt();
+			}
+			Thread.currentThread().interrupt();
+		}finally{
+			mCounters.shutdownNow();
+		}
+	}
+
+	/**
+	 * List directories from the queue of directories until the walk is
+	 * done, queuing their files for the readers.
+	 */
+	private void list(){
+		try{
+			Directory directory;
+			while((directory = mDirectories.take()) != END_OF_DIRECTORIES){
+				try{
+					list(directory);
+				}finally{
+					//The last directory listed ends the walk
+					if(mPendingDirectories.decrementAndGet() == 0) endWalk();
+				}
+			}
+		}catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * List one directory, queuing its subdirectories for the listers and
+	 * its files for the readers.
+	 *
+	 * @param directory The directory to list
+	 * @throws InterruptedException An exception occurs if the thread is
+	 * interrupted while waiting for a call or for space on the queue
+	 */
+	private void list(final Directory directory) throws InterruptedException{
+		mCalls.acquire();
+		try{
+			ParallelFileWalker.listDirectory(directory.mPath, directory.mShard,
+					new ParallelFileWalker.EntryVisitor(){
+				@Override
+				public void file(String path) throws InterruptedException{
+					if(mFiles.offer(path)) return;
+					//Let the readers make calls while the queue is full
+					mCalls.release();
+					try{
+						mFiles.put(path);
+					}finally{
+						mCalls.acquireUninterruptibly();
+					}
+				}
+
+				@Override
+				public void directory(Path subdirectory)
+						throws InterruptedException{
+					mPendingDirectories.incrementAndGet();
+					mDirectories.put(new Directory(subdirectory,
+							directory.mShard));
+				}
+			}, mExtensions);
+		}finally{
+			mCalls.release();
+		}
+	}
+
+	/**
+	 * Tell the listers and the readers that the walk is done.
+	 *
+	 * @throws InterruptedException An exception occurs if the thread is
+	 * interrupted while waiting for space on the queue of files
+	 */
+	private void endWalk() throws InterruptedException{
+		for(int i = 0; i < mWorkers; i++){
+			mDirectories.put(END_OF_DIRECTORIES);
+		}
+		for(int i = 0; i < mWorkers; i++){
+			mFiles.put(ParallelFileWalker.END_OF_FILES);
+		}
+	}
+
+	/**
+	 * Read files from the queue of files until the walk is done, handing
+	 * them to the counting threads.
+	 */
+	private void read(){
+		try{
+			String f;
+			while((f = mFiles.take()) != ParallelFileWalker.END_OF_FILES){
+				read(f);
+			}
+		}catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Read one file into memory and hand it to the counting threads, or
+	 * stream it to them if it is an archive or too large.
+	 *
+	 * @param f The file to read
+	 * @throws InterruptedException An exception occurs if the thread is
+	 * interrupted while waiting for a call, for memory or for a stream
+	 */
+	private void read(final String f) throws InterruptedException{
+		Path path = Paths.get(f);
+		BasicFileAttributes attributes = null;
+		mCalls.acquire();
+		try{
+			attributes = Files.readAttributes(path,
+					BasicFileAttributes.class);
+		}catch(IOException e){
+			//Opening the stream fails too and reports it
+		}finally{
+			mCalls.release();
+		}
+		if(attributes == null){
+			if(f.endsWith(FileUtil.ZIP_EXTENSION)){
+				spool(f, -1, 0);
+			}else{
+				stream(f, -1, 0);
+			}
+			return;
+		}
+
+		final long size = attributes.size();
+		final long modified = attributes.lastModifiedTime().toMillis();
+		if(mCache != null){
+			int[] cached = mCache.lookup(f, size, modified);
+			if(cached != null){
+				ScanStats stats = ScanStats.current();
+				if(stats != null) stats.addCacheHit();
+				for(int c : cached) mCounts.add(c);
+				return;
+			}
+		}
+		if(f.endsWith(FileUtil.ZIP_EXTENSION)){
+			spool(f, size, modified);
+			return;
+		}else if(ArchiveFormats.isArchive(f) || size > MAX_BUFFERED_FILE){
+			stream(f, size, modified);
+			return;
+		}
+
+		final int reserved = (int)Math.max(1, size);
+		mBufferedBytes.acquire(reserved);
+		ScanStats stats = ScanStats.current();
+		long start = ScanStats.start(stats);
+		byte[] bytes = null;
+		mCalls.acquire();
+		try{
+			bytes = Files.readAllBytes(path);
+		}catch(IOException e){
+			System.err.println("There was an error reading from file: "
+															+ f + "!");
+		}finally{
+			mCalls.release();
+		}
+		if(bytes == null){
+			mBufferedBytes.release(reserved);
+			if(stats != null) stats.addError();
+			mCounts.add(Histogram.UNREADABLE);
+			return;
+		}
+		if(stats != null) stats.record(ScanStats.Stage.READ, start);
+
+		final byte[] contents = bytes;
+		mCounters.execute(new Runnable(){
+			@Override
+			public void run(){
+				try{
+					count(f, contents, size, modified);
+				}finally{
+					mBufferedBytes.release(reserved);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Stream a file to a counting thread, reading it in chunks on this
+	 * thread until the counting thread has read all it needs.
+	 *
+	 * @param f The file, .txt or archive
+	 * @param size The size of the file for the cache, -1 to leave it out
+	 * of the cache
+	 * @param modified The modification time of the file, for the cache
+	 * @throws InterruptedException An exception occurs if the thread is
+	 * interrupted while waiting for a stream, a call or the counting thread
+	 */
+	private void stream(final String f, final long size, final long modified)
+			throws InterruptedException{
+		mStreams.acquire();
+		final Pipe pipe = new Pipe();
+		try{
+			mCounters.execute(new Runnable(){
+				@Override
+				public void run(){
+					try{
+						count(f, pipe, size, modified);
+					}finally{
+						pipe.close();
+						mStreams.release();
+					}
+				}
+			});
+		}catch(RuntimeException e){
+			mStreams.release();
+			throw e;
+		}
+
+		InputStream inStream = null;
+		try{
+			inStream = open(f);
+			int length;
+			byte[] chunk = pipe.free();
+			while(!pipe.isClosed() && (length = read(inStream, chunk)) != -1){
+				//Only the last chunk of the file is short
+				pipe.put(length == chunk.length ? chunk :
+						Arrays.copyOf(chunk, length));
+				chunk = pipe.free();
+			}
+			pipe.end(null);
+		}catch(IOException e){
+			pipe.end(e);
+		}finally{
+			close(inStream);
+		}
+	}
+
+	/**
+	 * Copy a zip archive to a local temporary file on this thread and hand
+	 * the copy to a counting thread to open as a ZipFile.
+	 *
+	 * @param f The zip archive
+	 * @param size The size of the file for the cache, -1 to leave it out
+	 * of the cache
+	 * @param modified The modification time of the file, for the cache
+	 * @throws InterruptedException An exception occurs if the thread is
+	 * interrupted while waiting for a stream or a call
+	 */
+	private void spool(final String f, final long size, final long modified)
+			throws InterruptedException{
+		mStreams.acquire();
+		File spool = null;
+		boolean handed = false;
+		try{
+			InputStream inStream = null;
+			OutputStream outStream = null;
+			try{
+				spool = File.createTempFile("txthistogram",
+						FileUtil.ZIP_EXTENSION);
+				outStream = new FileOutputStream(spool);
+				inStream = open(f);
+				byte[] chunk = new byte[CHUNK_SIZE];
+				int length;
+				while((length = read(inStream, chunk)) != -1){
+					outStream.write(chunk, 0, length);
+				}
+			}catch(IOException e){
+				System.err.println("There was an error reading from "
+											+ "zip file: " + f + "!");
+				e.printStackTrace();
+				ScanStats stats = ScanStats.current();
+				if(stats != null) stats.addError();
+				return;
+			}finally{
+				close(inStream);
+				close(outStream);
+			}
+
+			final File copy = spool;
+			mCounters.execute(new Runnable(){
+				@Override
+				public void run(){
+					try{
+						ArrayList<Integer> added = new ArrayList<Integer>();
+						if(WordCounter.countWordsInZip(copy, f,
+								record(added))){
+							cache(f, size, modified, added);
+						}
+					}finally{
+						copy.delete();
+						mStreams.release();
+					}
+				}
+			});
+			handed = true;
+		}finally{
+			if(!handed){
+				if(spool != null) spool.delete();
+				mStreams.release();
+			}
+		}
+	}
+
+	/**
+	 * Open a file, as a file system call.
+	 *
+	 * @param f The file
+	 * @return The stream of the file
+	 * @throws IOException An exception occurs if the file could not be
+	 * opened
+	 * @throws InterruptedException An exception occurs if the thread is
+	 * interrupted while waiting for a call
+	 */
+	private InputStream open(String f) throws IOException,
+			InterruptedException{
+		mCalls.acquire();
+		try{
+			return new FileInputStream(f);
+		}finally{
+			mCalls.release();
+		}
+	}
+
+	/**
+	 * Read the next chunk of a file, as a file system call.
+	 *
+	 * @param inStream The stream of the file
+	 * @param chunk The array to fill
+	 * @return The number of bytes read, less than the chunk only at the end
+	 * of the file, or -1 if there are no bytes left
+	 * @throws IOException An exception occurs if the file could not be read
+	 * @throws InterruptedException An exception occurs if the thread is
+	 * interrupted while waiting for a call
+	 */
+	private int read(InputStream inStream, byte[] chunk) throws IOException,
+			InterruptedException{
+		ScanStats stats = ScanStats.current();
+		long start = ScanStats.start(stats);
+		int length = 0, read = 0;
+		mCalls.acquire();
+		try{
+			while(length < chunk.length && (read = inStream.read(chunk,
+					length, chunk.length - length)) != -1){
+				length += read;
+			}
+		}finally{
+			mCalls.release();
+		}
+		if(stats != null) stats.record(ScanStats.Stage.READ, start);
+		return length == 0 && read == -1 ? -1 : length;
+	}
+
+	/**
+	 * Close a stream, ignoring errors.
+	 *
+	 * @param stream The stream, or null
+	 */
+	private static void close(Closeable stream){
+		if(stream == null) return;
+		try{
+			stream.close();
+		}catch(IOException e){
+			//What was read is already handed on
+		}
+	}
+
+	/**
+	 * Count a file read into memory, on a counting thread.
+	 *
+	 * @param f The file
+	 * @param contents The contents of the file
+	 * @param size The size of the file when it was checked, for the cache
+	 * @param modified The modification time of the file, for the cache
+	 */
+	private void count(String f, byte[] contents, long size, long modified){
+		ScanStats stats = ScanStats.current();
+		long start = ScanStats.start(stats);
+		int c = FileUtil.countWordsInBytes(contents, contents.length);
+		if(stats != null){
+			stats.addFile(contents.length);
+			stats.record(ScanStats.Stage.COUNT, start);
+		}
+		mCounts.add(c);
+		ArrayList<Integer> added = new ArrayList<Integer>();
+		added.add(c);
+		cache(f, size, modified, added);
+	}
+
+	/**
+	 * Count a file streamed from a reader, on a counting thread, the way
+	 * WordCounter.countWordsInFile counts a file it opens itself.
+	 *
+	 * @param f The file, .txt or archive
+	 * @param pipe The stream of the file's chunks
+	 * @param size The size of the file for the cache, -1 to leave it out
+	 * of the cache
+	 * @param modified The modification time of the file, for the cache
+	 */
+	private void count(String f, Pipe pipe, long size, long modified){
+		ScanStats stats = ScanStats.current();
+		long start = ScanStats.start(stats);
+		ArrayList<Integer> added = new ArrayList<Integer>();
+		WordCountSink counts = record(added);
+		boolean archive = ArchiveFormats.isArchive(f);
+		try{
+			if(archive){
+				ArchiveFormats.countEntry(pipe, f, -1, counts);
+				if(stats != null){
+					stats.addArchive(pipe.getBytesRead());
+					stats.record(ScanStats.Stage.ZIP, start);
+				}
+			}else{
+				int c = FileUtil.countWordsInStream(pipe);
+				if(stats != null){
+					stats.addFile(pipe.getBytesRead());
+					stats.record(ScanStats.Stage.COUNT, start);
+				}
+				counts.add(c);
+			}
+		}catch(Exception e){
+			if(archive){
+				System.err.println("There was an error reading from "
+											+ "archive file: " + f + "!");
+				e.printStackTrace();
+			}else{
+				System.err.println("There was an error reading from file: "
+																+ f + "!");
+				mCounts.add(Histogram.UNREADABLE);
+			}
+			if(stats != null) stats.addError();
+			return;
+		}
+		cache(f, size, modified, added);
+	}
+
+	/**
+	 * Create a sink that adds word counts to the sink of the scan and
+	 * keeps them for the cache.
+	 *
+	 * @param added The list to keep the word counts in
+	 * @return The sink
+	 */
+	private WordCountSink record(final ArrayList<Integer> added){
+		return new WordCountSink(){
+			@Override
+			public void add(int wordCount){
+				added.add(wordCount);
+				mCounts.add(wordCount);
+			}
+		};
+	}
+
+	/**
+	 * Add the word counts of a whole file to the cache.
+	 *
+	 * @param f The file
+	 * @param size The size of the file, -1 to leave it out of the cache
+	 * @param modified The modification time of the file
+	 * @param counts The word counts of the file
+	 */
+	private void cache(String f, long size, long modified,
+			ArrayList<Integer> counts){
+		if(mCache == null || size < 0) return;
+		try{
+			mCache.record(f, size, modified, WordCounter.toArray(counts));
+		}catch(IOException e){
+			System.err.println("Error writing to the scan cache!");
+		}
+	}
+
+//*********************************************************____________________
+//*******************INNER CLASSES*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The chunks of a file on their way from a reader to a counting
+	 * thread, read as a stream.
+	 *
+	 * The reader puts the chunks and then the end of the file, or the
+	 * error that stopped it. The counting thread blocks for the next chunk
+	 * as a managed blocker, so the pool can run other counts meanwhile, and
+	 * closes the pipe when it is done so the reader stops early if the
+	 * rest of the file isn't needed.
+	 *
+	 * The counting thread hands every chunk it has read back to the reader
+	 * to fill again, so a file of any size is streamed through at most
+	 * PIPE_CHUNKS + 2 chunks.
+	 */
+	private static class Pipe extends InputStream
+			implements ForkJoinPool.ManagedBlocker {
+
+		/**
+		 * A marker put on the queue after the last chunk. It is compared
+		 * by reference.
+		 */
+		private final static byte[] END_OF_CHUNKS = new byte[0];
+
+		/**
+		 * The chunks read and not yet taken
+		 */
+		private final ArrayBlockingQueue<byte[]> mChunks =
+				new ArrayBlockingQueue<byte[]>(PIPE_CHUNKS);
+		/**
+		 * The chunks read by the counting thread, to fill again
+		 */
+		private final ArrayBlockingQueue<byte[]> mFree =
+				new ArrayBlockingQueue<byte[]>(PIPE_CHUNKS + 1);
+		/**
+		 * The error that ended the file, read after the end marker
+		 */
+		private volatile IOException mFailure;
+		/**
+		 * Whether the counting thread is done with the file
+		 */
+		private volatile boolean mClosed = false;
+		/**
+		 * The chunk being read, END_OF_CHUNKS at the end
+		 */
+		private byte[] mChunk = new byte[0];
+		/**
+		 * The position in the chunk being read
+		 */
+		private int mPosition = 0;
+		/**
+		 * The chunk taken by the blocker
+		 */
+		private byte[] mTaken;
+		/**
+		 * The number of bytes taken from the pipe
+		 */
+		private long mBytesRead = 0;
+
+		/**
+		 * Get a chunk to fill, one the counting thread is done with if
+		 * there is one.
+		 *
+		 * @return An array of CHUNK_SIZE bytes
+		 */
+		byte[] free(){
+			byte[] chunk = mFree.poll();
+			return chunk != null ? chunk : new byte[CHUNK_SIZE];
+		}
+
+		/**
+		 * Put a chunk, waiting while the counting thread is PIPE_CHUNKS
+		 * behind.
+		 *
+		 * @param chunk The chunk
+		 * @throws InterruptedException An exception occurs if the thread
+		 * is interrupted while waiting
+		 */
+		void put(byte[] chunk) throws InterruptedException{
+			mChunks.put(chunk);
+		}
+
+		/**
+		 * Put the end of the file, waiting for room like a chunk. Closing
+		 * the pipe makes room, and the reader puts at most one chunk after
+		 * that.
+		 *
+		 * @param failure The error that stopped the reader, or null at the
+		 * end of the file
+		 * @throws InterruptedException An exception occurs if the thread
+		 * is interrupted while waiting
+		 */
+		void end(IOException failure) throws InterruptedException{
+			mFailure = failure;
+			mChunks.put(END_OF_CHUNKS);
+		}
+
+		/**
+		 * Check if the counting thread is done with the file.
+		 *
+		 * @return True if the pipe is closed
+		 */
+		boolean isClosed(){
+			return mClosed;
+		}
+
+		/**
+		 * Get the number of bytes taken from the pipe.
+		 *
+		 * @return The number of bytes
+		 */
+		long getBytesRead(){
+			return mBytesRead;
+		}
+
+		@Override
+		public int read() throws IOException{
+			if(!next()) return -1;
+			return mChunk[mPosition++] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length)
+				throws IOException{
+			if(length == 0) return 0;
+			if(!next()) return -1;
+			int n = Math.min(length, mChunk.length - mPosition);
+			System.arraycopy(mChunk, mPosition, bytes, offset, n);
+			mPosition += n;
+			return n;
+		}
+
+		@Override
+		public int available(){
+			return mChunk.length - mPosition;
+		}
+
+		@Override
+		public void close(){
+			mClosed = true;
+			//Wake the reader if it waits for room
+			mChunks.clear();
+		}
+
+		@Override
+		public boolean block() throws InterruptedException{
+			if(mTaken == null) mTaken = mChunks.take();
+			return true;
+		}
+
+		@Override
+		public boolean isReleasable(){
+			if(mTaken == null) mTaken = mChunks.poll();
+			return mTaken != null;
+		}
+
+		/**
+		 * Take chunks until one has bytes left to read.
+		 *
+		 * @return False at the end of the file
+		 * @throws IOException An exception occurs if the reader failed
+		 */
+		private boolean next() throws IOException{
+			while(mPosition == mChunk.length){
+				if(mChunk == END_OF_CHUNKS){
+					if(mFailure != null) throw mFailure;
+					return false;
+				}
+				try{
+					ForkJoinPool.managedBlock(this);
+				}catch(InterruptedException e){
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException();
+				}
+				//The short last chunk is a copy and isn't filled again
+				if(mChunk.length == CHUNK_SIZE) mFree.offer(mChunk);
+				mChunk = mTaken;
+				mTaken = null;
+				mPosition = 0;
+				mBytesRead += mChunk.length;
+			}
+			return true;
+		}
+
+	}
+
+	/**
+	 * A directory still to list, with the shard of its walk.
+	 */
+	private static class Directory {
+
+		/**
+		 * The absolute path of the directory
+		 */
+		private final Path mPath;
+		/**
+		 * The shard of the files to count
+		 */
+		private final ParallelFileWalker.Shard mShard;
+
+		/**
+		 * Create a directory to list.
+		 *
+		 * @param path The absolute path of the directory
+		 * @param shard The shard of the files to count
+		 */
+		Directory(Path path, ParallelFileWalker.Shard shard){
+			this.mPath = path;
+			this.mShard = shard;
+		}
+
+	}
+
+}
@@ -0,0 +1,271 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * CumulativeHistogram.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.util.Arrays;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * An immutable histogram of word counts at an interval of 1, stored as the
+ * sorted word counts with a frequency and the running sums of their
+ * frequencies.
+ *
+ * A directory is scanned once into this and any interval can be derived
+ * from it afterwards without reading a file again. The number of files
+ * with word counts in any range is the difference of two prefix sums, found
+ * with two binary searches. Separating it by an interval jumps from one
+ * bucket that has files to the next, so large sparse word counts cost one
+ * step per bucket with data instead of one per interval in between.
+ *
+ * Two cumulative histograms can be merged, for example the results of two
+ * runs over different directories.
+ *
+ */
+public class CumulativeHistogram {
+
+//*********************************************************____________________
+//*****************STATIC METHODS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Create a cumulative histogram from a histogram with an interval of 1.
+	 *
+	 * @param histogram The histogram of the word counts
+	 * @return The cumulative histogram
+	 */
+	public static CumulativeHistogram from(Histogram histogram){
+		if(histogram.getInterval() != 1)
+			throw new IllegalArgumentException("Interval must be 1");
+		int[] keys = histogram.sortedKeys();
+		long[] prefix = new long[keys.length + 1];
+		for(int i = 0; i < keys.length; i++){
+			prefix[i + 1] = prefix[i] + histogram.get(keys[i]);
+		}
+		return new CumulativeHistogram(keys, prefix,
+				histogram.getUnreadable());
+	}
+
+	/**
+	 * Parse a list of intervals separated by commas, such as "1,10,100".
+	 *
+	 * @param list The list of intervals
+	 * @return The intervals in the order they were listed
+	 * @throws NumberFormatException If an interval isn't a positive number
+	 */
+	public static int[] parseIntervals(String list){
+		String[] parts = list.split(",");
+		int[] intervals = new int[parts.length];
+		for(int i = 0; i < parts.length; i++){
+			intervals[i] = Integer.parseInt(parts[i].trim());
+			if(intervals[i] <= 0)
+				throw new NumberFormatException("Bad interval: " + parts[i]);
+		}
+		return intervals;
+	}
+
+//*********************************************************____________________
+//******************CLASS FIELDS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The word counts with a frequency, in ascending order
+	 */
+	private final int[] mKeys;
+	/**
+	 * The number of files with a word count below mKeys[i] is mPrefix[i],
+	 * and mPrefix[mKeys.length] is the number of readable files
+	 */
+	private final long[] mPrefix;
+	/**
+	 * The number of files that couldn't be read
+	 */
+	private final long mUnreadable;
+
+//*********************************************************____________________
+//******************CONSTRUCTORS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Create a cumulative histogram from its arrays.
+	 *
+	 * @param keys The sorted word counts with a frequency
+	 * @param prefix The running sums of the frequencies, one longer than the
+	 * keys
+	 * @param unreadable The number of files that couldn't be read
+	 */
+	private CumulativeHistogram(int[] keys, long[] prefix, long unreadable){
+		this.mKeys = keys;
+		this.mPrefix = prefix;
+		this.mUnreadable = unreadable;
+	}
+
+//*********************************************************____________________
+//******************CLASS METHODS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Get the number of files with a word count in a range.
+	 *
+	 * @param from The lowest word count of the range
+	 * @param to The highest word count of the range
+	 * @return The number of files with a word count from from to to
+	 */
+	public long count(int from, int to){
+		if(to < from) return 0;
+		return mPrefix[upperIndex(to)] - mPrefix[lowerIndex(from)];
+	}
+
+	/**
+	 * Get the number of files with a word count.
+	 *
+	 * @param wordCount The word count
+	 * @return The number of files with exactly that word count
+	 */
+	public long get(int wordCount){
+		return count(wordCount, wordCount);
+	}
+
+	/**
+	 * Get the number of files that were read.
+	 *
+	 * @return The number of readable files
+	 */
+	public long getTotal(){
+		return mPrefix[mKeys.length];
+	}
+
+	/**
+	 * Get the number of files that could not be read.
+	 *
+	 * @return The number of unreadable files
+	 */
+	public long getUnreadable(){
+		return mUnreadable;
+	}
+
+	/**
+	 * Get the number of different word counts.
+	 *
+	 * @return The number of word counts with a frequency
+	 */
+	public int distinctCount(){
+		return mKeys.length;
+	}
+
+	/**
+	 * Get the word count of the file at a rank, counting the files in
+	 * ascending order of word count from 0.
+	 *
+	 * @param rank The rank, from 0 to getTotal() - 1
+	 * @return The word count of the file at the rank
+	 */
+	public int valueAtRank(long rank){
+		if(rank < 0 || rank >= getTotal())
+			throw new IndexOutOfBoundsException("Bad rank: " + rank);
+		//Find the first key whose running sum passes the rank
+		int low = 0, high = mKeys.length - 1;
+		while(low < high){
+			int middle = (low + high) >>> 1;
+			if(mPrefix[middle + 1] > rank) high = middle;
+			else low = middle + 1;
+		}
+		return mKeys[low];
+	}
+
+	/**
+	 * Separate the word counts into buckets of an interval.
+	 *
+	 * Every bucket with files is found with a binary search from the
+	 * previous one, so this takes time for the buckets with data and not
+	 * for the empty ones between them.
+	 *
+	 * @param interval The interval to aggregate the data by
+	 * @return A new histogram separated by the interval
+	 */
+	public Histogram withInterval(int interval){
+		if(interval <= 0)
+			throw new IllegalArgumentException("Bad interval: " + interval);
+		Histogram histogram = new Histogram(interval);
+		if(mUnreadable != 0) histogram.add(Histogram.UNREADABLE, mUnreadable);
+		int i = 0;
+		while(i < mKeys.length){
+			int bucket = mKeys[i] - mKeys[i] % interval;
+			long last = (long)bucket + interval - 1;
+			int end = last >= Integer.MAX_VALUE ?
+					mKeys.length : upperIndex((int)last);
+			histogram.add(bucket, mPrefix[end] - mPrefix[i]);
+			i = end;
+		}
+		return histogram;
+	}
+
+	/**
+	 * Merge this with another cumulative histogram.
+	 *
+	 * @param other The cumulative histogram to merge with
+	 * @return A new cumulative histogram of the files of both
+	 */
+	public CumulativeHistogram merge(CumulativeHistogram other){
+		int[] keys = new int[mKeys.length + other.mKeys.length];
+		long[] prefix = new long[keys.length + 1];
+		int a = 0, b = 0, n = 0;
+		while(a < mKeys.length || b < other.mKeys.length){
+			int key;
+			long frequency = 0;
+			if(b == other.mKeys.length ||
+					(a < mKeys.length && mKeys[a] <= other.mKeys[b])){
+				key = mKeys[a];
+			}else{
+				key = other.mKeys[b];
+			}
+			if(a < mKeys.length && mKeys[a] == key){
+				frequency += mPrefix[a + 1] - mPrefix[a];
+				a++;
+			}
+			if(b < other.mKeys.length && other.mKeys[b] == key){
+				frequency += other.mPrefix[b + 1] - other.mPrefix[b];
+				b++;
+			}
+			keys[n] = key;
+			prefix[n + 1] = prefix[n] + frequency;
+			n++;
+		}
+		return new CumulativeHistogram(Arrays.copyOf(keys, n),
+				Arrays.copyOf(prefix, n + 1), mUnreadable + other.mUnreadable);
+	}
+
+	/**
+	 * Find the index of the first key at or above a word count.
+	 *
+	 * @param wordCount The word count
+	 * @return The index, mKeys.length if every key is below it
+	 */
+	private int lowerIndex(int wordCount){
+		int index = Arrays.binarySearch(mKeys, wordCount);
+		return index >= 0 ? index : -index - 1;
+	}
+
+	/**
+	 * Find the index of the first key above a word count.
+	 *
+	 * @param wordCount The word count
+	 * @return The index, mKeys.length if every key is at or below it
+	 */
+	private int upperIndex(int wordCount){
+		int index = Arrays.binarySearch(mKeys, wordCount);
+		return index >= 0 ? index + 1 : -index - 1;
+	}
+
+}
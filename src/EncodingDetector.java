@@ -0,0 +1,165 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * EncodingDetector.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A class for working out the encoding of a text file from its first bytes.
+ *
+ * A byte order mark always decides the encoding. Without one, text with a
+ * zero byte in most of its even or odd positions is taken as UTF-16, text
+ * that is valid UTF-8 (including plain ASCII) as UTF-8, and anything else
+ * as ISO-8859-1, where every byte is a character.
+ *
+ * Only a sample of the start of the file is looked at, so a file that
+ * starts as ASCII and has Latin-1 bytes further on is read as UTF-8.
+ *
+ */
+public class EncodingDetector {
+
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The number of bytes at the start of a file that are looked at
+	 */
+	final static int SAMPLE_SIZE = 4096;
+
+//*********************************************************____________________
+//*****************STATIC METHODS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Work out the encoding of a file from its first bytes.
+	 *
+	 * @param bytes The first bytes of the file
+	 * @param length The number of bytes, best at least SAMPLE_SIZE
+	 * @param charset The encoding of files without a byte order mark, or
+	 * null to guess it
+	 * @return The encoding named by the byte order mark if there is one,
+	 * otherwise charset or the guessed encoding
+	 */
+	static Charset detect(byte[] bytes, int length, Charset charset){
+		Charset bom = bomCharset(bytes, length);
+		if(bom != null) return bom;
+		return charset != null ? charset : guess(bytes, length);
+	}
+
+	/**
+	 * Get the length of the byte order mark at the start of some bytes.
+	 *
+	 * @param bytes The first bytes of a file
+	 * @param length The number of bytes
+	 * @return The length of the byte order mark, 0 if there is none
+	 */
+	static int bomLength(byte[] bytes, int length){
+		Charset charset = bomCharset(bytes, length);
+		if(charset == null) return 0;
+		return charset == StandardCharsets.UTF_8 ? 3 : 2;
+	}
+
+	/**
+	 * Get the encoding named by the byte order mark at the start of some
+	 * bytes.
+	 *
+	 * @param bytes The first bytes of a file
+	 * @param length The number of bytes
+	 * @return The encoding, or null if there is no byte order mark
+	 */
+	static Charset bomCharset(byte[] bytes, int length){
+		if(length >= 3 && (bytes[0] & 0xFF) == 0xEF &&
+				(bytes[1] & 0xFF) == 0xBB && (bytes[2] & 0xFF) == 0xBF)
+			return StandardCharsets.UTF_8;
+		if(length >= 2 && (bytes[0] & 0xFF) == 0xFE &&
+				(bytes[1] & 0xFF) == 0xFF)
+			return StandardCharsets.UTF_16BE;
+		if(length >= 2 && (bytes[0] & 0xFF) == 0xFF &&
+				(bytes[1] & 0xFF) == 0xFE)
+			return StandardCharsets.UTF_16LE;
+		return null;
+	}
+
+	/**
+	 * Guess the encoding of some bytes without a byte order mark.
+	 *
+	 * @param bytes The first bytes of a file
+	 * @param length The number of bytes, best at least SAMPLE_SIZE
+	 * @return The most likely encoding
+	 */
+	static Charset guess(byte[] bytes, int length){
+		//ASCII text in UTF-16 has a zero in every other byte
+		int pairs = length / 2;
+		if(pairs > 0){
+			int evenZeros = 0, oddZeros = 0;
+			for(int i = 0; i + 1 < length; i += 2){
+				if(bytes[i] == 0) evenZeros++;
+				if(bytes[i + 1] == 0) oddZeros++;
+			}
+			if(oddZeros * 10 >= pairs * 3 && evenZeros * 20 < pairs)
+				return StandardCharsets.UTF_16LE;
+			if(evenZeros * 10 >= pairs * 3 && oddZeros * 20 < pairs)
+				return StandardCharsets.UTF_16BE;
+		}
+		return isUtf8(bytes, length) ? StandardCharsets.UTF_8 :
+				StandardCharsets.ISO_8859_1;
+	}
+
+	/**
+	 * Check if some bytes are valid UTF-8. A sequence cut off by the end of
+	 * the bytes is allowed, since the bytes are a sample of a larger file.
+	 *
+	 * @param bytes The bytes
+	 * @param length The number of bytes
+	 * @return True if the bytes are valid UTF-8
+	 */
+	private static boolean isUtf8(byte[] bytes, int length){
+		int i = 0;
+		while(i < length){
+			int b = bytes[i] & 0xFF;
+			int continuations;
+			int min;
+			if(b < 0x80){
+				i++;
+				continue;
+			}else if(b >= 0xC2 && b <= 0xDF){
+				continuations = 1; min = 0x80;
+			}else if(b >= 0xE0 && b <= 0xEF){
+				continuations = 2; min = 0x800;
+			}else if(b >= 0xF0 && b <= 0xF4){
+				continuations = 3; min = 0x10000;
+			}else{
+				return false;
+			}
+			int codePoint = b & (0x3F >> continuations);
+			for(int j = 1; j <= continuations; j++){
+				if(i + j >= length) return true; //Cut off by the sample
+				int c = bytes[i + j] & 0xFF;
+				if((c & 0xC0) != 0x80) return false;
+				codePoint = (codePoint << 6) | (c & 0x3F);
+			}
+			//Overlong encodings, surrogates and code points past U+10FFFF
+			if(codePoint < min || codePoint > 0x10FFFF ||
+					(codePoint >= 0xD800 && codePoint <= 0xDFFF))
+				return false;
+			i += continuations + 1;
+		}
+		return true;
+	}
+
+}
@@ -11,7 +11,12 @@
 //***************************IMPORTED LIBRARIES********************************
 //*****************************************************************************
 
-import java.util.HashMap;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Locale;
 
 //*****************************************************************************
 //*******************************CLASSES***************************************
@@ -26,6 +31,23 @@ import java.util.HashMap;
  */
 public class EntryPoint {
 	
+//*********************************************************____________________
+//*****************STATIC FIELDS***************************____________________
+//*********************************************************____________________
+	
+	/**
+	 * The colors, font and encoding of the charts, set with -style
+	 */
+	private static ChartStyle sChartStyle = new ChartStyle();
+	/**
+	 * The file extension of the charts, set with -PNG, -SVG or -PDF
+	 */
+	private static String sChartExtension = ".png";
+	/**
+	 * The file the histograms are exported to, set with -export, or null
+	 */
+	private static String sExportFile = null;
+	
 //*********************************************************____________________
 //******************CLASS METHODS**************************____________________
 //*********************************************************____________________
@@ -39,8 +61,66 @@ public class EntryPoint {
 	 * 
 	 * A PNG output can be specified with the -PNG flag.
 	 * Otherwise a command line output will be all that's produced.
+	 * The colors, font, column mode and encoding of the PNG can be set with
+	 * -style, and charts of any size are drawn a band of rows at a time.
+	 * The -SVG and -PDF flags make the chart in those vector formats
+	 * instead, written out shape by shape.
+	 * 
+	 * The number of threads to count files with can be specified with the
+	 * -threads flag, where 0 uses one thread per processor.
+	 * 
+	 * Word counts can be kept between runs with the -cache flag so that
+	 * unchanged files are not read again.
+	 * 
+	 * With the -watch flag the directory is watched after the scan and the
+	 * output is made again whenever txt or zip files change.
 	 * 
-	 * txthistogram directory [interval] [-PNG width height]
+	 * Several intervals can be separated by commas, such as 1,10,100. The
+	 * directory is scanned once and the output is made for every interval.
+	 * 
+	 * With the -sketch flag the word counts are kept in log sized buckets
+	 * instead of intervals, and the percentiles are shown with them.
+	 * 
+	 * A large tree can be split between processes. Each one scans one shard
+	 * of the files with -shard index/count, and more directories can be
+	 * added with -root. With -partial the word counts are saved to a binary
+	 * file instead of being printed, and the merge command combines any
+	 * number of those files into the usual output.
+	 * 
+	 * The encoding of the files is detected from their first bytes unless
+	 * it is set with -charset. A byte order mark always decides it.
+	 * 
+	 * Files up to a size are read in one call and files from a larger size
+	 * are mapped into memory, the sizes can be set with -io. On slow
+	 * storage such as NFS, -async keeps many listings and reads in flight
+	 * at once, on virtual threads where the JVM has them.
+	 * 
+	 * With -export the histogram is also written to a file for other
+	 * programs, as CSV, JSON Lines or the binary format of partial files,
+	 * chosen by the extension of the file.
+	 * 
+	 * The compare command reads two files saved with -partial or exported
+	 * in the binary format and prints the change of every bucket, the KS
+	 * and earth mover's distances between them and the change of their
+	 * percentiles, with a PNG of both if -PNG is used.
+	 * 
+	 * With the -stats flag the files, bytes, errors and stage latencies of
+	 * the run are printed to stderr when it ends, and as a JSON line every
+	 * period if one is given.
+	 * 
+	 * txthistogram directory [interval[,interval...]]
+	 * [-PNG|-SVG|-PDF width height] [-interval list] [-sketch]
+	 * [-threads count] [-cache [file]] [-watch [milliseconds]]
+	 * [-root directory] [-shard index/count] [-partial file]
+	 * [-stats [milliseconds]] [-charset name] [-io small map]
+	 * [-async [limit]] [-style settings] [-export file]
+	 * 
+	 * txthistogram merge partial... [-interval list]
+	 * [-PNG|-SVG|-PDF width height] [-sketch] [-partial file]
+	 * [-stats [milliseconds]] [-style settings] [-export file]
+	 * 
+	 * txthistogram compare before after [-interval interval]
+	 * [-PNG width height] [-stats [milliseconds]] [-style settings]
 	 *
 	 * @param args The arguments for the command line application
 	 */
@@ -50,59 +130,464 @@ public class EntryPoint {
 			printHelp();
 		}else{
 			//Default values
-			int interval = 1;
+			int[] intervals = {1};
 			int width = 500, height = 500;
 			String path = ".";
 			boolean pngoutput = false;
+			ScanOptions options = new ScanOptions();
+			boolean watch = false;
+			boolean sketch = false;
+			long debounce = HistogramWatcher.DEFAULT_DEBOUNCE_MILLIS;
+			boolean merge = args[0].equals("merge");
+			boolean compare = args[0].equals("compare");
+			ArrayList<File> partials = new ArrayList<File>();
+			String partial = null;
+			boolean stats = false;
+			long statsPeriod = 0;
 			
 			//Parse arguments
 			try{
-				if(args.length == 1){ 
-					//txthistogram directory
-					path = args[0];
-				}else if(args.length == 2){ 
-					//txthistogram directory interval
-					path = args[0];
-					interval = Integer.parseInt(args[1]);
-				}else if(args.length == 4){ 
-					//txthistogram directory -PNG width height
-					path = args[0];
-					if(!args[1].equals("-PNG")) throw new Exception();
-					width = Integer.parseInt(args[2]);
-					height = Integer.parseInt(args[3]);
-					pngoutput = true;
-				}else if(args.length == 5){ 
-					//txthistogram directory interval -PNG width height
-					path = args[0];
-					interval = Integer.parseInt(args[1]);
-					if(!args[2].equals("-PNG")) throw new Exception();
-					width = Integer.parseInt(args[3]);
-					height = Integer.parseInt(args[4]);
-					pngoutput = true;
-				}else{ //Unexpected input
-					System.out.println("Unexpected arguments!");
-					printHelp();
-					System.exit(1);
+				int i = 0;
+				if(merge){
+					//txthistogram merge partial... [options]
+					i++;
+					while(i < args.length && !args[i].startsWith("-")){
+						partials.add(new File(args[i++]));
+					}
+					if(partials.isEmpty()) throw new Exception();
+				}else if(compare){
+					//txthistogram compare before after [options]
+					i++;
+					while(i < args.length && !args[i].startsWith("-")){
+						partials.add(new File(args[i++]));
+					}
+					if(partials.size() != 2) throw new Exception();
+				}else{
+					//txthistogram directory [interval[,interval...]] [options]
+					path = args[i++];
+					if(i < args.length && !args[i].startsWith("-")){
+						intervals = CumulativeHistogram.parseIntervals(args[i++]);
+					}
+				}
+				while(i < args.length){
+					String option = args[i++];
+					//Accept --option as well as -option
+					if(option.startsWith("--")) option = option.substring(1);
+					if(option.equals("-PNG") || option.equals("-SVG")
+							|| option.equals("-PDF")){
+						//-PNG width height, or -SVG or -PDF
+						width = Integer.parseInt(args[i++]);
+						height = Integer.parseInt(args[i++]);
+						pngoutput = true;
+						sChartExtension = "." + option.substring(1)
+								.toLowerCase(Locale.ROOT);
+					}else if(option.equals("-style")){
+						//-style key=value[,key=value...]
+						sChartStyle = ChartStyle.parse(args[i++]);
+					}else if(option.equals("-export")){
+						//-export file, .csv, .jsonl or .hist
+						sExportFile = args[i++];
+						if(HistogramExporters.forFile(sExportFile) == null)
+							throw new Exception();
+					}else if(option.equals("-interval")){
+						//-interval interval[,interval...]
+						intervals = CumulativeHistogram.parseIntervals(args[i++]);
+					}else if(option.equals("-sketch")){
+						sketch = true;
+					}else if(option.equals("-partial")){
+						//-partial file
+						partial = args[i++];
+					}else if(option.equals("-stats")){
+						//-stats [milliseconds]
+						stats = true;
+						if(i < args.length && !args[i].startsWith("-")){
+							statsPeriod = Long.parseLong(args[i++]);
+						}
+					}else if(merge || compare){ //The rest only apply to scans
+						throw new Exception();
+					}else if(option.equals("-threads")){
+						//-threads count
+						options.setThreads(Integer.parseInt(args[i++]));
+					}else if(option.equals("-watch")){
+						//-watch [milliseconds]
+						watch = true;
+						if(i < args.length && !args[i].startsWith("-")){
+							debounce = Long.parseLong(args[i++]);
+						}
+					}else if(option.equals("-cache")){
+						//-cache [file], in the directory by default
+						if(i < args.length && !args[i].startsWith("-")){
+							options.setCacheFile(args[i++]);
+						}else{
+							options.setCacheFile(path + "/" + 
+									ScanCache.DEFAULT_FILE_NAME);
+						}
+					}else if(option.equals("-root")){
+						//-root directory
+						options.addRoot(args[i++]);
+					}else if(option.equals("-shard")){
+						//-shard index/count
+						String[] shard = args[i++].split("/");
+						if(shard.length != 2) throw new Exception();
+						options.setShard(Integer.parseInt(shard[0]),
+								Integer.parseInt(shard[1]));
+					}else if(option.equals("-io")){
+						//-io small map, sizes in bytes
+						int small = Integer.parseInt(args[i++]);
+						long map = Long.parseLong(args[i++]);
+						options.setIoThresholds(small, map);
+					}else if(option.equals("-async")){
+						//-async [limit]
+						int limit = ConcurrentIoScanner.DEFAULT_IO_LIMIT;
+						if(i < args.length && !args[i].startsWith("-")){
+							limit = Integer.parseInt(args[i++]);
+						}
+						if(limit <= 0) throw new Exception();
+						options.setIoLimit(limit);
+					}else if(option.equals("-charset")){
+						//-charset name, or auto to detect it
+						String charset = args[i++];
+						options.setCharset(charset.equalsIgnoreCase("auto") ?
+								null : Charset.forName(charset));
+					}else{ //Unexpected input
+						throw new Exception();
+					}
 				}
 				//Account for bad size input
-				if(width <= 0 || height <= 0) throw new Exception();
+				if(width <= 0 || height <= 0 || debounce < 0 ||
+						statsPeriod < 0)
+					throw new Exception();
+				//Only the histograms of intervals are exported
+				if(sExportFile != null && (sketch || partial != null))
+					throw new Exception();
+				//Two runs are compared at one interval in a PNG
+				if(compare && (sketch || partial != null ||
+						sExportFile != null || intervals.length != 1 ||
+						!sChartExtension.equals(".png")))
+					throw new Exception();
+				//Watching only follows the whole of one local directory
+				if(watch && (partial != null || options.getShards() > 1 ||
+						!options.getRoots().isEmpty() ||
+						options.getIoLimit() > 0))
+					throw new Exception();
 			}catch(Exception e){
 				System.out.println("Unexpected arguments!");
 				printHelp();
 				System.exit(1);
 			}
 			
-			//Get and print
-			HashMap<Integer, Integer> histogram = 
-					new HistogramDataBuilder(path).build(interval);
-			HistogramDataBuilder.printHistogramData(histogram, interval);
+			if(stats) reportStats(statsPeriod);
 			
-			//Make PNG
-			if(pngoutput){
-				new PNGHistogramBuilder().build(path + "/output.png", width,
-						height, histogram, interval);
+			//Keep the output live until the program is stopped
+			if(watch){
+				watch(path, options, intervals, sketch, debounce, pngoutput,
+						width, height);
+				return;
 			}
+			
+			//Compare the saved histograms of two runs
+			if(compare){
+				compare(partials.get(0), partials.get(1), intervals[0],
+						pngoutput, width, height);
+				return;
+			}
+			
+			//Combine the partial histograms of other runs
+			if(merge){
+				Histogram histogram = null;
+				try{
+					histogram = HistogramFile.merge(
+							partials.toArray(new File[partials.size()]));
+					//Files exported at another interval can't be regrouped
+					if(histogram.getInterval() != 1)
+						throw new IOException("the interval is "
+								+ histogram.getInterval() + ", not 1");
+				}catch(IOException e){
+					System.err.println("Could not merge partials: "
+							+ e.getMessage());
+					System.exit(1);
+				}
+				output(histogram, partial, intervals, sketch, ".", pngoutput,
+						width, height);
+				return;
+			}
+			
+			//Keep log buckets and percentiles instead of intervals
+			if(sketch && partial == null){
+				output(new HistogramDataBuilder(path, options).buildSketch(),
+						path, pngoutput, width, height);
+				return;
+			}
+			
+			//Scan once and get every interval from the same data
+			Histogram histogram = new HistogramDataBuilder(path, options)
+					.buildHistogram(1);
+			output(histogram, partial, intervals, sketch, path, pngoutput,
+					width, height);
+		}
+	}
+	
+	/**
+	 * Save the word counts to a partial file if one was specified, or
+	 * otherwise print them and make the PNGs.
+	 * 
+	 * @param histogram A Histogram object with an interval of 1
+	 * @param partial The file to save the word counts to, or null to print
+	 * them
+	 * @param intervals The interval lengths between histogram bars
+	 * @param sketch Whether to show log buckets and percentiles instead of
+	 * the intervals
+	 * @param path The directory the PNGs are made in
+	 * @param pngoutput Whether to make the PNGs
+	 * @param width The width of the PNGs in pixels
+	 * @param height The height of the PNGs in pixels
+	 */
+	private static void output(Histogram histogram, String partial,
+			int[] intervals, boolean sketch, String path, boolean pngoutput,
+			int width, int height){
+		if(partial != null){
+			try{
+				HistogramFile.write(histogram, new File(partial));
+			}catch(IOException e){
+				System.err.println("Could not write partial: " + partial);
+				System.exit(1);
+			}
+		}else if(sketch){
+			output(LogHistogramSketch.from(histogram), path, pngoutput,
+					width, height);
+		}else{
+			output(CumulativeHistogram.from(histogram), intervals, path,
+					pngoutput, width, height);
+		}
+	}
+	
+	/**
+	 * Print the histogram data and make the PNGs for every interval.
+	 * 
+	 * With one interval the output is the same as it always was. With more
+	 * than one, every histogram is printed under its interval and the PNGs
+	 * and exported files are named after their intervals.
+	 * 
+	 * @param data The word counts of the scan
+	 * @param intervals The interval lengths between histogram bars
+	 * @param path The directory the PNGs are made in
+	 * @param pngoutput Whether to make the PNGs
+	 * @param width The width of the PNGs in pixels
+	 * @param height The height of the PNGs in pixels
+	 */
+	private static void output(CumulativeHistogram data, int[] intervals,
+			String path, boolean pngoutput, int width, int height){
+		if(intervals.length == 1){
+			output(data.withInterval(intervals[0]),
+					path + "/output" + sChartExtension, sExportFile,
+					pngoutput, width, height);
+			return;
 		}
+		for(int interval : intervals){
+			System.out.println("Interval: " + interval);
+			String export = null;
+			if(sExportFile != null){ //Such as counts-10.csv
+				int dot = sExportFile.lastIndexOf('.');
+				export = sExportFile.substring(0, dot) + "-" + interval
+						+ sExportFile.substring(dot);
+			}
+			output(data.withInterval(interval),
+					path + "/output-" + interval + sChartExtension, export,
+					pngoutput, width, height);
+		}
+	}
+	
+	/**
+	 * Print the sketch with its percentiles and make the PNG if it was
+	 * specified.
+	 * 
+	 * @param sketch A LogHistogramSketch object with the word counts
+	 * @param path The directory the PNG is made in
+	 * @param pngoutput Whether to make a PNG
+	 * @param width The width of the PNG in pixels
+	 * @param height The height of the PNG in pixels
+	 */
+	private static void output(LogHistogramSketch sketch, String path,
+			boolean pngoutput, int width, int height){
+		HistogramDataBuilder.printHistogramData(sketch);
+		
+		//Make the chart
+		if(pngoutput){
+			chartBuilder().build(path + "/output" + sChartExtension, width,
+					height, sketch);
+		}
+	}
+	
+	/**
+	 * Print the histogram data, and export it and make the PNG if they
+	 * were specified.
+	 * 
+	 * @param histogram A Histogram object with histogram data
+	 * @param file The file name of the PNG
+	 * @param export The file to export the histogram to, or null
+	 * @param pngoutput Whether to make a PNG
+	 * @param width The width of the PNG in pixels
+	 * @param height The height of the PNG in pixels
+	 */
+	private static void output(Histogram histogram, String file,
+			String export, boolean pngoutput, int width, int height){
+		HistogramDataBuilder.printHistogramData(histogram);
+		
+		//Export for other programs
+		if(export != null){
+			try{
+				HistogramExporters.export(histogram, new File(export));
+			}catch(IOException e){
+				System.err.println("Could not export: " + export);
+			}
+		}
+		
+		//Make the chart
+		if(pngoutput){
+			chartBuilder().build(file, width, height, histogram);
+		}
+	}
+	
+	/**
+	 * Compare the saved histograms of two runs: print the change of every
+	 * bucket and a summary of the distances and percentiles, and make a
+	 * PNG of both if it was specified.
+	 * 
+	 * The changes of the buckets are printed at the interval, or at the
+	 * larger interval of a file exported at one, and files with an interval
+	 * of 1 are regrouped to it. The distances and percentiles are found on
+	 * the word counts as they were saved.
+	 * 
+	 * @param before The file of the earlier run
+	 * @param after The file of the later run
+	 * @param interval The interval length between histogram bars
+	 * @param pngoutput Whether to make a PNG
+	 * @param width The width of the PNG in pixels
+	 * @param height The height of the PNG in pixels
+	 */
+	private static void compare(File before, File after, int interval,
+			boolean pngoutput, int width, int height){
+		HistogramFile.View first = null, second = null;
+		try{
+			first = HistogramFile.open(before);
+			second = HistogramFile.open(after);
+			interval = Math.max(interval,
+					Math.max(first.getInterval(), second.getInterval()));
+			checkInterval(first, interval, before);
+			checkInterval(second, interval, after);
+		}catch(IOException e){
+			System.err.println("Could not compare: " + e.getMessage());
+			System.exit(1);
+		}
+		
+		HistogramComparison comparison = new HistogramComparison(first,
+				second, interval);
+		try{
+			ChannelWriter out = new ChannelWriter(
+					Channels.newChannel(System.out));
+			comparison.writeDeltas(out);
+			out.flush();
+		}catch(IOException e){
+			System.err.println("Error printing comparison!");
+		}
+		System.out.println();
+		System.out.print(comparison.summary());
+		System.out.flush();
+		
+		//Make the chart, the later run as bars and the earlier as a line
+		if(pngoutput){
+			String caption = String.format(Locale.ROOT,
+					"Bars: %s  Line: %s  KS: %.4f  EMD: %.2f words",
+					after.getName(), before.getName(), comparison.getKs(),
+					comparison.getEmd());
+			new PNGHistogramBuilder(sChartStyle).buildComparison(
+					"./compare.png", width, height,
+					first.toHistogram().withInterval(interval),
+					second.toHistogram().withInterval(interval), caption);
+		}
+	}
+	
+	/**
+	 * Check that a histogram file can be regrouped to an interval.
+	 * 
+	 * @param view The view of the file
+	 * @param interval The interval to regroup it to
+	 * @param file The file
+	 * @throws IOException An exception occurs if the file has another
+	 * interval than 1 or the interval
+	 */
+	private static void checkInterval(HistogramFile.View view, int interval,
+			File file) throws IOException{
+		if(view.getInterval() != 1 && view.getInterval() != interval)
+			throw new IOException("the interval " + view.getInterval()
+					+ " can't be regrouped to " + interval + ": " + file);
+	}
+	
+	/**
+	 * Get a builder of charts in the format and style that were specified.
+	 * 
+	 * @return A PNG, SVG or PDF builder
+	 */
+	private static VisualHistogramBuilder chartBuilder(){
+		if(sChartExtension.equals(".svg")){
+			return new SVGHistogramBuilder(sChartStyle);
+		}else if(sChartExtension.equals(".pdf")){
+			return new PDFHistogramBuilder(sChartStyle);
+		}
+		return new PNGHistogramBuilder(sChartStyle);
+	}
+	
+	/**
+	 * Scan a directory and print the histogram data, then print it again
+	 * every time files change in the directory.
+	 * 
+	 * @param path The root directory to scan and watch
+	 * @param options The options for how the directory is scanned
+	 * @param intervals The interval lengths between histogram bars
+	 * @param sketch Whether to show log buckets and percentiles instead of
+	 * the intervals
+	 * @param debounce The time to collect changes before printing again, in
+	 * milliseconds
+	 * @param pngoutput Whether to make a PNG
+	 * @param width The width of the PNG in pixels
+	 * @param height The height of the PNG in pixels
+	 */
+	private static void watch(final String path, ScanOptions options,
+			final int[] intervals, final boolean sketch, long debounce,
+			final boolean pngoutput, final int width, final int height){
+		HistogramWatcher watcher = new HistogramWatcher(path, options,
+				1, debounce, new HistogramWatcher.Listener(){
+			@Override
+			public void histogramUpdated(Histogram histogram){
+				System.out.println("\n");
+				output(histogram, null, intervals, sketch, path, pngoutput,
+						width, height);
+			}
+		});
+		try{
+			watcher.watch();
+		}catch(IOException e){
+			System.err.println("Could not watch directory: " + path + "!");
+			System.exit(1);
+		}
+	}
+	
+	/**
+	 * Collect statistics for the rest of the run and print them to stderr
+	 * when the program exits, however it exits.
+	 * 
+	 * @param periodMillis The period to also print a JSON line at, or 0
+	 */
+	private static void reportStats(long periodMillis){
+		final ScanStats stats = ScanStats.enable();
+		stats.startReporting(periodMillis, System.err);
+		Runtime.getRuntime().addShutdownHook(new Thread(new Runnable(){
+			@Override
+			public void run(){
+				stats.stopReporting();
+				System.err.print(stats.summary());
+			}
+		}));
 	}
 	
 	/**
@@ -113,11 +598,83 @@ public class EntryPoint {
 		System.out.println("Scan a directory and subdirectories for txt"
 				+ " files. Archive files (zip) will be scanned as well.");
 		System.out.println("A histogram will be generated in that directory"
-				+ " as a PNG file if the -PNG flag is used.\n");
+				+ " as a PNG, SVG or PDF file if the -PNG, -SVG or -PDF flag"
+				+ " is used.\n");
 		System.out.println("Usage: txthistogram directory [interval]"
-				+ " [-PNG width height]");
+				+ " [-PNG|-SVG|-PDF width height] [-interval list] [-sketch]"
+				+ " [-threads count] [-cache [file]] [-watch [milliseconds]]"
+				+ " [-root directory] [-shard index/count] [-partial file]"
+				+ " [-stats [milliseconds]] [-charset name] [-io small map]"
+				+ " [-async [limit]] [-style settings] [-export file]");
+		System.out.println("       txthistogram merge partial..."
+				+ " [-interval list] [-PNG|-SVG|-PDF width height] [-sketch]"
+				+ " [-partial file] [-stats [milliseconds]] [-style settings]"
+				+ " [-export file]");
+		System.out.println("       txthistogram compare before after"
+				+ " [-interval interval] [-PNG width height]"
+				+ " [-stats [milliseconds]] [-style settings]");
 		System.out.println("directory: The root directory to scan for"
 				+ " txt files");
+		System.out.println("interval, -interval: The interval length"
+				+ " between histogram bars, or several separated by commas"
+				+ " such as 1,10,100 to make one output for each from the"
+				+ " same scan (default 1)");
+		System.out.println("-PNG, -SVG, -PDF: Make a chart of width by"
+				+ " height pixels, or units for SVG and PDF, in the format");
+		System.out.println("-sketch: Group the word counts into log sized"
+				+ " buckets within " + (100.0 / (1 << 
+				(LogHistogramSketch.DEFAULT_PRECISION - 1))) + "% of each"
+				+ " other and show the p50, p90, p99, p99.9 and highest"
+				+ " word counts");
+		System.out.println("-threads: The number of threads to count"
+				+ " files with, 0 for one per processor (default 1)");
+		System.out.println("-cache: Keep word counts in a cache file so"
+				+ " unchanged files are skipped on the next run (default "
+				+ ScanCache.DEFAULT_FILE_NAME + " in the directory)");
+		System.out.println("-watch: Keep watching the directory and update"
+				+ " the output when files change, at most once per period"
+				+ " (default " + HistogramWatcher.DEFAULT_DEBOUNCE_MILLIS
+				+ " ms)");
+		System.out.println("-root: Scan another directory along with the"
+				+ " first, can be repeated");
+		System.out.println("-shard: Count only the files in shard index"
+				+ " (from 0) of count, picked by a hash of their paths, so"
+				+ " several processes can split the directories");
+		System.out.println("-charset: The encoding of files without a byte"
+				+ " order mark, such as UTF-8, ISO-8859-1 or UTF-16LE"
+				+ " (default auto, detected from the start of each file)");
+		System.out.println("-io: Read files up to small bytes in one call"
+				+ " and map files from map bytes into memory (default "
+				+ AdaptiveFileReader.DEFAULT_SMALL_THRESHOLD + " "
+				+ AdaptiveFileReader.DEFAULT_MAP_THRESHOLD + ")");
+		System.out.println("-async: Keep up to limit directory listings and"
+				+ " file reads in flight at once, for slow storage such as"
+				+ " NFS (default " + ConcurrentIoScanner.DEFAULT_IO_LIMIT
+				+ ")");
+		System.out.println("-style: Settings of the chart separated by commas:"
+				+ " background, text, bar, outline and band colors (#rrggbb,"
+				+ " a name, or none for outline), font, reduce (max, sum or"
+				+ " envelope, how buckets sharing a pixel are shown), deflate"
+				+ " (0-9) and filter (none, sub, up, average, paeth or"
+				+ " adaptive) of a PNG, such as bar=#3366cc,deflate=1");
+		System.out.println("-export: Also write the histogram to a file"
+				+ " as CSV (.csv), JSON Lines (.jsonl) or the binary format"
+				+ " of partial files (" + HistogramFile.EXTENSION + "), with"
+				+ " the interval before the extension for several intervals");
+		System.out.println("-partial: Save the word counts to a binary file"
+				+ " instead of printing them");
+		System.out.println("-stats: Print the files, bytes, errors and"
+				+ " stage latencies of the run to stderr when it ends, and"
+				+ " as a JSON line every period if one is given");
+		System.out.println("merge: Combine the partial files of other runs"
+				+ " and print them, the chart is made in the current"
+				+ " directory");
+		System.out.println("compare: Print the change of every bucket"
+				+ " between two partial or " + HistogramFile.EXTENSION
+				+ " files, the KS and earth mover's distances between them"
+				+ " and the change of their percentiles, compare.png shows"
+				+ " the later as bars and the earlier as a line in the"
+				+ " current directory");
 		System.out.println("\n");
 	}
 	
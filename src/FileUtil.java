@@ -11,11 +11,13 @@
 //***************************IMPORTED LIBRARIES********************************
 //*****************************************************************************
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.Charset;
 
 public class FileUtil {
 	
@@ -31,6 +33,27 @@ public class FileUtil {
 	 * A constant for the zip file extension
 	 */
 	final static String ZIP_EXTENSION = ".zip";
+	
+	/**
+	 * A chunk buffer for each thread so counting a file doesn't allocate one
+	 */
+	private final static ThreadLocal<byte[]> CHUNK_BUFFER = 
+			new ThreadLocal<byte[]>(){
+		@Override
+		protected byte[] initialValue(){
+			return new byte[StreamingWordCounter.DEFAULT_CHUNK_SIZE];
+		}
+	};
+
+//*********************************************************____________________
+//*****************STATIC FIELDS***************************____________________
+//*********************************************************____________________
+	
+	/**
+	 * The encoding of files without a byte order mark, null to detect it
+	 * for every file
+	 */
+	private static volatile Charset sCharset = null;
 
 //*********************************************************____________________
 //*****************STATIC METHODS**************************____________________
@@ -46,8 +69,7 @@ public class FileUtil {
 	 */
 	public static String inputStreamToString(InputStream inStream)
 										 throws IOException{
-	    BufferedReader reader = new BufferedReader(
-	    		new InputStreamReader(inStream));
+	    BufferedReader reader = openReader(inStream);
 	    try {
 	        StringBuilder builder = new StringBuilder();
 	        String line = reader.readLine();
@@ -63,16 +85,15 @@ public class FileUtil {
 	}
 	
 	/**
-	 * Read a file as a string.
-	 * 
-	 * An improvement could be made to account for file encodings.
+	 * Read a file as a string, in the encoding set with setCharset or the
+	 * encoding detected from the start of the file.
 	 * 
 	 * @param fileName The file to be read
 	 * @return A String of the file's contents
 	 * @throws IOException An exception occurs if the file could not be read
 	 */
 	public static String readFile(String fileName) throws IOException {
-	    BufferedReader reader = new BufferedReader(new FileReader(fileName));
+	    BufferedReader reader = openReader(new FileInputStream(fileName));
 	    try {
 	        StringBuilder builder = new StringBuilder();
 	        String line = reader.readLine();
@@ -88,4 +109,101 @@ public class FileUtil {
 	    }
 	}
 	
-}
+	/**
+	 * Count the words in a file without reading it into a String.
+	 * 
+	 * The file is read by an AdaptiveFileReader the cheapest way for its
+	 * size and counted by a StreamingWordCounter in the encoding set with
+	 * setCharset or the encoding detected from the start of the file.
+	 * 
+	 * @param fileName The file to be counted
+	 * @return The word count of the file
+	 * @throws IOException An exception occurs if the file could not be read
+	 */
+	public static int countWordsInFile(String fileName) throws IOException {
+		return AdaptiveFileReader.countWords(fileName, sCharset);
+	}
+	
+	/**
+	 * Count the words in an InputStream without reading it into a String.
+	 * 
+	 * The stream is not closed.
+	 * 
+	 * @param inStream The input stream to count the words of
+	 * @return The word count of the stream's contents
+	 * @throws IOException An exception occurs if there was an error reading
+	 * from the stream
+	 */
+	public static int countWordsInStream(InputStream inStream)
+										 throws IOException {
+		return StreamingWordCounter.countWords(inStream, CHUNK_BUFFER.get(),
+				sCharset);
+	}
+	
+	/**
+	 * Count the words in the contents of a file held in memory.
+	 * 
+	 * @param bytes The contents of the file
+	 * @param length The number of bytes of the file in the array
+	 * @return The word count of the file
+	 */
+	public static int countWordsInBytes(byte[] bytes, int length){
+		int sample = Math.min(length, EncodingDetector.SAMPLE_SIZE);
+		StreamingWordCounter counter = new StreamingWordCounter(
+				EncodingDetector.detect(bytes, sample, sCharset));
+		int bom = EncodingDetector.bomLength(bytes, sample);
+		counter.update(bytes, bom, length - bom);
+		return counter.finish();
+	}
+	
+	/**
+	 * Set the encoding of the files that are read.
+	 * 
+	 * A byte order mark at the start of a file always decides its encoding.
+	 * 
+	 * @param charset The encoding of files without a byte order mark, or
+	 * null to detect the encoding of every file with an EncodingDetector
+	 */
+	public static void setCharset(Charset charset){
+		sCharset = charset;
+	}
+	
+	/**
+	 * Get the encoding of the files that are read.
+	 * 
+	 * @return The encoding of files without a byte order mark, or null if
+	 * it is detected for every file
+	 */
+	public static Charset getCharset(){
+		return sCharset;
+	}
+	
+	/**
+	 * Open a reader of a stream in the encoding set with setCharset or the
+	 * encoding detected from the start of the stream, skipping any byte
+	 * order mark.
+	 * 
+	 * @param inStream The stream to read, closed with the reader
+	 * @return A reader of the characters of the stream
+	 * @throws IOException An exception occurs if the start of the stream
+	 * could not be read
+	 */
+	private static BufferedReader openReader(InputStream inStream)
+										 throws IOException{
+		BufferedInputStream in = new BufferedInputStream(inStream,
+				EncodingDetector.SAMPLE_SIZE);
+		byte[] sample = new byte[EncodingDetector.SAMPLE_SIZE];
+		in.mark(sample.length);
+		int filled = 0, read;
+		while(filled < sample.length &&
+				(read = in.read(sample, filled, sample.length - filled)) != -1){
+			filled += read;
+		}
+		in.reset();
+		
+		Charset charset = EncodingDetector.detect(sample, filled, sCharset);
+		in.skip(EncodingDetector.bomLength(sample, filled));
+		return new BufferedReader(new InputStreamReader(in, charset));
+	}
+	
+}
\ No newline at end of file
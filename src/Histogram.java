@@ -0,0 +1,522 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * Histogram.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A histogram of word count frequencies.
+ *
+ * This replaces the HashMap&lt;Integer, Integer&gt; the program used to pass
+ * around. Frequencies of word counts below DENSE_LIMIT are stored in a
+ * dense long array indexed by the word count, and the long tail is stored
+ * in an open addressing map of primitive keys and values, so nothing is
+ * boxed and an increment is a single array write.
+ *
+ * The number of files that could not be read is a separate field rather
+ * than the -1 key, although add(-1) still counts an unreadable file.
+ *
+ * A histogram separated by an interval keys every bucket by its lowest word
+ * count. Its buckets run from the lowest to the highest bucket with data,
+ * including the empty buckets in between, as the program has always printed
+ * them.
+ *
+ * A Histogram is not thread safe.
+ *
+ */
+public class Histogram implements WordCountSink {
+
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The word counts below this are stored in the dense array
+	 */
+	final static int DENSE_LIMIT = 1 << 16;
+
+	/**
+	 * The word count that marks a file that could not be read
+	 */
+	final static int UNREADABLE = -1;
+
+	/**
+	 * The key marking an empty slot of the sparse map, never a word count
+	 */
+	private final static int EMPTY = Integer.MIN_VALUE;
+
+//*********************************************************____________________
+//*******************INTERFACES****************************____________________
+//*********************************************************____________________
+
+	/**
+	 * A visitor for the buckets of a histogram in order.
+	 */
+	public interface BucketVisitor {
+
+		/**
+		 * Visit a bucket.
+		 *
+		 * @param key The lowest word count of the bucket
+		 * @param frequency The number of files in the bucket
+		 */
+		void visit(int key, long frequency);
+
+	}
+
+//*********************************************************____________________
+//*****************STATIC METHODS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Create a histogram from the HashMap the program used before.
+	 *
+	 * The -1 key is read as the number of files that could not be read.
+	 *
+	 * @param histogram A HashMap object with histogram data
+	 * @param interval The interval the data was separated by
+	 * @return The histogram data as a Histogram
+	 */
+	public static Histogram fromHashMap(HashMap<Integer, Integer> histogram,
+			int interval){
+		Histogram result = new Histogram(interval);
+		for(HashMap.Entry<Integer, Integer> entry : histogram.entrySet()){
+			result.add(entry.getKey(), entry.getValue());
+		}
+		return result;
+	}
+
+	/**
+	 * Get the word counts with a frequency in either of two histograms, in
+	 * ascending order, by merging their sorted keys.
+	 *
+	 * @param first One histogram
+	 * @param second The other histogram
+	 * @return The sorted keys of the buckets that aren't empty in either
+	 */
+	public static int[] sortedKeys(Histogram first, Histogram second){
+		int[] a = first.sortedKeys();
+		int[] b = second.sortedKeys();
+		int[] keys = new int[a.length + b.length];
+		int i = 0, j = 0, k = 0;
+		while(i < a.length || j < b.length){
+			if(j == b.length || (i < a.length && a[i] < b[j])){
+				keys[k++] = a[i++];
+			}else if(i == a.length || b[j] < a[i]){
+				keys[k++] = b[j++];
+			}else{ //In both
+				keys[k++] = a[i++];
+				j++;
+			}
+		}
+		return k == keys.length ? keys : Arrays.copyOf(keys, k);
+	}
+
+//*********************************************************____________________
+//******************CLASS FIELDS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The interval length between the buckets
+	 */
+	private final int mInterval;
+	/**
+	 * The frequencies of the word counts below DENSE_LIMIT, grown as needed
+	 */
+	private long[] mDense = new long[64];
+	/**
+	 * The keys of the sparse map, EMPTY for an empty slot
+	 */
+	private int[] mSparseKeys = emptyKeys(16);
+	/**
+	 * The frequencies of the sparse map
+	 */
+	private long[] mSparseValues = new long[16];
+	/**
+	 * The number of keys in the sparse map
+	 */
+	private int mSparseSize = 0;
+	/**
+	 * The number of files that could not be read
+	 */
+	private long mUnreadable = 0;
+	/**
+	 * The sorted keys of the sparse map, null when keys were added or
+	 * removed since they were sorted
+	 */
+	private int[] mSortedSparse = null;
+
+//*********************************************************____________________
+//******************CONSTRUCTORS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Create an empty histogram with an interval of 1.
+	 */
+	public Histogram(){
+		this(1);
+	}
+
+	/**
+	 * Create an empty histogram for data separated by an interval.
+	 *
+	 * @param interval The interval length between the buckets
+	 */
+	public Histogram(int interval){
+		if(interval <= 0)
+			throw new IllegalArgumentException("Bad interval: " + interval);
+		this.mInterval = interval;
+	}
+
+//*********************************************************____________________
+//******************CLASS METHODS**************************____________________
+//*********************************************************____________________
+
+	@Override
+	public void add(int wordCount){
+		add(wordCount, 1);
+	}
+
+	/**
+	 * Add to the frequency of a bucket. A negative amount takes files out of
+	 * the bucket and the bucket is removed once it is empty.
+	 *
+	 * @param key The word count, or the lowest word count of the bucket, -1
+	 * for files that couldn't be read
+	 * @param frequency The number of files to add
+	 */
+	public void add(int key, long frequency){
+		if(key == UNREADABLE){
+			mUnreadable += frequency;
+		}else if(key < 0){
+			throw new IllegalArgumentException("Bad word count: " + key);
+		}else if(key < DENSE_LIMIT){
+			if(key >= mDense.length){
+				mDense = Arrays.copyOf(mDense, Math.min(DENSE_LIMIT,
+						Integer.highestOneBit(key) << 1));
+			}
+			mDense[key] += frequency;
+		}else{
+			addSparse(key, frequency);
+		}
+	}
+
+	/**
+	 * Add all the buckets of another histogram with the same interval.
+	 *
+	 * @param other The histogram to add
+	 */
+	public void addAll(Histogram other){
+		if(other.mInterval != mInterval)
+			throw new IllegalArgumentException("Intervals don't match");
+		mUnreadable += other.mUnreadable;
+		for(int i = 0; i < other.mDense.length; i++){
+			if(other.mDense[i] != 0) add(i, other.mDense[i]);
+		}
+		for(int i = 0; i < other.mSparseKeys.length; i++){
+			if(other.mSparseKeys[i] != EMPTY){
+				addSparse(other.mSparseKeys[i], other.mSparseValues[i]);
+			}
+		}
+	}
+
+	/**
+	 * Get the frequency of a bucket.
+	 *
+	 * @param key The word count, or the lowest word count of the bucket
+	 * @return The number of files in the bucket, or the number of files that
+	 * couldn't be read for -1
+	 */
+	public long get(int key){
+		if(key == UNREADABLE) return mUnreadable;
+		if(key < 0) return 0;
+		if(key < DENSE_LIMIT) return key < mDense.length ? mDense[key] : 0;
+		int slot = findSlot(key);
+		return mSparseKeys[slot] == EMPTY ? 0 : mSparseValues[slot];
+	}
+
+	/**
+	 * Get the number of files that could not be read.
+	 *
+	 * @return The number of unreadable files
+	 */
+	public long getUnreadable(){
+		return mUnreadable;
+	}
+
+	/**
+	 * Get the interval length between the buckets.
+	 *
+	 * @return The interval, 1 if every word count is its own bucket
+	 */
+	public int getInterval(){
+		return mInterval;
+	}
+
+	/**
+	 * Get the word counts with a frequency, in ascending order.
+	 *
+	 * The dense word counts are already in order and the sparse ones are
+	 * only sorted again after keys were added or removed.
+	 *
+	 * @return The sorted keys of the buckets that aren't empty
+	 */
+	public int[] sortedKeys(){
+		int denseKeys = 0;
+		for(long v : mDense) if(v != 0) denseKeys++;
+		int[] sparse = sortedSparseKeys();
+		int[] keys = new int[denseKeys + sparse.length];
+		int k = 0;
+		for(int i = 0; i < mDense.length; i++) if(mDense[i] != 0) keys[k++] = i;
+		System.arraycopy(sparse, 0, keys, k, sparse.length);
+		return keys;
+	}
+
+	/**
+	 * Get the keys of every bucket in ascending order, including the empty
+	 * buckets between the lowest and highest bucket when the interval is
+	 * greater than 1.
+	 *
+	 * @return The keys of the buckets as they should be shown
+	 */
+	public int[] bucketKeys(){
+		int[] keys = sortedKeys();
+		if(mInterval == 1 || keys.length < 2) return keys;
+		int first = keys[0];
+		long count = ((long)keys[keys.length - 1] - first) / mInterval + 1;
+		int[] buckets = new int[(int)count];
+		for(int i = 0; i < buckets.length; i++){
+			buckets[i] = first + i * mInterval;
+		}
+		return buckets;
+	}
+
+	/**
+	 * Visit every bucket in ascending order, including the empty buckets
+	 * between the lowest and highest bucket when the interval is greater
+	 * than 1. Files that couldn't be read are not visited.
+	 *
+	 * @param visitor The visitor to give the buckets to
+	 */
+	public void forEachBucket(BucketVisitor visitor){
+		int[] keys = sortedKeys();
+		if(keys.length == 0) return;
+		if(mInterval == 1){
+			for(int key : keys) visitor.visit(key, get(key));
+			return;
+		}
+		long last = keys[keys.length - 1];
+		for(long key = keys[0]; key <= last; key += mInterval){
+			visitor.visit((int)key, get((int)key));
+		}
+	}
+
+	/**
+	 * Get the number of buckets forEachBucket visits.
+	 *
+	 * @return The number of buckets
+	 */
+	public int bucketCount(){
+		int[] keys = sortedKeys();
+		if(mInterval == 1 || keys.length < 2) return keys.length;
+		return (int)(((long)keys[keys.length - 1] - keys[0]) / mInterval + 1);
+	}
+
+	/**
+	 * Check if no readable files were counted.
+	 *
+	 * @return True if there are no buckets with a frequency
+	 */
+	public boolean isEmpty(){
+		if(mSparseSize > 0) return false;
+		for(long v : mDense) if(v != 0) return false;
+		return true;
+	}
+
+	/**
+	 * Separate the histogram into buckets of an interval.
+	 *
+	 * Every word count is added to the bucket starting at the closest
+	 * multiple of the interval below it, in a single pass over the buckets.
+	 *
+	 * @param interval The interval to aggregate the data by
+	 * @return A new histogram separated by the interval, or this histogram
+	 * if the interval is the same
+	 */
+	public Histogram withInterval(int interval){
+		if(interval == mInterval) return this;
+		if(mInterval != 1)
+			throw new IllegalStateException("Already separated by " + mInterval);
+		Histogram result = new Histogram(interval);
+		result.mUnreadable = mUnreadable;
+		for(int i = 0; i < mDense.length; i++){
+			if(mDense[i] != 0) result.add(i - i % interval, mDense[i]);
+		}
+		for(int i = 0; i < mSparseKeys.length; i++){
+			int key = mSparseKeys[i];
+			if(key != EMPTY){
+				result.add(key - key % interval, mSparseValues[i]);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Copy the histogram into the HashMap the program used before.
+	 *
+	 * The empty buckets between the lowest and highest bucket are included
+	 * when the interval is greater than 1, and the files that couldn't be
+	 * read are under the -1 key if there are any.
+	 *
+	 * @return A HashMap object with the histogram data
+	 */
+	public HashMap<Integer, Integer> toHashMap(){
+		final HashMap<Integer, Integer> map = new HashMap<Integer, Integer>();
+		forEachBucket(new BucketVisitor(){
+			@Override
+			public void visit(int key, long frequency){
+				map.put(key, (int)frequency);
+			}
+		});
+		if(mUnreadable != 0) map.put(UNREADABLE, (int)mUnreadable);
+		return map;
+	}
+
+	/**
+	 * Get the sorted keys of the sparse map, sorting them only if keys were
+	 * added or removed since the last time.
+	 *
+	 * @return The sorted sparse keys
+	 */
+	private int[] sortedSparseKeys(){
+		if(mSortedSparse == null){
+			int[] keys = new int[mSparseSize];
+			int k = 0;
+			for(int key : mSparseKeys) if(key != EMPTY) keys[k++] = key;
+			Arrays.sort(keys);
+			mSortedSparse = keys;
+		}
+		return mSortedSparse;
+	}
+
+	/**
+	 * Add to the frequency of a key in the sparse map, removing the key once
+	 * its frequency is 0.
+	 *
+	 * @param key The key
+	 * @param frequency The amount to add
+	 */
+	private void addSparse(int key, long frequency){
+		int slot = findSlot(key);
+		if(mSparseKeys[slot] == EMPTY){
+			if(frequency == 0) return;
+			mSparseKeys[slot] = key;
+			mSparseValues[slot] = frequency;
+			mSparseSize++;
+			mSortedSparse = null;
+			//Keep the map at most half full
+			if(mSparseSize * 2 > mSparseKeys.length) resizeSparse();
+			return;
+		}
+		mSparseValues[slot] += frequency;
+		if(mSparseValues[slot] == 0) removeSlot(slot);
+	}
+
+	/**
+	 * Find the slot of a key in the sparse map, or the empty slot where it
+	 * would go.
+	 *
+	 * @param key The key
+	 * @return The slot index
+	 */
+	private int findSlot(int key){
+		int mask = mSparseKeys.length - 1;
+		int slot = mix(key) & mask;
+		while(mSparseKeys[slot] != EMPTY && mSparseKeys[slot] != key){
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Remove a slot from the sparse map, shifting back the keys after it so
+	 * no probe sequence is broken.
+	 *
+	 * @param slot The slot to remove
+	 */
+	private void removeSlot(int slot){
+		int mask = mSparseKeys.length - 1;
+		int hole = slot;
+		int next = (hole + 1) & mask;
+		while(mSparseKeys[next] != EMPTY){
+			int home = mix(mSparseKeys[next]) & mask;
+			//Move the key into the hole if the hole is between its home
+			//slot and where it is now
+			if(((next - home) & mask) >= ((next - hole) & mask)){
+				mSparseKeys[hole] = mSparseKeys[next];
+				mSparseValues[hole] = mSparseValues[next];
+				hole = next;
+			}
+			next = (next + 1) & mask;
+		}
+		mSparseKeys[hole] = EMPTY;
+		mSparseValues[hole] = 0;
+		mSparseSize--;
+		mSortedSparse = null;
+	}
+
+	/**
+	 * Double the size of the sparse map.
+	 */
+	private void resizeSparse(){
+		int[] keys = mSparseKeys;
+		long[] values = mSparseValues;
+		mSparseKeys = emptyKeys(keys.length * 2);
+		mSparseValues = new long[keys.length * 2];
+		for(int i = 0; i < keys.length; i++){
+			if(keys[i] != EMPTY){
+				int slot = findSlot(keys[i]);
+				mSparseKeys[slot] = keys[i];
+				mSparseValues[slot] = values[i];
+			}
+		}
+	}
+
+	/**
+	 * Spread the bits of a key for the sparse map.
+	 *
+	 * @param key The key
+	 * @return The mixed hash of the key
+	 */
+	private static int mix(int key){
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Create a key array with every slot empty.
+	 *
+	 * @param length The length of the array
+	 * @return The key array
+	 */
+	private static int[] emptyKeys(int length){
+		int[] keys = new int[length];
+		Arrays.fill(keys, EMPTY);
+		return keys;
+	}
+
+}
@@ -0,0 +1,393 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * HistogramComparison.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A comparison of two histograms of the same interval, such as the word
+ * counts of a tree on two days.
+ *
+ * The distance between the two distributions of word counts is measured
+ * two ways, each over the fractions of the files up to every bucket:
+ *
+ *   KS, the Kolmogorov-Smirnov statistic, the largest difference between
+ *   the fractions, from 0 for the same shape to 1 for no overlap
+ *
+ *   EMD, the earth mover's distance, the average number of words each
+ *   file would have to move by for one distribution to become the other
+ *
+ * The histograms are walked straight from the views of their files. When
+ * both were saved with an interval of 1, both distances, the percentiles
+ * and the maximum of the two are found in one merge of the keys as they
+ * were saved, so they are real word counts rather than the lowest word
+ * counts of buckets, and only the change of every bucket is regrouped to
+ * the interval. When either was saved at the interval, both are walked at
+ * the interval, so the two are compared at the same resolution. Comparing
+ * takes time in the number of keys.
+ *
+ */
+public class HistogramComparison {
+
+//*********************************************************____________________
+//******************CLASS FIELDS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The interval the histograms are compared at
+	 */
+	private final int mInterval;
+	/**
+	 * The number of files the earlier histogram could not read
+	 */
+	private final long mBeforeUnreadable;
+	/**
+	 * The number of files the later histogram could not read
+	 */
+	private final long mAfterUnreadable;
+	/**
+	 * The keys of the buckets with files in either histogram, in order
+	 */
+	private int[] mKeys;
+	/**
+	 * The frequencies of the earlier histogram at the keys
+	 */
+	private long[] mBeforeCounts;
+	/**
+	 * The frequencies of the later histogram at the keys
+	 */
+	private long[] mAfterCounts;
+	/**
+	 * The number of readable files in the earlier histogram
+	 */
+	private long mBeforeTotal = 0;
+	/**
+	 * The number of readable files in the later histogram
+	 */
+	private long mAfterTotal = 0;
+	/**
+	 * The Kolmogorov-Smirnov statistic
+	 */
+	private double mKs = 0;
+	/**
+	 * The earth mover's distance in words
+	 */
+	private double mEmd = 0;
+	/**
+	 * The word counts of the summary percentiles and the highest word
+	 * count of the earlier histogram, -1 without files
+	 */
+	private final int[] mBeforePercentiles;
+	/**
+	 * The word counts of the summary percentiles and the highest word
+	 * count of the later histogram, -1 without files
+	 */
+	private final int[] mAfterPercentiles;
+
+//*********************************************************____________________
+//*******************CONSTRUCTORS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Compare two histogram files at an interval.
+	 *
+	 * @param before The view of the earlier file
+	 * @param after The view of the later file
+	 * @param interval The interval to compare at, which both files have
+	 * or which files with an interval of 1 are regrouped to
+	 * @throws IllegalArgumentException An exception occurs if a file has
+	 * another interval than 1 or the interval
+	 */
+	public HistogramComparison(HistogramFile.View before,
+			HistogramFile.View after, int interval){
+		for(HistogramFile.View view : new HistogramFile.View[]{before,
+				after}){
+			if(view.getInterval() != 1 && view.getInterval() != interval)
+				throw new IllegalArgumentException("Interval "
+						+ view.getInterval() + " can't be regrouped to "
+						+ interval);
+		}
+		this.mInterval = interval;
+		this.mBeforeUnreadable = before.getUnreadable();
+		this.mAfterUnreadable = after.getUnreadable();
+		merge(before, after);
+		int percentiles = LogHistogramSketch.SUMMARY_PERCENTILES.length;
+		this.mBeforePercentiles = new int[percentiles + 1];
+		this.mAfterPercentiles = new int[percentiles + 1];
+		compare(before, after);
+	}
+
+//*********************************************************____________________
+//*******************PUBLIC METHODS************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Get the Kolmogorov-Smirnov statistic of the two histograms.
+	 *
+	 * @return The largest difference between the fractions of the files up
+	 * to a bucket, from 0 to 1
+	 */
+	public double getKs(){
+		return mKs;
+	}
+
+	/**
+	 * Get the earth mover's distance between the two histograms.
+	 *
+	 * @return The average number of words a file would have to move by,
+	 * NaN if only one histogram has files
+	 */
+	public double getEmd(){
+		return mEmd;
+	}
+
+	/**
+	 * Write the frequency of every bucket with files in either histogram
+	 * before and after, and the change, such as [ 4 - 7 ] : 10 -> 12 (+2).
+	 *
+	 * @param out The writer to write to, flushed by the caller
+	 * @throws IOException An exception occurs if the lines could not be
+	 * written
+	 */
+	public void writeDeltas(ChannelWriter out) throws IOException{
+		if(mBeforeUnreadable != 0 || mAfterUnreadable != 0){
+			out.writeAscii("Files that could not be open: ");
+			writeDelta(out, mBeforeUnreadable, mAfterUnreadable);
+		}
+		for(int i = 0; i < mKeys.length; i++){
+			out.writeAscii("[ ").writeDecimal(mKeys[i]);
+			if(mInterval > 1){
+				out.writeAscii(" - ")
+						.writeDecimal((long)mKeys[i] + mInterval - 1);
+			}
+			out.writeAscii(" ] : ");
+			writeDelta(out, mBeforeCounts[i], mAfterCounts[i]);
+		}
+	}
+
+	/**
+	 * Describe the change in the number of files, the distances and the
+	 * change of the summary percentiles, a line for each.
+	 *
+	 * @return The summary
+	 */
+	public String summary(){
+		StringBuilder summary = new StringBuilder();
+		summary.append("Files: ").append(delta(mBeforeTotal, mAfterTotal))
+				.append('\n');
+		summary.append(String.format(Locale.ROOT, "KS distance: %.4f\n",
+				mKs));
+		summary.append(String.format(Locale.ROOT, "EMD: %.2f words\n",
+				mEmd));
+		double[] percentiles = LogHistogramSketch.SUMMARY_PERCENTILES;
+		for(int i = 0; i <= percentiles.length; i++){
+			summary.append(i < percentiles.length ?
+					LogHistogramSketch.percentileLabel(percentiles[i]) :
+					"max");
+			summary.append(": ").append(delta(mBeforePercentiles[i],
+					mAfterPercentiles[i])).append('\n');
+		}
+		return summary.toString();
+	}
+
+//*********************************************************____________________
+//******************PRIVATE METHODS************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Merge the sorted keys of two files into the buckets of the interval,
+	 * with the frequency of each file in every bucket.
+	 *
+	 * A key regroups to the multiple of the interval at or below it, which
+	 * never decreases along the keys, so the keys of a bucket are next to
+	 * each other in each file.
+	 *
+	 * @param before The view of the earlier file
+	 * @param after The view of the later file
+	 */
+	private void merge(HistogramFile.View before, HistogramFile.View after){
+		int capacity = before.size() + after.size();
+		mKeys = new int[capacity];
+		mBeforeCounts = new long[capacity];
+		mAfterCounts = new long[capacity];
+		int i = 0, j = 0, n = 0;
+		while(i < before.size() || j < after.size()){
+			int key = next(before, i, after, j, mInterval);
+			for(; i < before.size()
+					&& bucket(before.getKey(i), mInterval) == key; i++){
+				mBeforeCounts[n] += before.getFrequency(i);
+			}
+			for(; j < after.size()
+					&& bucket(after.getKey(j), mInterval) == key; j++){
+				mAfterCounts[n] += after.getFrequency(j);
+			}
+			mKeys[n++] = key;
+		}
+		if(n < capacity){
+			mKeys = Arrays.copyOf(mKeys, n);
+			mBeforeCounts = Arrays.copyOf(mBeforeCounts, n);
+			mAfterCounts = Arrays.copyOf(mAfterCounts, n);
+		}
+	}
+
+	/**
+	 * Get the bucket of an interval a key falls in.
+	 *
+	 * @param key A word count
+	 * @param interval The interval
+	 * @return The lowest word count of its bucket
+	 */
+	private static int bucket(int key, int interval){
+		return key - key % interval;
+	}
+
+	/**
+	 * Get the lowest bucket of an interval that either of two files has
+	 * keys left in.
+	 *
+	 * @param before The view of the earlier file
+	 * @param i The index of the next key of the earlier file
+	 * @param after The view of the later file
+	 * @param j The index of the next key of the later file
+	 * @param interval The interval
+	 * @return The lowest word count of the bucket, at least one file must
+	 * have keys left
+	 */
+	private static int next(HistogramFile.View before, int i,
+			HistogramFile.View after, int j, int interval){
+		if(i == before.size()) return bucket(after.getKey(j), interval);
+		if(j == after.size()) return bucket(before.getKey(i), interval);
+		return bucket(Math.min(before.getKey(i), after.getKey(j)), interval);
+	}
+
+	/**
+	 * Find the totals, then the distances and percentiles in one pass over
+	 * the fractions of the files up to every key, the saved keys if both
+	 * files have an interval of 1 and the buckets of the interval if not.
+	 *
+	 * @param before The view of the earlier file
+	 * @param after The view of the later file
+	 */
+	private void compare(HistogramFile.View before, HistogramFile.View after){
+		//A file saved at the interval can't be compared any finer
+		int interval = before.getInterval() == 1 && after.getInterval() == 1 ?
+				1 : mInterval;
+		//Regrouping keeps the totals
+		for(int i = 0; i < mKeys.length; i++){
+			mBeforeTotal += mBeforeCounts[i];
+			mAfterTotal += mAfterCounts[i];
+		}
+		double[] percentiles = LogHistogramSketch.SUMMARY_PERCENTILES;
+		long[] beforeRanks = ranks(mBeforeTotal, percentiles);
+		long[] afterRanks = ranks(mAfterTotal, percentiles);
+		Arrays.fill(mBeforePercentiles, -1);
+		Arrays.fill(mAfterPercentiles, -1);
+
+		long beforeSum = 0, afterSum = 0;
+		int beforeNext = 0, afterNext = 0;
+		int i = 0, j = 0;
+		while(i < before.size() || j < after.size()){
+			int key = next(before, i, after, j, interval);
+			long beforeFrequency = 0, afterFrequency = 0;
+			for(; i < before.size()
+					&& bucket(before.getKey(i), interval) == key; i++){
+				beforeFrequency += before.getFrequency(i);
+			}
+			for(; j < after.size()
+					&& bucket(after.getKey(j), interval) == key; j++){
+				afterFrequency += after.getFrequency(j);
+			}
+			beforeSum += beforeFrequency;
+			afterSum += afterFrequency;
+			//The first buckets to reach the rank of each percentile
+			while(beforeNext < percentiles.length
+					&& beforeSum >= beforeRanks[beforeNext]){
+				mBeforePercentiles[beforeNext++] = key;
+			}
+			while(afterNext < percentiles.length
+					&& afterSum >= afterRanks[afterNext]){
+				mAfterPercentiles[afterNext++] = key;
+			}
+			//The highest word count with files so far
+			int max = percentiles.length;
+			if(beforeFrequency > 0) mBeforePercentiles[max] = key;
+			if(afterFrequency > 0) mAfterPercentiles[max] = key;
+
+			if(mBeforeTotal == 0 || mAfterTotal == 0) continue;
+			double difference = Math.abs((double)beforeSum / mBeforeTotal
+					- (double)afterSum / mAfterTotal);
+			mKs = Math.max(mKs, difference);
+			//The difference holds until the next key of either file
+			if(i < before.size() || j < after.size()){
+				mEmd += difference
+						* ((long)next(before, i, after, j, interval) - key);
+			}
+		}
+		//With no files on one side every file of the other is unmatched
+		if((mBeforeTotal == 0) != (mAfterTotal == 0)){
+			mKs = 1;
+			mEmd = Double.NaN;
+		}
+	}
+
+	/**
+	 * Get the ranks of the files at percentiles, counting from 1.
+	 *
+	 * @param total The number of files
+	 * @param percentiles The percentiles, from 0 to 100
+	 * @return The ranks
+	 */
+	private static long[] ranks(long total, double[] percentiles){
+		long[] ranks = new long[percentiles.length];
+		for(int i = 0; i < percentiles.length; i++){
+			ranks[i] = Math.max(1,
+					(long)Math.ceil(percentiles[i] / 100 * total));
+		}
+		return ranks;
+	}
+
+	/**
+	 * Write a value before and after with the change and a line separator.
+	 *
+	 * @param out The writer to write to
+	 * @param before The value before
+	 * @param after The value after
+	 * @throws IOException An exception occurs if the line could not be
+	 * written
+	 */
+	private static void writeDelta(ChannelWriter out, long before,
+			long after) throws IOException{
+		out.writeDecimal(before).writeAscii(" -> ").writeDecimal(after)
+				.writeAscii(" (");
+		if(after > before) out.write('+');
+		out.writeDecimal(after - before).write(')').write('\n');
+	}
+
+	/**
+	 * Describe a value before and after with the change.
+	 *
+	 * @param before The value before
+	 * @param after The value after
+	 * @return The description, such as 10 -> 12 (+2)
+	 */
+	private static String delta(long before, long after){
+		return before + " -> " + after + " (" + (after > before ? "+" : "")
+				+ (after - before) + ")";
+	}
+
+}
@@ -12,9 +12,12 @@
 //*****************************************************************************
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.io.IOException;
+import java.nio.channels.Channels;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 //*****************************************************************************
 //*******************************CLASSES***************************************
@@ -23,7 +26,7 @@ import java.util.HashMap;
 /**
  * A class for building histogram data from a directory.
  * 
- * This class builds a word count HashMap and formats that data by a specified
+ * This class builds a word count Histogram and formats that data by a specified
  * interval value for use in plotting a visual histogram. The word counts are
  * populated from txt files and txt files inside of zip archives in a given
  * directory.
@@ -43,30 +46,60 @@ public class HistogramDataBuilder {
 	 * to the data ranges if
 	 * the interval is greater than 1 (ex: [ 4 - 11 ] : 7).
 	 *
+	 * The lines are written through a buffer without building a string for
+	 * each bucket, see HistogramExporters.TEXT.
+	 *
+	 * @param  histogram A Histogram object with histogram data stored in it
+	 */
+	public static void printHistogramData(Histogram histogram){
+		try{
+			HistogramExporters.export(histogram, HistogramExporters.TEXT,
+					Channels.newChannel(System.out));
+		}catch(IOException e){
+			//System.out doesn't throw, it sets its error flag instead
+			System.err.println("Error printing histogram!");
+		}
+		System.out.flush();
+	}
+	
+	/**
+	 * This method prints out a command line version of a sketch.
+	 * 
+	 * Every bucket with files is printed with its range of word counts
+	 * (ex: [ 256 - 257 ] : 3), followed by the percentiles and the highest
+	 * word count.
+	 *
+	 * @param  sketch A LogHistogramSketch object with the word counts
+	 */
+	public static void printHistogramData(LogHistogramSketch sketch){
+		//Print the files that could not be opened first
+		if(sketch.getUnreadable() != 0){
+			System.out.println("Files that could not be open: " + 
+					sketch.getUnreadable() + "\n");
+		}
+		
+		sketch.forEachBucket(new LogHistogramSketch.BucketVisitor(){
+			@Override
+			public void visit(int low, int high, long frequency){
+				String prefix = "[ " + low + " ] : ";
+				if(high > low) prefix = "[ " + low + " - " + high + " ] : ";
+				System.out.println(prefix + frequency);
+			}
+		});
+		
+		System.out.println("\n" + sketch.summary());
+	}
+	
+	/**
+	 * This method prints out a command line version of a histogram from
+	 * the HashMap the program used before Histogram.
+	 *
 	 * @param  histogram A HashMap object with histogram data stored in it
 	 * @param  interval The interval length between histogram bars
 	 */
 	public static void printHistogramData(HashMap<Integer, Integer> histogram,
 			int interval){
-		//Get the interval keys from the histogram and sort them
-		ArrayList<Integer> sortedKeys = new 
-				ArrayList<Integer>(histogram.keySet());
-		Collections.sort(sortedKeys);
-	
-		//Print the intervals to the standard output
-		for(int i : sortedKeys){
-			//Print the files that could not be opened if -1 word count
-			if(i == -1){
-				System.out.println("Files that could not be open: " + 
-											histogram.get(-1) + "\n");
-			}else{
-				String prefix = "[ " + i + " ] : ";
-				if(interval > 1) prefix = "[ " + i + " - " + 
-											(i + interval-1) + " ] : ";
-				System.out.println(prefix + histogram.get(i));
-			}
-		}
-		
+		printHistogramData(Histogram.fromHashMap(histogram, interval));
 	}
 	
 //*********************************************************____________________
@@ -77,13 +110,21 @@ public class HistogramDataBuilder {
 	 * A variable that holds the path to build the histogram from
 	 */
 	String mPath = "";
+	/**
+	 * The options for how the path is scanned
+	 */
+	ScanOptions mOptions;
+	/**
+	 * The word counts of the build that is running, null before a build
+	 */
+	private volatile ConcurrentHistogramAccumulator mProgress;
 	
 //*********************************************************____________________
 //******************CONSTRUCTORS***************************____________________
 //*********************************************************____________________
 	
 	/**
-	 * The only constructor for the HistogramDataBuilder.
+	 * The default constructor for the HistogramDataBuilder.
 	 * 
 	 * The path variable, in this iteration of the program, doesn't need to
 	 * be a class field and would be better off as an argument to the build
@@ -94,7 +135,20 @@ public class HistogramDataBuilder {
 	 * histogram data.
 	 */
 	public HistogramDataBuilder(String path){
+		this(path, new ScanOptions());
+	}
+	
+	/**
+	 * Create a HistogramDataBuilder that scans with the specified options.
+	 * 
+	 * @param path The root directory to word count txt files and build
+	 * histogram data.
+	 * @param options The options for how the directory is scanned, such as
+	 * the number of counting threads
+	 */
+	public HistogramDataBuilder(String path, ScanOptions options){
 		this.mPath = path;
+		this.mOptions = options;
 	}
 	
 //*********************************************************____________________
@@ -117,94 +171,141 @@ public class HistogramDataBuilder {
 	 * counts.
 	 */
 	public HashMap<Integer, Integer> build(int interval){
-		return  separateHistogramIntervals(
-				createHistogramData(
-				WordCounter.countWordsInTextFiles(
-				RecursiveFileReader.findAllFilesRecursive(
-						new File(mPath),
-						FileUtil.TXT_EXTENSION
-				))),interval);
+		return buildHistogram(interval).toHashMap();
 	}
 	
 	/**
-	 * Sort a count of words into a frequency Map
+	 * Build the histogram word count data into a Histogram
 	 * 
-	 * @param wordCounts The word counts
-	 * @return A HashMap with word counts as keys and occurrence frequencies
-	 * as values
+	 * This counts the same files as build(interval) without boxing every
+	 * word count and frequency.
+	 * 
+	 * @param interval The spacing interval for the histogram data to be sorted.
+	 * @return A Histogram object with the frequency data from the .txt file
+	 * word counts.
 	 */
-	private HashMap<Integer, Integer> createHistogramData(ArrayList<Integer
-															 > wordCounts){
-		HashMap<Integer, Integer> histogram = new HashMap<Integer, Integer>();
-		
-		for(int c : wordCounts){
-			if(!histogram.containsKey(c)){
-				histogram.put(c, 1);
-			}else{
-				histogram.put(c, histogram.get(c) + 1);
-			}
+	public Histogram buildHistogram(int interval){
+		return scan().withInterval(interval);
+	}
+	
+	/**
+	 * Build a log bucketed sketch of the word counts.
+	 * 
+	 * The sketch has a fixed size however many different word counts there
+	 * are, and reports percentiles with a bounded relative error.
+	 * 
+	 * @return A LogHistogramSketch of the .txt file word counts.
+	 */
+	public LogHistogramSketch buildSketch(){
+		LogHistogramSketch.Accumulator accumulator =
+				new LogHistogramSketch.Accumulator();
+		scan(accumulator);
+		return accumulator.snapshot();
+	}
+	
+	/**
+	 * Scan the directory and count the words of every file found.
+	 * 
+	 * @return A Histogram with an interval of 1 of the word counts
+	 */
+	private Histogram scan(){
+		//Fold the word counts straight into the shards of an accumulator
+		ConcurrentHistogramAccumulator accumulator =
+				new ConcurrentHistogramAccumulator();
+		mProgress = accumulator;
+		scan(accumulator);
+		return accumulator.snapshot();
+	}
+	
+	/**
+	 * Scan the directory and add the word count of every file found to a
+	 * sink.
+	 * 
+	 * @param counts The thread safe sink to add the word counts to
+	 */
+	private void scan(WordCountSink counts){
+		//Walk the directory in the background and count files as they are
+		//found
+		int threads = mOptions.getThreads();
+		BlockingQueue<String> queue = new ArrayBlockingQueue<String>(
+				ParallelFileWalker.DEFAULT_QUEUE_CAPACITY);
+		List<String> extraRoots = mOptions.getRoots();
+		File[] roots = new File[extraRoots.size() + 1];
+		roots[0] = new File(mPath);
+		for(int i = 1; i < roots.length; i++){
+			roots[i] = new File(extraRoots.get(i - 1));
 		}
-		
-		return histogram;
+		ScanCache cache = prepareScan(mOptions);
+		ScanStats stats = ScanStats.current();
+		if(stats != null) stats.setQueue(queue);
+		String[] extensions = ArchiveFormats.scanExtensions();
+		if(mOptions.getIoLimit() > 0){
+			//Overlap the slow file system calls, counting on other threads
+			ConcurrentIoScanner.scan(roots, mOptions.getShard(),
+					mOptions.getShards(), queue, mOptions.getIoLimit(),
+					threads, cache, counts, extensions);
+		}else{
+			ParallelFileWalker.walkInBackground(roots, mOptions.getShard(),
+					mOptions.getShards(), queue, threads, threads,
+					extensions);
+			WordCounter.countWordsInQueue(queue, threads, cache, counts);
+		}
+		closeCache(cache);
+		if(stats != null) stats.setQueue(null);
 	}
 	
 	/**
-	 * Separates the histogram data by intervals and aggregates the data based
-	 * on an interval.
+	 * Get the word counts of the running build so far.
 	 * 
-	 * For example, if an interval of 5 is specified, all data from 10-15 will
-	 * be stored in the HashMap under the key "10" as an aggregate sum.
+	 * This can be called from another thread while buildHistogram is
+	 * running, for example to show progress.
 	 * 
-	 * @param histogram The HashMap containing the histogram frequency values
-	 * @param interval The interval to aggregate the data
-	 * @return An updated histogram HashMap
+	 * @return A Histogram with an interval of 1 of the files counted so far
+	 * by the latest build, empty if no build has started
 	 */
-	private HashMap<Integer, Integer> separateHistogramIntervals(
-			HashMap<Integer, Integer> histogram, int interval){
-		//Don't bother recalculating if the interval is 1
-		if(interval == 1) return histogram;
-		
-		//Get the sorted interval keys
-		int currentIntervalSet = 0;
-		ArrayList<Integer> sortedKeys = 
-				new ArrayList<Integer>(histogram.keySet());
-		Collections.sort(sortedKeys);
-		
-		//Find start point where the histogram bars should start
-		//Find the lowest non negative key
-		int startPoint = (sortedKeys.get(0) == -1) ? sortedKeys.get(1) :
-													  sortedKeys.get(0);
-		while(currentIntervalSet + interval < startPoint)
-			currentIntervalSet += interval;
-		
-		//Now that we have our start, sort counts into interval sections
-		//Create our new Map
-		HashMap<Integer, Integer> newHistogram = 
-				new HashMap<Integer, Integer>();
-		//Iterate through all the keys
-		for(int c : sortedKeys){
-			//Unaccessible files
-			if(c == -1){
-				newHistogram.put(-1, histogram.get(-1));
-			}else{
-				//If in the current interval
-				while(c >= currentIntervalSet + interval){
-					currentIntervalSet += interval;
-					newHistogram.put(currentIntervalSet, 0);
-				}
-				//If added already increment
-				if(newHistogram.containsKey(currentIntervalSet)){
-					newHistogram.put(currentIntervalSet, 
-							newHistogram.get(currentIntervalSet)
-											 +histogram.get(c));
-				} //Otherwise put a key with count value
-				else{
-					newHistogram.put(currentIntervalSet, histogram.get(c));
-				}
-			}
+	public Histogram snapshot(){
+		ConcurrentHistogramAccumulator accumulator = mProgress;
+		if(accumulator == null) return new Histogram();
+		return accumulator.snapshot();
+	}
+	
+	/**
+	 * Set up the reading of files for a scan with options, the charset and
+	 * the read sizes of the files, and open the scan cache of the options.
+	 * 
+	 * Every scan goes through this, including the scans of a watcher.
+	 * 
+	 * @param options The options of the scan
+	 * @return The opened cache, or null if there is no cache or it could not
+	 * be opened
+	 */
+	static ScanCache prepareScan(ScanOptions options){
+		FileUtil.setCharset(options.getCharset());
+		AdaptiveFileReader.setThresholds(options.getSmallFileThreshold(),
+				options.getMapThreshold());
+		if(options.getCacheFile() == null) return null;
+		try{
+			return ScanCache.open(new File(options.getCacheFile()),
+					options.getCharset());
+		}catch(IOException e){
+			System.err.println("Error opening the scan cache, "
+					+ "all files will be counted! " + e.getMessage());
+			return null;
+		}
+	}
+	
+	/**
+	 * Close a scan cache, writing the word counts added to it.
+	 * 
+	 * @param cache The cache to close, or null
+	 */
+	static void closeCache(ScanCache cache){
+		if(cache == null) return;
+		try{
+			cache.close();
+		}catch(IOException e){
+			System.err.println("Error writing the scan cache!");
 		}
-		
-		return newHistogram;
 	}
 	
 }
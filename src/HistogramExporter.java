@@ -0,0 +1,56 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * HistogramExporter.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.io.IOException;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A format histograms can be exported in for other programs to read.
+ *
+ * An exporter writes the buckets in order through a ChannelWriter as it
+ * visits them, so a histogram of any size is exported without building
+ * its output in memory.
+ *
+ * Exporters are added with HistogramExporters.register.
+ *
+ */
+public interface HistogramExporter {
+
+	/**
+	 * Get the name of the format, such as "csv".
+	 *
+	 * @return The name
+	 */
+	String getName();
+
+	/**
+	 * Get the file extension of the format, such as ".csv".
+	 *
+	 * @return The extension, with its dot
+	 */
+	String getExtension();
+
+	/**
+	 * Write a histogram. The writer is flushed by the caller.
+	 *
+	 * @param histogram The histogram to write
+	 * @param out The writer to write it to
+	 * @throws IOException An exception occurs if the histogram could not be
+	 * written
+	 */
+	void export(Histogram histogram, ChannelWriter out) throws IOException;
+
+}
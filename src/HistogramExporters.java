@@ -0,0 +1,328 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * HistogramExporters.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * The formats histograms are exported in, found by name or by the
+ * extension of a file.
+ *
+ * CSV, JSON Lines and the binary HistogramFile format are built in, along
+ * with the text the program prints. The text formats have a line for
+ * every bucket as it is printed, from its lowest to its highest word
+ * count. The binary format keeps only the buckets with files and can be
+ * read back with HistogramFile.read, which maps large files into memory.
+ *
+ */
+public class HistogramExporters {
+
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The line separator of the printed text
+	 */
+	private final static String LINE_SEPARATOR = System.lineSeparator();
+
+	/**
+	 * The text the program prints, [ low - high ] : frequency
+	 */
+	final static HistogramExporter TEXT = new LineExporter("text", ".txt"){
+		@Override
+		void writeHeader(Histogram histogram, ChannelWriter out)
+				throws IOException{
+			//The files that could not be opened first
+			if(histogram.getUnreadable() != 0){
+				out.writeAscii("Files that could not be open: ")
+						.writeDecimal(histogram.getUnreadable()).write('\n')
+						.writeAscii(LINE_SEPARATOR);
+			}
+		}
+
+		@Override
+		void writeBucket(ChannelWriter out, int interval, long low,
+				long high, long frequency) throws IOException{
+			out.writeAscii("[ ").writeDecimal(low);
+			if(interval > 1) out.writeAscii(" - ").writeDecimal(high);
+			out.writeAscii(" ] : ").writeDecimal(frequency)
+					.writeAscii(LINE_SEPARATOR);
+		}
+	};
+
+	/**
+	 * Comma separated values with a header line, low,high,frequency. The
+	 * files that could not be read are a first row of -1,-1,frequency, the
+	 * -1 key the program has always used for them.
+	 */
+	final static HistogramExporter CSV = new LineExporter("csv", ".csv"){
+		@Override
+		void writeHeader(Histogram histogram, ChannelWriter out)
+				throws IOException{
+			out.writeAscii("low,high,frequency\n");
+			if(histogram.getUnreadable() != 0){
+				out.writeDecimal(Histogram.UNREADABLE).write(',')
+						.writeDecimal(Histogram.UNREADABLE).write(',')
+						.writeDecimal(histogram.getUnreadable()).write('\n');
+			}
+		}
+
+		@Override
+		void writeBucket(ChannelWriter out, int interval, long low,
+				long high, long frequency) throws IOException{
+			out.writeDecimal(low).write(',').writeDecimal(high).write(',')
+					.writeDecimal(frequency).write('\n');
+		}
+	};
+
+	/**
+	 * JSON Lines, a line with the interval and the number of files that
+	 * could not be read, then an object for every bucket
+	 */
+	final static HistogramExporter JSON_LINES = new LineExporter("jsonl",
+			".jsonl"){
+		@Override
+		void writeHeader(Histogram histogram, ChannelWriter out)
+				throws IOException{
+			out.writeAscii("{\"interval\":")
+					.writeDecimal(histogram.getInterval())
+					.writeAscii(",\"unreadable\":")
+					.writeDecimal(histogram.getUnreadable())
+					.writeAscii("}\n");
+		}
+
+		@Override
+		void writeBucket(ChannelWriter out, int interval, long low,
+				long high, long frequency) throws IOException{
+			out.writeAscii("{\"low\":").writeDecimal(low)
+					.writeAscii(",\"high\":").writeDecimal(high)
+					.writeAscii(",\"frequency\":").writeDecimal(frequency)
+					.writeAscii("}\n");
+		}
+	};
+
+	/**
+	 * The binary HistogramFile format of partial files
+	 */
+	final static HistogramExporter BINARY = new HistogramExporter(){
+		@Override
+		public String getName(){
+			return "binary";
+		}
+
+		@Override
+		public String getExtension(){
+			return HistogramFile.EXTENSION;
+		}
+
+		@Override
+		public void export(Histogram histogram, ChannelWriter out)
+				throws IOException{
+			HistogramFile.write(histogram, out);
+		}
+	};
+
+//*********************************************************____________________
+//*****************STATIC FIELDS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The registered exporters, the first one to match is used
+	 */
+	private final static CopyOnWriteArrayList<HistogramExporter> sExporters =
+			new CopyOnWriteArrayList<HistogramExporter>(
+					new HistogramExporter[]{CSV, JSON_LINES, BINARY, TEXT});
+
+//*********************************************************____________________
+//*****************STATIC METHODS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Add an exporter. It is matched before the exporters already
+	 * registered, so it can replace one of them.
+	 *
+	 * @param exporter The exporter to add
+	 */
+	public static void register(HistogramExporter exporter){
+		if(exporter == null) throw new NullPointerException("exporter");
+		sExporters.add(0, exporter);
+	}
+
+	/**
+	 * Get an exporter by the name of its format.
+	 *
+	 * @param name The name, such as csv
+	 * @return The exporter, or null if there is none of that name
+	 */
+	public static HistogramExporter forName(String name){
+		for(HistogramExporter exporter : sExporters){
+			if(exporter.getName().equalsIgnoreCase(name)) return exporter;
+		}
+		return null;
+	}
+
+	/**
+	 * Get the exporter of a file from the extension of its name.
+	 *
+	 * @param name The name of the file
+	 * @return The exporter, or null if the extension isn't known
+	 */
+	public static HistogramExporter forFile(String name){
+		for(HistogramExporter exporter : sExporters){
+			if(name.endsWith(exporter.getExtension())) return exporter;
+		}
+		return null;
+	}
+
+	/**
+	 * Export a histogram to a channel.
+	 *
+	 * @param histogram The histogram to export
+	 * @param exporter The format to export it in
+	 * @param channel The channel to write to, left open
+	 * @throws IOException An exception occurs if the channel could not be
+	 * written
+	 */
+	public static void export(Histogram histogram, HistogramExporter exporter,
+			WritableByteChannel channel) throws IOException{
+		ScanStats stats = ScanStats.current();
+		long start = ScanStats.start(stats);
+		ChannelWriter out = new ChannelWriter(channel);
+		exporter.export(histogram, out);
+		out.flush();
+		if(stats != null) stats.record(ScanStats.Stage.EXPORT, start);
+	}
+
+	/**
+	 * Export a histogram to a file in the format of its extension,
+	 * replacing the file if it exists.
+	 *
+	 * @param histogram The histogram to export
+	 * @param file The file to export to
+	 * @throws IOException An exception occurs if the extension isn't known
+	 * or the file could not be written
+	 */
+	public static void export(Histogram histogram, File file)
+			throws IOException{
+		HistogramExporter exporter = forFile(file.getName());
+		if(exporter == null)
+			throw new IOException("Unknown export format: " + file);
+		FileChannel channel = FileChannel.open(file.toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		try{
+			export(histogram, exporter, channel);
+		}finally{
+			channel.close();
+		}
+	}
+
+//*********************************************************____________________
+//*******************INNER CLASSES*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * An exporter of a line for every bucket as it is printed, including
+	 * the empty buckets between the lowest and highest bucket when the
+	 * interval is greater than 1.
+	 */
+	private abstract static class LineExporter implements HistogramExporter {
+
+		/**
+		 * The name of the format
+		 */
+		private final String mName;
+		/**
+		 * The file extension of the format
+		 */
+		private final String mExtension;
+
+		/**
+		 * Create an exporter.
+		 *
+		 * @param name The name of the format
+		 * @param extension The file extension of the format
+		 */
+		LineExporter(String name, String extension){
+			this.mName = name;
+			this.mExtension = extension;
+		}
+
+		@Override
+		public String getName(){
+			return mName;
+		}
+
+		@Override
+		public String getExtension(){
+			return mExtension;
+		}
+
+		@Override
+		public void export(Histogram histogram, ChannelWriter out)
+				throws IOException{
+			writeHeader(histogram, out);
+			int interval = histogram.getInterval();
+			int[] keys = histogram.sortedKeys();
+			if(keys.length == 0) return;
+			if(interval == 1){
+				for(int key : keys){
+					writeBucket(out, 1, key, key, histogram.get(key));
+				}
+				return;
+			}
+			//Visit the empty buckets between the keys too
+			long last = keys[keys.length - 1];
+			for(long key = keys[0]; key <= last; key += interval){
+				writeBucket(out, interval, key, key + interval - 1,
+						histogram.get((int)key));
+			}
+		}
+
+		/**
+		 * Write what comes before the buckets.
+		 *
+		 * @param histogram The histogram being exported
+		 * @param out The writer to write to
+		 * @throws IOException An exception occurs if the histogram could
+		 * not be written
+		 */
+		abstract void writeHeader(Histogram histogram, ChannelWriter out)
+				throws IOException;
+
+		/**
+		 * Write a bucket.
+		 *
+		 * @param out The writer to write to
+		 * @param interval The interval of the histogram
+		 * @param low The lowest word count of the bucket
+		 * @param high The highest word count of the bucket
+		 * @param frequency The number of files in the bucket
+		 * @throws IOException An exception occurs if the histogram could
+		 * not be written
+		 */
+		abstract void writeBucket(ChannelWriter out, int interval, long low,
+				long high, long frequency) throws IOException;
+
+	}
+
+}
@@ -0,0 +1,384 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * HistogramFile.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A class for saving histograms to compact binary files and reading them
+ * back, so the histograms of many runs can be merged. The files are also
+ * the binary format of HistogramExporters.
+ *
+ * A file is a header followed by two arrays that can be mapped straight
+ * into memory:
+ *
+ *   int   MAGIC "TXHP"
+ *   int   VERSION
+ *   int   interval
+ *   int   n, the number of buckets with files
+ *   long  the number of files that could not be read
+ *   int[n]  the keys of the buckets in ascending order
+ *   (4 bytes of padding if n is odd, so the frequencies are aligned)
+ *   long[n] the frequencies of the buckets
+ *
+ * All values are big endian. A file with another magic number or version,
+ * with a size that doesn't match its header, with keys that are negative,
+ * out of order or not multiples of the interval, or with a negative
+ * frequency or number of unreadable files, is rejected.
+ *
+ * A file is opened as a View over its two arrays, which merge and compare
+ * walk in order without copying them.
+ *
+ */
+public class HistogramFile {
+
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The first four bytes of every histogram file, "TXHP"
+	 */
+	final static int MAGIC = 0x54584850;
+
+	/**
+	 * The version of the file format
+	 */
+	final static int VERSION = 1;
+
+	/**
+	 * The file extension of histogram files exported with -export
+	 */
+	final static String EXTENSION = ".hist";
+
+	/**
+	 * The size of the header in bytes
+	 */
+	private final static int HEADER_SIZE = 24;
+
+	/**
+	 * The size of a file, in bytes, above which it is mapped into memory
+	 * instead of read into the heap
+	 */
+	private final static int MAP_THRESHOLD = 1024 * 1024;
+
+//*********************************************************____________________
+//*****************STATIC METHODS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Save a histogram to a file, replacing the file if it exists.
+	 *
+	 * @param histogram The histogram to save
+	 * @param file The file to save to
+	 * @throws IOException An exception occurs if the file could not be
+	 * written
+	 */
+	public static void write(Histogram histogram, File file)
+			throws IOException{
+		FileChannel channel = FileChannel.open(file.toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		try{
+			ChannelWriter out = new ChannelWriter(channel);
+			write(histogram, out);
+			out.flush();
+		}finally{
+			channel.close();
+		}
+	}
+
+	/**
+	 * Write a histogram in the file format. The keys are written and then
+	 * the frequencies, so only the sorted keys are held in memory.
+	 *
+	 * @param histogram The histogram to write
+	 * @param out The writer to write to, flushed by the caller
+	 * @throws IOException An exception occurs if the histogram could not be
+	 * written
+	 */
+	static void write(Histogram histogram, ChannelWriter out)
+			throws IOException{
+		int[] keys = histogram.sortedKeys();
+		if(fileSize(keys.length) > Integer.MAX_VALUE)
+			throw new IOException("Histogram too large to save");
+		out.writeInt(MAGIC).writeInt(VERSION)
+				.writeInt(histogram.getInterval()).writeInt(keys.length)
+				.writeLong(histogram.getUnreadable());
+		for(int key : keys){
+			out.writeInt(key);
+		}
+		if(keys.length % 2 != 0) out.writeInt(0); //Align the frequencies
+		for(int key : keys){
+			out.writeLong(histogram.get(key));
+		}
+	}
+
+	/**
+	 * Read a histogram from a file.
+	 *
+	 * @param file The file to read
+	 * @return The histogram saved in the file
+	 * @throws IOException An exception occurs if the file could not be read
+	 * or is not a histogram file
+	 */
+	public static Histogram read(File file) throws IOException{
+		return open(file).toHistogram();
+	}
+
+	/**
+	 * Read any number of histogram files and add them together.
+	 *
+	 * Every file is added straight from its view into one histogram, so
+	 * merging many small files costs little more than reading them.
+	 *
+	 * @param files The files to read, all with the same interval
+	 * @return A histogram of the files of all of them
+	 * @throws IOException An exception occurs if a file could not be read,
+	 * is not a histogram file or has a different interval
+	 */
+	public static Histogram merge(File... files) throws IOException{
+		Histogram merged = null;
+		for(File file : files){
+			View view = open(file);
+			if(merged == null){
+				merged = new Histogram(view.getInterval());
+			}else if(merged.getInterval() != view.getInterval()){
+				throw new IOException("Interval " + view.getInterval()
+						+ " doesn't match " + merged.getInterval() + ": "
+						+ file);
+			}
+			view.addTo(merged);
+		}
+		return merged == null ? new Histogram() : merged;
+	}
+
+	/**
+	 * Open a histogram file as a view of its buckets.
+	 *
+	 * Files up to MAP_THRESHOLD are read into the heap, larger ones are
+	 * mapped into memory. The keys and frequencies are checked in one pass
+	 * over the view.
+	 *
+	 * @param file The file to open
+	 * @return The view of the file
+	 * @throws IOException An exception occurs if the file could not be read
+	 * or is not a histogram file
+	 */
+	public static View open(File file) throws IOException{
+		FileChannel channel = FileChannel.open(file.toPath(),
+				StandardOpenOption.READ);
+		try{
+			long length = channel.size();
+			if(length < HEADER_SIZE)
+				throw new IOException("Not a histogram file: " + file);
+			if(length > Integer.MAX_VALUE)
+				throw new IOException("Histogram file too large: " + file);
+			ByteBuffer buffer;
+			if(length > MAP_THRESHOLD){
+				//The mapping stays valid after the channel is closed
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+			}else{
+				buffer = ByteBuffer.allocate((int)length);
+				while(buffer.hasRemaining()){
+					if(channel.read(buffer) < 0)
+						throw new IOException("Truncated histogram file: "
+								+ file);
+				}
+				buffer.flip();
+			}
+			if(buffer.getInt(0) != MAGIC)
+				throw new IOException("Not a histogram file: " + file);
+			if(buffer.getInt(4) != VERSION)
+				throw new IOException("Unsupported histogram file version "
+						+ buffer.getInt(4) + ": " + file);
+			int interval = buffer.getInt(8);
+			int n = buffer.getInt(12);
+			if(interval <= 0 || n < 0 || fileSize(n) != length)
+				throw new IOException("Corrupt histogram file: " + file);
+
+			buffer = buffer.asReadOnlyBuffer();
+			buffer.position(HEADER_SIZE);
+			IntBuffer keys = buffer.asIntBuffer();
+			buffer.position(countsOffset(n));
+			LongBuffer frequencies = buffer.asLongBuffer();
+			long unreadable = buffer.getLong(16);
+			if(unreadable < 0)
+				throw new IOException("Corrupt histogram file: " + file);
+			long last = -1;
+			for(int i = 0; i < n; i++){
+				int key = keys.get(i);
+				if(key <= last || key % interval != 0
+						|| frequencies.get(i) < 0)
+					throw new IOException("Corrupt histogram file: " + file);
+				last = key;
+			}
+			return new View(interval, unreadable, n, keys, frequencies);
+		}finally{
+			channel.close();
+		}
+	}
+
+	/**
+	 * Get the offset of the frequencies in a file.
+	 *
+	 * @param n The number of buckets
+	 * @return The offset in bytes, a multiple of 8
+	 */
+	private static int countsOffset(int n){
+		return HEADER_SIZE + ((4 * n + 7) & ~7);
+	}
+
+	/**
+	 * Get the size of a file.
+	 *
+	 * @param n The number of buckets
+	 * @return The size in bytes
+	 */
+	private static long fileSize(int n){
+		return HEADER_SIZE + ((4L * n + 7) & ~7L) + 8L * n;
+	}
+
+//*********************************************************____________________
+//*******************INNER CLASSES*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * A read-only view of the buckets of a histogram file, in ascending
+	 * order of their keys, straight over the arrays of the file.
+	 */
+	public static class View {
+
+		/**
+		 * The interval length between the buckets
+		 */
+		private final int mInterval;
+		/**
+		 * The number of files that could not be read
+		 */
+		private final long mUnreadable;
+		/**
+		 * The number of buckets with files
+		 */
+		private final int mSize;
+		/**
+		 * The keys of the buckets, ascending
+		 */
+		private final IntBuffer mKeys;
+		/**
+		 * The frequencies of the buckets
+		 */
+		private final LongBuffer mFrequencies;
+
+		/**
+		 * Create a view of checked arrays.
+		 *
+		 * @param interval The interval length between the buckets
+		 * @param unreadable The number of files that could not be read
+		 * @param size The number of buckets with files
+		 * @param keys The keys of the buckets, ascending
+		 * @param frequencies The frequencies of the buckets
+		 */
+		private View(int interval, long unreadable, int size, IntBuffer keys,
+				LongBuffer frequencies){
+			this.mInterval = interval;
+			this.mUnreadable = unreadable;
+			this.mSize = size;
+			this.mKeys = keys;
+			this.mFrequencies = frequencies;
+		}
+
+		/**
+		 * Get the interval length between the buckets.
+		 *
+		 * @return The interval
+		 */
+		public int getInterval(){
+			return mInterval;
+		}
+
+		/**
+		 * Get the number of files that could not be read.
+		 *
+		 * @return The number of files
+		 */
+		public long getUnreadable(){
+			return mUnreadable;
+		}
+
+		/**
+		 * Get the number of buckets with files.
+		 *
+		 * @return The number of buckets
+		 */
+		public int size(){
+			return mSize;
+		}
+
+		/**
+		 * Get the key of a bucket, its lowest word count.
+		 *
+		 * @param index The index of the bucket, from 0 to size() - 1
+		 * @return The key, greater than the key of the bucket before
+		 */
+		public int getKey(int index){
+			return mKeys.get(index);
+		}
+
+		/**
+		 * Get the frequency of a bucket.
+		 *
+		 * @param index The index of the bucket, from 0 to size() - 1
+		 * @return The number of files in the bucket
+		 */
+		public long getFrequency(int index){
+			return mFrequencies.get(index);
+		}
+
+		/**
+		 * Add every bucket to a histogram with the same interval.
+		 *
+		 * @param histogram The histogram to add to
+		 */
+		public void addTo(Histogram histogram){
+			if(histogram.getInterval() != mInterval)
+				throw new IllegalArgumentException("Intervals don't match");
+			histogram.add(Histogram.UNREADABLE, mUnreadable);
+			for(int i = 0; i < mSize; i++){
+				histogram.add(mKeys.get(i), mFrequencies.get(i));
+			}
+		}
+
+		/**
+		 * Copy the buckets into a new histogram.
+		 *
+		 * @return The histogram
+		 */
+		public Histogram toHistogram(){
+			Histogram histogram = new Histogram(mInterval);
+			addTo(histogram);
+			return histogram;
+		}
+
+	}
+
+}
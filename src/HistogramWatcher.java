@@ -0,0 +1,508 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * HistogramWatcher.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A class that keeps histogram data live while the files in a directory
+ * change.
+ *
+ * The directory is scanned once and the word counts of every file are kept
+ * by path. Every directory in the tree is then watched with a WatchService.
+ * When a .txt or .zip file is created, modified or deleted only that file is
+ * counted again, and its old word counts are taken out of the histogram
+ * before the new ones are put in.
+ *
+ * Changes are collected and applied at most once per debounce period, after
+ * which the listener is given the updated histogram, so a busy directory
+ * doesn't cause an update for every write.
+ *
+ * Files are read with the charset and read sizes of the scan options, and
+ * the scan cache of the options is kept open while watching and written
+ * after every update. The concurrent I/O mode isn't used, a WatchService
+ * doesn't see the changes other machines make to network storage.
+ *
+ */
+public class HistogramWatcher {
+
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The default time to collect changes before updating, in milliseconds
+	 */
+	final static long DEFAULT_DEBOUNCE_MILLIS = 1000;
+
+	/**
+	 * The file extensions that are counted
+	 */
+	private final static String[] EXTENSIONS =
+			ArchiveFormats.scanExtensions();
+
+//*********************************************************____________________
+//*******************INTERFACES****************************____________________
+//*********************************************************____________________
+
+	/**
+	 * A listener that is given the histogram data when it changes.
+	 */
+	public interface Listener {
+
+		/**
+		 * Called with the histogram data after the first scan and after
+		 * every batch of changes.
+		 *
+		 * @param histogram A Histogram object with histogram data separated
+		 * by the interval of the watcher
+		 */
+		void histogramUpdated(Histogram histogram);
+
+	}
+
+//*********************************************************____________________
+//******************CLASS FIELDS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The root directory to watch
+	 */
+	private final Path mRoot;
+	/**
+	 * The options for how the directory is scanned
+	 */
+	private final ScanOptions mOptions;
+	/**
+	 * The interval length between histogram bars
+	 */
+	private final int mInterval;
+	/**
+	 * The time to collect changes before updating, in milliseconds
+	 */
+	private final long mDebounceMillis;
+	/**
+	 * The listener given the histogram data
+	 */
+	private final Listener mListener;
+	/**
+	 * The cache of word counts of the options, or null
+	 */
+	private ScanCache mCache;
+
+	/**
+	 * The word counts of every counted file by path
+	 */
+	private final Map<String, int[]> mFileCounts =
+			new ConcurrentHashMap<String, int[]>();
+	/**
+	 * The word count frequencies, only changed on the update thread
+	 */
+	private Histogram mHistogram = new Histogram();
+	/**
+	 * The watched directories by their watch keys
+	 */
+	private final Map<WatchKey, Path> mDirectories =
+			new ConcurrentHashMap<WatchKey, Path>();
+	/**
+	 * The paths changed since the last update
+	 */
+	private HashSet<String> mPending = new HashSet<String>();
+	/**
+	 * Whether an update is scheduled for the pending paths
+	 */
+	private boolean mScheduled = false;
+	/**
+	 * Whether events were lost and the whole tree must be scanned again
+	 */
+	private boolean mRescan = false;
+
+	/**
+	 * The watch service for the directory tree
+	 */
+	private WatchService mWatchService;
+	/**
+	 * The thread that applies changes and updates the listener
+	 */
+	private final ScheduledExecutorService mUpdater =
+			Executors.newSingleThreadScheduledExecutor();
+
+//*********************************************************____________________
+//******************CONSTRUCTORS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Create a watcher for a directory.
+	 *
+	 * @param path The root directory to word count txt files in and watch
+	 * @param options The options for how the directory is scanned
+	 * @param interval The interval length between histogram bars
+	 * @param debounceMillis The time to collect changes before updating, in
+	 * milliseconds
+	 * @param listener The listener given the histogram data
+	 */
+	public HistogramWatcher(String path, ScanOptions options, int interval,
+			long debounceMillis, Listener listener){
+		this.mRoot = Paths.get(path).toAbsolutePath();
+		this.mOptions = options;
+		this.mInterval = interval;
+		this.mDebounceMillis = debounceMillis;
+		this.mListener = listener;
+	}
+
+//*********************************************************____________________
+//******************CLASS METHODS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Scan the directory, give the listener the histogram data, then watch
+	 * for changes until the thread is interrupted.
+	 *
+	 * @throws IOException An exception occurs if the directory could not be
+	 * watched
+	 */
+	public void watch() throws IOException{
+		mWatchService = FileSystems.getDefault().newWatchService();
+		mCache = HistogramDataBuilder.prepareScan(mOptions);
+		try{
+			//Watch first so no change made during the scan is missed
+			registerTree(mRoot);
+			mUpdater.submit(new Runnable(){
+				@Override
+				public void run(){
+					scanAll();
+					emit();
+				}
+			});
+
+			while(!Thread.currentThread().isInterrupted()){
+				WatchKey key;
+				try{
+					key = mWatchService.take();
+				}catch(InterruptedException e){
+					break;
+				}
+				handleEvents(key);
+			}
+		}finally{
+			mUpdater.shutdownNow();
+			mWatchService.close();
+			closeCache();
+		}
+	}
+
+	/**
+	 * Queue the changed paths from the events of a watch key.
+	 *
+	 * @param key The signalled watch key
+	 */
+	private void handleEvents(WatchKey key){
+		Path directory = mDirectories.get(key);
+		for(WatchEvent<?> event : key.pollEvents()){
+			if(event.kind() == StandardWatchEventKinds.OVERFLOW){
+				//Events were lost, only a full scan can catch up
+				synchronized(this){
+					mRescan = true;
+				}
+				schedule();
+				continue;
+			}
+			if(directory == null) continue;
+			Path child = directory.resolve((Path)event.context());
+			if(event.kind() == StandardWatchEventKinds.ENTRY_CREATE &&
+					Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)){
+				//Watch the new directory and count what is already in it
+				registerTree(child);
+				queueTree(child);
+			}else if(event.kind() == StandardWatchEventKinds.ENTRY_DELETE ||
+					ParallelFileWalker.matches(child.toString(), EXTENSIONS)){
+				//Deleted directories are queued to drop the files in them
+				queue(child.toString());
+			}
+		}
+		if(!key.reset()) mDirectories.remove(key);
+	}
+
+	/**
+	 * Add a changed path and schedule an update if one isn't scheduled.
+	 *
+	 * @param path The changed path
+	 */
+	private void queue(String path){
+		synchronized(this){
+			mPending.add(path);
+		}
+		schedule();
+	}
+
+	/**
+	 * Schedule an update after the debounce period if one isn't scheduled.
+	 */
+	private synchronized void schedule(){
+		if(mScheduled) return;
+		mScheduled = true;
+		mUpdater.schedule(new Runnable(){
+			@Override
+			public void run(){
+				update();
+			}
+		}, mDebounceMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Apply the pending changes and give the listener the histogram data.
+	 */
+	private void update(){
+		HashSet<String> pending;
+		boolean rescan;
+		synchronized(this){
+			pending = mPending;
+			rescan = mRescan;
+			mPending = new HashSet<String>();
+			mRescan = false;
+			mScheduled = false;
+		}
+		if(rescan){
+			scanAll();
+		}else{
+			for(String path : pending) recount(path);
+		}
+		flushCache();
+		emit();
+	}
+
+	/**
+	 * Count every file in the tree again, replacing all the word counts.
+	 */
+	private void scanAll(){
+		mFileCounts.clear();
+		mHistogram = new Histogram();
+
+		final int threads = mOptions.getThreads();
+		final BlockingQueue<String> queue = new ArrayBlockingQueue<String>(
+				ParallelFileWalker.DEFAULT_QUEUE_CAPACITY);
+		ParallelFileWalker.walkInBackground(mRoot.toFile(), queue, threads,
+				threads, EXTENSIONS);
+
+		//Count every file on its own to keep its word counts by path
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		for(int i = 0; i < threads; i++){
+			pool.execute(new Runnable(){
+				@Override
+				public void run(){
+					try{
+						String f;
+						while((f = queue.take()) !=
+								ParallelFileWalker.END_OF_FILES){
+							ArrayList<Integer> counts =
+									new ArrayList<Integer>();
+							WordCounter.countWordsInFile(f,
+									WordCounter.listSink(counts), mCache);
+							mFileCounts.put(f, WordCounter.toArray(counts));
+						}
+					}catch(InterruptedException e){
+						Thread.currentThread().interrupt();
+					}
+				}
+			});
+		}
+		pool.shutdown();
+		try{
+			pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		}catch(InterruptedException e){
+			pool.shutdownNow();
+			Thread.currentThread().interrupt();
+			return;
+		}
+
+		for(int[] counts : mFileCounts.values()) add(counts, 1);
+		flushCache();
+	}
+
+	/**
+	 * Count a changed path again, taking its old word counts out of the
+	 * histogram and putting the new ones in.
+	 *
+	 * A path that was a deleted directory drops every file that was in it.
+	 *
+	 * @param path The changed path
+	 */
+	private void recount(String path){
+		int[] old = mFileCounts.remove(path);
+		if(old != null){
+			add(old, -1);
+		}else if(!new File(path).exists()){
+			//A deleted directory, drop the files that were in it
+			String prefix = path + File.separator;
+			Iterator<Map.Entry<String, int[]>> entries =
+					mFileCounts.entrySet().iterator();
+			while(entries.hasNext()){
+				Map.Entry<String, int[]> entry = entries.next();
+				if(entry.getKey().startsWith(prefix)){
+					add(entry.getValue(), -1);
+					entries.remove();
+				}
+			}
+		}
+
+		if(new File(path).isFile() &&
+				ParallelFileWalker.matches(path, EXTENSIONS)){
+			ArrayList<Integer> counts = new ArrayList<Integer>();
+			WordCounter.countWordsInFile(path, WordCounter.listSink(counts),
+					mCache);
+			int[] current = WordCounter.toArray(counts);
+			mFileCounts.put(path, current);
+			add(current, 1);
+		}
+	}
+
+	/**
+	 * Add or take word counts out of the histogram.
+	 *
+	 * @param counts The word counts
+	 * @param sign 1 to add the word counts, -1 to take them out
+	 */
+	private void add(int[] counts, int sign){
+		for(int c : counts){
+			mHistogram.add(c, sign);
+		}
+	}
+
+	/**
+	 * Write the word counts added to the scan cache, if there is one.
+	 */
+	private void flushCache(){
+		if(mCache == null) return;
+		try{
+			mCache.flush();
+		}catch(IOException e){
+			System.err.println("Error writing the scan cache!");
+		}
+	}
+
+	/**
+	 * Close the scan cache once the update thread is done with it.
+	 */
+	private void closeCache(){
+		//The watch ends with the thread interrupted, wait regardless
+		boolean interrupted = Thread.interrupted();
+		try{
+			mUpdater.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		}catch(InterruptedException e){
+			interrupted = true;
+		}
+		HistogramDataBuilder.closeCache(mCache);
+		if(interrupted) Thread.currentThread().interrupt();
+	}
+
+	/**
+	 * Give the listener the histogram data separated by the interval.
+	 */
+	private void emit(){
+		mListener.histogramUpdated(mHistogram.withInterval(mInterval));
+	}
+
+	/**
+	 * Watch a directory and all its subdirectories.
+	 *
+	 * Directories that can't be watched are skipped.
+	 *
+	 * @param directory The directory to watch
+	 */
+	private void registerTree(Path directory){
+		try{
+			Files.walkFileTree(directory, new SimpleFileVisitor<Path>(){
+				@Override
+				public FileVisitResult preVisitDirectory(Path dir,
+						BasicFileAttributes attributes){
+					try{
+						mDirectories.put(dir.register(mWatchService,
+								StandardWatchEventKinds.ENTRY_CREATE,
+								StandardWatchEventKinds.ENTRY_MODIFY,
+								StandardWatchEventKinds.ENTRY_DELETE), dir);
+					}catch(IOException e){
+						System.err.println("Could not watch directory: "
+								+ dir + "!");
+					}
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFileFailed(Path file,
+						IOException e){
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		}catch(IOException e){
+			System.err.println("Could not watch directory: " + directory
+					+ "!");
+		}
+	}
+
+	/**
+	 * Queue every matching file in a new directory tree to be counted.
+	 *
+	 * @param directory The new directory
+	 */
+	private void queueTree(Path directory){
+		try{
+			Files.walkFileTree(directory, new SimpleFileVisitor<Path>(){
+				@Override
+				public FileVisitResult visitFile(Path file,
+						BasicFileAttributes attributes){
+					if(ParallelFileWalker.matches(file.toString(),
+							EXTENSIONS)){
+						queue(file.toString());
+					}
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFileFailed(Path file,
+						IOException e){
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		}catch(IOException e){
+			//The directory is gone again, nothing to count
+		}
+	}
+
+}
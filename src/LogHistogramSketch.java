@@ -0,0 +1,396 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * LogHistogramSketch.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A fixed size sketch of word counts in log/linear buckets, in the style of
+ * an HDR histogram.
+ *
+ * Word counts below 2^precision get a bucket each. Above that, every power
+ * of two is split into 2^(precision-1) buckets of equal width, so a bucket
+ * is never wider than 1/2^(precision-1) of the word counts in it. With the
+ * default precision of 8 that is a relative error under 0.8%, and every
+ * word count up to Integer.MAX_VALUE fits in 3200 buckets no matter how
+ * many files are counted.
+ *
+ * Sketches with the same precision can be merged, so the sketches of many
+ * threads or many runs add up to the sketch of all of their files. The
+ * highest word count is kept exactly.
+ *
+ * A LogHistogramSketch is not thread safe, an Accumulator gives each
+ * counting thread a sketch of its own.
+ *
+ */
+public class LogHistogramSketch implements WordCountSink {
+
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The default number of significant bits of a bucket
+	 */
+	final static int DEFAULT_PRECISION = 8;
+
+	/**
+	 * The percentiles reported in the summary
+	 */
+	final static double[] SUMMARY_PERCENTILES = {50, 90, 99, 99.9};
+
+//*********************************************************____________________
+//*******************INTERFACES****************************____________________
+//*********************************************************____________________
+
+	/**
+	 * A visitor for the buckets of a sketch in order.
+	 */
+	public interface BucketVisitor {
+
+		/**
+		 * Visit a bucket with files in it.
+		 *
+		 * @param low The lowest word count of the bucket
+		 * @param high The highest word count of the bucket
+		 * @param frequency The number of files in the bucket
+		 */
+		void visit(int low, int high, long frequency);
+
+	}
+
+//*********************************************************____________________
+//*****************STATIC METHODS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Create a sketch of the word counts of a histogram with an interval
+	 * of 1.
+	 *
+	 * @param histogram The histogram of the word counts
+	 * @return A sketch with the default precision
+	 */
+	public static LogHistogramSketch from(Histogram histogram){
+		if(histogram.getInterval() != 1)
+			throw new IllegalArgumentException("Interval must be 1");
+		LogHistogramSketch sketch = new LogHistogramSketch();
+		for(int key : histogram.sortedKeys()){
+			sketch.add(key, histogram.get(key));
+		}
+		sketch.mUnreadable = histogram.getUnreadable();
+		return sketch;
+	}
+
+	/**
+	 * Format a percentile as a label, such as p50 or p99.9.
+	 *
+	 * @param percentile The percentile
+	 * @return The label
+	 */
+	static String percentileLabel(double percentile){
+		if(percentile == Math.rint(percentile)) return "p" + (long)percentile;
+		return "p" + percentile;
+	}
+
+//*********************************************************____________________
+//******************CLASS FIELDS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The number of significant bits of a bucket
+	 */
+	private final int mPrecision;
+	/**
+	 * The number of files in every bucket
+	 */
+	private final long[] mCounts;
+	/**
+	 * The number of files that were read
+	 */
+	private long mTotal = 0;
+	/**
+	 * The number of files that couldn't be read
+	 */
+	private long mUnreadable = 0;
+	/**
+	 * The highest word count added, -1 if none was
+	 */
+	private int mMax = -1;
+
+//*********************************************************____________________
+//******************CONSTRUCTORS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Create an empty sketch with the default precision.
+	 */
+	public LogHistogramSketch(){
+		this(DEFAULT_PRECISION);
+	}
+
+	/**
+	 * Create an empty sketch.
+	 *
+	 * @param precision The number of significant bits of a bucket, from 1
+	 * to 16. Every extra bit halves the relative error and doubles the
+	 * number of buckets.
+	 */
+	public LogHistogramSketch(int precision){
+		if(precision < 1 || precision > 16)
+			throw new IllegalArgumentException("Bad precision: " + precision);
+		this.mPrecision = precision;
+		this.mCounts = new long[bucketIndex(Integer.MAX_VALUE) + 1];
+	}
+
+//*********************************************************____________________
+//******************CLASS METHODS**************************____________________
+//*********************************************************____________________
+
+	@Override
+	public void add(int wordCount){
+		add(wordCount, 1);
+	}
+
+	/**
+	 * Add a number of files with the same word count.
+	 *
+	 * @param wordCount The word count, -1 for files that couldn't be read
+	 * @param frequency The number of files
+	 */
+	public void add(int wordCount, long frequency){
+		if(wordCount == Histogram.UNREADABLE){
+			mUnreadable += frequency;
+			return;
+		}
+		if(wordCount < 0)
+			throw new IllegalArgumentException("Bad word count: " + wordCount);
+		mCounts[bucketIndex(wordCount)] += frequency;
+		mTotal += frequency;
+		if(wordCount > mMax) mMax = wordCount;
+	}
+
+	/**
+	 * Add all the files of another sketch with the same precision.
+	 *
+	 * @param other The sketch to add
+	 */
+	public void merge(LogHistogramSketch other){
+		if(other.mPrecision != mPrecision)
+			throw new IllegalArgumentException("Precisions don't match");
+		for(int i = 0; i < mCounts.length; i++){
+			mCounts[i] += other.mCounts[i];
+		}
+		mTotal += other.mTotal;
+		mUnreadable += other.mUnreadable;
+		if(other.mMax > mMax) mMax = other.mMax;
+	}
+
+	/**
+	 * Get the number of files that were read.
+	 *
+	 * @return The number of readable files
+	 */
+	public long getTotal(){
+		return mTotal;
+	}
+
+	/**
+	 * Get the number of files that could not be read.
+	 *
+	 * @return The number of unreadable files
+	 */
+	public long getUnreadable(){
+		return mUnreadable;
+	}
+
+	/**
+	 * Get the highest word count added.
+	 *
+	 * @return The highest word count, -1 if no readable file was added
+	 */
+	public int getMax(){
+		return mMax;
+	}
+
+	/**
+	 * Get the word count at a percentile.
+	 *
+	 * The result is the highest word count of the bucket holding the file at
+	 * the percentile, but never more than the highest word count added.
+	 *
+	 * @param percentile The percentile, from 0 to 100
+	 * @return The word count at the percentile, -1 if no readable file was
+	 * added
+	 */
+	public int percentile(double percentile){
+		if(percentile < 0 || percentile > 100)
+			throw new IllegalArgumentException("Bad percentile: " + percentile);
+		if(mTotal == 0) return -1;
+		//The rank of the file at the percentile, counting from 1
+		long rank = Math.max(1, (long)Math.ceil(percentile / 100 * mTotal));
+		long seen = 0;
+		for(int i = 0; i < mCounts.length; i++){
+			seen += mCounts[i];
+			if(seen >= rank) return Math.min(mMax, bucketHigh(i));
+		}
+		return mMax;
+	}
+
+	/**
+	 * Describe the summary percentiles and the highest word count, such as
+	 * "p50: 120  p90: 415  p99: 1023  p99.9: 2047  max: 5120".
+	 *
+	 * @return The summary on one line
+	 */
+	public String summary(){
+		StringBuilder summary = new StringBuilder();
+		for(double p : SUMMARY_PERCENTILES){
+			summary.append(percentileLabel(p)).append(": ")
+					.append(percentile(p)).append("  ");
+		}
+		return summary.append("max: ").append(mMax).toString();
+	}
+
+	/**
+	 * Visit every bucket with files in it, in ascending order.
+	 *
+	 * @param visitor The visitor to give the buckets to
+	 */
+	public void forEachBucket(BucketVisitor visitor){
+		for(int i = 0; i < mCounts.length; i++){
+			if(mCounts[i] != 0){
+				visitor.visit(bucketLow(i), bucketHigh(i), mCounts[i]);
+			}
+		}
+	}
+
+	/**
+	 * Copy the sketch into a Histogram with an interval of 1, with the files
+	 * of every bucket under its lowest word count.
+	 *
+	 * @return A histogram of the buckets
+	 */
+	public Histogram toHistogram(){
+		final Histogram histogram = new Histogram();
+		if(mUnreadable != 0) histogram.add(Histogram.UNREADABLE, mUnreadable);
+		forEachBucket(new BucketVisitor(){
+			@Override
+			public void visit(int low, int high, long frequency){
+				histogram.add(low, frequency);
+			}
+		});
+		return histogram;
+	}
+
+	/**
+	 * Find the bucket of a word count.
+	 *
+	 * @param wordCount The word count, 0 or more
+	 * @return The index of the bucket
+	 */
+	private int bucketIndex(int wordCount){
+		if(wordCount < (1 << mPrecision)) return wordCount;
+		//The bucket is the power of two and the highest significant bits
+		int exponent = 31 - Integer.numberOfLeadingZeros(wordCount);
+		int shift = exponent - mPrecision + 1;
+		int half = 1 << (mPrecision - 1);
+		return (1 << mPrecision) + (exponent - mPrecision) * half
+				+ (wordCount >>> shift) - half;
+	}
+
+	/**
+	 * Get the lowest word count of a bucket.
+	 *
+	 * @param index The index of the bucket
+	 * @return The lowest word count in the bucket
+	 */
+	private int bucketLow(int index){
+		if(index < (1 << mPrecision)) return index;
+		int half = 1 << (mPrecision - 1);
+		int offset = index - (1 << mPrecision);
+		int shift = offset / half + 1;
+		return (half + offset % half) << shift;
+	}
+
+	/**
+	 * Get the highest word count of a bucket.
+	 *
+	 * @param index The index of the bucket
+	 * @return The highest word count in the bucket
+	 */
+	private int bucketHigh(int index){
+		if(index < (1 << mPrecision)) return index;
+		int shift = (index - (1 << mPrecision)) / (1 << (mPrecision - 1)) + 1;
+		return (int)Math.min(Integer.MAX_VALUE,
+				(long)bucketLow(index) + (1L << shift) - 1);
+	}
+
+//*********************************************************____________________
+//*******************INNER CLASSES*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * A sink that many counting threads can add word counts to at once.
+	 *
+	 * Every thread adds to a sketch of its own, which only a snapshot
+	 * contends for, and the sketches are merged when a snapshot is taken.
+	 */
+	public static class Accumulator implements WordCountSink {
+
+		/**
+		 * The sketch of every thread that added word counts
+		 */
+		private final CopyOnWriteArrayList<LogHistogramSketch> mShards =
+				new CopyOnWriteArrayList<LogHistogramSketch>();
+		/**
+		 * The sketch of the current thread
+		 */
+		private final ThreadLocal<LogHistogramSketch> mShard =
+				new ThreadLocal<LogHistogramSketch>(){
+			@Override
+			protected LogHistogramSketch initialValue(){
+				LogHistogramSketch shard = new LogHistogramSketch();
+				mShards.add(shard);
+				return shard;
+			}
+		};
+
+		@Override
+		public void add(int wordCount){
+			LogHistogramSketch shard = mShard.get();
+			synchronized(shard){
+				shard.add(wordCount);
+			}
+		}
+
+		/**
+		 * Merge the sketches of every thread into a new sketch.
+		 *
+		 * @return A sketch of the word counts added so far
+		 */
+		public LogHistogramSketch snapshot(){
+			LogHistogramSketch sketch = new LogHistogramSketch();
+			for(LogHistogramSketch shard : mShards){
+				synchronized(shard){
+					sketch.merge(shard);
+				}
+			}
+			return sketch;
+		}
+
+	}
+
+}
@@ -0,0 +1,341 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * PDFHistogramBuilder.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.awt.Color;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A builder of one page PDF histogram charts.
+ *
+ * The page is a single content stream deflated as it is drawn, with its
+ * length written after it as an object of its own, so the file is written
+ * front to back without holding the page in memory. The text uses the
+ * standard PDF font closest to the font of the style: Times-Roman for a
+ * serif font, Courier for a monospaced font and Helvetica for any other.
+ *
+ */
+public class PDFHistogramBuilder extends VectorHistogramBuilder {
+
+//*********************************************************____________________
+//*******************CONSTRUCTORS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Create a builder of charts in the default style.
+	 */
+	public PDFHistogramBuilder(){
+		this(new ChartStyle());
+	}
+
+	/**
+	 * Create a builder of charts in a style.
+	 *
+	 * @param style The colors, font and column mode of the charts
+	 */
+	public PDFHistogramBuilder(ChartStyle style){
+		super(style);
+	}
+
+//*********************************************************____________________
+//******************CLASS METHODS**************************____________________
+//*********************************************************____________________
+
+	@Override
+	protected Canvas open(OutputStream out, int width, int height)
+			throws IOException{
+		return new PdfCanvas(out, width, height,
+				standardFont(mStyle.getFontName()));
+	}
+
+	/**
+	 * Get the standard PDF font closest to a font family.
+	 *
+	 * @param fontName The family, such as Serif
+	 * @return The name of a standard font every PDF viewer has
+	 */
+	static String standardFont(String fontName){
+		String name = fontName.toLowerCase(Locale.ROOT);
+		if(name.contains("mono") || name.contains("courier")) return "Courier";
+		if(name.contains("sans") || name.contains("helvetica")
+				|| name.contains("arial")) return "Helvetica";
+		if(name.contains("serif") || name.contains("times"))
+			return "Times-Roman";
+		return "Helvetica";
+	}
+
+//*********************************************************____________________
+//*******************INNER CLASSES*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * A canvas that writes the drawing operators of a PDF page.
+	 *
+	 * The objects are 1 the catalog, 2 the page tree, 3 the page, 4 its
+	 * content stream, 5 the font and 6 the length of the content stream.
+	 */
+	private static class PdfCanvas implements Canvas {
+
+		/**
+		 * The file being written, counting the offsets of the objects
+		 */
+		private final CountingOutputStream mFile;
+		/**
+		 * The deflater of the content stream
+		 */
+		private final Deflater mDeflater;
+		/**
+		 * The deflated content stream
+		 */
+		private final DeflaterOutputStream mDeflated;
+		/**
+		 * The content stream, text in the Latin-1 range as single bytes
+		 */
+		private final Writer mContent;
+		/**
+		 * The height of the page, for turning y up
+		 */
+		private final int mHeight;
+		/**
+		 * The offsets of the objects, from object 1
+		 */
+		private final long[] mOffsets = new long[6];
+		/**
+		 * The offset of the start of the content stream
+		 */
+		private final long mContentStart;
+		/**
+		 * The color of fills, null until one is set
+		 */
+		private Color mFill = null;
+		/**
+		 * The color of lines, null until one is set
+		 */
+		private Color mStroke = null;
+
+		/**
+		 * Start a PDF document and its content stream.
+		 *
+		 * @param out The stream of the file
+		 * @param width The width of the page
+		 * @param height The height of the page
+		 * @param font The standard font of the text
+		 * @throws IOException An exception occurs if the file could not be
+		 * written
+		 */
+		PdfCanvas(OutputStream out, int width, int height, String font)
+				throws IOException{
+			this.mFile = new CountingOutputStream(out);
+			this.mHeight = height;
+			//Binary bytes in the comment mark the file as binary
+			write("%PDF-1.4\n%\u00e2\u00e3\u00cf\u00d3\n");
+			startObject(1);
+			write("<< /Type /Catalog /Pages 2 0 R >>\nendobj\n");
+			startObject(2);
+			write("<< /Type /Pages /Kids [3 0 R] /Count 1 >>\nendobj\n");
+			startObject(3);
+			write("<< /Type /Page /Parent 2 0 R /MediaBox [0 0 " + width
+					+ " " + height + "] /Resources << /Font << /F1 5 0 R >>"
+					+ " >> /Contents 4 0 R >>\nendobj\n");
+			startObject(5);
+			write("<< /Type /Font /Subtype /Type1 /BaseFont /" + font
+					+ " /Encoding /WinAnsiEncoding >>\nendobj\n");
+			startObject(4);
+			write("<< /Length 6 0 R /Filter /FlateDecode >>\nstream\n");
+			this.mContentStart = mFile.mCount;
+			this.mDeflater = new Deflater(Deflater.BEST_COMPRESSION);
+			this.mDeflated = new DeflaterOutputStream(mFile, mDeflater);
+			this.mContent = new OutputStreamWriter(mDeflated,
+					StandardCharsets.ISO_8859_1);
+		}
+
+		@Override
+		public void fillRect(int x, int y, int width, int height,
+				Color color) throws IOException{
+			if(width <= 0 || height <= 0) return;
+			setFill(color);
+			mContent.write(x + " " + (mHeight - y - height) + " " + width
+					+ " " + height + " re f\n");
+		}
+
+		@Override
+		public void strokeRect(int x, int y, int width, int height,
+				Color color) throws IOException{
+			setStroke(color);
+			//The line is centered on the edge, half a unit inside the pixels
+			mContent.write(half(x) + " " + half(mHeight - y - height - 1)
+					+ " " + width + " " + height + " re S\n");
+		}
+
+		@Override
+		public void line(int x1, int y1, int x2, int y2, Color color)
+				throws IOException{
+			setStroke(color);
+			mContent.write(half(x1) + " " + half(mHeight - y1 - 1) + " m "
+					+ half(x2) + " " + half(mHeight - y2 - 1) + " l S\n");
+		}
+
+		@Override
+		public void text(String text, int x, int y, int size,
+				boolean upwards, Color color) throws IOException{
+			setFill(color);
+			//Turn the text a quarter turn left to read upwards
+			mContent.write("BT /F1 " + size + " Tf "
+					+ (upwards ? "0 1 -1 0 " : "1 0 0 1 ") + x + " "
+					+ (mHeight - y) + " Tm (");
+			for(int i = 0; i < text.length(); i++){
+				char c = text.charAt(i);
+				if(c == '(' || c == ')' || c == '\\') mContent.write('\\');
+				//Characters past Latin-1 aren't in the font
+				mContent.write(c < ' ' || c > 0xFF ? '?' : c);
+			}
+			mContent.write(") Tj ET\n");
+		}
+
+		@Override
+		public void close() throws IOException{
+			try{
+				//End the content stream but not the file
+				mContent.flush();
+				mDeflated.finish();
+				long length = mFile.mCount - mContentStart;
+				write("\nendstream\nendobj\n");
+				startObject(6);
+				write(length + "\nendobj\n");
+				long xref = mFile.mCount;
+				StringBuilder table = new StringBuilder("xref\n0 7\n");
+				table.append("0000000000 65535 f \n");
+				for(long offset : mOffsets){
+					String digits = Long.toString(offset);
+					for(int i = digits.length(); i < 10; i++)
+						table.append('0');
+					table.append(digits).append(" 00000 n \n");
+				}
+				write(table.toString());
+				write("trailer\n<< /Size 7 /Root 1 0 R >>\nstartxref\n"
+						+ xref + "\n%%EOF\n");
+			}finally{
+				mDeflater.end();
+				mFile.close();
+			}
+		}
+
+		/**
+		 * Set the color of fills and text if it changed.
+		 *
+		 * @param color The color
+		 * @throws IOException An exception occurs if the file could not be
+		 * written
+		 */
+		private void setFill(Color color) throws IOException{
+			if(color.equals(mFill)) return;
+			mFill = color;
+			mContent.write(rgb(color) + " rg\n");
+		}
+
+		/**
+		 * Set the color of lines if it changed.
+		 *
+		 * @param color The color
+		 * @throws IOException An exception occurs if the file could not be
+		 * written
+		 */
+		private void setStroke(Color color) throws IOException{
+			if(color.equals(mStroke)) return;
+			mStroke = color;
+			mContent.write(rgb(color) + " RG\n");
+		}
+
+		/**
+		 * Write the start of an object and note its offset.
+		 *
+		 * @param number The number of the object
+		 * @throws IOException An exception occurs if the file could not be
+		 * written
+		 */
+		private void startObject(int number) throws IOException{
+			mOffsets[number - 1] = mFile.mCount;
+			write(number + " 0 obj\n");
+		}
+
+		/**
+		 * Write text outside the content stream.
+		 *
+		 * @param text The text, every character a single byte
+		 * @throws IOException An exception occurs if the file could not be
+		 * written
+		 */
+		private void write(String text) throws IOException{
+			mFile.write(text.getBytes(StandardCharsets.ISO_8859_1));
+		}
+
+		/**
+		 * Get a color as the red, green and blue operands of rg and RG.
+		 *
+		 * @param color The color
+		 * @return The operands, each from 0 to 1
+		 */
+		private static String rgb(Color color){
+			return String.format(Locale.ROOT, "%.3f %.3f %.3f",
+					color.getRed() / 255.0, color.getGreen() / 255.0,
+					color.getBlue() / 255.0);
+		}
+
+	}
+
+	/**
+	 * A stream that counts the bytes written through it.
+	 */
+	private static class CountingOutputStream extends FilterOutputStream {
+
+		/**
+		 * The number of bytes written
+		 */
+		long mCount = 0;
+
+		/**
+		 * Count the bytes written to a stream.
+		 *
+		 * @param out The stream
+		 */
+		CountingOutputStream(OutputStream out){
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException{
+			out.write(b);
+			mCount++;
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length)
+				throws IOException{
+			out.write(bytes, offset, length);
+			mCount += length;
+		}
+
+	}
+
+}
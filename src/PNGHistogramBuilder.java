@@ -18,126 +18,451 @@ import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
-import java.io.File;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-
-import javax.imageio.ImageIO;
+import java.io.OutputStream;
 
 //*****************************************************************************
 //*******************************CLASSES***************************************
 //*****************************************************************************
 
+/**
+ * A builder of PNG histogram charts.
+ * 
+ * The histogram is first reduced by a ColumnReducer to at most one column
+ * for every pixel across the chart, and the axes are labelled at ticks
+ * instead of at every bar, so the time to draw depends on the size of the
+ * image and not on the number of buckets.
+ * 
+ * The chart is drawn with a palette of the few colors of its ChartStyle,
+ * a band of rows at a time, into one small indexed image that is reused
+ * for every band. Each band is handed to a PngStreamWriter as soon as it
+ * is drawn, so a chart of any size needs memory for a band of about
+ * BAND_PIXELS pixels and not for the whole image.
+ * 
+ */
 public class PNGHistogramBuilder extends VisualHistogramBuilder{
 	
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+	
+	/**
+	 * The most pixels in one band of rows drawn at a time
+	 */
+	final static int BAND_PIXELS = 1 << 20;
+	/**
+	 * The size of the buffer the PNG is written through
+	 */
+	private final static int OUTPUT_BUFFER_SIZE = 64 * 1024;
+	/**
+	 * The narrowest bar, in pixels, that is drawn with a gap and an outline
+	 */
+	private final static int OUTLINED_BAR_WIDTH = 4;
+	
+//*********************************************************____________________
+//*****************STATIC FIELDS***************************____________________
+//*********************************************************____________________
+	
+	/**
+	 * The fonts of the last chart, reused by charts of the same height and
+	 * font
+	 */
+	private static volatile Fonts sFonts = null;
+	
+//*********************************************************____________________
+//******************CLASS FIELDS***************************____________________
+//*********************************************************____________________
+	
+	/**
+	 * The colors, font and encoding of the charts
+	 */
+	private final ChartStyle mStyle;
+	
+//*********************************************************____________________
+//*******************CONSTRUCTORS**************************____________________
+//*********************************************************____________________
+	
+	/**
+	 * Create a builder with the default style.
+	 */
+	public PNGHistogramBuilder(){
+		this(new ChartStyle());
+	}
+	
+	/**
+	 * Create a builder.
+	 * 
+	 * @param style The colors, font and encoding of the charts
+	 */
+	public PNGHistogramBuilder(ChartStyle style){
+		this.mStyle = style;
+	}
+	
 //*********************************************************____________________
 //******************CLASS METHODS**************************____________________
 //*********************************************************____________________
 
 	@Override
 	public boolean build(String file, int width, int height, 
-			HashMap<Integer, Integer> histogram, int interval) {
-		
-		//Get the sorted histogram values
-		ArrayList<Integer> sortedKeys = 
-				new ArrayList<Integer>(histogram.keySet());
-		Collections.sort(sortedKeys);
+			Histogram histogram, String caption) {
+		//Reduce the histogram to at most a column for every pixel
+		ColumnReducer columns = ColumnReducer.reduce(histogram,
+				Math.max(1, (width/6)*4), mStyle.getReduceMode());
+		return render(file, width, height, histogram, caption, columns,
+				null);
+	}
+	
+	/**
+	 * Build a chart comparing two histograms of the same interval. The
+	 * later one is drawn as bars and the earlier one as a line over them,
+	 * on columns shared by the buckets of both.
+	 * 
+	 * @param file The file to name the histogram chart after the operation
+	 * is completed
+	 * @param width The output width in pixels of the histogram chart
+	 * @param height The output height in pixels of the histogram chart
+	 * @param before The earlier histogram, drawn as a line
+	 * @param after The later histogram, drawn as bars
+	 * @param caption A line of text to show with the chart, or null
+	 * @return True if the chart was built
+	 */
+	public boolean buildComparison(String file, int width, int height,
+			Histogram before, Histogram after, String caption){
+		int maxColumns = Math.max(1, (width/6)*4);
+		ColumnReducer columns = ColumnReducer.reduce(after, before,
+				maxColumns, mStyle.getReduceMode());
+		ColumnReducer previous = ColumnReducer.reduce(before, after,
+				maxColumns, mStyle.getReduceMode());
+		return render(file, width, height, after, caption, columns,
+				previous);
+	}
+	
+	/**
+	 * Draw and encode a chart a band of rows at a time.
+	 * 
+	 * @param file The file to write the PNG to
+	 * @param width The width of the chart in pixels
+	 * @param height The height of the chart in pixels
+	 * @param histogram The histogram, for the unreadable file count
+	 * @param caption A line of text to show with the chart, or null
+	 * @param columns The reduced histogram, drawn as bars
+	 * @param previous A reduced histogram on the same columns to draw as a
+	 * line, or null
+	 * @return True if the chart was built
+	 */
+	private boolean render(String file, int width, int height,
+			Histogram histogram, String caption, ColumnReducer columns,
+			ColumnReducer previous){
+		ScanStats stats = ScanStats.current();
+		Fonts fonts = Fonts.forStyle(mStyle.getFontName(), height);
 		
-		//Create a blank image with the specified width and height
-		BufferedImage img = new BufferedImage(width, height, 
-				BufferedImage.TYPE_INT_RGB);
-		//Prepare our output file
-		File output = new File(file);
+		//One band of rows is drawn and encoded at a time
+		IndexColorModel palette = palette(mStyle);
+		int bandHeight = Math.max(1, Math.min(height, BAND_PIXELS / width));
+		BufferedImage band = new BufferedImage(width, bandHeight,
+				BufferedImage.TYPE_BYTE_INDEXED, palette);
+		byte[] pixels = ((DataBufferByte)band.getRaster().getDataBuffer())
+				.getData();
+		int stride = ((ComponentSampleModel)band.getSampleModel())
+				.getScanlineStride();
+		long drawNanos = 0, encodeNanos = 0;
 		
+		OutputStream out = null;
 	    try {
-			//Draw output
-			Graphics2D g = img.createGraphics();
-			
-			//White background
-			g.setColor(Color.WHITE);
-			g.fillRect(0, 0, width, height);
-			
-			//Draw Title
-			g.setColor(Color.BLACK);
-		    Font font = new Font("Sans-Serif", Font.PLAIN, height/20);
-		    Font font2 = new Font("Sans-Serif", Font.PLAIN, height/30);
-		    Font font3 = new Font("Sans-Serif", Font.PLAIN, height/60);
-		    drawCenteredString(g, "Word Count Histogram", 
-		    		new Rectangle(0, 0, width, height/6), font);
-			
-		    //Draw bottom bar
-			g.drawLine(width/6, (height/6)*5, (width/6)*5, (height/6)*5);
-			drawCenteredString(g, "Word Count", 
-					new Rectangle(0, height-height/6, width, height/6), font2);
-			
-			//Draw side bar
-			g.drawLine(width/6, height/6, width/6, (height/6)*5);
-			drawCenteredString90D(g, "Frequency", 
-					new Rectangle(0, 0, width/6, height), font2);
-			
-			//Draw content
-			g.setColor(Color.ORANGE);
-			int contentWidth = (width/6)*4;
-			int contentHeight = (height/6)*4;
-			int barWidth = contentWidth / sortedKeys.size();
-			float maxValue = -1;
-			//Find max value from histogram data for proportions
-			for(int c : sortedKeys){
-				if(histogram.get(c) > maxValue){
-					maxValue = (float)histogram.get(c);
-				}
+			out = new BufferedOutputStream(new FileOutputStream(file),
+					OUTPUT_BUFFER_SIZE);
+			PngStreamWriter writer = new PngStreamWriter(out, width, height,
+					palette, mStyle.getDeflateLevel(), mStyle.getFilter());
+			for(int top = 0; top < height; top += bandHeight){
+				long start = System.nanoTime();
+				Graphics2D g = band.createGraphics();
+				g.setColor(mStyle.getBackground());
+				g.fillRect(0, 0, width, bandHeight);
+				//Draw the whole chart, only the band's rows are kept
+				g.translate(0, -top);
+				g.setClip(0, top, width, bandHeight);
+				draw(g, width, height, histogram, caption, columns, previous,
+						fonts);
+				g.dispose();
+				long drawn = System.nanoTime();
+				writer.writeRows(pixels, 0, stride,
+						Math.min(bandHeight, height - top));
+				drawNanos += drawn - start;
+				encodeNanos += System.nanoTime() - drawn;
 			}
-			
-			//Starting bar drawing position
-			int drawPos = width/6+1;
-			
-			//Draw min, max, and middle frequencies for simplicity
-			g.setColor(Color.BLACK);
-			g.setFont(font2);
-			g.drawString("0", drawPos-(height/30)*2, (height/6)*5);
-			g.drawString(""+(maxValue/2), drawPos-(height/30)*2, (height/6)*3);
-			g.drawString(""+(int)maxValue, drawPos-(height/30)*2, (height/6));
-			
-			int lastc = 0; //Keep track of last value for last label
-			for(int c : sortedKeys){
-				if(c == -1){ //Files that couldn't be read
-					drawCenteredString(g, c + " files could not be read", 
-							new Rectangle(0,0,width,20), font3);
-					continue;
-				}
-				//Draw a bar proportionally
-				int v = histogram.get(c);
-				int drawHeight = (int)( (((float)v)/maxValue) * contentHeight);
-				g.setColor(Color.ORANGE);
-				g.fillRect(drawPos+1, (height/6)*5-drawHeight, barWidth-1,
-															drawHeight-1);
-				g.setColor(Color.CYAN);
-				g.drawRect(drawPos+1, (height/6)*5-drawHeight, barWidth-1,
-															drawHeight-1);
-				//Draw label
-				g.setFont(font2);
-				g.setColor(Color.BLACK);
-				g.drawString(""+c, drawPos, (height/6)*5+height/30);
-				drawPos += width/6;
-				lastc = c;
-			}
-			g.drawString(""+(lastc+interval), drawPos, (height/6)*5+height/30);
-		    
-			//End drawing
-			g.dispose();
-			
-			//Save the output file
-			ImageIO.write(img, "png", output);
+			//Closes the file
+			writer.finish();
+			out = null;
 		} catch (IOException e) {
 			//If there was an error rendering the file abort
 			System.err.println("Error rendering file!");
+			if(stats != null) stats.addError();
 			return false;
+		} finally {
+			if(out != null){ //Close the file after an error
+				try{
+					out.close();
+				}catch(IOException e){
+					System.err.println("Error closing file!");
+				}
+			}
+		}
+		if(stats != null){
+			//The stages are interleaved, record each one's total time
+			long now = System.nanoTime();
+			stats.record(ScanStats.Stage.RENDER, now - drawNanos);
+			stats.record(ScanStats.Stage.ENCODE, now - encodeNanos);
 		}
 	    return true;
 	}
 	
+	/**
+	 * Draw the whole chart.
+	 * 
+	 * @param g The graphics to draw on
+	 * @param width The width of the chart in pixels
+	 * @param height The height of the chart in pixels
+	 * @param histogram The histogram, for the unreadable file count
+	 * @param caption A line of text to show with the chart, or null
+	 * @param columns The reduced histogram
+	 * @param previous A reduced histogram to draw as a line, or null
+	 * @param fonts The fonts of the chart
+	 */
+	private void draw(Graphics2D g, int width, int height,
+			Histogram histogram, String caption, ColumnReducer columns,
+			ColumnReducer previous, Fonts fonts){
+		//Draw Title
+		g.setColor(mStyle.getText());
+	    drawCenteredString(g, "Word Count Histogram", 
+	    		new Rectangle(0, 0, width, height/6), fonts.mTitle);
+	    if(caption != null){ //Such as the percentiles of a sketch
+	    	drawCenteredString(g, caption, new Rectangle(0, height/8,
+	    			width, height/24), fonts.mCaption);
+	    }
+		
+	    //Draw bottom bar
+		g.drawLine(width/6, (height/6)*5, (width/6)*5, (height/6)*5);
+		drawCenteredString(g, "Word Count", 
+				new Rectangle(0, height-height/6, width, height/6),
+				fonts.mAxis);
+		
+		//Draw side bar
+		g.drawLine(width/6, height/6, width/6, (height/6)*5);
+		drawCenteredString90D(g, "Frequency", 
+				new Rectangle(0, 0, width/6, height), fonts.mAxis);
+		
+		if(histogram.getUnreadable() != 0){ //Files that couldn't be read
+			drawCenteredString(g, histogram.getUnreadable() + 
+					" files could not be read", 
+					new Rectangle(0,0,width,20), fonts.mSmall);
+		}
+		
+		int contentWidth = (width/6)*4;
+		int contentHeight = (height/6)*4;
+		long maxValue = columns.getMaxValue();
+		if(previous != null)
+			maxValue = Math.max(maxValue, previous.getMaxValue());
+		drawColumns(g, columns, width/6+1, (height/6)*5, contentWidth,
+				contentHeight, maxValue);
+		g.setColor(mStyle.getText());
+		if(previous != null){
+			drawLine(g, previous, width/6+1, (height/6)*5, contentWidth,
+					contentHeight, maxValue);
+		}
+		drawFrequencyTicks(g, maxValue, width/6,
+				(height/6)*5, contentHeight, fonts);
+		drawWordCountTicks(g, columns, width/6+1, (height/6)*5,
+				contentWidth, height, fonts);
+	}
+	
+	/**
+	 * Get the palette of a style, its background first.
+	 * 
+	 * @param style The style of the chart
+	 * @return A palette of the colors of the style
+	 */
+	private static IndexColorModel palette(ChartStyle style){
+		Color[] colors = {style.getBackground(), style.getText(),
+				style.getBar(), style.getBand(), style.getOutline()};
+		int count = style.getOutline() == null ? 4 : 5;
+		byte[] r = new byte[count], g = new byte[count], b = new byte[count];
+		for(int i = 0; i < count; i++){
+			r[i] = (byte)colors[i].getRed();
+			g[i] = (byte)colors[i].getGreen();
+			b[i] = (byte)colors[i].getBlue();
+		}
+		return new IndexColorModel(8, count, r, g, b);
+	}
+	
+	/**
+	 * Draw a bar for every column, as high as the column in proportion to
+	 * the highest one.
+	 * 
+	 * @param g The graphics to draw on
+	 * @param columns The reduced histogram
+	 * @param left The x of the left edge of the first bar
+	 * @param base The y of the bottom of the bars
+	 * @param contentWidth The width of all the bars together
+	 * @param contentHeight The height of the highest bar
+	 * @param highest The value drawn contentHeight high
+	 */
+	private void drawColumns(Graphics2D g, ColumnReducer columns, int left,
+			int base, int contentWidth, int contentHeight, long highest){
+		int count = columns.getColumns();
+		float maxValue = Math.max(1, highest);
+		boolean envelope = columns.getMode() == ColumnReducer.Mode.ENVELOPE;
+		//Only the bars that reach into the band being drawn are drawn
+		Rectangle clip = g.getClipBounds();
+		if(clip != null && clip.y > base) return;
+		int bandBottom = clip == null ? Integer.MAX_VALUE :
+			clip.y + clip.height;
+		for(int c = 0; c < count; c++){
+			int drawHeight = (int)((columns.getHigh(c) / maxValue)
+					* contentHeight);
+			if(base - drawHeight >= bandBottom) continue;
+			//Spread the leftover pixels between the bars
+			int x = left + (int)((long)c * contentWidth / count);
+			int barWidth = left + (int)((long)(c + 1) * contentWidth / count)
+					- x;
+			g.setColor(envelope ? mStyle.getBand() : mStyle.getBar());
+			if(barWidth < OUTLINED_BAR_WIDTH || mStyle.getOutline() == null){
+				//Too narrow for a gap and an outline
+				g.fillRect(x, base - drawHeight, barWidth, drawHeight);
+			}else{
+				g.fillRect(x+1, base-drawHeight, barWidth-1, drawHeight-1);
+				g.setColor(mStyle.getOutline());
+				g.drawRect(x+1, base-drawHeight, barWidth-1, drawHeight-1);
+			}
+			if(envelope){
+				//Solid up to the lowest bucket of the column
+				int lowHeight = (int)((columns.getLow(c) / maxValue)
+						* contentHeight);
+				g.setColor(mStyle.getBar());
+				g.fillRect(x, base - lowHeight, barWidth, lowHeight);
+			}
+		}
+	}
+	
+	/**
+	 * Draw the tops of the columns as a line stepping from one column to
+	 * the next, in the current color.
+	 * 
+	 * @param g The graphics to draw on
+	 * @param columns The reduced histogram
+	 * @param left The x of the left edge of the first column
+	 * @param base The y of 0
+	 * @param contentWidth The width of all the columns together
+	 * @param contentHeight The height of the highest value
+	 * @param highest The value drawn contentHeight high
+	 */
+	private void drawLine(Graphics2D g, ColumnReducer columns, int left,
+			int base, int contentWidth, int contentHeight, long highest){
+		int count = columns.getColumns();
+		float maxValue = Math.max(1, highest);
+		//Only the steps that reach into the band being drawn are drawn
+		Rectangle clip = g.getClipBounds();
+		int bandTop = clip == null ? Integer.MIN_VALUE : clip.y;
+		int bandBottom = clip == null ? Integer.MAX_VALUE :
+			clip.y + clip.height;
+		int lastY = base;
+		for(int c = 0; c < count; c++){
+			int x = left + (int)((long)c * contentWidth / count);
+			int end = left + (int)((long)(c + 1) * contentWidth / count);
+			int y = base - (int)((columns.getHigh(c) / maxValue)
+					* contentHeight);
+			if(Math.max(y, lastY) >= bandTop
+					&& Math.min(y, lastY) < bandBottom){
+				g.drawLine(x, lastY, x, y);
+				g.drawLine(x, y, end - 1, y);
+			}
+			lastY = y;
+		}
+	}
+	
+	/**
+	 * Label the frequency axis at round steps from 0 to the highest value.
+	 * 
+	 * @param g The graphics to draw on
+	 * @param maxValue The value at the top of the axis
+	 * @param axis The x of the axis
+	 * @param base The y of 0
+	 * @param contentHeight The height of the axis
+	 * @param fonts The fonts of the chart
+	 */
+	private void drawFrequencyTicks(Graphics2D g, long maxValue, int axis,
+			int base, int contentHeight, Fonts fonts){
+		g.setFont(fonts.mAxis);
+		FontMetrics metrics = g.getFontMetrics();
+		if(maxValue <= 0){
+			drawTick(g, "0", axis, base, metrics);
+			return;
+		}
+		//Leave two lines of text between the labels
+		long step = tickStep(maxValue,
+				contentHeight / Math.max(1, metrics.getHeight() * 2));
+		for(long value = 0; value <= maxValue; value += step){
+			int y = base - (int)((double)value / maxValue * contentHeight);
+			drawTick(g, "" + value, axis, y, metrics);
+			if(value > Long.MAX_VALUE - step) break;
+		}
+	}
+	
+	/**
+	 * Draw a tick and its label to the left of the frequency axis.
+	 * 
+	 * @param g The graphics to draw on
+	 * @param label The label
+	 * @param axis The x of the axis
+	 * @param y The y of the tick
+	 * @param metrics The metrics of the font of the label
+	 */
+	private void drawTick(Graphics2D g, String label, int axis, int y,
+			FontMetrics metrics){
+		int tick = Math.max(2, metrics.getHeight() / 4);
+		g.drawLine(axis - tick, y, axis, y);
+		g.drawString(label, axis - tick * 2 - metrics.stringWidth(label),
+				y + metrics.getAscent() / 2);
+	}
+	
+	/**
+	 * Label the word count axis with the first word count of evenly spaced
+	 * columns, as many as fit without overlapping, and the end of the last
+	 * column.
+	 * 
+	 * @param g The graphics to draw on
+	 * @param columns The reduced histogram
+	 * @param left The x of the left edge of the first column
+	 * @param base The y of the axis
+	 * @param contentWidth The width of all the columns together
+	 * @param height The height of the chart
+	 * @param fonts The fonts of the chart
+	 */
+	private void drawWordCountTicks(Graphics2D g, ColumnReducer columns,
+			int left, int base, int contentWidth, int height, Fonts fonts){
+		int count = columns.getColumns();
+		if(count == 0) return;
+		g.setFont(fonts.mAxis);
+		FontMetrics metrics = g.getFontMetrics();
+		String end = "" + columns.getEndKey();
+		//The widest label is at most as wide as the end of the axis
+		int spacing = metrics.stringWidth(end) + metrics.stringWidth("  ");
+		int step = labelStep(count, contentWidth / Math.max(1, spacing));
+		int y = base + height/30;
+		int lastX = Integer.MIN_VALUE;
+		for(int c = 0; c < count; c += step){
+			int x = left + (int)((long)c * contentWidth / count);
+			g.drawString("" + columns.getFirstKey(c), x, y);
+			lastX = x;
+		}
+		int endX = left + contentWidth;
+		if(endX - lastX >= spacing) g.drawString(end, endX, y);
+	}
+	
 	/**
 	 * Draw centered text in the specified region.
 	 * 
@@ -182,5 +507,74 @@ public class PNGHistogramBuilder extends VisualHistogramBuilder{
 	    g.rotate(Math.toRadians(90));
 	    g.translate(-x,-y);
 	}
+	
+//*********************************************************____________________
+//*******************INNER CLASSES*************************____________________
+//*********************************************************____________________
+	
+	/**
+	 * The fonts of a chart, which are sized by its height.
+	 */
+	private static class Fonts {
+		
+		/**
+		 * The font of the title
+		 */
+		final Font mTitle;
+		/**
+		 * The font of the axis names and labels
+		 */
+		final Font mAxis;
+		/**
+		 * The font of the caption
+		 */
+		final Font mCaption;
+		/**
+		 * The font of notes such as the unreadable file count
+		 */
+		final Font mSmall;
+		/**
+		 * The family of the fonts
+		 */
+		final String mName;
+		/**
+		 * The height of the chart the fonts are sized for
+		 */
+		final int mHeight;
+		
+		/**
+		 * Create the fonts for a chart height.
+		 * 
+		 * @param name The family of the fonts
+		 * @param height The height of the chart in pixels
+		 */
+		private Fonts(String name, int height){
+			this.mName = name;
+			this.mHeight = height;
+			this.mTitle = new Font(name, Font.PLAIN, height/20);
+			this.mAxis = new Font(name, Font.PLAIN, height/30);
+			this.mCaption = new Font(name, Font.PLAIN, height/40);
+			this.mSmall = new Font(name, Font.PLAIN, height/60);
+		}
+		
+		/**
+		 * Get the fonts for a chart, creating them only if the last chart
+		 * had another height or font.
+		 * 
+		 * @param name The family of the fonts
+		 * @param height The height of the chart in pixels
+		 * @return The fonts
+		 */
+		static Fonts forStyle(String name, int height){
+			Fonts fonts = sFonts;
+			if(fonts == null || fonts.mHeight != height ||
+					!fonts.mName.equals(name)){
+				fonts = new Fonts(name, height);
+				sFonts = fonts;
+			}
+			return fonts;
+		}
+		
+	}
 
 }
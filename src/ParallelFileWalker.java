@@ -0,0 +1,463 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * ParallelFileWalker.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A class for walking a directory tree in parallel.
+ *
+ * This does the same search as RecursiveFileReader.findAllFilesRecursive
+ * but streams the matching paths into a bounded queue as they are found,
+ * so counting can start right away and the list of files is never held in
+ * memory, not even for one directory. Subdirectories are walked as fork-join
+ * tasks of their own, up to FORKED_DIRECTORIES_PER_THREAD waiting or running
+ * for every thread. Past that a subdirectory is walked inline by the task
+ * that found it, so the memory of a walk doesn't grow with the width of the
+ * tree. Every entry is checked with a single read of its BasicFileAttributes.
+ *
+ * Symbolic links to files are followed. Symbolic links to directories are
+ * not, so a link cycle can't make the walk run forever.
+ *
+ * A walk can be limited to one shard of the files, so several processes
+ * can split a tree between them. A file belongs to the shard picked by a
+ * hash of its path relative to the root it was found under, so every
+ * process walking the same roots agrees on the shard of every file.
+ *
+ */
+public class ParallelFileWalker {
+
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The default capacity of the queue between the walker and the counters
+	 */
+	final static int DEFAULT_QUEUE_CAPACITY = 4096;
+
+	/**
+	 * The most subdirectory tasks forked and not yet listed for every thread
+	 * of a walk
+	 */
+	final static int FORKED_DIRECTORIES_PER_THREAD = 64;
+
+	/**
+	 * A marker put on the queue once for every consumer when the walk is
+	 * done. It is compared by reference.
+	 */
+	final static String END_OF_FILES = new String("<end of files>");
+
+//*********************************************************____________________
+//*****************STATIC METHODS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Start walking a directory on a background thread.
+	 *
+	 * The absolute paths of the matching files are put on the queue, waiting
+	 * for space when it is full. When the walk is done END_OF_FILES is put on
+	 * the queue once for every consumer.
+	 *
+	 * @param rootfile The root directory to begin searching from
+	 * @param queue The queue to put the matching paths on
+	 * @param threads The number of threads to walk with
+	 * @param consumers The number of threads taking paths from the queue
+	 * @param fileExtensions The file extensions to match against
+	 * @return The started background thread
+	 */
+	public static Thread walkInBackground(final File rootfile,
+			final BlockingQueue<String> queue, final int threads,
+			final int consumers, final String... fileExtensions){
+		return walkInBackground(new File[]{rootfile}, 0, 1, queue, threads,
+				consumers, fileExtensions);
+	}
+
+	/**
+	 * Start walking one shard of several directories on a background thread.
+	 *
+	 * The directories are walked one after the other and END_OF_FILES is
+	 * put on the queue once for every consumer when all of them are done.
+	 *
+	 * @param roots The root directories to search
+	 * @param shard The shard of the files to queue, from 0 to shards - 1
+	 * @param shards The number of shards the files are split into, 1 to
+	 * queue every file
+	 * @param queue The queue to put the matching paths on
+	 * @param threads The number of threads to walk with
+	 * @param consumers The number of threads taking paths from the queue
+	 * @param fileExtensions The file extensions to match against
+	 * @return The started background thread
+	 */
+	public static Thread walkInBackground(final File[] roots, final int shard,
+			final int shards, final BlockingQueue<String> queue,
+			final int threads, final int consumers,
+			final String... fileExtensions){
+		Thread walker = new Thread(new Runnable(){
+			@Override
+			public void run(){
+				try{
+					for(File root : roots){
+						walk(root.toPath(), shard, shards, queue, threads,
+								fileExtensions);
+					}
+				}finally{
+					try{
+						for(int i = 0; i < consumers; i++){
+							queue.put(END_OF_FILES);
+						}
+					}catch(InterruptedException e){
+						Thread.currentThread().interrupt();
+					}
+				}
+			}
+		}, "txthistogram-walker");
+		walker.setDaemon(true);
+		walker.start();
+		return walker;
+	}
+
+	/**
+	 * Walk a directory and put the absolute paths of the matching files on a
+	 * queue, returning once the whole tree has been walked.
+	 *
+	 * Directories that can't be read are skipped.
+	 *
+	 * @param root The root directory to begin searching from
+	 * @param queue The queue to put the matching paths on
+	 * @param threads The number of threads to walk with
+	 * @param fileExtensions The file extensions to match against
+	 */
+	public static void walk(Path root, BlockingQueue<String> queue,
+			int threads, String... fileExtensions){
+		walk(root, 0, 1, queue, threads, fileExtensions);
+	}
+
+	/**
+	 * Walk a directory and put the absolute paths of the matching files in
+	 * one shard on a queue, returning once the whole tree has been walked.
+	 *
+	 * @param root The root directory to begin searching from
+	 * @param shard The shard of the files to queue, from 0 to shards - 1
+	 * @param shards The number of shards the files are split into, 1 to
+	 * queue every file
+	 * @param queue The queue to put the matching paths on
+	 * @param threads The number of threads to walk with
+	 * @param fileExtensions The file extensions to match against
+	 */
+	public static void walk(Path root, int shard, int shards,
+			BlockingQueue<String> queue, int threads,
+			String... fileExtensions){
+		if(shards < 1 || shard < 0 || shard >= shards)
+			throw new IllegalArgumentException("Bad shard: " + shard + "/"
+					+ shards);
+		int parallelism = Math.max(1, threads);
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try{
+			Path absolute = root.toAbsolutePath();
+			Semaphore forkable = new Semaphore(parallelism
+					* FORKED_DIRECTORIES_PER_THREAD);
+			pool.invoke(new WalkTask(null, absolute, new Shard(absolute,
+					shard, shards), queue, forkable, fileExtensions));
+		}finally{
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * List one directory, handing its matching files in a shard and its
+	 * subdirectories to a visitor as they are read.
+	 *
+	 * The directory stays open while the visitor runs, so nothing from the
+	 * directory is held in memory however large it is. A directory that
+	 * can't be read is skipped. The time spent in the visitor isn't counted
+	 * in the WALK stage.
+	 *
+	 * @param directory The directory to list
+	 * @param shard The shard of the files to visit
+	 * @param visitor The visitor of the files and subdirectories
+	 * @param fileExtensions The file extensions to match against
+	 * @throws InterruptedException An exception occurs if the visitor is
+	 * interrupted, the rest of the directory is skipped
+	 */
+	static void listDirectory(Path directory, Shard shard,
+			EntryVisitor visitor, String... fileExtensions)
+			throws InterruptedException{
+		ScanStats stats = ScanStats.current();
+		long start = ScanStats.start(stats);
+		DirectoryStream<Path> stream = null;
+		try{
+			stream = Files.newDirectoryStream(directory);
+			for(Path entry : stream){
+				BasicFileAttributes attributes;
+				try{
+					attributes = Files.readAttributes(entry,
+							BasicFileAttributes.class,
+							LinkOption.NOFOLLOW_LINKS);
+				}catch(IOException e){
+					//The entry was removed or can't be read, skip it
+					continue;
+				}
+				//Leave the time in the visitor out of the listing
+				if(attributes.isDirectory()){
+					long visit = ScanStats.start(stats);
+					visitor.directory(entry);
+					if(stats != null) start += System.nanoTime() - visit;
+					continue;
+				}
+				if(!matches(entry.getFileName().toString(), fileExtensions))
+					continue;
+				if(attributes.isSymbolicLink()){
+					//Only follow links to regular files
+					if(!Files.isRegularFile(entry)) continue;
+				}else if(!attributes.isRegularFile()){
+					continue;
+				}
+				if(!shard.contains(entry)) continue;
+				long visit = ScanStats.start(stats);
+				visitor.file(entry.toString());
+				if(stats != null) start += System.nanoTime() - visit;
+			}
+		}catch(IOException e){
+			//A failure can occur if the program does not have read
+			//priviledges to a folder. The folder is skipped.
+			if(stats != null) stats.addError();
+		}catch(DirectoryIteratorException e){
+			//The folder could not be read to the end, skip the rest
+			if(stats != null) stats.addError();
+		}finally{
+			if(stream != null){
+				try{
+					stream.close();
+				}catch(IOException e){
+					//Nothing more to do with the folder
+				}
+			}
+		}
+		if(stats != null){
+			stats.addDirectory();
+			stats.record(ScanStats.Stage.WALK, start);
+		}
+	}
+
+	/**
+	 * Check if a file name ends with one of the extensions.
+	 *
+	 * @param name The file name
+	 * @param fileExtensions The file extensions to match against
+	 * @return True if the name matches an extension
+	 */
+	static boolean matches(String name, String... fileExtensions){
+		for(String extension : fileExtensions){
+			if(name.endsWith(extension)) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Pick the shard of a relative path.
+	 *
+	 * The hash is the same in every process and on every platform, so the
+	 * shards of separate processes never overlap.
+	 *
+	 * @param relativePath The path of a file relative to its root
+	 * @param shards The number of shards
+	 * @return The shard, from 0 to shards - 1
+	 */
+	static int shardOf(String relativePath, int shards){
+		//Mix the string hash so nearby names spread over the shards
+		int hash = relativePath.replace(File.separatorChar, '/').hashCode();
+		hash ^= hash >>> 16;
+		hash *= 0x85ebca6b;
+		hash ^= hash >>> 13;
+		hash *= 0xc2b2ae35;
+		hash ^= hash >>> 16;
+		return (int)((hash & 0xffffffffL) % shards);
+	}
+
+//*********************************************************____________________
+//*******************INNER CLASSES*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * A visitor of the entries of a directory as it is listed.
+	 */
+	interface EntryVisitor {
+
+		/**
+		 * Visit a matching file in the shard.
+		 *
+		 * @param path The absolute path of the file
+		 * @throws InterruptedException An exception occurs if the thread is
+		 * interrupted while handing the file on
+		 */
+		void file(String path) throws InterruptedException;
+
+		/**
+		 * Visit a subdirectory, which isn't a symbolic link.
+		 *
+		 * @param directory The absolute path of the subdirectory
+		 * @throws InterruptedException An exception occurs if the thread is
+		 * interrupted while handing the subdirectory on
+		 */
+		void directory(Path directory) throws InterruptedException;
+
+	}
+
+	/**
+	 * The shard of the files a walk queues.
+	 */
+	static class Shard {
+
+		/**
+		 * The root the shard of a file is picked relative to
+		 */
+		private final Path mRoot;
+		/**
+		 * The shard to queue
+		 */
+		private final int mShard;
+		/**
+		 * The number of shards
+		 */
+		private final int mShards;
+
+		/**
+		 * Create a shard.
+		 *
+		 * @param root The absolute root of the walk
+		 * @param shard The shard to queue
+		 * @param shards The number of shards
+		 */
+		Shard(Path root, int shard, int shards){
+			this.mRoot = root;
+			this.mShard = shard;
+			this.mShards = shards;
+		}
+
+		/**
+		 * Check if a file is in the shard.
+		 *
+		 * @param file The absolute path of the file
+		 * @return True if the file should be queued
+		 */
+		boolean contains(Path file){
+			if(mShards == 1) return true;
+			return shardOf(mRoot.relativize(file).toString(), mShards)
+					== mShard;
+		}
+
+	}
+
+	/**
+	 * A task that lists one directory, queues its matching files and forks a
+	 * task for each of its subdirectories, or walks a subdirectory itself
+	 * when the walk already has as many tasks waiting as it allows.
+	 *
+	 * The task completes once all of the tasks forked below it are done.
+	 */
+	private static class WalkTask extends CountedCompleter<Void>
+			implements EntryVisitor {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The directory to list
+		 */
+		private final Path mDirectory;
+		/**
+		 * The shard of the files to queue
+		 */
+		private final Shard mShard;
+		/**
+		 * The queue to put the matching paths on
+		 */
+		private final BlockingQueue<String> mQueue;
+		/**
+		 * The tasks that may still be forked in the walk
+		 */
+		private final Semaphore mForkable;
+		/**
+		 * The file extensions to match against
+		 */
+		private final String[] mExtensions;
+
+		/**
+		 * Create a task for a directory.
+		 *
+		 * @param parent The task that forked this one, null for the root
+		 * @param directory The directory to list
+		 * @param shard The shard of the files to queue
+		 * @param queue The queue to put the matching paths on
+		 * @param forkable The tasks that may still be forked in the walk, a
+		 * permit is taken for every task but the root
+		 * @param extensions The file extensions to match against
+		 */
+		WalkTask(WalkTask parent, Path directory, Shard shard,
+				BlockingQueue<String> queue, Semaphore forkable,
+				String[] extensions){
+			super(parent);
+			this.mDirectory = directory;
+			this.mShard = shard;
+			this.mQueue = queue;
+			this.mForkable = forkable;
+			this.mExtensions = extensions;
+		}
+
+		@Override
+		public void compute(){
+			try{
+				listDirectory(mDirectory, mShard, this, mExtensions);
+			}catch(InterruptedException e){
+				Thread.currentThread().interrupt();
+			}finally{
+				//The root task was never given a permit
+				if(getCompleter() != null) mForkable.release();
+			}
+			tryComplete();
+		}
+
+		@Override
+		public void file(String path) throws InterruptedException{
+			mQueue.put(path);
+		}
+
+		@Override
+		public void directory(Path directory) throws InterruptedException{
+			if(mForkable.tryAcquire()){
+				//Walk the subdirectory in parallel
+				addToPendingCount(1);
+				new WalkTask(this, directory, mShard, mQueue, mForkable,
+						mExtensions).fork();
+			}else{
+				listDirectory(directory, mShard, this, mExtensions);
+			}
+		}
+
+	}
+
+}
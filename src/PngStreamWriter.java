@@ -0,0 +1,413 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * PngStreamWriter.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.awt.image.IndexColorModel;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A writer of 8 bit palette PNG images a few rows at a time.
+ *
+ * The rows are filtered and deflated as they are written and the deflated
+ * data is written out in IDAT chunks, so the image never has to be in
+ * memory at once. Only the previous row is kept, for the filters that
+ * look at it.
+ *
+ */
+public class PngStreamWriter {
+
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The bytes every PNG file starts with
+	 */
+	private final static byte[] SIGNATURE =
+		{(byte)137, 'P', 'N', 'G', '\r', '\n', 26, '\n'};
+
+	/**
+	 * The size of the deflated data in one IDAT chunk
+	 */
+	private final static int CHUNK_SIZE = 64 * 1024;
+
+//*********************************************************____________________
+//*******************INTERFACES****************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The filter applied to every row before it is deflated.
+	 */
+	public enum Filter {
+		/** The bytes as they are, best for palette images */
+		NONE(0),
+		/** The difference from the byte to the left */
+		SUB(1),
+		/** The difference from the byte above */
+		UP(2),
+		/** The difference from the average of the left and above */
+		AVERAGE(3),
+		/** The difference from the Paeth predictor */
+		PAETH(4),
+		/** The filter with the smallest sum of differences for each row */
+		ADAPTIVE(-1);
+
+		/**
+		 * The filter type byte, or -1 if it is chosen for each row
+		 */
+		final int mType;
+
+		/**
+		 * Create a filter.
+		 *
+		 * @param type The filter type byte
+		 */
+		Filter(int type){
+			this.mType = type;
+		}
+
+		/**
+		 * Get a filter by its name in any case.
+		 *
+		 * @param name The name, such as none or paeth
+		 * @return The filter
+		 * @throws IllegalArgumentException An exception occurs if there is
+		 * no filter of that name
+		 */
+		public static Filter parse(String name){
+			return valueOf(name.toUpperCase(Locale.ROOT));
+		}
+	}
+
+//*********************************************************____________________
+//******************CLASS FIELDS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The file being written
+	 */
+	private final DataOutputStream mOut;
+	/**
+	 * The deflater of the rows
+	 */
+	private final Deflater mDeflater;
+	/**
+	 * The stream the filtered rows are deflated through
+	 */
+	private final DeflaterOutputStream mIdat;
+	/**
+	 * The width of the image
+	 */
+	private final int mWidth;
+	/**
+	 * The height of the image
+	 */
+	private final int mHeight;
+	/**
+	 * The filter of the rows
+	 */
+	private final Filter mFilter;
+	/**
+	 * The previous row, zeros before the first row
+	 */
+	private byte[] mPrevious;
+	/**
+	 * The row being filtered
+	 */
+	private byte[] mRow;
+	/**
+	 * The filtered row with its filter type byte, one for every filter
+	 * tried
+	 */
+	private final byte[][] mFiltered;
+	/**
+	 * The number of rows written
+	 */
+	private int mRows = 0;
+
+//*********************************************************____________________
+//*******************CONSTRUCTORS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Start writing an image, writing its header and palette.
+	 *
+	 * @param out The stream to write the PNG to, closed by finish
+	 * @param width The width of the image in pixels
+	 * @param height The height of the image in pixels
+	 * @param palette The palette of the image, of at most 256 colors
+	 * @param deflateLevel The deflate level, from 0 to 9
+	 * @param filter The filter of the rows
+	 * @throws IOException An exception occurs if the stream could not be
+	 * written
+	 */
+	public PngStreamWriter(OutputStream out, int width, int height,
+			IndexColorModel palette, int deflateLevel, Filter filter)
+					throws IOException{
+		if(width <= 0 || height <= 0)
+			throw new IllegalArgumentException("Bad size: " + width + "x"
+					+ height);
+		this.mOut = new DataOutputStream(out);
+		this.mWidth = width;
+		this.mHeight = height;
+		this.mFilter = filter;
+		this.mPrevious = new byte[width];
+		this.mRow = new byte[width];
+		this.mFiltered = new byte[filter == Filter.ADAPTIVE ? 5 : 1]
+				[width + 1];
+
+		mOut.write(SIGNATURE);
+		byte[] header = new byte[13];
+		writeInt(header, 0, width);
+		writeInt(header, 4, height);
+		header[8] = 8; //Bits per index
+		header[9] = 3; //Palette color
+		writeChunk("IHDR", header, header.length);
+		int colors = palette.getMapSize();
+		byte[] plte = new byte[colors * 3];
+		for(int i = 0; i < colors; i++){
+			plte[i * 3] = (byte)palette.getRed(i);
+			plte[i * 3 + 1] = (byte)palette.getGreen(i);
+			plte[i * 3 + 2] = (byte)palette.getBlue(i);
+		}
+		writeChunk("PLTE", plte, plte.length);
+
+		this.mDeflater = new Deflater(deflateLevel);
+		if(filter != Filter.NONE) mDeflater.setStrategy(Deflater.FILTERED);
+		this.mIdat = new DeflaterOutputStream(new IdatOutputStream(),
+				mDeflater, CHUNK_SIZE);
+	}
+
+//*********************************************************____________________
+//*******************PUBLIC METHODS************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Write the next rows of the image.
+	 *
+	 * @param pixels The palette indexes of the rows
+	 * @param offset The index of the first pixel of the first row
+	 * @param stride The distance between the starts of the rows
+	 * @param rows The number of rows
+	 * @throws IOException An exception occurs if the stream could not be
+	 * written
+	 */
+	public void writeRows(byte[] pixels, int offset, int stride, int rows)
+			throws IOException{
+		if(mRows + rows > mHeight)
+			throw new IllegalStateException("More rows than the height");
+		for(int r = 0; r < rows; r++){
+			System.arraycopy(pixels, offset + r * stride, mRow, 0, mWidth);
+			byte[] filtered = filterRow();
+			mIdat.write(filtered, 0, filtered.length);
+			byte[] swap = mPrevious;
+			mPrevious = mRow;
+			mRow = swap;
+		}
+		mRows += rows;
+	}
+
+	/**
+	 * Finish the image and close the stream.
+	 *
+	 * @throws IOException An exception occurs if not every row was written
+	 * or the stream could not be written
+	 */
+	public void finish() throws IOException{
+		try{
+			if(mRows != mHeight)
+				throw new IOException("Wrote " + mRows + " of " + mHeight
+						+ " rows");
+			mIdat.finish();
+			mIdat.flush();
+			writeChunk("IEND", new byte[0], 0);
+			mOut.flush();
+		}finally{
+			mDeflater.end();
+			mOut.close();
+		}
+	}
+
+//*********************************************************____________________
+//******************PRIVATE METHODS************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Filter the current row.
+	 *
+	 * @return The filtered row starting with its filter type byte
+	 */
+	private byte[] filterRow(){
+		if(mFilter != Filter.ADAPTIVE){
+			filter(mFilter.mType, mFiltered[0]);
+			return mFiltered[0];
+		}
+		//Choose the filter with the smallest sum of signed differences
+		byte[] best = null;
+		long bestSum = Long.MAX_VALUE;
+		for(int type = 0; type < 5; type++){
+			filter(type, mFiltered[type]);
+			long sum = 0;
+			byte[] filtered = mFiltered[type];
+			for(int i = 1; i <= mWidth; i++) sum += Math.abs(filtered[i]);
+			if(sum < bestSum){
+				bestSum = sum;
+				best = mFiltered[type];
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Filter the current row with one filter type. Every pixel is one byte,
+	 * so the byte to the left is the previous pixel.
+	 *
+	 * @param type The filter type byte
+	 * @param out The array for the type byte and the filtered row
+	 */
+	private void filter(int type, byte[] out){
+		byte[] row = mRow;
+		byte[] up = mPrevious;
+		out[0] = (byte)type;
+		if(type == 0){
+			System.arraycopy(row, 0, out, 1, mWidth);
+			return;
+		}
+		for(int i = 0; i < mWidth; i++){
+			int x = row[i] & 0xFF;
+			int a = i > 0 ? row[i - 1] & 0xFF : 0;
+			int b = up[i] & 0xFF;
+			int c = i > 0 ? up[i - 1] & 0xFF : 0;
+			int predicted;
+			switch(type){
+			case 1: predicted = a; break;
+			case 2: predicted = b; break;
+			case 3: predicted = (a + b) >>> 1; break;
+			case 4: predicted = paeth(a, b, c); break;
+			default: predicted = 0; break;
+			}
+			out[i + 1] = (byte)(x - predicted);
+		}
+	}
+
+	/**
+	 * The Paeth predictor: whichever of the left, above and upper left
+	 * bytes is closest to left + above - upper left.
+	 *
+	 * @param a The byte to the left
+	 * @param b The byte above
+	 * @param c The byte to the upper left
+	 * @return The predicted byte
+	 */
+	private static int paeth(int a, int b, int c){
+		int p = a + b - c;
+		int pa = Math.abs(p - a);
+		int pb = Math.abs(p - b);
+		int pc = Math.abs(p - c);
+		if(pa <= pb && pa <= pc) return a;
+		return pb <= pc ? b : c;
+	}
+
+	/**
+	 * Write a chunk with its length and checksum.
+	 *
+	 * @param type The four letter type of the chunk
+	 * @param data The data of the chunk
+	 * @param length The length of the data
+	 * @throws IOException An exception occurs if the stream could not be
+	 * written
+	 */
+	private void writeChunk(String type, byte[] data, int length)
+			throws IOException{
+		byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+		CRC32 crc = new CRC32();
+		crc.update(typeBytes);
+		crc.update(data, 0, length);
+		mOut.writeInt(length);
+		mOut.write(typeBytes);
+		mOut.write(data, 0, length);
+		mOut.writeInt((int)crc.getValue());
+	}
+
+	/**
+	 * Write a big endian int into an array.
+	 *
+	 * @param bytes The array
+	 * @param offset The index of the first byte
+	 * @param value The int
+	 */
+	private static void writeInt(byte[] bytes, int offset, int value){
+		bytes[offset] = (byte)(value >>> 24);
+		bytes[offset + 1] = (byte)(value >>> 16);
+		bytes[offset + 2] = (byte)(value >>> 8);
+		bytes[offset + 3] = (byte)value;
+	}
+
+//*********************************************************____________________
+//*******************INNER CLASSES*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * A stream that writes the deflated rows out as IDAT chunks of up to
+	 * CHUNK_SIZE bytes.
+	 */
+	private class IdatOutputStream extends OutputStream {
+
+		/**
+		 * The deflated data not yet written as a chunk
+		 */
+		private final byte[] mBuffer = new byte[CHUNK_SIZE];
+		/**
+		 * The number of bytes in the buffer
+		 */
+		private int mLength = 0;
+
+		@Override
+		public void write(int b) throws IOException{
+			if(mLength == mBuffer.length) flush();
+			mBuffer[mLength++] = (byte)b;
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length)
+				throws IOException{
+			while(length > 0){
+				if(mLength == mBuffer.length) flush();
+				int n = Math.min(length, mBuffer.length - mLength);
+				System.arraycopy(bytes, offset, mBuffer, mLength, n);
+				mLength += n;
+				offset += n;
+				length -= n;
+			}
+		}
+
+		@Override
+		public void flush() throws IOException{
+			if(mLength == 0) return;
+			writeChunk("IDAT", mBuffer, mLength);
+			mLength = 0;
+		}
+
+	}
+
+}
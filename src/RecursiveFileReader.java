@@ -11,7 +11,9 @@
 //***************************IMPORTED LIBRARIES********************************
 //*****************************************************************************
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -80,6 +82,7 @@ public class RecursiveFileReader {
 	 * files as Strings and then returns them.
 	 * 
 	 * @param inStream An InputStream to a ZipEntry from a ZipFile
+	 * @param fileExtension The extension of the files to collect
 	 * @return A list of Strings of the content of the files in the zip and in
 	 * nested zip archives
 	 * @throws IOException Errors could occur during file reading
@@ -95,14 +98,91 @@ public class RecursiveFileReader {
 	    	   //Recursive loop on other zip archives
 	    	   contents.addAll(scanZipRecursive(input, fileExtension));
 	       }else if (entry.getName().endsWith(fileExtension)){
-	    	   //Read the file from the stream
-	    	   byte[] inner = new byte[(int)entry.getSize()];
-	    	   input.read(inner);
-	    	   String s = new String(inner);
-	    	   contents.add(s);
+	    	   //Read the whole entry from the stream, the size of the entry
+	    	   //may be unknown and one read may not fill a buffer
+	    	   ByteArrayOutputStream inner = new ByteArrayOutputStream();
+	    	   byte[] buffer = new byte[8192];
+	    	   int read;
+	    	   while((read = input.read(buffer)) != -1){
+	    		   inner.write(buffer, 0, read);
+	    	   }
+	    	   contents.add(new String(inner.toByteArray()));
 	       }
 	    }
 	    return contents;
 	}
 	
+	/**
+	 * Scans a zip file and all zip files inside that zip file contains
+	 * for files of a chosen extension and counts the words in each of them.
+	 * 
+	 * Unlike scanZipRecursive, nothing is buffered. Every entry is counted
+	 * straight from the inflating stream and nested archives, of any
+	 * ArchiveFormat, are read from the stream of their parent, so the
+	 * memory used is constant for every level of nesting.
+	 * 
+	 * The stream is not closed.
+	 * 
+	 * @param inStream An InputStream to a ZipEntry from a ZipFile
+	 * @param fileExtension The extension of the files to count
+	 * @param counts The sink to add the word count of every file to
+	 * @throws IOException Errors could occur during file reading
+	 */
+	public static void countZipRecursive(InputStream inStream,
+			String fileExtension, WordCountSink counts)
+					throws IOException {
+		//Closing the zip stream releases its inflater but must not close
+		//the stream of the parent archive
+		ZipInputStream input = new ZipInputStream(
+				new NonClosingInputStream(inStream));
+		try{
+			ZipEntry entry = null;
+			//Iterate over files in the zip archive
+			while ( (entry = input.getNextEntry()) != null ) {
+				if (ArchiveFormats.isArchive(entry.getName())) {
+					//Recursive loop on other archives
+					ArchiveFormats.countEntry(input, entry.getName(), -1,
+							counts);
+				}else if (entry.getName().endsWith(fileExtension)){
+					//Count the entry, the stream ends with the entry
+					ScanStats stats = ScanStats.current();
+					long start = ScanStats.start(stats);
+					counts.add(FileUtil.countWordsInStream(input));
+					if(stats != null){
+						//The size is known once the entry has been read
+						stats.addZipEntry(entry.getSize());
+						stats.record(ScanStats.Stage.ZIP_ENTRY, start);
+					}
+				}
+			}
+		}finally{
+			input.close();
+		}
+	}
+	
+//*********************************************************____________________
+//*******************INNER CLASSES*************************____________________
+//*********************************************************____________________
+	
+	/**
+	 * An InputStream that leaves the wrapped stream open when it is closed.
+	 */
+	static class NonClosingInputStream extends FilterInputStream {
+		
+		/**
+		 * Wrap a stream.
+		 * 
+		 * @param inStream The stream to wrap
+		 */
+		NonClosingInputStream(InputStream inStream){
+			super(inStream);
+		}
+		
+		@Override
+		public void close(){
+			//Leave the wrapped stream open
+		}
+		
+	}
+	
 }
@@ -0,0 +1,200 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * SVGHistogramBuilder.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.awt.Color;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A builder of SVG histogram charts.
+ *
+ * Every rectangle, line and piece of text is written as an element as soon
+ * as it is drawn, so the file is never held in memory.
+ *
+ */
+public class SVGHistogramBuilder extends VectorHistogramBuilder {
+
+//*********************************************************____________________
+//*******************CONSTRUCTORS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Create a builder of charts in the default style.
+	 */
+	public SVGHistogramBuilder(){
+		this(new ChartStyle());
+	}
+
+	/**
+	 * Create a builder of charts in a style.
+	 *
+	 * @param style The colors, font and column mode of the charts
+	 */
+	public SVGHistogramBuilder(ChartStyle style){
+		super(style);
+	}
+
+//*********************************************************____________________
+//******************CLASS METHODS**************************____________________
+//*********************************************************____________________
+
+	@Override
+	protected Canvas open(OutputStream out, int width, int height)
+			throws IOException{
+		return new SvgCanvas(out, width, height, mStyle.getFontName());
+	}
+
+//*********************************************************____________________
+//*******************INNER CLASSES*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * A canvas that writes SVG elements.
+	 */
+	private static class SvgCanvas implements Canvas {
+
+		/**
+		 * The file being written
+		 */
+		private final Writer mOut;
+
+		/**
+		 * Start an SVG document.
+		 *
+		 * @param out The stream of the file
+		 * @param width The width of the chart
+		 * @param height The height of the chart
+		 * @param fontName The family of the fonts
+		 * @throws IOException An exception occurs if the file could not be
+		 * written
+		 */
+		SvgCanvas(OutputStream out, int width, int height, String fontName)
+				throws IOException{
+			this.mOut = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+			mOut.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+			mOut.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\""
+					+ width + "\" height=\"" + height + "\" viewBox=\"0 0 "
+					+ width + " " + height + "\" font-family=\"");
+			escape(cssFamily(fontName));
+			//Keep the edges of the bars sharp like a PNG chart
+			mOut.write("\" shape-rendering=\"crispEdges\">\n");
+		}
+
+		@Override
+		public void fillRect(int x, int y, int width, int height,
+				Color color) throws IOException{
+			if(width <= 0 || height <= 0) return;
+			mOut.write("<rect x=\"" + x + "\" y=\"" + y + "\" width=\""
+					+ width + "\" height=\"" + height + "\" fill=\""
+					+ hex(color) + "\"/>\n");
+		}
+
+		@Override
+		public void strokeRect(int x, int y, int width, int height,
+				Color color) throws IOException{
+			//The line is centered on the edge, half a unit inside the pixels
+			mOut.write("<rect x=\"" + half(x) + "\" y=\"" + half(y)
+					+ "\" width=\"" + width + "\" height=\"" + height
+					+ "\" fill=\"none\" stroke=\"" + hex(color) + "\"/>\n");
+		}
+
+		@Override
+		public void line(int x1, int y1, int x2, int y2, Color color)
+				throws IOException{
+			mOut.write("<line x1=\"" + half(x1) + "\" y1=\"" + half(y1)
+					+ "\" x2=\"" + half(x2) + "\" y2=\"" + half(y2)
+					+ "\" stroke=\"" + hex(color) + "\"/>\n");
+		}
+
+		@Override
+		public void text(String text, int x, int y, int size,
+				boolean upwards, Color color) throws IOException{
+			mOut.write("<text x=\"" + x + "\" y=\"" + y + "\" font-size=\""
+					+ size + "\" fill=\"" + hex(color) + "\"");
+			if(upwards){
+				mOut.write(" transform=\"rotate(-90 " + x + " " + y + ")\"");
+			}
+			mOut.write('>');
+			escape(text);
+			mOut.write("</text>\n");
+		}
+
+		@Override
+		public void close() throws IOException{
+			try{
+				mOut.write("</svg>\n");
+			}finally{
+				mOut.close();
+			}
+		}
+
+		/**
+		 * Write text with the characters XML reserves escaped.
+		 *
+		 * @param text The text
+		 * @throws IOException An exception occurs if the file could not be
+		 * written
+		 */
+		private void escape(String text) throws IOException{
+			for(int i = 0; i < text.length(); i++){
+				char c = text.charAt(i);
+				switch(c){
+				case '<': mOut.write("&lt;"); break;
+				case '>': mOut.write("&gt;"); break;
+				case '&': mOut.write("&amp;"); break;
+				case '"': mOut.write("&quot;"); break;
+				default:
+					//Control characters aren't allowed in XML
+					mOut.write(c < ' ' ? ' ' : c);
+					break;
+				}
+			}
+		}
+
+		/**
+		 * Get the CSS font family of a font, the generic family for the
+		 * logical fonts of Java.
+		 *
+		 * @param fontName The family, such as Sans-Serif
+		 * @return The family, such as sans-serif
+		 */
+		private static String cssFamily(String fontName){
+			String name = fontName.toLowerCase(Locale.ROOT).replace("-", "");
+			if(name.equals("sansserif") || name.equals("dialog")
+					|| name.equals("dialoginput")) return "sans-serif";
+			if(name.equals("serif")) return "serif";
+			if(name.equals("monospaced")) return "monospace";
+			return fontName;
+		}
+
+		/**
+		 * Get a color as #rrggbb.
+		 *
+		 * @param color The color
+		 * @return The color in hex
+		 */
+		private static String hex(Color color){
+			return String.format("#%06x", color.getRGB() & 0xFFFFFF);
+		}
+
+	}
+
+}
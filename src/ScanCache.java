@@ -0,0 +1,566 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * ScanCache.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A persistent cache of word counts keyed by file path, size and
+ * modification time.
+ *
+ * The cache is an append-only binary file. When it is opened the file is
+ * memory mapped and a hash index of the latest record for every path is
+ * built over it, so a lookup is a hash probe and a compare of the path bytes
+ * without reading anything into objects. Files that were counted during a
+ * run are appended at the end, and when the file holds more stale records
+ * than live ones it is compacted on close.
+ *
+ * A zip archive is stored as one record holding the word counts of all the
+ * .txt files inside of it, as an unchanged archive has unchanged entries.
+ *
+ * The word counts depend on the charset files are read in, so the charset
+ * is kept in the header and a cache of another charset is started over.
+ *
+ * File layout, all values big endian:
+ * <pre>
+ * int magic, int version, int charsetLength,
+ * byte[] charset (the ASCII name, empty when encodings are detected)
+ * records: int pathLength, byte[] path (UTF-8), long size,
+ *          long modified, int countLength, int[] counts
+ * </pre>
+ *
+ * Lookups are thread safe. Records are appended under a lock.
+ *
+ * Several processes can share a cache file, such as the shards of one
+ * scan. Records are gathered in memory and appended whole, and loading,
+ * appending and compacting all hold a lock on a file next to the cache
+ * named like it with .lock added, so the records of the processes never
+ * interleave. A file over 2 GB can't be mapped and is refused rather than
+ * started over.
+ *
+ */
+public class ScanCache {
+
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The default name of the cache file in a scanned directory
+	 */
+	final static String DEFAULT_FILE_NAME = ".txthistogram.cache";
+
+	/**
+	 * The magic number at the start of a cache file
+	 */
+	private final static int MAGIC = 0x54584843; // "TXHC"
+	/**
+	 * The version of the file layout
+	 */
+	private final static int VERSION = 2;
+	/**
+	 * The number of records below which the file is never compacted
+	 */
+	private final static int MIN_COMPACT_RECORDS = 1024;
+	/**
+	 * The size of the records gathered in memory before they are appended
+	 */
+	private final static int PENDING_SIZE = 64 * 1024;
+
+//*********************************************************____________________
+//*****************STATIC METHODS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Open a cache file, creating it if it doesn't exist.
+	 *
+	 * A file that isn't a cache file of this version and charset is started
+	 * over.
+	 *
+	 * @param file The cache file
+	 * @param charset The encoding files are read in, or null if it is
+	 * detected for every file
+	 * @return The opened cache
+	 * @throws IOException An exception occurs if the file could not be read
+	 * or created, or is too large to map
+	 */
+	public static ScanCache open(File file, Charset charset)
+			throws IOException{
+		ScanCache cache = new ScanCache(file, charset);
+		cache.load();
+		return cache;
+	}
+
+	/**
+	 * Hash the bytes of a path for the index.
+	 *
+	 * @param buffer The buffer holding the path
+	 * @param offset The index of the first byte of the path
+	 * @param length The length of the path in bytes
+	 * @return The hash of the path
+	 */
+	private static int hash(ByteBuffer buffer, int offset, int length){
+		int h = 0x811C9DC5;
+		for(int i = 0; i < length; i++){
+			h = (h ^ (buffer.get(offset + i) & 0xFF)) * 0x01000193;
+		}
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Hash the bytes of a path for the index.
+	 *
+	 * @param path The path bytes
+	 * @return The hash of the path
+	 */
+	private static int hash(byte[] path){
+		int h = 0x811C9DC5;
+		for(int i = 0; i < path.length; i++){
+			h = (h ^ (path[i] & 0xFF)) * 0x01000193;
+		}
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Check if two file keys are equal, either of which may be null.
+	 *
+	 * @param a A file key
+	 * @param b Another file key
+	 * @return True if the keys are equal or both null
+	 */
+	private static boolean equal(Object a, Object b){
+		return a == null ? b == null : a.equals(b);
+	}
+
+//*********************************************************____________________
+//******************CLASS FIELDS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The cache file
+	 */
+	private final File mFile;
+	/**
+	 * The file locked while the cache file is changed
+	 */
+	private final File mLockFile;
+	/**
+	 * The header of a cache file of this version and charset
+	 */
+	private final byte[] mHeader;
+	/**
+	 * The identity of the cache file when it was opened, null if the
+	 * platform has none
+	 */
+	private Object mFileKey;
+	/**
+	 * The mapped records that existed when the cache was opened
+	 */
+	private MappedByteBuffer mMapped;
+	/**
+	 * The length of the file when the cache was opened
+	 */
+	private long mLoadedLength = 0;
+	/**
+	 * The hash index, the offset of a record plus one or 0 for an empty slot
+	 */
+	private int[] mSlots = new int[0];
+	/**
+	 * Which slots of the index were looked up during this run
+	 */
+	private byte[] mSeen = new byte[0];
+	/**
+	 * The number of records in the file when it was opened
+	 */
+	private int mRecords = 0;
+	/**
+	 * The records not yet appended to the file
+	 */
+	private final ByteArrayOutputStream mPending =
+			new ByteArrayOutputStream(PENDING_SIZE);
+	/**
+	 * The stream new records are written to mPending with
+	 */
+	private final DataOutputStream mWriter = new DataOutputStream(mPending);
+	/**
+	 * The number of records appended during this run
+	 */
+	private int mAppended = 0;
+
+//*********************************************************____________________
+//******************CONSTRUCTORS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Create a cache for a file, use open() to load it.
+	 *
+	 * @param file The cache file
+	 * @param charset The encoding files are read in, or null
+	 */
+	private ScanCache(File file, Charset charset){
+		this.mFile = file;
+		this.mLockFile = new File(file.getPath() + ".lock");
+		byte[] name = charset == null ? new byte[0] :
+				charset.name().getBytes(StandardCharsets.US_ASCII);
+		ByteBuffer header = ByteBuffer.allocate(12 + name.length);
+		header.putInt(MAGIC).putInt(VERSION).putInt(name.length).put(name);
+		this.mHeader = header.array();
+	}
+
+//*********************************************************____________________
+//******************CLASS METHODS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Look up the word counts of a file.
+	 *
+	 * @param path The absolute path of the file
+	 * @param size The current size of the file in bytes
+	 * @param modified The current modification time of the file in
+	 * milliseconds
+	 * @return The cached word counts, or null if the file is not in the
+	 * cache or changed since it was cached
+	 */
+	public int[] lookup(String path, long size, long modified){
+		if(mSlots.length == 0) return null;
+		byte[] key = path.getBytes(StandardCharsets.UTF_8);
+		int mask = mSlots.length - 1;
+		for(int slot = hash(key) & mask; mSlots[slot] != 0;
+				slot = (slot + 1) & mask){
+			int offset = mSlots[slot] - 1;
+			if(!pathEquals(offset, key)) continue;
+			//Found the path, check that the file is unchanged
+			int position = offset + 4 + key.length;
+			if(mMapped.getLong(position) != size ||
+					mMapped.getLong(position + 8) != modified) return null;
+			int[] counts = new int[mMapped.getInt(position + 16)];
+			for(int i = 0; i < counts.length; i++){
+				counts[i] = mMapped.getInt(position + 20 + i * 4);
+			}
+			mSeen[slot] = 1;
+			return counts;
+		}
+		return null;
+	}
+
+	/**
+	 * Add the word counts of a file that was counted to the cache.
+	 *
+	 * @param path The absolute path of the file
+	 * @param size The size of the file in bytes when it was counted
+	 * @param modified The modification time of the file in milliseconds
+	 * when it was counted
+	 * @param counts The word counts of the file
+	 * @throws IOException An exception occurs if the record could not be
+	 * written
+	 */
+	public synchronized void record(String path, long size, long modified,
+			int[] counts) throws IOException{
+		byte[] key = path.getBytes(StandardCharsets.UTF_8);
+		mWriter.writeInt(key.length);
+		mWriter.write(key);
+		mWriter.writeLong(size);
+		mWriter.writeLong(modified);
+		mWriter.writeInt(counts.length);
+		for(int c : counts) mWriter.writeInt(c);
+		mAppended++;
+		if(mPending.size() >= PENDING_SIZE) append();
+	}
+
+	/**
+	 * Write the records added so far to the file, so they are kept if the
+	 * program is stopped without closing the cache.
+	 *
+	 * The records are read back the next time the cache is opened.
+	 *
+	 * @throws IOException An exception occurs if the file could not be
+	 * written
+	 */
+	public synchronized void flush() throws IOException{
+		append();
+	}
+
+	/**
+	 * Write the appended records and close the cache.
+	 *
+	 * If the file holds more stale records than live ones it is rewritten
+	 * with only the records that were looked up or added during this run,
+	 * which also drops the records of files that were deleted.
+	 *
+	 * @throws IOException An exception occurs if the file could not be
+	 * written
+	 */
+	public synchronized void close() throws IOException{
+		append();
+
+		int seen = 0;
+		for(byte b : mSeen) seen += b;
+		int live = seen + mAppended;
+		int total = mRecords + mAppended;
+		if(total >= MIN_COMPACT_RECORDS && total - live > live){
+			FileChannel lock = lock();
+			try{
+				//Another process may have compacted the file already
+				if(equal(mFileKey, fileKey())) compact();
+			}finally{
+				lock.close();
+			}
+		}
+		//Later lookups find nothing
+		mSlots = new int[0];
+		mMapped = null;
+	}
+
+	/**
+	 * Append the records gathered in memory to the file under the lock.
+	 *
+	 * @throws IOException An exception occurs if the file could not be
+	 * written
+	 */
+	private void append() throws IOException{
+		if(mPending.size() == 0) return;
+		FileChannel lock = lock();
+		try{
+			FileChannel out = FileChannel.open(mFile.toPath(),
+					StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+			try{
+				mPending.writeTo(Channels.newOutputStream(out));
+			}finally{
+				out.close();
+			}
+		}finally{
+			lock.close();
+		}
+		mPending.reset();
+	}
+
+	/**
+	 * Lock the lock file, waiting for other processes to release it.
+	 *
+	 * @return The channel of the lock file, closed to release the lock
+	 * @throws IOException An exception occurs if the lock file could not be
+	 * created or locked
+	 */
+	private FileChannel lock() throws IOException{
+		FileChannel channel = FileChannel.open(mLockFile.toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		try{
+			channel.lock();
+		}catch(IOException e){
+			channel.close();
+			throw e;
+		}
+		return channel;
+	}
+
+	/**
+	 * Get the identity of the cache file, which changes when the file is
+	 * compacted.
+	 *
+	 * @return The file key, or null if the platform has none
+	 * @throws IOException An exception occurs if the file could not be read
+	 */
+	private Object fileKey() throws IOException{
+		return Files.readAttributes(mFile.toPath(),
+				BasicFileAttributes.class).fileKey();
+	}
+
+	/**
+	 * Map the cache file and build the index over its records.
+	 *
+	 * @throws IOException An exception occurs if the file could not be read
+	 * or created
+	 */
+	private void load() throws IOException{
+		FileChannel lock = lock();
+		try{
+			RandomAccessFile raf = new RandomAccessFile(mFile, "rw");
+			try{
+				long length = raf.length();
+				if(length > Integer.MAX_VALUE)
+					throw new IOException("The scan cache " + mFile
+							+ " is over 2 GB, delete it to start over");
+				boolean valid = length >= mHeader.length;
+				if(valid){
+					byte[] header = new byte[mHeader.length];
+					raf.seek(0);
+					raf.readFully(header);
+					valid = Arrays.equals(header, mHeader);
+				}
+				if(!valid){
+					//Start over with an empty cache
+					raf.setLength(0);
+					raf.write(mHeader);
+					length = mHeader.length;
+				}
+				mLoadedLength = length;
+				mMapped = raf.getChannel().map(FileChannel.MapMode.READ_ONLY,
+						0, length);
+				buildIndex();
+				//Drop a torn record so new records can be read back
+				if(mLoadedLength < length) raf.setLength(mLoadedLength);
+			}finally{
+				raf.close();
+			}
+			mFileKey = fileKey();
+		}finally{
+			lock.close();
+		}
+	}
+
+	/**
+	 * Build the hash index over the mapped records, later records of a path
+	 * replacing earlier ones.
+	 */
+	private void buildIndex(){
+		//Count the records to size the index
+		int limit = (int)mLoadedLength;
+		int records = 0;
+		int position = mHeader.length;
+		while(position < limit){
+			int next = nextRecord(position, limit);
+			if(next < 0) break;
+			records++;
+			position = next;
+		}
+		//A torn record at the end is dropped
+		limit = position;
+		mLoadedLength = limit;
+
+		int capacity = Integer.highestOneBit(Math.max(records, 8) * 2) * 2;
+		mSlots = new int[capacity];
+		mSeen = new byte[capacity];
+		mRecords = records;
+		int mask = capacity - 1;
+
+		position = mHeader.length;
+		while(position < limit){
+			int pathLength = mMapped.getInt(position);
+			int slot = hash(mMapped, position + 4, pathLength) & mask;
+			while(mSlots[slot] != 0 &&
+					!pathEquals(mSlots[slot] - 1, position)){
+				slot = (slot + 1) & mask;
+			}
+			mSlots[slot] = position + 1;
+			position = nextRecord(position, limit);
+		}
+	}
+
+	/**
+	 * Find the start of the record after a record.
+	 *
+	 * @param position The start of a record
+	 * @param limit The end of the mapped records
+	 * @return The start of the next record, or -1 if the record is torn
+	 */
+	private int nextRecord(int position, int limit){
+		if(limit - position < 4) return -1;
+		long pathLength = mMapped.getInt(position);
+		long countsAt = position + 4 + pathLength + 16;
+		if(pathLength < 0 || countsAt + 4 > limit) return -1;
+		long countLength = mMapped.getInt((int)countsAt);
+		long next = countsAt + 4 + countLength * 4;
+		if(countLength < 0 || next > limit) return -1;
+		return (int)next;
+	}
+
+	/**
+	 * Check if the path of a mapped record equals a path.
+	 *
+	 * @param offset The start of the record
+	 * @param key The path bytes
+	 * @return True if the paths are equal
+	 */
+	private boolean pathEquals(int offset, byte[] key){
+		if(mMapped.getInt(offset) != key.length) return false;
+		for(int i = 0; i < key.length; i++){
+			if(mMapped.get(offset + 4 + i) != key[i]) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Check if the paths of two mapped records are equal.
+	 *
+	 * @param a The start of a record
+	 * @param b The start of another record
+	 * @return True if the paths are equal
+	 */
+	private boolean pathEquals(int a, int b){
+		int length = mMapped.getInt(a);
+		if(mMapped.getInt(b) != length) return false;
+		for(int i = 0; i < length; i++){
+			if(mMapped.get(a + 4 + i) != mMapped.get(b + 4 + i)) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Rewrite the cache file with only the records that were looked up or
+	 * added during this run.
+	 *
+	 * The new file is written next to the old one and moved over it.
+	 *
+	 * @throws IOException An exception occurs if the file could not be
+	 * written
+	 */
+	private void compact() throws IOException{
+		File compacted = new File(mFile.getPath() + ".tmp");
+		FileChannel out = new FileOutputStream(compacted).getChannel();
+		RandomAccessFile in = new RandomAccessFile(mFile, "r");
+		try{
+			out.write(ByteBuffer.wrap(mHeader));
+			//Copy the records that were looked up
+			for(int slot = 0; slot < mSlots.length; slot++){
+				if(mSeen[slot] == 0) continue;
+				int offset = mSlots[slot] - 1;
+				ByteBuffer record = mMapped.duplicate();
+				record.limit(nextRecord(offset, (int)mLoadedLength));
+				record.position(offset);
+				out.write(record);
+			}
+			//Copy the records appended during this run
+			FileChannel channel = in.getChannel();
+			long position = mLoadedLength;
+			long end = channel.size();
+			while(position < end){
+				position += channel.transferTo(position, end - position, out);
+			}
+		}finally{
+			in.close();
+			out.close();
+		}
+		Files.move(compacted.toPath(), mFile.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+	}
+
+}
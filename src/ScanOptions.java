@@ -0,0 +1,247 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * ScanOptions.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A class holding the options for how a directory is scanned.
+ *
+ * The defaults scan the same way the program always has, so a
+ * HistogramDataBuilder made with only a path behaves as before.
+ *
+ */
+public class ScanOptions {
+
+//*********************************************************____________________
+//******************CLASS FIELDS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The number of threads to count files with
+	 */
+	private int mThreads = 1;
+	/**
+	 * The file to cache word counts in between runs, null for no cache
+	 */
+	private String mCacheFile = null;
+	/**
+	 * The directories scanned along with the path of the builder
+	 */
+	private final ArrayList<String> mRoots = new ArrayList<String>();
+	/**
+	 * The shard of the files to count, from 0 to mShards - 1
+	 */
+	private int mShard = 0;
+	/**
+	 * The number of shards the files are split into
+	 */
+	private int mShards = 1;
+	/**
+	 * The encoding of files without a byte order mark, null to detect it
+	 */
+	private Charset mCharset = null;
+	/**
+	 * The size in bytes up to which a file is read in one call
+	 */
+	private int mSmallFileThreshold =
+			AdaptiveFileReader.DEFAULT_SMALL_THRESHOLD;
+	/**
+	 * The size in bytes from which a file is mapped into memory
+	 */
+	private long mMapThreshold = AdaptiveFileReader.DEFAULT_MAP_THRESHOLD;
+	/**
+	 * The most file system calls in flight at once, 0 to scan normally
+	 */
+	private int mIoLimit = 0;
+
+//*********************************************************____________________
+//******************CLASS METHODS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Get the number of threads to count files with.
+	 *
+	 * @return The thread count, 1 if counting is single threaded
+	 */
+	public int getThreads(){
+		return mThreads;
+	}
+
+	/**
+	 * Set the number of threads to count files with.
+	 *
+	 * @param threads The thread count. A value of 0 or less uses one thread
+	 * per available processor.
+	 */
+	public void setThreads(int threads){
+		if(threads <= 0) threads = Runtime.getRuntime().availableProcessors();
+		this.mThreads = threads;
+	}
+
+	/**
+	 * Get the file to cache word counts in between runs.
+	 *
+	 * @return The path of the cache file, or null if there is no cache
+	 */
+	public String getCacheFile(){
+		return mCacheFile;
+	}
+
+	/**
+	 * Set the file to cache word counts in between runs. Files that are
+	 * unchanged since they were cached are not read again.
+	 *
+	 * @param cacheFile The path of the cache file, or null for no cache
+	 */
+	public void setCacheFile(String cacheFile){
+		this.mCacheFile = cacheFile;
+	}
+
+	/**
+	 * Get the directories scanned along with the path of the builder.
+	 *
+	 * @return The extra root directories, empty if there are none
+	 */
+	public List<String> getRoots(){
+		return Collections.unmodifiableList(mRoots);
+	}
+
+	/**
+	 * Add a directory to scan along with the path of the builder.
+	 *
+	 * @param root The root directory to add
+	 */
+	public void addRoot(String root){
+		mRoots.add(root);
+	}
+
+	/**
+	 * Get the shard of the files to count.
+	 *
+	 * @return The shard, from 0 to getShards() - 1
+	 */
+	public int getShard(){
+		return mShard;
+	}
+
+	/**
+	 * Get the number of shards the files are split into.
+	 *
+	 * @return The number of shards, 1 if every file is counted
+	 */
+	public int getShards(){
+		return mShards;
+	}
+
+	/**
+	 * Count only one shard of the files, so several processes can split a
+	 * tree between them. Every process must scan the same roots.
+	 *
+	 * @param shard The shard of the files to count, from 0 to shards - 1
+	 * @param shards The number of shards the files are split into
+	 */
+	public void setShard(int shard, int shards){
+		if(shards < 1 || shard < 0 || shard >= shards)
+			throw new IllegalArgumentException("Bad shard: " + shard + "/"
+					+ shards);
+		this.mShard = shard;
+		this.mShards = shards;
+	}
+
+	/**
+	 * Get the encoding of the files to count.
+	 *
+	 * @return The encoding of files without a byte order mark, or null if
+	 * it is detected for every file
+	 */
+	public Charset getCharset(){
+		return mCharset;
+	}
+
+	/**
+	 * Set the encoding of the files to count. A byte order mark at the start
+	 * of a file always decides its encoding.
+	 *
+	 * @param charset The encoding of files without a byte order mark, or
+	 * null to detect the encoding of every file
+	 */
+	public void setCharset(Charset charset){
+		this.mCharset = charset;
+	}
+
+	/**
+	 * Get the size up to which a file is read in one call.
+	 *
+	 * @return The size in bytes
+	 */
+	public int getSmallFileThreshold(){
+		return mSmallFileThreshold;
+	}
+
+	/**
+	 * Get the size from which a file is mapped into memory.
+	 *
+	 * @return The size in bytes
+	 */
+	public long getMapThreshold(){
+		return mMapThreshold;
+	}
+
+	/**
+	 * Set the sizes at which the way files are read changes. Files up to
+	 * the small threshold are read in one call, files from the map threshold
+	 * are mapped into memory and files in between are read in chunks.
+	 *
+	 * @param smallFileThreshold The size in bytes up to which a file is
+	 * read in one call
+	 * @param mapThreshold The size in bytes from which a file is mapped
+	 * into memory
+	 */
+	public void setIoThresholds(int smallFileThreshold, long mapThreshold){
+		if(smallFileThreshold < 0 || mapThreshold < smallFileThreshold)
+			throw new IllegalArgumentException("Bad thresholds: "
+					+ smallFileThreshold + ", " + mapThreshold);
+		this.mSmallFileThreshold = smallFileThreshold;
+		this.mMapThreshold = mapThreshold;
+	}
+
+	/**
+	 * Get the most file system calls in flight at once.
+	 *
+	 * @return The limit, 0 if the scan doesn't overlap its calls
+	 */
+	public int getIoLimit(){
+		return mIoLimit;
+	}
+
+	/**
+	 * Overlap the file system calls of the scan for slow storage such as
+	 * NFS, with a ConcurrentIoScanner.
+	 *
+	 * @param ioLimit The most file system calls in flight at once, or 0 to
+	 * scan normally
+	 */
+	public void setIoLimit(int ioLimit){
+		if(ioLimit < 0)
+			throw new IllegalArgumentException("Bad I/O limit: " + ioLimit);
+		this.mIoLimit = ioLimit;
+	}
+
+}
@@ -0,0 +1,577 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * ScanStats.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.io.PrintStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * Counters and latencies of the stages of a scan.
+ *
+ * Statistics are off unless enable() is called. The stages check current()
+ * and skip all of their bookkeeping when it is null, so a scan without
+ * statistics pays one field read per file.
+ *
+ * The counters are LongAdders so the counting threads never contend, and
+ * the latency of every stage is kept in a LogHistogramSketch in
+ * microseconds. A reporter thread samples the depth of the file queue,
+ * prints a JSON line at a fixed period if asked to, and emits the counters
+ * as JDK Flight Recorder events when the JVM has the jdk.jfr module. The
+ * events are defined at run time, so the program still runs on a JVM
+ * without JFR.
+ *
+ * Reading and tokenizing a file are a single pass over its bytes, so they
+ * are measured as one count stage.
+ *
+ */
+public class ScanStats {
+
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The period the reporter samples the queue and emits JFR events at when
+	 * no JSON period is given, in milliseconds
+	 */
+	final static long DEFAULT_SAMPLE_MILLIS = 1000;
+
+//*********************************************************____________________
+//*******************INNER ENUMS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The stages of a scan with a latency.
+	 */
+	public enum Stage {
+		/** Listing one directory */
+		WALK("walk"),
+		/** Reading and tokenizing one text file */
+		COUNT("count"),
+		/** Reading one text file into memory, in the concurrent I/O mode */
+		READ("read"),
+		/** Counting one archive with all of its entries */
+		ZIP("zip"),
+		/** Inflating and tokenizing one text file in an archive */
+		ZIP_ENTRY("zip_entry"),
+		/** Drawing a chart */
+		RENDER("render"),
+		/** Encoding and writing a chart */
+		ENCODE("encode"),
+		/** Exporting a histogram */
+		EXPORT("export");
+
+		/**
+		 * The name of the stage in the output
+		 */
+		private final String mName;
+
+		Stage(String name){
+			this.mName = name;
+		}
+	}
+
+//*********************************************************____________________
+//*****************STATIC FIELDS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The statistics being collected, null when statistics are off
+	 */
+	private static volatile ScanStats sCurrent = null;
+
+//*********************************************************____________________
+//*****************STATIC METHODS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Get the statistics being collected.
+	 *
+	 * @return The statistics, or null if statistics are off
+	 */
+	public static ScanStats current(){
+		return sCurrent;
+	}
+
+	/**
+	 * Turn statistics on, starting from zero.
+	 *
+	 * @return The statistics that the stages will add to
+	 */
+	public static ScanStats enable(){
+		ScanStats stats = new ScanStats();
+		sCurrent = stats;
+		return stats;
+	}
+
+	/**
+	 * Get the time a stage started at, for record(), when statistics are on.
+	 *
+	 * @param stats The statistics, or null
+	 * @return The current time in nanoseconds, or 0 if stats is null
+	 */
+	static long start(ScanStats stats){
+		return stats == null ? 0 : System.nanoTime();
+	}
+
+//*********************************************************____________________
+//******************CLASS FIELDS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The time the statistics started, in nanoseconds
+	 */
+	private final long mStart = System.nanoTime();
+	/**
+	 * The number of text files counted, in and out of archives
+	 */
+	private final LongAdder mFiles = new LongAdder();
+	/**
+	 * The number of zip entries counted
+	 */
+	private final LongAdder mZipEntries = new LongAdder();
+	/**
+	 * The number of directories listed
+	 */
+	private final LongAdder mDirectories = new LongAdder();
+	/**
+	 * The number of bytes read from files on disk
+	 */
+	private final LongAdder mBytesRead = new LongAdder();
+	/**
+	 * The number of bytes inflated from zip entries
+	 */
+	private final LongAdder mBytesInflated = new LongAdder();
+	/**
+	 * The number of files found unchanged in the scan cache
+	 */
+	private final LongAdder mCacheHits = new LongAdder();
+	/**
+	 * The number of files and archives that could not be read
+	 */
+	private final LongAdder mErrors = new LongAdder();
+	/**
+	 * The deepest the file queue was sampled at
+	 */
+	private final LongAccumulator mMaxQueueDepth =
+			new LongAccumulator(new LongBinaryOperator(){
+		@Override
+		public long applyAsLong(long left, long right){
+			return Math.max(left, right);
+		}
+	}, 0);
+	/**
+	 * The latencies of the stages in microseconds, by Stage ordinal
+	 */
+	private final LogHistogramSketch.Accumulator[] mLatencies;
+	/**
+	 * The depths the file queue was sampled at
+	 */
+	private final LogHistogramSketch.Accumulator mQueueDepths =
+			new LogHistogramSketch.Accumulator();
+	/**
+	 * The file queue of the running scan, sampled by the reporter
+	 */
+	private volatile BlockingQueue<?> mQueue;
+	/**
+	 * The thread sampling the queue and emitting the reports, if started
+	 */
+	private Thread mReporter;
+
+//*********************************************************____________________
+//******************CONSTRUCTORS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Create empty statistics.
+	 */
+	private ScanStats(){
+		mLatencies = new LogHistogramSketch.Accumulator[Stage.values().length];
+		for(int i = 0; i < mLatencies.length; i++){
+			mLatencies[i] = new LogHistogramSketch.Accumulator();
+		}
+	}
+
+//*********************************************************____________________
+//******************CLASS METHODS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Record the latency of a stage.
+	 *
+	 * @param stage The stage
+	 * @param start The time the stage started, from start()
+	 */
+	void record(Stage stage, long start){
+		long micros = (System.nanoTime() - start) / 1000;
+		mLatencies[stage.ordinal()].add((int)Math.min(Integer.MAX_VALUE,
+				micros));
+	}
+
+	/**
+	 * Count a text file read from disk.
+	 *
+	 * @param bytes The size of the file
+	 */
+	void addFile(long bytes){
+		mFiles.increment();
+		mBytesRead.add(bytes);
+	}
+
+	/**
+	 * Count an archive read from disk.
+	 *
+	 * @param bytes The size of the archive
+	 */
+	void addArchive(long bytes){
+		mBytesRead.add(bytes);
+	}
+
+	/**
+	 * Count a text file inflated from an archive entry.
+	 *
+	 * @param bytes The uncompressed size of the entry, -1 if unknown
+	 */
+	void addZipEntry(long bytes){
+		mFiles.increment();
+		mZipEntries.increment();
+		if(bytes > 0) mBytesInflated.add(bytes);
+	}
+
+	/**
+	 * Count a directory listed by the walk.
+	 */
+	void addDirectory(){
+		mDirectories.increment();
+	}
+
+	/**
+	 * Count a file found unchanged in the scan cache.
+	 */
+	void addCacheHit(){
+		mCacheHits.increment();
+	}
+
+	/**
+	 * Count a file or archive that could not be read.
+	 */
+	void addError(){
+		mErrors.increment();
+	}
+
+	/**
+	 * Set the file queue of the running scan, so the reporter samples how
+	 * far the counting threads are behind the walk.
+	 *
+	 * @param queue The queue, or null when the scan is done
+	 */
+	void setQueue(BlockingQueue<?> queue){
+		this.mQueue = queue;
+	}
+
+	/**
+	 * Start the reporter thread.
+	 *
+	 * @param periodMillis The period to print a JSON line at, 0 to only
+	 * sample the queue and emit JFR events
+	 * @param out The stream to print the JSON lines to
+	 */
+	public synchronized void startReporting(final long periodMillis,
+			final PrintStream out){
+		if(mReporter != null) return;
+		final long sample = periodMillis > 0 ?
+				Math.min(periodMillis, DEFAULT_SAMPLE_MILLIS) :
+				DEFAULT_SAMPLE_MILLIS;
+		final Jfr jfr = Jfr.create();
+		mReporter = new Thread(new Runnable(){
+			@Override
+			public void run(){
+				long nextPrint = System.nanoTime() + periodMillis * 1000000;
+				long nextEvent = System.nanoTime();
+				try{
+					while(true){
+						//Sample often enough to see the queue fill up
+						Thread.sleep(Math.min(sample, 50));
+						sampleQueue();
+						long now = System.nanoTime();
+						if(jfr != null && now >= nextEvent){
+							jfr.emit(ScanStats.this);
+							nextEvent = now + sample * 1000000;
+						}
+						if(periodMillis > 0 && now >= nextPrint){
+							out.println(toJson());
+							nextPrint = now + periodMillis * 1000000;
+						}
+					}
+				}catch(InterruptedException e){
+					//Stopped
+				}
+				if(jfr != null) jfr.emit(ScanStats.this);
+			}
+		}, "txthistogram-stats");
+		mReporter.setDaemon(true);
+		mReporter.start();
+	}
+
+	/**
+	 * Stop the reporter thread, waiting for its last report.
+	 */
+	public synchronized void stopReporting(){
+		if(mReporter == null) return;
+		mReporter.interrupt();
+		try{
+			mReporter.join();
+		}catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+		}
+		mReporter = null;
+	}
+
+	/**
+	 * Sample the depth of the file queue.
+	 */
+	private void sampleQueue(){
+		BlockingQueue<?> queue = mQueue;
+		if(queue == null) return;
+		int depth = queue.size();
+		mQueueDepths.add(depth);
+		mMaxQueueDepth.accumulate(depth);
+	}
+
+	/**
+	 * Get the time since the statistics started.
+	 *
+	 * @return The elapsed time in seconds
+	 */
+	private double elapsedSeconds(){
+		return Math.max(1e-9, (System.nanoTime() - mStart) / 1e9);
+	}
+
+	/**
+	 * Describe the statistics as a JSON object on one line.
+	 *
+	 * @return The JSON line
+	 */
+	public String toJson(){
+		double seconds = elapsedSeconds();
+		StringBuilder json = new StringBuilder("{");
+		json.append(String.format(Locale.ROOT, "\"elapsed_s\":%.3f", seconds));
+		field(json, "files", mFiles.sum(), seconds);
+		field(json, "zip_entries", mZipEntries.sum(), seconds);
+		field(json, "bytes_read", mBytesRead.sum(), seconds);
+		field(json, "bytes_inflated", mBytesInflated.sum(), seconds);
+		json.append(",\"directories\":").append(mDirectories.sum());
+		json.append(",\"cache_hits\":").append(mCacheHits.sum());
+		json.append(",\"errors\":").append(mErrors.sum());
+		LogHistogramSketch depths = mQueueDepths.snapshot();
+		json.append(",\"queue_depth\":{\"p50\":")
+				.append(Math.max(0, depths.percentile(50)))
+				.append(",\"max\":").append(mMaxQueueDepth.get()).append('}');
+		json.append(",\"latency_us\":{");
+		boolean first = true;
+		for(Stage stage : Stage.values()){
+			LogHistogramSketch latency = mLatencies[stage.ordinal()].snapshot();
+			if(latency.getTotal() == 0) continue;
+			if(!first) json.append(',');
+			first = false;
+			json.append('"').append(stage.mName).append("\":{\"count\":")
+					.append(latency.getTotal());
+			for(double p : LogHistogramSketch.SUMMARY_PERCENTILES){
+				json.append(",\"")
+						.append(LogHistogramSketch.percentileLabel(p))
+						.append("\":").append(latency.percentile(p));
+			}
+			json.append(",\"max\":").append(latency.getMax()).append('}');
+		}
+		return json.append("}}").toString();
+	}
+
+	/**
+	 * Describe the statistics for a person, one line for every counter and
+	 * stage.
+	 *
+	 * @return The summary
+	 */
+	public String summary(){
+		double seconds = elapsedSeconds();
+		StringBuilder summary = new StringBuilder();
+		summary.append(String.format(Locale.ROOT, "Scan statistics (%.3f s)%n",
+				seconds));
+		line(summary, "Files", mFiles.sum(), seconds, "");
+		line(summary, "Zip entries", mZipEntries.sum(), seconds, "");
+		line(summary, "Bytes read", mBytesRead.sum(), seconds, "B");
+		line(summary, "Bytes inflated", mBytesInflated.sum(), seconds, "B");
+		summary.append(String.format(Locale.ROOT, "  %-18s %d%n",
+				"Directories", mDirectories.sum()));
+		summary.append(String.format(Locale.ROOT, "  %-18s %d%n",
+				"Cache hits", mCacheHits.sum()));
+		summary.append(String.format(Locale.ROOT, "  %-18s %d%n",
+				"Errors", mErrors.sum()));
+		summary.append(String.format(Locale.ROOT,
+				"  %-18s p50 %d  max %d%n", "Queue depth",
+				Math.max(0, mQueueDepths.snapshot().percentile(50)),
+				mMaxQueueDepth.get()));
+		for(Stage stage : Stage.values()){
+			LogHistogramSketch latency = mLatencies[stage.ordinal()].snapshot();
+			if(latency.getTotal() == 0) continue;
+			summary.append(String.format(Locale.ROOT,
+					"  %-18s %d x, %s us%n", stage.mName + " latency",
+					latency.getTotal(), latency.summary()));
+		}
+		return summary.toString();
+	}
+
+	/**
+	 * Append a counter and its rate to a JSON object.
+	 *
+	 * @param json The JSON being built
+	 * @param name The name of the counter
+	 * @param value The value of the counter
+	 * @param seconds The elapsed time
+	 */
+	private static void field(StringBuilder json, String name, long value,
+			double seconds){
+		json.append(",\"").append(name).append("\":").append(value);
+		json.append(String.format(Locale.ROOT, ",\"%s_per_s\":%.1f", name,
+				value / seconds));
+	}
+
+	/**
+	 * Append a counter and its rate to the summary.
+	 *
+	 * @param summary The summary being built
+	 * @param name The name of the counter
+	 * @param value The value of the counter
+	 * @param seconds The elapsed time
+	 * @param unit The unit of the counter
+	 */
+	private static void line(StringBuilder summary, String name, long value,
+			double seconds, String unit){
+		summary.append(String.format(Locale.ROOT, "  %-18s %d%s (%.1f%s/s)%n",
+				name, value, unit, value / seconds, unit));
+	}
+
+//*********************************************************____________________
+//*******************INNER CLASSES*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The JDK Flight Recorder event of the scan counters.
+	 *
+	 * The event type txthistogram.ScanProgress is created through
+	 * jdk.jfr.EventFactory by reflection, so nothing here needs the jdk.jfr
+	 * module at compile time.
+	 */
+	private static class Jfr {
+
+		/**
+		 * The names of the fields of the event, in order
+		 */
+		private final static String[] FIELDS = {"files", "zipEntries",
+			"bytesRead", "bytesInflated", "directories", "cacheHits", "errors",
+			"maxQueueDepth"};
+
+		/**
+		 * The jdk.jfr.EventFactory of the event type
+		 */
+		private final Object mFactory;
+		private final Method mNewEvent;
+		private final Method mSet;
+		private final Method mShouldCommit;
+		private final Method mCommit;
+
+		/**
+		 * Create the event type if the JVM has JFR.
+		 *
+		 * @return The event type, or null if JFR isn't available
+		 */
+		static Jfr create(){
+			try{
+				return new Jfr();
+			}catch(Throwable t){
+				//No jdk.jfr module, or a JVM that won't define events
+				return null;
+			}
+		}
+
+		/**
+		 * Define the event type.
+		 *
+		 * @throws ReflectiveOperationException If JFR isn't available
+		 */
+		private Jfr() throws ReflectiveOperationException{
+			Class<?> factory = Class.forName("jdk.jfr.EventFactory");
+			Class<?> element = Class.forName("jdk.jfr.AnnotationElement");
+			Class<?> descriptor = Class.forName("jdk.jfr.ValueDescriptor");
+			Class<?> event = Class.forName("jdk.jfr.Event");
+			Constructor<?> newElement = element.getConstructor(Class.class,
+					Object.class);
+			Constructor<?> newDescriptor = descriptor.getConstructor(
+					Class.class, String.class);
+
+			List<Object> annotations = Arrays.<Object>asList(
+					newElement.newInstance(Class.forName("jdk.jfr.Name"),
+							"txthistogram.ScanProgress"),
+					newElement.newInstance(Class.forName("jdk.jfr.Label"),
+							"Scan Progress"),
+					newElement.newInstance(Class.forName("jdk.jfr.Category"),
+							new String[]{"txthistogram"}));
+			List<Object> fields = new ArrayList<Object>();
+			for(String name : FIELDS){
+				fields.add(newDescriptor.newInstance(long.class, name));
+			}
+			mFactory = factory.getMethod("create", List.class, List.class)
+					.invoke(null, annotations, fields);
+			mNewEvent = factory.getMethod("newEvent");
+			mSet = event.getMethod("set", int.class, Object.class);
+			mShouldCommit = event.getMethod("shouldCommit");
+			mCommit = event.getMethod("commit");
+		}
+
+		/**
+		 * Emit an event with the counters, if a recording wants it.
+		 *
+		 * @param stats The statistics to emit
+		 */
+		void emit(ScanStats stats){
+			try{
+				Object event = mNewEvent.invoke(mFactory);
+				if(!(Boolean)mShouldCommit.invoke(event)) return;
+				long[] values = {stats.mFiles.sum(), stats.mZipEntries.sum(),
+						stats.mBytesRead.sum(), stats.mBytesInflated.sum(),
+						stats.mDirectories.sum(), stats.mCacheHits.sum(),
+						stats.mErrors.sum(), stats.mMaxQueueDepth.get()};
+				for(int i = 0; i < values.length; i++){
+					mSet.invoke(event, i, values[i]);
+				}
+				mCommit.invoke(event);
+			}catch(ReflectiveOperationException e){
+				//Recording is best effort
+			}
+		}
+
+	}
+
+}
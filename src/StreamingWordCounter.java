@@ -0,0 +1,604 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * StreamingWordCounter.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A word counter that works directly on the raw bytes of a file.
+ *
+ * Bytes are fed in chunks of any size and the in-word state is carried over
+ * from one chunk to the next, so the contents of a file never have to be
+ * held in memory as a String. By default the bytes are treated as UTF-8.
+ * ASCII bytes are classified with a lookup table and only multi-byte
+ * sequences are decoded and classified with Character.isLetter/isDigit.
+ *
+ * Runs of ASCII in UTF-8 are classified eight bytes at a time by the
+ * SwarTokenizer, unless the byte at a time loop is picked with
+ * -Dtxthistogram.tokenizer=scalar.
+ *
+ * Other encodings are counted the cheapest way they allow. Encodings with
+ * one character per byte, such as ISO-8859-1, are classified with a lookup
+ * table of all 256 bytes, and any other encoding, such as UTF-16, is
+ * decoded by a CharsetDecoder into a reusable CharBuffer.
+ *
+ * The counts are the same as WordCounter.wordCountString gives for the
+ * decoded text: malformed sequences decode to U+FFFD and supplementary
+ * characters decode to surrogate pairs, neither of which are word
+ * characters.
+ *
+ * An instance is not thread safe but can be reused with reset().
+ *
+ */
+public class StreamingWordCounter {
+
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The default size of the chunks read from a stream
+	 */
+	final static int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+	/**
+	 * A lookup table of which ASCII bytes are letters or digits
+	 */
+	private final static boolean[] ASCII_WORD_TABLE = new boolean[128];
+
+	/**
+	 * The class of every UTF-8 byte, 1 for ASCII letters and digits, 0 for
+	 * other ASCII bytes and NON_ASCII for the bytes of multi-byte sequences
+	 */
+	private final static byte[] UTF8_CLASS = new byte[256];
+
+	/**
+	 * The class in UTF8_CLASS of bytes that aren't ASCII
+	 */
+	private final static byte NON_ASCII = 2;
+
+	/**
+	 * The word tables of the single byte encodings counted so far
+	 */
+	private final static ConcurrentHashMap<Charset, boolean[]> BYTE_TABLES =
+			new ConcurrentHashMap<Charset, boolean[]>();
+
+	/**
+	 * A buffer for each thread to decode chunks into
+	 */
+	private final static ThreadLocal<CharBuffer> CHAR_BUFFER =
+			new ThreadLocal<CharBuffer>(){
+		@Override
+		protected CharBuffer initialValue(){
+			return CharBuffer.allocate(DEFAULT_CHUNK_SIZE);
+		}
+	};
+
+	/**
+	 * A chunk for each thread to copy bytes out of direct buffers into
+	 */
+	private final static ThreadLocal<byte[]> SCRATCH =
+			new ThreadLocal<byte[]>(){
+		@Override
+		protected byte[] initialValue(){
+			return new byte[DEFAULT_CHUNK_SIZE];
+		}
+	};
+
+	static{
+		for(int c = 0; c < ASCII_WORD_TABLE.length; c++){
+			ASCII_WORD_TABLE[c] = Character.isLetter((char)c) ||
+					Character.isDigit((char)c);
+			UTF8_CLASS[c] = (byte)(ASCII_WORD_TABLE[c] ? 1 : 0);
+		}
+		for(int b = 0x80; b < UTF8_CLASS.length; b++){
+			UTF8_CLASS[b] = NON_ASCII;
+		}
+	}
+
+	/**
+	 * Whether runs of ASCII are counted by the SwarTokenizer
+	 */
+	final static boolean SWAR = SwarTokenizer.AVAILABLE;
+
+//*********************************************************____________________
+//*****************STATIC METHODS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Count the words in a stream, reading it in chunks.
+	 *
+	 * The stream is not closed.
+	 *
+	 * @param inStream The stream to count the words of
+	 * @param buffer A buffer to read the chunks into, so callers counting
+	 * many streams can reuse one
+	 * @return The word count of the stream
+	 * @throws IOException An exception occurs if the stream could not be read
+	 */
+	public static int countWords(InputStream inStream, byte[] buffer)
+										 throws IOException{
+		StreamingWordCounter counter = new StreamingWordCounter();
+		int read;
+		while((read = inStream.read(buffer)) != -1){
+			counter.update(buffer, 0, read);
+		}
+		return counter.finish();
+	}
+
+	/**
+	 * Count the words in a stream in an encoding, reading it in chunks.
+	 *
+	 * A byte order mark at the start of the stream always decides the
+	 * encoding and is skipped. Without one the stream is counted in the
+	 * given encoding, or in the encoding the EncodingDetector guesses from
+	 * the first chunk if none is given.
+	 *
+	 * The stream is not closed.
+	 *
+	 * @param inStream The stream to count the words of
+	 * @param buffer A buffer to read the chunks into, so callers counting
+	 * many streams can reuse one
+	 * @param charset The encoding of the stream, or null to detect it
+	 * @return The word count of the stream
+	 * @throws IOException An exception occurs if the stream could not be read
+	 */
+	public static int countWords(InputStream inStream, byte[] buffer,
+			Charset charset) throws IOException{
+		//Fill the first chunk far enough to see what the encoding is
+		int sample = Math.min(buffer.length, EncodingDetector.SAMPLE_SIZE);
+		int filled = 0;
+		int read = 0;
+		while(filled < sample && (read = inStream.read(buffer, filled,
+				buffer.length - filled)) != -1){
+			filled += read;
+		}
+
+		StreamingWordCounter counter = new StreamingWordCounter(
+				EncodingDetector.detect(buffer, filled, charset));
+		int bom = EncodingDetector.bomLength(buffer, filled);
+		counter.update(buffer, bom, filled - bom);
+		if(read == -1) return counter.finish();
+		while((read = inStream.read(buffer)) != -1){
+			counter.update(buffer, 0, read);
+		}
+		return counter.finish();
+	}
+
+	/**
+	 * Get the name of the tokenizer counting runs of ASCII.
+	 *
+	 * @return swar or scalar
+	 */
+	static String tokenizer(){
+		return SWAR ? "swar" : "scalar";
+	}
+
+	/**
+	 * Get the table of which bytes are letters or digits in an encoding with
+	 * one character per byte.
+	 *
+	 * @param charset The encoding
+	 * @return The table, or null if the encoding has characters of more
+	 * than one byte
+	 */
+	private static boolean[] byteTable(Charset charset){
+		boolean[] table = BYTE_TABLES.get(charset);
+		if(table != null) return table;
+		if(!charset.canEncode() ||
+				charset.newEncoder().maxBytesPerChar() != 1) return null;
+		table = new boolean[256];
+		for(int b = 0; b < table.length; b++){
+			String decoded = new String(new byte[]{(byte)b}, charset);
+			if(decoded.length() != 1) return null;
+			char c = decoded.charAt(0);
+			table[b] = Character.isLetter(c) || Character.isDigit(c);
+		}
+		BYTE_TABLES.putIfAbsent(charset, table);
+		return table;
+	}
+
+//*********************************************************____________________
+//******************CLASS FIELDS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The number of words that have been started so far
+	 */
+	private int mCount = 0;
+	/**
+	 * Whether the last character seen was a letter or digit
+	 */
+	private boolean mInWord = false;
+	/**
+	 * The number of continuation bytes still expected for the current
+	 * multi-byte sequence
+	 */
+	private int mPending = 0;
+	/**
+	 * The length of the current multi-byte sequence
+	 */
+	private int mSequenceLength = 0;
+	/**
+	 * The code point decoded so far for the current multi-byte sequence
+	 */
+	private int mCodePoint = 0;
+	/**
+	 * Which bytes are word characters when counting an encoding with one
+	 * character per byte, otherwise null
+	 */
+	private final boolean[] mByteTable;
+	/**
+	 * The decoder when counting an encoding that isn't UTF-8 and has
+	 * characters of more than one byte, otherwise null
+	 */
+	private final CharsetDecoder mDecoder;
+	/**
+	 * The bytes of a character cut off by the end of the last chunk, for
+	 * the decoder
+	 */
+	private byte[] mCarry = null;
+	/**
+	 * Whether runs of ASCII are counted by the SwarTokenizer
+	 */
+	private final boolean mSwar;
+	/**
+	 * The little endian view the SwarTokenizer loads longs from, kept
+	 * while the chunks come from the same array, as they do from the
+	 * buffer of a reader
+	 */
+	private ByteBuffer mLongs = null;
+
+//*********************************************************____________________
+//******************CONSTRUCTORS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Create a counter of UTF-8 bytes.
+	 */
+	public StreamingWordCounter(){
+		this(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Create a counter of bytes in an encoding.
+	 *
+	 * @param charset The encoding of the bytes
+	 */
+	public StreamingWordCounter(Charset charset){
+		this(charset, SWAR);
+	}
+
+	/**
+	 * Create a counter of bytes in an encoding, picking the tokenizer for
+	 * runs of ASCII.
+	 *
+	 * @param charset The encoding of the bytes
+	 * @param swar Whether to count runs of ASCII with the SwarTokenizer,
+	 * which must be available
+	 */
+	StreamingWordCounter(Charset charset, boolean swar){
+		this.mSwar = swar;
+		if(charset.equals(StandardCharsets.UTF_8)){
+			mByteTable = null;
+			mDecoder = null;
+		}else{
+			mByteTable = byteTable(charset);
+			mDecoder = mByteTable != null ? null : charset.newDecoder()
+					.onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		}
+	}
+
+//*********************************************************____________________
+//******************CLASS METHODS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Count the words in the next chunk of bytes.
+	 *
+	 * @param bytes The buffer holding the chunk
+	 * @param offset The start of the chunk in the buffer
+	 * @param length The number of bytes in the chunk
+	 */
+	public void update(byte[] bytes, int offset, int length){
+		if(mByteTable != null){
+			updateSingleByte(bytes, offset, length);
+		}else if(mDecoder != null){
+			updateDecoded(bytes, offset, length);
+		}else{
+			updateUtf8(bytes, offset, length);
+		}
+	}
+
+	/**
+	 * Count the words in the remaining bytes of a buffer, as the next chunk.
+	 *
+	 * Heap buffers are counted in place. Direct and mapped buffers are
+	 * copied out a chunk at a time into a buffer kept by each thread, which
+	 * is a bulk copy of memory that stays in the cache. The position of the
+	 * buffer is moved to its limit.
+	 *
+	 * @param bytes The buffer holding the chunk
+	 */
+	public void update(ByteBuffer bytes){
+		if(bytes.hasArray()){
+			update(bytes.array(), bytes.arrayOffset() + bytes.position(),
+					bytes.remaining());
+			bytes.position(bytes.limit());
+			return;
+		}
+		byte[] scratch = SCRATCH.get();
+		while(bytes.hasRemaining()){
+			int length = Math.min(scratch.length, bytes.remaining());
+			bytes.get(scratch, 0, length);
+			update(scratch, 0, length);
+		}
+	}
+
+	/**
+	 * Count the words in the next chunk of UTF-8 bytes.
+	 *
+	 * @param bytes The buffer holding the chunk
+	 * @param offset The start of the chunk in the buffer
+	 * @param length The number of bytes in the chunk
+	 */
+	private void updateUtf8(byte[] bytes, int offset, int length){
+		int end = offset + length;
+		int count = mCount;
+		boolean inWord = mInWord;
+
+		ByteBuffer longs = null;
+		if(mSwar){
+			if(mLongs == null || mLongs.array() != bytes){
+				mLongs = SwarTokenizer.wrap(bytes);
+			}
+			longs = mLongs;
+		}
+		for(int i = offset; i < end; i++){
+			//Runs of ASCII between multi-byte sequences are counted without
+			//branching on the bytes, a word starts where a word byte follows
+			//a byte that isn't one
+			if(mPending == 0){
+				int in = inWord ? 1 : 0;
+				if(mSwar){
+					//Two longs at a time so their work overlaps, until a
+					//byte isn't ASCII
+					while(i <= end - 2 * SwarTokenizer.WIDTH){
+						long low = longs.getLong(i);
+						long high = longs.getLong(i + SwarTokenizer.WIDTH);
+						if(((low | high) & SwarTokenizer.HIGH_BITS) != 0)
+							break;
+						low = SwarTokenizer.wordBits(low);
+						high = SwarTokenizer.wordBits(high);
+						count += SwarTokenizer.wordStarts(low, in)
+								+ SwarTokenizer.wordStarts(high,
+										(int)(low >>> 63));
+						in = (int)(high >>> 63);
+						i += 2 * SwarTokenizer.WIDTH;
+					}
+				}
+				int c;
+				while(i < end &&
+						(c = UTF8_CLASS[bytes[i] & 0xFF]) != NON_ASCII){
+					count += c & ~in;
+					in = c;
+					i++;
+				}
+				inWord = in != 0;
+				if(i == end) break;
+			}
+			int b = bytes[i] & 0xFF;
+
+			//Continue a multi-byte sequence
+			if(mPending > 0){
+				if((b & 0xC0) == 0x80){
+					mCodePoint = (mCodePoint << 6) | (b & 0x3F);
+					if(--mPending == 0){
+						if(isWordCodePoint(mCodePoint, mSequenceLength)){
+							if(!inWord) count++;
+							inWord = true;
+						}else{
+							inWord = false;
+						}
+					}
+					continue;
+				}
+				//A truncated sequence decodes to U+FFFD, then the current
+				//byte starts over
+				mPending = 0;
+				inWord = false;
+			}
+
+			//ASCII fast path
+			if(b < 0x80){
+				if(ASCII_WORD_TABLE[b]){
+					if(!inWord) count++;
+					inWord = true;
+				}else{
+					inWord = false;
+				}
+			}else if(b >= 0xC2 && b <= 0xDF){
+				mPending = 1; mSequenceLength = 2; mCodePoint = b & 0x1F;
+			}else if(b >= 0xE0 && b <= 0xEF){
+				mPending = 2; mSequenceLength = 3; mCodePoint = b & 0x0F;
+			}else if(b >= 0xF0 && b <= 0xF4){
+				mPending = 3; mSequenceLength = 4; mCodePoint = b & 0x07;
+			}else{
+				//Stray continuation or invalid lead byte
+				inWord = false;
+			}
+		}
+
+		mCount = count;
+		mInWord = inWord;
+	}
+
+	/**
+	 * Count the words in the next chunk of bytes of an encoding with one
+	 * character per byte.
+	 *
+	 * @param bytes The buffer holding the chunk
+	 * @param offset The start of the chunk in the buffer
+	 * @param length The number of bytes in the chunk
+	 */
+	private void updateSingleByte(byte[] bytes, int offset, int length){
+		boolean[] table = mByteTable;
+		int end = offset + length;
+		int count = mCount;
+		boolean inWord = mInWord;
+		for(int i = offset; i < end; i++){
+			boolean word = table[bytes[i] & 0xFF];
+			if(word && !inWord) count++;
+			inWord = word;
+		}
+		mCount = count;
+		mInWord = inWord;
+	}
+
+	/**
+	 * Decode the next chunk of bytes and count the words in the characters.
+	 *
+	 * The bytes of a character cut off by the end of the chunk are kept and
+	 * decoded with the next chunk.
+	 *
+	 * @param bytes The buffer holding the chunk
+	 * @param offset The start of the chunk in the buffer
+	 * @param length The number of bytes in the chunk
+	 */
+	private void updateDecoded(byte[] bytes, int offset, int length){
+		ByteBuffer in;
+		if(mCarry == null){
+			in = ByteBuffer.wrap(bytes, offset, length);
+		}else{
+			byte[] joined = new byte[mCarry.length + length];
+			System.arraycopy(mCarry, 0, joined, 0, mCarry.length);
+			System.arraycopy(bytes, offset, joined, mCarry.length, length);
+			in = ByteBuffer.wrap(joined);
+		}
+		decode(in, false);
+		if(in.hasRemaining()){
+			mCarry = new byte[in.remaining()];
+			in.get(mCarry);
+		}else{
+			mCarry = null;
+		}
+	}
+
+	/**
+	 * Decode bytes into the buffer of this thread and count the words in
+	 * the characters.
+	 *
+	 * @param in The bytes to decode
+	 * @param endOfInput Whether these are the last bytes of the stream
+	 */
+	private void decode(ByteBuffer in, boolean endOfInput){
+		CharBuffer out = CHAR_BUFFER.get();
+		while(true){
+			out.clear();
+			boolean overflow = mDecoder.decode(in, out, endOfInput)
+					.isOverflow();
+			if(endOfInput && !overflow){
+				overflow = mDecoder.flush(out).isOverflow();
+			}
+			out.flip();
+			countChars(out);
+			if(!overflow) return;
+		}
+	}
+
+	/**
+	 * Count the words in decoded characters.
+	 *
+	 * @param chars The characters
+	 */
+	private void countChars(CharBuffer chars){
+		int count = mCount;
+		boolean inWord = mInWord;
+		char[] array = chars.array();
+		int end = chars.arrayOffset() + chars.limit();
+		for(int i = chars.arrayOffset() + chars.position(); i < end; i++){
+			char c = array[i];
+			boolean word = c < 128 ? ASCII_WORD_TABLE[c] :
+					Character.isLetter(c) || Character.isDigit(c);
+			if(word && !inWord) count++;
+			inWord = word;
+		}
+		mCount = count;
+		mInWord = inWord;
+	}
+
+	/**
+	 * Finish counting and get the word count of all the chunks.
+	 *
+	 * @return The word count
+	 */
+	public int finish(){
+		//A truncated sequence at the end is not a word character, and the
+		//count is already increased when a word starts
+		if(mDecoder != null){
+			ByteBuffer in = mCarry == null ? ByteBuffer.allocate(0) :
+					ByteBuffer.wrap(mCarry);
+			decode(in, true);
+			mCarry = null;
+			mDecoder.reset();
+		}
+		mPending = 0;
+		mInWord = false;
+		return mCount;
+	}
+
+	/**
+	 * Reset the counter so it can count a new stream.
+	 */
+	public void reset(){
+		mCount = 0;
+		mInWord = false;
+		mPending = 0;
+		mSequenceLength = 0;
+		mCodePoint = 0;
+		mCarry = null;
+		if(mDecoder != null) mDecoder.reset();
+	}
+
+	/**
+	 * Check if a decoded multi-byte sequence is a letter or digit.
+	 *
+	 * Overlong encodings and surrogates are malformed and decode to U+FFFD.
+	 * Four byte sequences decode to a surrogate pair which is never a
+	 * letter or digit when checked as a char.
+	 *
+	 * @param codePoint The decoded code point
+	 * @param length The number of bytes the code point was encoded in
+	 * @return True if the code point is a word character
+	 */
+	private static boolean isWordCodePoint(int codePoint, int length){
+		if(length == 4) return false;
+		if(length == 3 && (codePoint < 0x800 ||
+				(codePoint >= 0xD800 && codePoint <= 0xDFFF))) return false;
+		char c = (char)codePoint;
+		return Character.isLetter(c) || Character.isDigit(c);
+	}
+
+}
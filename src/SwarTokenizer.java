@@ -0,0 +1,112 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * SwarTokenizer.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * Word classification of eight ASCII bytes at a time in a long, SIMD within
+ * a register.
+ *
+ * Eight bytes are loaded from a byte array as one little endian long. If
+ * none of them has the high bit set they are all ASCII, and adding a
+ * constant to every byte at once sets the high bit of the bytes at or above
+ * a bound without carrying into the next byte. Two bounds give a range, so
+ * the digits and the letters (with the case bit set) each take two
+ * additions, and the high bit of every byte of the result is set if the
+ * byte is a letter or digit.
+ *
+ * The long is loaded through a little endian ByteBuffer over the array,
+ * whose getLong the JIT compiles to a single load. With
+ * -Dtxthistogram.tokenizer=scalar the tokenizer is not available and the
+ * byte at a time counter is used.
+ *
+ */
+public class SwarTokenizer {
+
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The system property that picks the tokenizer, swar or scalar
+	 */
+	final static String TOKENIZER_PROPERTY = "txthistogram.tokenizer";
+
+	/**
+	 * The number of bytes classified at a time
+	 */
+	final static int WIDTH = 8;
+
+	/**
+	 * The high bit of every byte
+	 */
+	final static long HIGH_BITS = 0x8080808080808080L;
+
+	/**
+	 * Whether the tokenizer is used
+	 */
+	final static boolean AVAILABLE =
+			!"scalar".equals(System.getProperty(TOKENIZER_PROPERTY));
+
+//*********************************************************____________________
+//*****************STATIC METHODS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Wrap an array to load longs from, so the byte at an index is the
+	 * lowest byte of the long loaded from it.
+	 *
+	 * @param bytes The array
+	 * @return A little endian buffer over the whole array
+	 */
+	static ByteBuffer wrap(byte[] bytes){
+		return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Classify eight ASCII bytes.
+	 *
+	 * @param bytes Eight bytes, none with the high bit set
+	 * @return The high bit of every byte that is a letter or digit
+	 */
+	static long wordBits(long bytes){
+		//'a' to 'z' with the case bit set, which also takes in 'A' to 'Z'
+		long lower = bytes | 0x2020202020202020L;
+		long letters = (lower + 0x1F1F1F1F1F1F1F1FL) &
+				~(lower + 0x0505050505050505L);
+		//'0' to '9'
+		long digits = (bytes + 0x5050505050505050L) &
+				~(bytes + 0x4646464646464646L);
+		return (letters | digits) & HIGH_BITS;
+	}
+
+	/**
+	 * Count the words started in eight classified bytes.
+	 *
+	 * @param wordBits The classified bytes from wordBits
+	 * @param inWord 1 if the byte before them was a letter or digit, else 0
+	 * @return The number of letters or digits that follow a byte that isn't
+	 * one
+	 */
+	static int wordStarts(long wordBits, int inWord){
+		//The high bit of the byte before each byte
+		long before = (wordBits << 8) | ((long)inWord << 7);
+		return Long.bitCount(wordBits & ~before);
+	}
+
+}
@@ -0,0 +1,455 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * TarInputStream.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A stream that reads the entries of a tar archive one after another, the
+ * way ZipInputStream reads a zip archive.
+ *
+ * getNextEntry moves to the next entry, and reading then returns the data
+ * of that entry until it ends. The archive is read forwards only, so it can
+ * come straight from a decompressing stream.
+ *
+ * The ustar, GNU and POSIX (pax) formats are read, including their long
+ * names and sizes. Only the path and the size are kept for an entry.
+ *
+ */
+public class TarInputStream extends FilterInputStream {
+
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The size of a header and of the blocks data is padded to
+	 */
+	final static int BLOCK_SIZE = 512;
+
+	/**
+	 * The largest long name or pax header read into memory
+	 */
+	private final static int MAX_HEADER_DATA = 1024 * 1024;
+
+//*********************************************************____________________
+//******************CLASS FIELDS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The header being read
+	 */
+	private final byte[] mHeader = new byte[BLOCK_SIZE];
+	/**
+	 * The bytes of the current entry not yet read
+	 */
+	private long mRemaining = 0;
+	/**
+	 * The padding after the current entry
+	 */
+	private long mPadding = 0;
+	/**
+	 * Whether the end of the archive has been read
+	 */
+	private boolean mEnded = false;
+
+//*********************************************************____________________
+//*******************CONSTRUCTORS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Read a tar archive from a stream.
+	 *
+	 * @param inStream The stream of the archive
+	 */
+	public TarInputStream(InputStream inStream){
+		super(inStream);
+	}
+
+//*********************************************************____________________
+//*******************PUBLIC METHODS************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Move to the next entry of the archive, skipping the rest of the
+	 * current one.
+	 *
+	 * The headers that only describe the next entry, long names and pax
+	 * headers, are read and applied to it rather than returned.
+	 *
+	 * @return The next entry, or null at the end of the archive
+	 * @throws IOException An exception occurs if the archive could not be
+	 * read or is not a tar archive
+	 */
+	public Entry getNextEntry() throws IOException{
+		String longName = null;
+		long paxSize = -1;
+		while(true){
+			skipFully(mRemaining + mPadding);
+			mRemaining = 0;
+			mPadding = 0;
+			if(mEnded || !readHeader()) return null;
+
+			long size = parseSize();
+			byte type = mHeader[156];
+			mRemaining = size;
+			mPadding = (BLOCK_SIZE - size % BLOCK_SIZE) % BLOCK_SIZE;
+			if(type == 'L'){
+				//GNU long name of the next entry
+				longName = trimName(readHeaderData(size));
+			}else if(type == 'x'){
+				//POSIX pax header of the next entry
+				String[] pax = parsePax(readHeaderData(size));
+				if(pax[0] != null) longName = pax[0];
+				if(pax[1] != null) paxSize = Long.parseLong(pax[1]);
+			}else if(type == 'g' || type == 'K'){
+				//Global pax headers and long link names aren't used
+				continue;
+			}else{
+				if(paxSize >= 0){
+					mRemaining = paxSize;
+					mPadding = (BLOCK_SIZE - paxSize % BLOCK_SIZE) % BLOCK_SIZE;
+				}
+				String name = longName != null ? longName : headerName();
+				boolean file = type == '0' || type == 0 || type == '7';
+				return new Entry(name, mRemaining, file);
+			}
+		}
+	}
+
+	@Override
+	public int read() throws IOException{
+		if(mRemaining <= 0) return -1;
+		int b = in.read();
+		if(b == -1) throw new EOFException("Truncated tar entry");
+		mRemaining--;
+		return b;
+	}
+
+	@Override
+	public int read(byte[] bytes, int offset, int length) throws IOException{
+		if(mRemaining <= 0) return -1;
+		if(length == 0) return 0;
+		int read = in.read(bytes, offset, (int)Math.min(length, mRemaining));
+		if(read == -1) throw new EOFException("Truncated tar entry");
+		mRemaining -= read;
+		return read;
+	}
+
+	@Override
+	public long skip(long n) throws IOException{
+		long skipped = in.skip(Math.min(n, mRemaining));
+		mRemaining -= skipped;
+		return skipped;
+	}
+
+	@Override
+	public int available() throws IOException{
+		return (int)Math.min(in.available(), mRemaining);
+	}
+
+	@Override
+	public boolean markSupported(){
+		return false;
+	}
+
+	@Override
+	public synchronized void mark(int readLimit){
+		//Marks are not supported
+	}
+
+	@Override
+	public synchronized void reset() throws IOException{
+		throw new IOException("mark/reset not supported");
+	}
+
+//*********************************************************____________________
+//******************PRIVATE METHODS************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Read the next header.
+	 *
+	 * @return False if the end of the archive was reached
+	 * @throws IOException An exception occurs if the header could not be
+	 * read or its checksum is wrong
+	 */
+	private boolean readHeader() throws IOException{
+		int read = 0;
+		while(read < BLOCK_SIZE){
+			int r = in.read(mHeader, read, BLOCK_SIZE - read);
+			if(r == -1) break;
+			read += r;
+		}
+		//Archives end with zero blocks, some writers leave them out
+		if(read == 0 || isZeroBlock()){
+			mEnded = true;
+			return false;
+		}
+		if(read < BLOCK_SIZE) throw new EOFException("Truncated tar header");
+
+		//The checksum is taken with its own field as spaces
+		long sum = 0;
+		for(int i = 0; i < BLOCK_SIZE; i++){
+			sum += (i >= 148 && i < 156) ? ' ' : mHeader[i] & 0xFF;
+		}
+		if(sum != parseOctal(148, 8))
+			throw new IOException("Not a tar archive, bad header checksum");
+		return true;
+	}
+
+	/**
+	 * Check if the header is all zeros, the end of the archive.
+	 *
+	 * @return True if every byte is zero
+	 */
+	private boolean isZeroBlock(){
+		for(byte b : mHeader){
+			if(b != 0) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Get the path in the header, joining the ustar prefix to the name.
+	 *
+	 * @return The path
+	 */
+	private String headerName(){
+		String name = headerString(0, 100);
+		if(headerString(257, 5).equals("ustar")){
+			String prefix = headerString(345, 155);
+			if(!prefix.isEmpty()) name = prefix + "/" + name;
+		}
+		return name;
+	}
+
+	/**
+	 * Get a NUL terminated string field of the header.
+	 *
+	 * @param offset The start of the field
+	 * @param length The length of the field
+	 * @return The string
+	 */
+	private String headerString(int offset, int length){
+		int end = offset;
+		while(end < offset + length && mHeader[end] != 0) end++;
+		return new String(mHeader, offset, end - offset,
+				StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Get the size in the header, octal or in the GNU base 256 form for
+	 * sizes of 8GB and more.
+	 *
+	 * @return The size
+	 * @throws IOException An exception occurs if the size is negative
+	 */
+	private long parseSize() throws IOException{
+		long size;
+		if((mHeader[124] & 0x80) != 0){
+			size = 0;
+			for(int i = 125; i < 136; i++){
+				size = (size << 8) | (mHeader[i] & 0xFF);
+			}
+		}else{
+			size = parseOctal(124, 12);
+		}
+		if(size < 0) throw new IOException("Bad tar entry size");
+		return size;
+	}
+
+	/**
+	 * Get an octal number field of the header, padded by spaces or NULs.
+	 *
+	 * @param offset The start of the field
+	 * @param length The length of the field
+	 * @return The number
+	 * @throws IOException An exception occurs if the field has a digit
+	 * that isn't octal
+	 */
+	private long parseOctal(int offset, int length) throws IOException{
+		long value = 0;
+		int i = offset;
+		int end = offset + length;
+		while(i < end && (mHeader[i] == ' ' || mHeader[i] == 0)) i++;
+		for(; i < end && mHeader[i] != ' ' && mHeader[i] != 0; i++){
+			int digit = mHeader[i] - '0';
+			if(digit < 0 || digit > 7)
+				throw new IOException("Not a tar archive, bad number");
+			value = (value << 3) | digit;
+		}
+		return value;
+	}
+
+	/**
+	 * Read the data of a header that describes the next entry.
+	 *
+	 * @param size The size of the data
+	 * @return The data
+	 * @throws IOException An exception occurs if the data could not be
+	 * read or is too large
+	 */
+	private byte[] readHeaderData(long size) throws IOException{
+		if(size > MAX_HEADER_DATA)
+			throw new IOException("Tar header too large: " + size);
+		byte[] data = new byte[(int)size];
+		int read = 0;
+		while(read < data.length){
+			int r = read(data, read, data.length - read);
+			if(r == -1) throw new EOFException("Truncated tar header");
+			read += r;
+		}
+		return data;
+	}
+
+	/**
+	 * Get a long name without its NUL terminator.
+	 *
+	 * @param data The data of a GNU long name header
+	 * @return The name
+	 */
+	private static String trimName(byte[] data){
+		int end = 0;
+		while(end < data.length && data[end] != 0) end++;
+		return new String(data, 0, end, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Get the path and the size from the records of a pax header, each of
+	 * the form "length key=value\n".
+	 *
+	 * @param data The data of the pax header
+	 * @return The path and the size, null for each one that isn't set
+	 * @throws IOException An exception occurs if a record is malformed
+	 */
+	private static String[] parsePax(byte[] data) throws IOException{
+		String[] values = new String[2];
+		int position = 0;
+		while(position < data.length){
+			int space = position;
+			while(space < data.length && data[space] != ' ') space++;
+			int length;
+			try{
+				length = Integer.parseInt(new String(data, position,
+						space - position, StandardCharsets.US_ASCII));
+			}catch(NumberFormatException e){
+				throw new IOException("Bad pax header");
+			}
+			if(length <= space - position || position + length > data.length)
+				throw new IOException("Bad pax header");
+			String record = new String(data, space + 1,
+					position + length - space - 2, StandardCharsets.UTF_8);
+			int equals = record.indexOf('=');
+			if(equals > 0){
+				String key = record.substring(0, equals);
+				if(key.equals("path")){
+					values[0] = record.substring(equals + 1);
+				}else if(key.equals("size")){
+					values[1] = record.substring(equals + 1);
+				}
+			}
+			position += length;
+		}
+		return values;
+	}
+
+	/**
+	 * Skip bytes of the archive, reading them if the stream can't skip.
+	 *
+	 * @param n The number of bytes to skip
+	 * @throws IOException An exception occurs if the archive ends first
+	 */
+	private void skipFully(long n) throws IOException{
+		while(n > 0){
+			long skipped = in.skip(n);
+			if(skipped <= 0){
+				if(in.read() == -1) throw new EOFException("Truncated tar");
+				skipped = 1;
+			}
+			n -= skipped;
+		}
+	}
+
+//*********************************************************____________________
+//*******************INNER CLASSES*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * An entry of a tar archive.
+	 */
+	public static class Entry {
+
+		/**
+		 * The path of the entry in the archive
+		 */
+		private final String mName;
+		/**
+		 * The size of the entry
+		 */
+		private final long mSize;
+		/**
+		 * Whether the entry is a regular file
+		 */
+		private final boolean mFile;
+
+		/**
+		 * Create an entry.
+		 *
+		 * @param name The path of the entry in the archive
+		 * @param size The size of the entry
+		 * @param file Whether the entry is a regular file
+		 */
+		Entry(String name, long size, boolean file){
+			this.mName = name;
+			this.mSize = size;
+			this.mFile = file;
+		}
+
+		/**
+		 * Get the path of the entry in the archive.
+		 *
+		 * @return The path
+		 */
+		public String getName(){
+			return mName;
+		}
+
+		/**
+		 * Get the size of the entry.
+		 *
+		 * @return The size in bytes
+		 */
+		public long getSize(){
+			return mSize;
+		}
+
+		/**
+		 * Check if the entry is a regular file, not a directory or a link.
+		 *
+		 * @return True if the entry is a file
+		 */
+		public boolean isFile(){
+			return mFile;
+		}
+
+	}
+
+}
@@ -0,0 +1,536 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * VectorHistogramBuilder.java
+ *
+ */
+
+//*****************************************************************************
+//***************************IMPORTED LIBRARIES********************************
+//*****************************************************************************
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * An abstract class for building histogram charts in vector formats such
+ * as SVG and PDF.
+ *
+ * The chart has the same layout as a PNG chart, with the histogram reduced
+ * by a ColumnReducer to at most one column for every unit across the chart
+ * and neighbouring narrow columns of the same height drawn as one
+ * rectangle. Every shape is written to the file as soon as it is laid out,
+ * through the Canvas of the format, so nothing is kept in memory but the
+ * columns and the time taken is in the number of buckets.
+ *
+ * Text is measured with the AWT font of the ChartStyle to lay it out, so a
+ * viewer with another font can place it slightly differently.
+ *
+ */
+public abstract class VectorHistogramBuilder extends VisualHistogramBuilder {
+
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The narrowest bar, in units, that is drawn with a gap and an outline
+	 */
+	private final static int OUTLINED_BAR_WIDTH = 4;
+
+	/**
+	 * The size of the buffer the file is written through
+	 */
+	private final static int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+//*********************************************************____________________
+//******************CLASS FIELDS***************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The colors, font and column mode of the charts
+	 */
+	protected final ChartStyle mStyle;
+
+//*********************************************************____________________
+//*******************CONSTRUCTORS**************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Create a builder.
+	 *
+	 * @param style The colors, font and column mode of the charts
+	 */
+	protected VectorHistogramBuilder(ChartStyle style){
+		this.mStyle = style;
+	}
+
+//*********************************************************____________________
+//*****************ABSTRACT METHODS************************____________________
+//*********************************************************____________________
+
+	/**
+	 * Start a chart in the format of the builder.
+	 *
+	 * @param out The stream of the file, closed by Canvas.close
+	 * @param width The width of the chart in units
+	 * @param height The height of the chart in units
+	 * @return The canvas to draw the chart on
+	 * @throws IOException An exception occurs if the file could not be
+	 * written
+	 */
+	protected abstract Canvas open(OutputStream out, int width, int height)
+			throws IOException;
+
+//*********************************************************____________________
+//******************CLASS METHODS**************************____________________
+//*********************************************************____________________
+
+	@Override
+	public boolean build(String file, int width, int height,
+			Histogram histogram, String caption){
+		ScanStats stats = ScanStats.current();
+		long start = ScanStats.start(stats);
+
+		//Reduce the histogram to at most a column for every unit
+		int contentWidth = (width/6)*4;
+		ColumnReducer columns = ColumnReducer.reduce(histogram,
+				Math.max(1, contentWidth), mStyle.getReduceMode());
+		Metrics metrics = new Metrics(mStyle.getFontName(), height);
+
+		OutputStream out = null;
+		try{
+			out = new BufferedOutputStream(new FileOutputStream(file),
+					OUTPUT_BUFFER_SIZE);
+			Canvas canvas = open(out, width, height);
+			out = null; //The canvas closes it now
+			try{
+				draw(canvas, width, height, histogram, caption, columns,
+						metrics);
+			}finally{
+				canvas.close();
+			}
+		}catch(IOException e){
+			//If there was an error writing the file abort
+			System.err.println("Error rendering file!");
+			if(stats != null) stats.addError();
+			return false;
+		}finally{
+			metrics.dispose();
+			if(out != null){ //Close the file if the canvas wasn't opened
+				try{
+					out.close();
+				}catch(IOException e){
+					System.err.println("Error closing file!");
+				}
+			}
+		}
+		if(stats != null) stats.record(ScanStats.Stage.RENDER, start);
+		return true;
+	}
+
+	/**
+	 * Draw the whole chart, in the layout of a PNG chart.
+	 *
+	 * @param canvas The canvas to draw on
+	 * @param width The width of the chart
+	 * @param height The height of the chart
+	 * @param histogram The histogram, for the unreadable file count
+	 * @param caption A line of text to show with the chart, or null
+	 * @param columns The reduced histogram
+	 * @param metrics The fonts of the chart
+	 * @throws IOException An exception occurs if the file could not be
+	 * written
+	 */
+	private void draw(Canvas canvas, int width, int height,
+			Histogram histogram, String caption, ColumnReducer columns,
+			Metrics metrics) throws IOException{
+		Color text = mStyle.getText();
+		canvas.fillRect(0, 0, width, height, mStyle.getBackground());
+
+		//Title
+		drawCentered(canvas, "Word Count Histogram", 0, 0, width, height/6,
+				metrics.mTitle, text);
+		if(caption != null){ //Such as the percentiles of a sketch
+			drawCentered(canvas, caption, 0, height/8, width, height/24,
+					metrics.mCaption, text);
+		}
+
+		//Bottom bar
+		canvas.line(width/6, (height/6)*5, (width/6)*5, (height/6)*5, text);
+		drawCentered(canvas, "Word Count", 0, height-height/6, width,
+				height/6, metrics.mAxis, text);
+
+		//Side bar, the name reads upwards
+		canvas.line(width/6, height/6, width/6, (height/6)*5, text);
+		FontMetrics axis = metrics.mAxis;
+		int x = (width/6 - axis.stringWidth("Frequency")) / 2;
+		int y = (height - axis.getHeight()) / 2 + axis.getAscent();
+		canvas.text("Frequency", x, y, axis.getFont().getSize(), true, text);
+
+		if(histogram.getUnreadable() != 0){ //Files that couldn't be read
+			drawCentered(canvas, histogram.getUnreadable()
+					+ " files could not be read", 0, 0, width, 20,
+					metrics.mSmall, text);
+		}
+
+		int contentWidth = (width/6)*4;
+		int contentHeight = (height/6)*4;
+		drawColumns(canvas, columns, width/6+1, (height/6)*5, contentWidth,
+				contentHeight);
+		drawFrequencyTicks(canvas, columns.getMaxValue(), width/6,
+				(height/6)*5, contentHeight, metrics.mAxis);
+		drawWordCountTicks(canvas, columns, width/6+1, (height/6)*5,
+				contentWidth, height, metrics.mAxis);
+	}
+
+	/**
+	 * Draw a bar for every column, joining neighbouring narrow bars of the
+	 * same height into one rectangle.
+	 *
+	 * @param canvas The canvas to draw on
+	 * @param columns The reduced histogram
+	 * @param left The x of the left edge of the first bar
+	 * @param base The y of the bottom of the bars
+	 * @param contentWidth The width of all the bars together
+	 * @param contentHeight The height of the highest bar
+	 * @throws IOException An exception occurs if the file could not be
+	 * written
+	 */
+	private void drawColumns(Canvas canvas, ColumnReducer columns, int left,
+			int base, int contentWidth, int contentHeight)
+					throws IOException{
+		int count = columns.getColumns();
+		float maxValue = Math.max(1, columns.getMaxValue());
+		boolean envelope = columns.getMode() == ColumnReducer.Mode.ENVELOPE;
+		Color fill = envelope ? mStyle.getBand() : mStyle.getBar();
+		Color outline = mStyle.getOutline();
+		//The run of narrow bars not yet drawn
+		int runX = left, runHeight = -1, runLow = -1;
+		for(int c = 0; c < count; c++){
+			//Spread the leftover units between the bars
+			int x = left + (int)((long)c * contentWidth / count);
+			int barWidth = left + (int)((long)(c + 1) * contentWidth / count)
+					- x;
+			int drawHeight = (int)((columns.getHigh(c) / maxValue)
+					* contentHeight);
+			int lowHeight = envelope ? (int)((columns.getLow(c) / maxValue)
+					* contentHeight) : 0;
+			if(barWidth < OUTLINED_BAR_WIDTH || outline == null){
+				//Too narrow for a gap and an outline, join the run
+				if(drawHeight == runHeight && lowHeight == runLow) continue;
+				drawRun(canvas, runX, x, base, runHeight, runLow, fill);
+				runX = x;
+				runHeight = drawHeight;
+				runLow = lowHeight;
+			}else{
+				drawRun(canvas, runX, x, base, runHeight, runLow, fill);
+				runHeight = -1;
+				if(drawHeight > 0){
+					canvas.fillRect(x+1, base-drawHeight, barWidth-1,
+							drawHeight-1, fill);
+					canvas.strokeRect(x+1, base-drawHeight, barWidth-1,
+							drawHeight-1, outline);
+				}
+				if(lowHeight > 0){
+					canvas.fillRect(x, base - lowHeight, barWidth, lowHeight,
+							mStyle.getBar());
+				}
+			}
+		}
+		drawRun(canvas, runX, left + contentWidth, base, runHeight, runLow,
+				fill);
+	}
+
+	/**
+	 * Draw a run of narrow bars of the same height as one rectangle.
+	 *
+	 * @param canvas The canvas to draw on
+	 * @param start The x of the left edge of the run
+	 * @param end The x of the right edge of the run
+	 * @param base The y of the bottom of the bars
+	 * @param drawHeight The height of the bars, -1 if there is no run
+	 * @param lowHeight The height of the solid part of ENVELOPE bars
+	 * @param fill The color of the bars
+	 * @throws IOException An exception occurs if the file could not be
+	 * written
+	 */
+	private void drawRun(Canvas canvas, int start, int end, int base,
+			int drawHeight, int lowHeight, Color fill) throws IOException{
+		if(drawHeight > 0 && end > start){
+			canvas.fillRect(start, base - drawHeight, end - start, drawHeight,
+					fill);
+		}
+		if(lowHeight > 0 && end > start){
+			canvas.fillRect(start, base - lowHeight, end - start, lowHeight,
+					mStyle.getBar());
+		}
+	}
+
+	/**
+	 * Label the frequency axis at round steps from 0 to the highest value.
+	 *
+	 * @param canvas The canvas to draw on
+	 * @param maxValue The value at the top of the axis
+	 * @param axis The x of the axis
+	 * @param base The y of 0
+	 * @param contentHeight The height of the axis
+	 * @param metrics The metrics of the font of the labels
+	 * @throws IOException An exception occurs if the file could not be
+	 * written
+	 */
+	private void drawFrequencyTicks(Canvas canvas, long maxValue, int axis,
+			int base, int contentHeight, FontMetrics metrics)
+					throws IOException{
+		if(maxValue <= 0){
+			drawTick(canvas, "0", axis, base, metrics);
+			return;
+		}
+		//Leave two lines of text between the labels
+		long step = tickStep(maxValue,
+				contentHeight / Math.max(1, metrics.getHeight() * 2));
+		for(long value = 0; value <= maxValue; value += step){
+			int y = base - (int)((double)value / maxValue * contentHeight);
+			drawTick(canvas, "" + value, axis, y, metrics);
+			if(value > Long.MAX_VALUE - step) break;
+		}
+	}
+
+	/**
+	 * Draw a tick and its label to the left of the frequency axis.
+	 *
+	 * @param canvas The canvas to draw on
+	 * @param label The label
+	 * @param axis The x of the axis
+	 * @param y The y of the tick
+	 * @param metrics The metrics of the font of the label
+	 * @throws IOException An exception occurs if the file could not be
+	 * written
+	 */
+	private void drawTick(Canvas canvas, String label, int axis, int y,
+			FontMetrics metrics) throws IOException{
+		int tick = Math.max(2, metrics.getHeight() / 4);
+		canvas.line(axis - tick, y, axis, y, mStyle.getText());
+		canvas.text(label, axis - tick * 2 - metrics.stringWidth(label),
+				y + metrics.getAscent() / 2, metrics.getFont().getSize(),
+				false, mStyle.getText());
+	}
+
+	/**
+	 * Label the word count axis with the first word count of evenly spaced
+	 * columns, as many as fit without overlapping, and the end of the last
+	 * column.
+	 *
+	 * @param canvas The canvas to draw on
+	 * @param columns The reduced histogram
+	 * @param left The x of the left edge of the first column
+	 * @param base The y of the axis
+	 * @param contentWidth The width of all the columns together
+	 * @param height The height of the chart
+	 * @param metrics The metrics of the font of the labels
+	 * @throws IOException An exception occurs if the file could not be
+	 * written
+	 */
+	private void drawWordCountTicks(Canvas canvas, ColumnReducer columns,
+			int left, int base, int contentWidth, int height,
+			FontMetrics metrics) throws IOException{
+		int count = columns.getColumns();
+		if(count == 0) return;
+		int size = metrics.getFont().getSize();
+		String end = "" + columns.getEndKey();
+		//The widest label is at most as wide as the end of the axis
+		int spacing = metrics.stringWidth(end) + metrics.stringWidth("  ");
+		int step = labelStep(count, contentWidth / Math.max(1, spacing));
+		int y = base + height/30;
+		int lastX = Integer.MIN_VALUE;
+		for(int c = 0; c < count; c += step){
+			int x = left + (int)((long)c * contentWidth / count);
+			canvas.text("" + columns.getFirstKey(c), x, y, size, false,
+					mStyle.getText());
+			lastX = x;
+		}
+		int endX = left + contentWidth;
+		if(endX - lastX >= spacing){
+			canvas.text(end, endX, y, size, false, mStyle.getText());
+		}
+	}
+
+	/**
+	 * Get the middle of a unit, where a line one unit wide is centered to
+	 * cover it exactly.
+	 *
+	 * @param unit The unit
+	 * @return The unit plus a half
+	 */
+	protected static String half(int unit){
+		return unit >= 0 ? unit + ".5" : "-" + (-(long)unit - 1) + ".5";
+	}
+
+	/**
+	 * Draw text centered in a rectangle.
+	 *
+	 * @param canvas The canvas to draw on
+	 * @param text The text
+	 * @param x The left edge of the rectangle
+	 * @param y The top edge of the rectangle
+	 * @param width The width of the rectangle
+	 * @param height The height of the rectangle
+	 * @param metrics The metrics of the font of the text
+	 * @param color The color of the text
+	 * @throws IOException An exception occurs if the file could not be
+	 * written
+	 */
+	private static void drawCentered(Canvas canvas, String text, int x,
+			int y, int width, int height, FontMetrics metrics, Color color)
+					throws IOException{
+		canvas.text(text, x + (width - metrics.stringWidth(text)) / 2,
+				y + (height - metrics.getHeight()) / 2 + metrics.getAscent(),
+				metrics.getFont().getSize(), false, color);
+	}
+
+//*********************************************************____________________
+//*******************INNER CLASSES*************************____________________
+//*********************************************************____________________
+
+	/**
+	 * The drawing operations of a vector format, in the units of the
+	 * chart with the origin at the top left and y going down.
+	 */
+	protected interface Canvas {
+
+		/**
+		 * Fill a rectangle.
+		 *
+		 * @param x The left edge
+		 * @param y The top edge
+		 * @param width The width
+		 * @param height The height
+		 * @param color The color
+		 * @throws IOException An exception occurs if the file could not be
+		 * written
+		 */
+		void fillRect(int x, int y, int width, int height, Color color)
+				throws IOException;
+
+		/**
+		 * Outline a rectangle with a line one unit wide.
+		 *
+		 * @param x The left edge
+		 * @param y The top edge
+		 * @param width The width
+		 * @param height The height
+		 * @param color The color
+		 * @throws IOException An exception occurs if the file could not be
+		 * written
+		 */
+		void strokeRect(int x, int y, int width, int height, Color color)
+				throws IOException;
+
+		/**
+		 * Draw a line one unit wide.
+		 *
+		 * @param x1 The x of the start
+		 * @param y1 The y of the start
+		 * @param x2 The x of the end
+		 * @param y2 The y of the end
+		 * @param color The color
+		 * @throws IOException An exception occurs if the file could not be
+		 * written
+		 */
+		void line(int x1, int y1, int x2, int y2, Color color)
+				throws IOException;
+
+		/**
+		 * Draw text in the font of the style.
+		 *
+		 * @param text The text
+		 * @param x The x of the start of the baseline
+		 * @param y The y of the baseline
+		 * @param size The size of the font
+		 * @param upwards True to turn the text to read upwards from x, y
+		 * @param color The color
+		 * @throws IOException An exception occurs if the file could not be
+		 * written
+		 */
+		void text(String text, int x, int y, int size, boolean upwards,
+				Color color) throws IOException;
+
+		/**
+		 * Finish the file and close its stream.
+		 *
+		 * @throws IOException An exception occurs if the file could not be
+		 * written
+		 */
+		void close() throws IOException;
+
+	}
+
+	/**
+	 * The metrics of the fonts of a chart, for laying out its text the way
+	 * a PNG chart does.
+	 */
+	private static class Metrics {
+
+		/**
+		 * The scratch graphics the metrics come from
+		 */
+		private final Graphics2D mGraphics;
+		/**
+		 * The metrics of the title
+		 */
+		final FontMetrics mTitle;
+		/**
+		 * The metrics of the axis names and labels
+		 */
+		final FontMetrics mAxis;
+		/**
+		 * The metrics of the caption
+		 */
+		final FontMetrics mCaption;
+		/**
+		 * The metrics of notes such as the unreadable file count
+		 */
+		final FontMetrics mSmall;
+
+		/**
+		 * Create the fonts of a chart and get their metrics.
+		 *
+		 * @param name The family of the fonts
+		 * @param height The height of the chart
+		 */
+		Metrics(String name, int height){
+			mGraphics = new BufferedImage(1, 1, BufferedImage.TYPE_BYTE_GRAY)
+					.createGraphics();
+			mTitle = mGraphics.getFontMetrics(
+					new Font(name, Font.PLAIN, height/20));
+			mAxis = mGraphics.getFontMetrics(
+					new Font(name, Font.PLAIN, height/30));
+			mCaption = mGraphics.getFontMetrics(
+					new Font(name, Font.PLAIN, height/40));
+			mSmall = mGraphics.getFontMetrics(
+					new Font(name, Font.PLAIN, height/60));
+		}
+
+		/**
+		 * Release the scratch graphics.
+		 */
+		void dispose(){
+			mGraphics.dispose();
+		}
+
+	}
+
+}
@@ -27,6 +27,46 @@ import java.util.HashMap;
  */
 public abstract class VisualHistogramBuilder {
 	
+//*********************************************************____________________
+//*****************STATIC METHODS**************************____________________
+//*********************************************************____________________
+	
+	/**
+	 * Get a round step between the ticks of a value axis, 1, 2 or 5 times a
+	 * power of ten, so that no more than a number of ticks fit from 0 to
+	 * the highest value.
+	 * 
+	 * @param max The highest value on the axis
+	 * @param maxTicks The most ticks that fit, not counting the one at 0
+	 * @return The step between ticks, at least 1
+	 */
+	static long tickStep(long max, int maxTicks){
+		if(max <= 0 || maxTicks <= 0) return Math.max(max, 1);
+		long step = 1;
+		while(true){
+			for(long multiple : new long[]{1, 2, 5}){
+				//Stop before the step could overflow
+				if(step > Long.MAX_VALUE / 10) return step * multiple;
+				if((max + step * multiple - 1) / (step * multiple) <= maxTicks)
+					return step * multiple;
+			}
+			step *= 10;
+		}
+	}
+	
+	/**
+	 * Get the step between the labelled columns of a chart so that no more
+	 * than a number of labels fit across it.
+	 * 
+	 * @param columns The number of columns
+	 * @param maxLabels The most labels that fit
+	 * @return Label every this many columns, at least 1
+	 */
+	static int labelStep(int columns, int maxLabels){
+		if(maxLabels <= 0) return Math.max(columns, 1);
+		return Math.max(1, (columns + maxLabels - 1) / maxLabels);
+	}
+	
 //*********************************************************____________________
 //******************CLASS METHODS**************************____________________
 //*********************************************************____________________
@@ -39,13 +79,69 @@ public abstract class VisualHistogramBuilder {
 	 * is completed
 	 * @param width The output width in pixels of the histogram chart
 	 * @param height The output height in pixels of the histogram chart
+	 * @param histogram A Histogram object with histogram data, separated by
+	 * its interval
+	 * @param caption A line of text to show with the chart, such as the
+	 * percentiles, or null for none
+	 * @return True if the chart was created successfully, false otherwise.
+	 * 
+	 */
+	public abstract boolean build(String file, int width, int height,
+			Histogram histogram, String caption);
+	
+	/**
+	 * Build a Histogram chart from the specified parameters.
+	 * 
+	 * @param file The file to name the histogram chart after the operation
+	 * is completed
+	 * @param width The output width in pixels of the histogram chart
+	 * @param height The output height in pixels of the histogram chart
+	 * @param histogram A Histogram object with histogram data, separated by
+	 * its interval
+	 * @return True if the chart was created successfully, false otherwise.
+	 * 
+	 */
+	public boolean build(String file, int width, int height,
+			Histogram histogram){
+		return build(file, width, height, histogram, null);
+	}
+	
+	/**
+	 * Build a Histogram chart of a sketch, with a bar for every bucket that
+	 * has files and the percentiles as the caption.
+	 * 
+	 * @param file The file to name the histogram chart after the operation
+	 * is completed
+	 * @param width The output width in pixels of the histogram chart
+	 * @param height The output height in pixels of the histogram chart
+	 * @param sketch A LogHistogramSketch object with the word counts
+	 * @return True if the chart was created successfully, false otherwise.
+	 * 
+	 */
+	public boolean build(String file, int width, int height,
+			LogHistogramSketch sketch){
+		return build(file, width, height, sketch.toHistogram(),
+				sketch.summary());
+	}
+	
+	/**
+	 * Build a Histogram chart from the HashMap the program used before
+	 * Histogram.
+	 * 
+	 * @param file The file to name the histogram chart after the operation
+	 * is completed
+	 * @param width The output width in pixels of the histogram chart
+	 * @param height The output height in pixels of the histogram chart
 	 * @param histogram A HashMap object with histogram data
 	 * @param interval A number specifying the interval range of the histogram
 	 * data
 	 * @return True if the chart was created successfully, false otherwise.
 	 * 
 	 */
-	public abstract boolean build(String file, int width, int height,
-			HashMap<Integer, Integer> histogram, int interval);
+	public boolean build(String file, int width, int height,
+			HashMap<Integer, Integer> histogram, int interval){
+		return build(file, width, height, 
+				Histogram.fromHashMap(histogram, interval));
+	}
 	
 }
@@ -0,0 +1,31 @@
+/**
+ *
+ * Author: agent
+ * Date: 10/17/2026
+ *
+ * WordCountSink.java
+ *
+ */
+
+//*****************************************************************************
+//*******************************CLASSES***************************************
+//*****************************************************************************
+
+/**
+ * A receiver for the word counts of files as they are counted.
+ *
+ * Counting adds every word count to a sink as soon as a file is counted, so
+ * the word counts can be folded straight into a Histogram instead of being
+ * collected into a list first.
+ *
+ */
+public interface WordCountSink {
+
+	/**
+	 * Add the word count of one file, -1 for a file that couldn't be read.
+	 *
+	 * @param wordCount The word count of the file
+	 */
+	void add(int wordCount);
+
+}
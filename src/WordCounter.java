@@ -11,8 +11,24 @@
 //***************************IMPORTED LIBRARIES********************************
 //*****************************************************************************
 
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Enumeration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -23,6 +39,21 @@ import java.util.zip.ZipFile;
  */
 public class WordCounter {
 	
+//*********************************************************____________________
+//****************STATIC CONSTANTS*************************____________________
+//*********************************************************____________________
+	
+	/**
+	 * The size of a nested zip archive, in bytes, above which it is spooled
+	 * to a temporary file so its entries can be counted in parallel
+	 */
+	final static long SPOOL_THRESHOLD = 32L * 1024 * 1024;
+	
+	/**
+	 * The size of the buffer archives other than zip files are read through
+	 */
+	final static int ARCHIVE_BUFFER_SIZE = 64 * 1024;
+	
 //*********************************************************____________________
 //*****************STATIC METHODS**************************____________________
 //*********************************************************____________________
@@ -32,13 +63,12 @@ public class WordCounter {
 	 * 
 	 * This method will total up the word count values for all the files
 	 * specified in the input argument. If an input file is an archived file
-	 * (currently only a .zip file) then it will be searched through and
-	 * all .txt files inside will be counted as well.
+	 * (.zip, .tar, .tar.gz, .tgz or .gz) then it will be searched through
+	 * and all .txt files inside will be counted as well.
 	 * 
-	 * A polymorphic extension for how to handle .zip files, .tar files,
-	 * or regular files could have been made for cleaner object-oriented
-	 * design. I decided to go with an "if" structure for ease of
-	 * implementation.
+	 * Zip files are opened with ZipFile so their entries can be split
+	 * between threads. Every other format is an ArchiveFormat and is
+	 * counted as a stream.
 	 * 
 	 * <b>If there is trouble reading from a file, -1 will be returned as
 	 * the word count value for that file.</b>
@@ -54,70 +84,484 @@ public class WordCounter {
 		ArrayList<Integer> counts = new ArrayList<Integer>();
 		
 		//Iterate through all the files
+		WordCountSink sink = listSink(counts);
 		for(String f : files){
-			
-			//Handle zip files
-			if(f.endsWith(FileUtil.ZIP_EXTENSION)){
-				ZipFile zip = null;
+			countWordsInFile(f, sink);
+		}
+		
+		//Return the word counts
+		return counts;
+	}
+	
+	/**
+	 * Count the word counts of the files taken from a queue as they arrive
+	 * into a Histogram.
+	 * 
+	 * Every word count is added to a ConcurrentHistogramAccumulator as soon
+	 * as it is counted, so the memory used depends on the number of
+	 * distinct word counts and not on the number of files.
+	 * 
+	 * Each thread takes paths from the queue until it takes
+	 * ParallelFileWalker.END_OF_FILES, so the queue must receive that marker
+	 * once for every thread. Counting starts as soon as the first path is
+	 * queued, before the directory walk is done.
+	 * 
+	 * @param queue The queue of files, .txt or archive, to perform a word
+	 * count on
+	 * @param threads The number of threads to count with. A value of 1 or
+	 * less counts on the calling thread.
+	 * @return A Histogram with the frequency of every word count
+	 */
+	public static Histogram countWordsInQueue(
+			final BlockingQueue<String> queue, int threads){
+		return countWordsInQueue(queue, threads, null);
+	}
+	
+	/**
+	 * Count the word counts of the files taken from a queue as they arrive,
+	 * skipping the files that are unchanged in a scan cache.
+	 * 
+	 * Files that are counted are added to the cache.
+	 * 
+	 * @param queue The queue of files, .txt or archive, to perform a word
+	 * count on
+	 * @param threads The number of threads to count with. A value of 1 or
+	 * less counts on the calling thread.
+	 * @param cache The cache of word counts from earlier runs, or null to
+	 * count every file
+	 * @return A Histogram with the frequency of every word count
+	 */
+	public static Histogram countWordsInQueue(
+			final BlockingQueue<String> queue, int threads, ScanCache cache){
+		if(threads <= 1){
+			Histogram histogram = new Histogram();
+			countWordsFromQueue(queue, cache, histogram);
+			return histogram;
+		}
+		ConcurrentHistogramAccumulator accumulator =
+				new ConcurrentHistogramAccumulator();
+		countWordsInQueue(queue, threads, cache, accumulator);
+		return accumulator.snapshot();
+	}
+	
+	/**
+	 * Count the word counts of the files taken from a queue as they arrive
+	 * into a sink shared by all the counting threads.
+	 * 
+	 * The sink must be thread safe when counting with more than one thread,
+	 * such as a ConcurrentHistogramAccumulator, which can be snapshot while
+	 * the counting is still running.
+	 * 
+	 * @param queue The queue of files, .txt or archive, to perform a word
+	 * count on
+	 * @param threads The number of threads to count with. A value of 1 or
+	 * less counts on the calling thread.
+	 * @param cache The cache of word counts from earlier runs, or null to
+	 * count every file
+	 * @param counts The sink to add the word counts to
+	 */
+	public static void countWordsInQueue(final BlockingQueue<String> queue,
+			int threads, ScanCache cache, WordCountSink counts){
+		if(threads <= 1){
+			countWordsFromQueue(queue, cache, counts);
+			return;
+		}
+		
+		//Count on a fork-join pool so the threads can share the entries of
+		//large archives
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try{
+			ArrayList<QueueTask> tasks = new ArrayList<QueueTask>();
+			for(int i = 0; i < threads; i++){
+				QueueTask task = new QueueTask(queue, cache, counts);
+				pool.execute(task);
+				tasks.add(task);
+			}
+			for(QueueTask task : tasks){
+				task.join();
+			}
+		}finally{
+			pool.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Take files from a queue and count them on the calling thread until
+	 * the end marker is taken.
+	 * 
+	 * @param queue The queue of files to perform a word count on
+	 * @param cache The cache of word counts from earlier runs, or null
+	 * @param counts The sink to add the word counts to
+	 */
+	private static void countWordsFromQueue(BlockingQueue<String> queue,
+			ScanCache cache, WordCountSink counts){
+		try{
+			String f;
+			while((f = queue.take()) != ParallelFileWalker.END_OF_FILES){
+				countWordsInFile(f, counts, cache);
+			}
+		}catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Count the words in a single file and add the word counts to a sink,
+	 * using the word counts in a scan cache if the file is unchanged.
+	 * 
+	 * Files that are counted without errors are added to the cache.
+	 * 
+	 * @param f The file, .txt or archive, to perform a word count on
+	 * @param counts The sink to add the word counts to
+	 * @param cache The cache of word counts from earlier runs, or null to
+	 * count the file
+	 */
+	static void countWordsInFile(String f, final WordCountSink counts,
+			ScanCache cache){
+		if(cache == null){
+			countWordsInFile(f, counts);
+			return;
+		}
+		
+		//Key the cache on the size and modification time of the file
+		BasicFileAttributes attributes;
+		try{
+			attributes = Files.readAttributes(Paths.get(f),
+					BasicFileAttributes.class);
+		}catch(IOException e){
+			countWordsInFile(f, counts);
+			return;
+		}
+		long size = attributes.size();
+		long modified = attributes.lastModifiedTime().toMillis();
+		int[] cached = cache.lookup(f, size, modified);
+		if(cached != null){
+			ScanStats stats = ScanStats.current();
+			if(stats != null) stats.addCacheHit();
+			for(int c : cached) counts.add(c);
+			return;
+		}
+		
+		//Keep the word counts of this file to add to the cache
+		final ArrayList<Integer> added = new ArrayList<Integer>();
+		boolean complete = countWordsInFile(f, new WordCountSink(){
+			@Override
+			public void add(int wordCount){
+				added.add(wordCount);
+				counts.add(wordCount);
+			}
+		});
+		if(!complete) return;
+		try{
+			cache.record(f, size, modified, toArray(added));
+		}catch(IOException e){
+			System.err.println("Error writing to the scan cache!");
+		}
+	}
+	
+	/**
+	 * Count the words in a single file and add the word counts to a sink.
+	 * 
+	 * A .txt file adds one word count, or -1 if the file could not be read.
+	 * A zip archive adds a word count for every .txt file inside of it.
+	 * 
+	 * @param f The file, .txt or archive, to perform a word count on
+	 * @param counts The sink to add the word counts to
+	 * @return True if the whole file was read without errors
+	 */
+	static boolean countWordsInFile(String f, WordCountSink counts){
+		ScanStats stats = ScanStats.current();
+		long start = ScanStats.start(stats);
+		//Handle zip files
+		if(f.endsWith(FileUtil.ZIP_EXTENSION)){
+			return countWordsInZip(new File(f), f, counts);
+		}else if(ArchiveFormats.isArchive(f)){ //Handle other archives
+			try{
+				countWordsInArchive(f, counts);
+				if(stats != null){
+					stats.addArchive(new File(f).length());
+					stats.record(ScanStats.Stage.ZIP, start);
+				}
+				return true;
+			}catch(Exception e){ //Error reading from the archive
+				System.err.println("There was an error reading from "
+											+ "archive file: " + f + "!");
+				e.printStackTrace();
+			}
+			if(stats != null) stats.addError();
+			return false;
+		}else{ //Handle txt files
+			int c = -1;
+			try{
+				c = FileUtil.countWordsInFile(f);
+			}catch(Exception e){
+				System.err.println("There was an error reading from file: "
+																+ f + "!");
+			}
+			if(stats != null){
+				if(c == -1){
+					stats.addError();
+				}else{
+					stats.addFile(new File(f).length());
+					stats.record(ScanStats.Stage.COUNT, start);
+				}
+			}
+			counts.add(c);
+			return c != -1;
+		}
+	}
+	
+	/**
+	 * Count the words in all the .txt files inside a zip archive on disk,
+	 * including the ones inside nested archives.
+	 * 
+	 * @param file The zip archive, or a local copy of it
+	 * @param name The name of the archive for error messages
+	 * @param counts The sink to add the word counts to
+	 * @return True if the whole archive was read without errors
+	 */
+	static boolean countWordsInZip(File file, String name,
+			WordCountSink counts){
+		ScanStats stats = ScanStats.current();
+		long start = ScanStats.start(stats);
+		ZipFile zip = null;
+		try{
+		    zip = new ZipFile(file);
+		    boolean complete = countWordsInZipFile(zip, name, counts);
+		    if(stats != null){
+		    	stats.addArchive(file.length());
+		    	stats.record(ScanStats.Stage.ZIP, start);
+		    }
+		    return complete;
+		}catch(Exception e){ //Error reading from zip
+			System.err.println("There was an error reading from "
+										+ "zip file: " + name + "!");
+			e.printStackTrace();
+		}finally{ //Close the zip archive
+			try{
+				zip.close();
+			}catch(Exception e){
+				System.err.println("Error closing zip stream!");
+			}
+		}
+		if(stats != null) stats.addError();
+		return false;
+	}
+	
+	/**
+	 * Count the words in all the .txt files inside an archive that isn't a
+	 * zip file, streaming it through its ArchiveFormat.
+	 * 
+	 * @param f The archive file
+	 * @param counts The sink to add the word counts to
+	 * @throws IOException An exception occurs if the archive could not be
+	 * read
+	 */
+	private static void countWordsInArchive(String f, WordCountSink counts)
+			throws IOException{
+		InputStream inStream = new BufferedInputStream(
+				new FileInputStream(f), ARCHIVE_BUFFER_SIZE);
+		try{
+			ArchiveFormats.countEntry(inStream, f, -1, counts);
+		}finally{
+			inStream.close();
+		}
+	}
+	
+	/**
+	 * Count the words in all the .txt files inside an open zip archive,
+	 * including the ones inside nested zip archives.
+	 * 
+	 * When called from a fork-join worker the entries are split between
+	 * the threads of the pool. The central directory already records the
+	 * size of every entry, so the entries are handed out largest first and
+	 * the smallest are left for the end to even out the work.
+	 * 
+	 * @param zip The open zip archive
+	 * @param name The name of the archive for error messages
+	 * @param counts The sink to add the word counts to
+	 * @return True if every entry was read without errors
+	 * @throws IOException An exception occurs if the archive could not be read
+	 */
+	private static boolean countWordsInZipFile(ZipFile zip, String name,
+			WordCountSink counts) throws IOException{
+		//Get the entries in the zip file that have words to count
+		ArrayList<ZipEntry> entries = new ArrayList<ZipEntry>();
+		Enumeration<? extends ZipEntry> zipFiles = zip.entries();
+		while(zipFiles.hasMoreElements()){
+			ZipEntry entry = zipFiles.nextElement();
+			if(ArchiveFormats.isArchive(entry.getName()) ||
+					entry.getName().endsWith(FileUtil.TXT_EXTENSION)){
+				entries.add(entry);
+			}
+		}
+		
+		//Count on this thread unless there are workers to share with
+		if(!ForkJoinTask.inForkJoinPool() || entries.size() < 2){
+			boolean complete = true;
+			for(ZipEntry entry : entries){
+				complete &= tryCountWordsInZipEntry(zip, name, entry, counts);
+			}
+			return complete;
+		}
+		
+		//Fork the largest entries first, other workers steal the oldest
+		//tasks so they take the large entries while this thread pops the
+		//small ones
+		Collections.sort(entries, new Comparator<ZipEntry>(){
+			@Override
+			public int compare(ZipEntry a, ZipEntry b){
+				return Long.compare(entrySize(b), entrySize(a));
+			}
+		});
+		ArrayList<ZipEntryTask> tasks = new ArrayList<ZipEntryTask>();
+		for(ZipEntry entry : entries){
+			ZipEntryTask task = new ZipEntryTask(zip, name, entry);
+			task.fork();
+			tasks.add(task);
+		}
+		boolean complete = true;
+		for(ZipEntryTask task : tasks){
+			//Each task holds the word counts of one entry, or of the files
+			//in one nested archive
+			for(int c : task.join()) counts.add(c);
+			complete &= !task.mFailed;
+		}
+		return complete;
+	}
+	
+	/**
+	 * Count the words in one entry of a zip archive, a .txt file or a
+	 * nested archive.
+	 * 
+	 * Nested zip archives large enough to be worth splitting between
+	 * threads are spooled to a temporary file so they can be opened as a
+	 * ZipFile. Smaller ones, and archives of other formats, are counted
+	 * straight from the inflating stream.
+	 * 
+	 * @param zip The open zip archive
+	 * @param entry The entry to count
+	 * @param counts The sink to add the word counts to
+	 * @return True if every entry of a spooled nested archive was read
+	 * without errors
+	 * @throws IOException An exception occurs if the entry could not be read
+	 */
+	private static boolean countWordsInZipEntry(ZipFile zip, ZipEntry entry,
+			WordCountSink counts) throws IOException{
+		boolean complete = true;
+		InputStream entryStream = zip.getInputStream(entry);
+		try{
+			if(!ArchiveFormats.isArchive(entry.getName())){
+				//Count straight from the inflating stream
+				ScanStats stats = ScanStats.current();
+				long start = ScanStats.start(stats);
+				counts.add(FileUtil.countWordsInStream(entryStream));
+				if(stats != null){
+					stats.addZipEntry(entry.getSize());
+					stats.record(ScanStats.Stage.ZIP_ENTRY, start);
+				}
+			}else if(entry.getName().endsWith(FileUtil.ZIP_EXTENSION) &&
+					ForkJoinTask.inForkJoinPool() &&
+					entrySize(entry) >= SPOOL_THRESHOLD){
+				//Spool large nested zip archives and split their entries too
+				File spool = File.createTempFile("txthistogram", 
+						FileUtil.ZIP_EXTENSION);
 				try{
-				    zip = new ZipFile(f);
-				    ArrayList<String> contents = new ArrayList<String>();
-				    //Get entries in the zip file
-				    Enumeration<? extends ZipEntry> zipFiles = zip.entries();
-				    //Iterate through all files inside
-				    while(zipFiles.hasMoreElements()){
-				        ZipEntry entry = zipFiles.nextElement();
-				        if(entry.getName().endsWith(FileUtil.ZIP_EXTENSION)){
-					        contents.addAll(
-					        		RecursiveFileReader.scanZipRecursive(
-					        			zip.getInputStream(entry),
-					        			FileUtil.TXT_EXTENSION)
-					        		);
-				        }else if(entry.getName()
-				        		.endsWith(FileUtil.TXT_EXTENSION)){
-				        	contents.add(FileUtil.inputStreamToString(
-				        			zip.getInputStream(entry)));
-				        }
-				    }
-				    //Add word counts
-				    for(String s : contents){
-					    counts.add(wordCountString(s));
-				    }
-				}catch(Exception e){ //Error reading from zip
-					System.err.println("There was an error reading from "
-												+ "zip file: " + f + "!");
-					e.printStackTrace();
-				}finally{ //Close the zip archive
+					Files.copy(entryStream, spool.toPath(),
+							StandardCopyOption.REPLACE_EXISTING);
+					ZipFile nested = new ZipFile(spool);
 					try{
-						zip.close();
-					}catch(Exception e){
-						System.err.println("Error closing zip stream!");
+						complete = countWordsInZipFile(nested, entry.getName(),
+								counts);
+					}finally{
+						nested.close();
 					}
+				}finally{
+					spool.delete();
 				}
-			}else{ //Handle txt files
-				int c = -1;
-				try{
-					c = wordCountString(FileUtil.readFile(f));
-				}catch(Exception e){
-					System.err.println("There was an error reading from file: "
-																	+ f + "!");
-				}
-				counts.add(c);
+			}else{
+				//Count nested archives straight from the stream
+				ArchiveFormats.countEntry(entryStream, entry.getName(),
+						entry.getSize(), counts);
 			}
-			
-		} //end for
-		
-		//Return the word counts
-		return counts;
+		}finally{
+			entryStream.close();
+		}
+		return complete;
+	}
+	
+	/**
+	 * Count the words in one entry of a zip archive, reporting an error
+	 * rather than throwing it so the other entries are still counted.
+	 * 
+	 * @param zip The open zip archive
+	 * @param name The name of the archive for error messages
+	 * @param entry The entry to count
+	 * @param counts The sink to add the word counts to
+	 * @return True if the entry was read without errors
+	 */
+	private static boolean tryCountWordsInZipEntry(ZipFile zip, String name,
+			ZipEntry entry, WordCountSink counts){
+		try{
+			return countWordsInZipEntry(zip, entry, counts);
+		}catch(Exception e){ //Error reading from the entry
+			System.err.println("There was an error reading from "
+					+ "zip file: " + name + "!");
+			e.printStackTrace();
+			return false;
+		}
+	}
+	
+	/**
+	 * Get the best known size of a zip entry from the central directory.
+	 * 
+	 * @param entry The zip entry
+	 * @return The uncompressed size, or the compressed size if that is
+	 * unknown, or 0 if neither are known
+	 */
+	private static long entrySize(ZipEntry entry){
+		long size = entry.getSize();
+		if(size < 0) size = entry.getCompressedSize();
+		return Math.max(size, 0);
+	}
+	
+	/**
+	 * Create a sink that adds the word counts to a list.
+	 * 
+	 * @param counts The list to add the word counts to
+	 * @return The sink
+	 */
+	static WordCountSink listSink(final ArrayList<Integer> counts){
+		return new WordCountSink(){
+			@Override
+			public void add(int wordCount){
+				counts.add(wordCount);
+			}
+		};
+	}
+	
+	/**
+	 * Copy a list of word counts into an array.
+	 * 
+	 * @param counts The word counts
+	 * @return An array of the word counts
+	 */
+	static int[] toArray(ArrayList<Integer> counts){
+		int[] array = new int[counts.size()];
+		for(int i = 0; i < array.length; i++) array[i] = counts.get(i);
+		return array;
 	}
 	
 	/**
 	 * Count the words in a string.
 	 * 
+	 * This is the reference definition of a word for the program. The byte
+	 * level StreamingWordCounter used for files must give the same counts.
+	 * 
 	 * @param s The string to count the words
 	 * @return The word count as an integer
 	 */
-	private static int wordCountString(String s){
+	static int wordCountString(String s){
 		int count = 0;
 		boolean inWord = false;
 		
@@ -142,4 +586,159 @@ public class WordCounter {
 		return count;
 	}
 	
-}
+//*********************************************************____________________
+//*******************INNER CLASSES*************************____________________
+//*********************************************************____________________
+	
+	/**
+	 * A fork-join task that counts the files taken from a queue until the
+	 * end marker is taken.
+	 * 
+	 * The task waits for files as a managed blocker, so while it waits the
+	 * pool can start a spare thread to help count the entries of archives
+	 * being split by other workers.
+	 */
+	private static class QueueTask extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * The taker of files from the queue
+		 */
+		private final QueueTaker mTaker;
+		/**
+		 * The cache of word counts from earlier runs, or null
+		 */
+		private final ScanCache mCache;
+		/**
+		 * The thread safe sink shared by all the tasks
+		 */
+		private final WordCountSink mCounts;
+		
+		/**
+		 * Create a task for a queue.
+		 * 
+		 * @param queue The queue of files to count
+		 * @param cache The cache of word counts from earlier runs, or null
+		 * @param counts The thread safe sink to add the word counts to
+		 */
+		QueueTask(BlockingQueue<String> queue, ScanCache cache,
+				WordCountSink counts){
+			this.mTaker = new QueueTaker(queue);
+			this.mCache = cache;
+			this.mCounts = counts;
+		}
+		
+		@Override
+		protected void compute(){
+			try{
+				String f;
+				while((f = mTaker.take()) != ParallelFileWalker.END_OF_FILES){
+					countWordsInFile(f, mCounts, mCache);
+				}
+			}catch(InterruptedException e){
+				Thread.currentThread().interrupt();
+			}
+		}
+		
+	}
+	
+	/**
+	 * A blocker that takes the next file from a queue, letting the
+	 * fork-join pool make up for the thread while it waits.
+	 */
+	private static class QueueTaker implements ForkJoinPool.ManagedBlocker {
+		
+		/**
+		 * The queue of files to count
+		 */
+		private final BlockingQueue<String> mQueue;
+		/**
+		 * The file taken and not yet returned, or null
+		 */
+		private String mTaken = null;
+		
+		/**
+		 * Create a taker for a queue.
+		 * 
+		 * @param queue The queue of files to count
+		 */
+		QueueTaker(BlockingQueue<String> queue){
+			this.mQueue = queue;
+		}
+		
+		/**
+		 * Take the next file, waiting for one if the queue is empty.
+		 * 
+		 * @return The file
+		 * @throws InterruptedException An exception occurs if the thread is
+		 * interrupted while waiting
+		 */
+		String take() throws InterruptedException{
+			ForkJoinPool.managedBlock(this);
+			String f = mTaken;
+			mTaken = null;
+			return f;
+		}
+		
+		@Override
+		public boolean block() throws InterruptedException{
+			if(mTaken == null) mTaken = mQueue.take();
+			return true;
+		}
+		
+		@Override
+		public boolean isReleasable(){
+			return mTaken != null || (mTaken = mQueue.poll()) != null;
+		}
+		
+	}
+	
+	/**
+	 * A fork-join task that counts the words in one entry of a zip archive.
+	 */
+	private static class ZipEntryTask extends RecursiveTask<ArrayList<Integer>> {
+		
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * The open zip archive
+		 */
+		private final ZipFile mZip;
+		/**
+		 * The name of the archive for error messages
+		 */
+		private final String mName;
+		/**
+		 * The entry to count
+		 */
+		private final ZipEntry mEntry;
+		/**
+		 * Whether there was an error reading from the entry
+		 */
+		boolean mFailed = false;
+		
+		/**
+		 * Create a task for a zip entry.
+		 * 
+		 * @param zip The open zip archive
+		 * @param name The name of the archive for error messages
+		 * @param entry The entry to count
+		 */
+		ZipEntryTask(ZipFile zip, String name, ZipEntry entry){
+			this.mZip = zip;
+			this.mName = name;
+			this.mEntry = entry;
+		}
+		
+		@Override
+		protected ArrayList<Integer> compute(){
+			ArrayList<Integer> counts = new ArrayList<Integer>();
+			mFailed = !tryCountWordsInZipEntry(mZip, mName, mEntry,
+					listSink(counts));
+			return counts;
+		}
+		
+	}
+	
+}
\ No newline at end of file